@@ -39,6 +39,16 @@ public abstract class StoredFieldsReader implements Cloneable, Closeable, Accoun
   /** Visit the stored fields for document <code>docID</code> */
   public abstract void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Optional hint that the stored fields of document <code>docID</code> will
+   * be visited soon, see {@link org.apache.lucene.store.IndexInput#prefetch}.
+   * <p>
+   * The default implementation does nothing.
+   * @lucene.experimental
+   */
+  public void prefetch(int docID) throws IOException {
+  }
+
   @Override
   public abstract StoredFieldsReader clone();
   
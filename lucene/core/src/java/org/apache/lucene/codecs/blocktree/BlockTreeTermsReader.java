@@ -117,9 +117,23 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   static final String TERMS_INDEX_EXTENSION = "tip";
   final static String TERMS_INDEX_CODEC_NAME = "BlockTreeTermsIndex";
 
+  /** {@link FieldInfo} attribute name used to record that the terms index
+   *  of a field should be read off-heap.
+   *  @see BlockTreeTermsWriter */
+  public static final String FST_OFF_HEAP_KEY = BlockTreeTermsReader.class.getSimpleName() + ".fstOffHeap";
+
+  /** {@link FieldInfo} attribute name used to record that a bloom
+   *  filter of the terms of a field follows its terms index.
+   *  @see BlockTreeTermsWriter */
+  public static final String BLOOM_FILTER_KEY = BlockTreeTermsReader.class.getSimpleName() + ".bloomFilter";
+
   // Open input to the main terms dict file (_X.tib)
   final IndexInput termsIn;
 
+  // Open input to the terms index file (_X.tip), if any
+  // field reads its terms index or bloom filter off-heap, or null
+  private final IndexInput indexIn;
+
   //private static final boolean DEBUG = BlockTreeTermsWriter.DEBUG;
 
   // Reads the terms dict entries, to gather state to
@@ -144,6 +158,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   public BlockTreeTermsReader(PostingsReaderBase postingsReader, SegmentReadState state) throws IOException {
     boolean success = false;
     IndexInput indexIn = null;
+    boolean anyOffHeap = false;
     
     this.postingsReader = postingsReader;
     this.segment = state.segmentInfo.name;
@@ -231,15 +246,24 @@ public final class BlockTreeTermsReader extends FieldsProducer {
           throw new CorruptIndexException("invalid sumTotalTermFreq: " + sumTotalTermFreq + " sumDocFreq: " + sumDocFreq, termsIn);
         }
         final long indexStartFP = indexIn.readVLong();
+        final boolean offHeap = Boolean.parseBoolean(fieldInfo.getAttribute(FST_OFF_HEAP_KEY));
+        final boolean bloomFilter = Boolean.parseBoolean(fieldInfo.getAttribute(BLOOM_FILTER_KEY));
+        anyOffHeap |= offHeap | bloomFilter;
         FieldReader previous = fields.put(fieldInfo.name,       
                                           new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                                                          indexStartFP, longsSize, indexIn, minTerm, maxTerm));
+                                                          indexStartFP, longsSize, indexIn, offHeap, bloomFilter, minTerm, maxTerm));
         if (previous != null) {
           throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsIn);
         }
       }
       
-      indexIn.close();
+      if (anyOffHeap) {
+        // off-heap terms indexes and bloom filters keep reading from it
+        this.indexIn = indexIn;
+      } else {
+        this.indexIn = null;
+        indexIn.close();
+      }
       success = true;
     } finally {
       if (!success) {
@@ -273,7 +297,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   @Override
   public void close() throws IOException {
     try {
-      IOUtils.close(termsIn, postingsReader);
+      IOUtils.close(termsIn, indexIn, postingsReader);
     } finally { 
       // Clear so refs to terms index is GCable even if
       // app hangs onto us:
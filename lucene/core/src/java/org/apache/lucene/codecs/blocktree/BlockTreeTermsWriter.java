@@ -210,6 +210,8 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
   final int maxDoc;
   final int minItemsInBlock;
   final int maxItemsInBlock;
+  private final boolean offHeapIndex;
+  private final boolean bloomFilter;
 
   final PostingsWriterBase postingsWriter;
   final FieldInfos fieldInfos;
@@ -254,12 +256,48 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
                               int minItemsInBlock,
                               int maxItemsInBlock)
     throws IOException
+  {
+    this(state, postingsWriter, minItemsInBlock, maxItemsInBlock, false);
+  }
+
+  /** Create a new writer, like {@link #BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int)}.
+   *  If {@code offHeapIndex} is true, the terms index of the
+   *  fields written by this writer is read off-heap, see
+   *  {@link BlockTreeTermsReader#FST_OFF_HEAP_KEY}.
+   *  @lucene.experimental */
+  public BlockTreeTermsWriter(SegmentWriteState state,
+                              PostingsWriterBase postingsWriter,
+                              int minItemsInBlock,
+                              int maxItemsInBlock,
+                              boolean offHeapIndex)
+    throws IOException
+  {
+    this(state, postingsWriter, minItemsInBlock, maxItemsInBlock, offHeapIndex, false);
+  }
+
+  /** Create a new writer, like {@link #BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,boolean)}.
+   *  If {@code bloomFilter} is true, a bloom filter of the terms
+   *  of each field is written next to its terms index, and
+   *  consulted by {@link TermsEnum#seekExact(BytesRef)} to
+   *  reject absent terms without visiting the terms dictionary.
+   *  This is most useful for primary key fields, see
+   *  {@link BlockTreeTermsReader#BLOOM_FILTER_KEY}.
+   *  @lucene.experimental */
+  public BlockTreeTermsWriter(SegmentWriteState state,
+                              PostingsWriterBase postingsWriter,
+                              int minItemsInBlock,
+                              int maxItemsInBlock,
+                              boolean offHeapIndex,
+                              boolean bloomFilter)
+    throws IOException
   {
     validateSettings(minItemsInBlock,
                      maxItemsInBlock);
 
     this.minItemsInBlock = minItemsInBlock;
     this.maxItemsInBlock = maxItemsInBlock;
+    this.offHeapIndex = offHeapIndex;
+    this.bloomFilter = bloomFilter;
 
     this.maxDoc = state.segmentInfo.maxDoc();
     this.fieldInfos = state.fieldInfos;
@@ -329,8 +367,17 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
         continue;
       }
 
+      final FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+      if (offHeapIndex || fieldInfo.getAttribute(BlockTreeTermsReader.FST_OFF_HEAP_KEY) != null) {
+        // also overrides the value that may have been carried over from merged segments
+        fieldInfo.putAttribute(BlockTreeTermsReader.FST_OFF_HEAP_KEY, Boolean.toString(offHeapIndex));
+      }
+      if (bloomFilter || fieldInfo.getAttribute(BlockTreeTermsReader.BLOOM_FILTER_KEY) != null) {
+        fieldInfo.putAttribute(BlockTreeTermsReader.BLOOM_FILTER_KEY, Boolean.toString(bloomFilter));
+      }
+
       TermsEnum termsEnum = terms.iterator();
-      TermsWriter termsWriter = new TermsWriter(fieldInfos.fieldInfo(field));
+      TermsWriter termsWriter = new TermsWriter(fieldInfo);
       while (true) {
         BytesRef term = termsEnum.next();
         //if (DEBUG) System.out.println("BTTW: next term " + term);
@@ -527,6 +574,9 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
 
     private final long[] longs;
 
+    // Membership filter of the terms of this field, or null
+    private final TermsBloomFilter termsFilter;
+
     // Pending stack of terms and blocks.  As terms arrive (in sorted order)
     // we append to this stack, and once the top of the stack has enough
     // terms starting with a common prefix, we write a new block with
@@ -849,6 +899,8 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
 
       this.longsSize = postingsWriter.setField(fieldInfo);
       this.longs = new long[longsSize];
+      // sized from the number of terms of the field on finish:
+      this.termsFilter = bloomFilter ? new TermsBloomFilter() : null;
     }
     
     /** Writes one term's worth of postings. */
@@ -867,6 +919,9 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
         assert state.docFreq != 0;
         assert fieldInfo.getIndexOptions() == IndexOptions.DOCS || state.totalTermFreq >= state.docFreq: "postingsWriter=" + postingsWriter;
         pushTerm(text);
+        if (termsFilter != null) {
+          termsFilter.add(text);
+        }
        
         PendingTerm term = new PendingTerm(text, state);
         pending.add(term);
@@ -942,6 +997,9 @@ public final class BlockTreeTermsWriter extends FieldsConsumer {
         // Write FST to index
         indexStartFP = indexOut.getFilePointer();
         root.index.save(indexOut);
+        if (termsFilter != null) {
+          termsFilter.write(indexOut);
+        }
         //System.out.println("  write FST " + indexStartFP + " field=" + fieldInfo.name);
 
         /*
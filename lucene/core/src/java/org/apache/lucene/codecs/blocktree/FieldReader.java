@@ -61,10 +61,13 @@ public final class FieldReader extends Terms implements Accountable {
   final BlockTreeTermsReader parent;
 
   final FST<BytesRef> index;
+  // Words of the bloom filter of the terms, or null
+  final IndexInput termsFilter;
+  final int termsFilterNumWords;
   //private boolean DEBUG;
 
   FieldReader(BlockTreeTermsReader parent, FieldInfo fieldInfo, long numTerms, BytesRef rootCode, long sumTotalTermFreq, long sumDocFreq, int docCount,
-              long indexStartFP, int longsSize, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm) throws IOException {
+              long indexStartFP, int longsSize, IndexInput indexIn, boolean offHeapIndex, boolean bloomFilter, BytesRef minTerm, BytesRef maxTerm) throws IOException {
     assert numTerms > 0;
     this.fieldInfo = fieldInfo;
     //DEBUG = BlockTreeTermsReader.DEBUG && fieldInfo.name.equals("id");
@@ -88,7 +91,17 @@ public final class FieldReader extends Terms implements Accountable {
       final IndexInput clone = indexIn.clone();
       //System.out.println("start=" + indexStartFP + " field=" + fieldInfo.name);
       clone.seek(indexStartFP);
-      index = new FST<>(clone, ByteSequenceOutputs.getSingleton());
+      index = new FST<>(clone, ByteSequenceOutputs.getSingleton(), offHeapIndex);
+      if (bloomFilter) {
+        termsFilterNumWords = clone.readVInt();
+      } else {
+        termsFilterNumWords = 0;
+      }
+      if (termsFilterNumWords > 0) {
+        termsFilter = clone.slice("terms filter", clone.getFilePointer(), (long) termsFilterNumWords << 3);
+      } else {
+        termsFilter = null;
+      }
         
       /*
         if (false) {
@@ -101,6 +114,8 @@ public final class FieldReader extends Terms implements Accountable {
       */
     } else {
       index = null;
+      termsFilter = null;
+      termsFilterNumWords = 0;
     }
   }
 
@@ -26,6 +26,7 @@ import org.apache.lucene.index.TermState;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
@@ -40,6 +41,7 @@ final class SegmentTermsEnum extends TermsEnum {
 
   // Lazy init:
   IndexInput in;
+  private RandomAccessInput termsFilterIn;
 
   private SegmentTermsEnumFrame[] stack;
   private final SegmentTermsEnumFrame staticFrame;
@@ -323,6 +325,16 @@ final class SegmentTermsEnum extends TermsEnum {
       throw new IllegalStateException("terms index was not loaded");
     }
 
+    if (fr.termsFilter != null) {
+      if (termsFilterIn == null) {
+        termsFilterIn = fr.termsFilter.randomAccessSlice(0, fr.termsFilter.length());
+      }
+      if (TermsBloomFilter.mayContain(termsFilterIn, fr.termsFilterNumWords, target) == false) {
+        // the seek state is left untouched, any further seek can reuse it
+        return false;
+      }
+    }
+
     term.grow(1 + target.length);
 
     assert clearEOF();
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.blocktree;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.RandomAccessInput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
+
+/**
+ * Register-blocked bloom filter over the terms of a field: every term maps
+ * to a single 64-bit word in which it sets {@link #NUM_HASHES} bits, so that
+ * a membership test costs exactly one random read.
+ * <p>
+ * The hashes of the terms are recorded while they are added, 8 bytes per
+ * term, so that the filter can be sized from the number of terms of the field
+ * once they are all known. On disk it is a vInt number of words (a power of
+ * two, or 0 if the field has no filter) followed by the words, which are read
+ * in place.
+ */
+final class TermsBloomFilter {
+
+  /** Target number of bits per term, giving a false positive rate of about 1.5%. */
+  static final int BITS_PER_TERM = 10;
+  /** Number of bits set per term. */
+  static final int NUM_HASHES = 5;
+  /** Maximum number of 64-bit words of a filter, ie. 16MB. */
+  static final int MAX_NUM_WORDS = 1 << 21;
+  /** Maximum number of terms of a filter, about 13M, beyond which it is not
+   *  written so that recorded hashes never take more than about 100MB. */
+  static final int MAX_NUM_TERMS = (int) (64L * MAX_NUM_WORDS / BITS_PER_TERM);
+
+  private static final int SEED1 = 0x3c074a61;
+  private static final int SEED2 = 0xb1f6e2a7;
+
+  // both hashes of every term that was added
+  private long[] hashes = new long[16];
+  private int numTerms;
+  private boolean overflow;
+
+  /** Create an empty filter. */
+  TermsBloomFilter() {}
+
+  /** Return the number of words needed to hold {@code numTerms} terms,
+   *  capped to {@link #MAX_NUM_WORDS}. */
+  static int numWords(long numTerms) {
+    final long minWords = Math.max(1, (numTerms * BITS_PER_TERM + 63) / 64);
+    if (minWords >= MAX_NUM_WORDS) {
+      return MAX_NUM_WORDS;
+    }
+    return Integer.highestOneBit((int) minWords * 2 - 1);
+  }
+
+  /** Add a term to this filter. */
+  void add(BytesRef term) {
+    if (overflow) {
+      return;
+    }
+    if (numTerms == MAX_NUM_TERMS) {
+      // too many terms for the filter to be useful
+      overflow = true;
+      hashes = null;
+      return;
+    }
+    final int h1 = StringHelper.murmurhash3_x86_32(term, SEED1);
+    final int h2 = StringHelper.murmurhash3_x86_32(term, SEED2);
+    if (numTerms == hashes.length) {
+      hashes = ArrayUtil.grow(hashes, numTerms + 1);
+    }
+    hashes[numTerms++] = ((long) h1 << 32) | (h2 & 0xFFFFFFFFL);
+  }
+
+  /** Build the filter for the terms that were added and write it, or only
+   *  write 0 if there are too many terms for the filter to be useful. */
+  void write(DataOutput out) throws IOException {
+    if (overflow) {
+      out.writeVInt(0);
+      return;
+    }
+    final int numWords = numWords(numTerms);
+    final long[] words = new long[numWords];
+    for (int i = 0; i < numTerms; ++i) {
+      final long hash = hashes[i];
+      words[(int) (hash >>> 32) & (numWords - 1)] |= mask((int) hash);
+    }
+    out.writeVInt(numWords);
+    for (int i = 0; i < numWords; ++i) {
+      out.writeLong(words[i]);
+    }
+  }
+
+  /** Return false if {@code term} has not been added to the filter that
+   *  starts at offset 0 of {@code in} and has {@code numWords} words. */
+  static boolean mayContain(RandomAccessInput in, int numWords, BytesRef term) throws IOException {
+    final int h1 = StringHelper.murmurhash3_x86_32(term, SEED1);
+    final int h2 = StringHelper.murmurhash3_x86_32(term, SEED2);
+    final long mask = mask(h2);
+    final long word = in.readLong((long) (h1 & (numWords - 1)) << 3);
+    return (word & mask) == mask;
+  }
+
+  private static long mask(int hash) {
+    long mask = 0;
+    for (int i = 0; i < NUM_HASHES; ++i) {
+      mask |= 1L << ((hash >>> (6 * i)) & 0x3F);
+    }
+    return mask;
+  }
+}
@@ -44,6 +44,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.StoredFieldsReader;
@@ -52,6 +53,7 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SegmentInfo;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -90,6 +92,9 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final BlockState state;
   private final long numChunks; // number of compressed blocks written
   private final long numDirtyChunks; // number of incomplete compressed blocks written
+  // the cache of decompressed chunks, if any. It is shared by all clones, and
+  // since it is specific to this segment it also identifies it in the cache
+  private final AtomicReference<StoredFieldsChunkCache> chunkCache;
   private boolean closed;
 
   // used by clone
@@ -106,6 +111,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     this.numDocs = reader.numDocs;
     this.numChunks = reader.numChunks;
     this.numDirtyChunks = reader.numDirtyChunks;
+    this.chunkCache = reader.chunkCache;
     this.merging = merging;
     this.state = new BlockState();
     this.closed = false;
@@ -144,6 +150,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     this.version = version;
     this.maxPointer = maxPointer;
     this.indexReader = indexReader;
+    this.chunkCache = new AtomicReference<>();
 
     final String fieldsStreamFN = IndexFileNames.segmentFileName(segment, segmentSuffix, FIELDS_EXTENSION);
     try {
@@ -203,6 +210,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   public void close() throws IOException {
     if (!closed) {
       IOUtils.close(fieldsStream);
+      setChunkCache(null);
       closed = true;
     }
   }
@@ -508,6 +516,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       final int totalLength = offsets[chunkDocs];
       final int numStoredFields = this.numStoredFields[index];
 
+      final StoredFieldsChunkCache cache = chunkCache.get();
       final DataInput documentInput;
       if (length == 0) {
         // empty
@@ -555,6 +564,16 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
           }
 
         };
+      } else if (cache != null && cache.isEnabled()) {
+        byte[] chunk = cache.get(chunkCache, startPointer);
+        if (chunk == null) {
+          fieldsStream.seek(startPointer);
+          decompressor.decompress(fieldsStream, totalLength, 0, totalLength, bytes);
+          assert bytes.length == totalLength;
+          chunk = Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + bytes.length);
+          cache.put(chunkCache, startPointer, chunk);
+        }
+        documentInput = new ByteArrayDataInput(chunk, offset, length);
       } else {
         fieldsStream.seek(startPointer);
         decompressor.decompress(fieldsStream, totalLength, offset, length, bytes);
@@ -576,6 +595,14 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     return state.document(docID);
   }
 
+  @Override
+  public void prefetch(int docID) throws IOException {
+    if (state.contains(docID) == false) {
+      final long startPointer = indexReader.getStartPointer(docID);
+      fieldsStream.prefetch(startPointer, Math.min(chunkSize, maxPointer - startPointer));
+    }
+  }
+
   @Override
   public void visitDocument(int docID, StoredFieldVisitor visitor)
       throws IOException {
@@ -650,12 +677,34 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     return numDirtyChunks;
   }
 
+  /**
+   * Return the cache of decompressed chunks that this segment uses, or
+   * {@code null} if it does not use any cache, which is the default.
+   * @see StoredFieldsChunkCache#enable(LeafReader)
+   */
+  public StoredFieldsChunkCache getChunkCache() {
+    return chunkCache.get();
+  }
+
+  /**
+   * Set the cache of decompressed chunks that this segment uses, which may be
+   * shared with other segments, or {@code null} to not cache chunks. Chunks
+   * of this segment that the previous cache holds are removed from it.
+   */
+  public void setChunkCache(StoredFieldsChunkCache cache) {
+    final StoredFieldsChunkCache previous = chunkCache.getAndSet(cache);
+    if (previous != null && previous != cache) {
+      previous.clear(chunkCache);
+    }
+  }
+
   int getPackedIntsVersion() {
     return packedIntsVersion;
   }
 
   @Override
   public long ramBytesUsed() {
+    // the cache of decompressed chunks may be shared with other segments
     return indexReader.ramBytesUsed();
   }
   
@@ -204,20 +204,39 @@ final class LZ4 {
    * but can safely be reused.
    */
   public static void compress(byte[] bytes, int off, int len, DataOutput out, HashTable ht) throws IOException {
+    compressWithDictionary(bytes, off, 0, len, out, ht);
+  }
+
+  /**
+   * Compress <code>bytes[dictOff+dictLen:dictOff+dictLen+len]</code> into
+   * <code>out</code> using at most 16KB of memory.
+   * <code>bytes[dictOff:dictOff+dictLen]</code> is used as a preset
+   * dictionary: it is not written to <code>out</code> but matches may refer to
+   * it, so it needs to be copied right before the destination buffer on
+   * decompression. <code>ht</code> shouldn't be shared across threads but can
+   * safely be reused.
+   */
+  public static void compressWithDictionary(byte[] bytes, int dictOff, int dictLen, int len, DataOutput out, HashTable ht) throws IOException {
 
-    final int base = off;
-    final int end = off + len;
+    final int base = dictOff;
+    final int end = dictOff + dictLen + len;
 
+    int off = dictOff + dictLen;
     int anchor = off++;
 
     if (len > LAST_LITERALS + MIN_MATCH) {
 
       final int limit = end - LAST_LITERALS;
       final int matchLimit = limit - MIN_MATCH;
-      ht.reset(len);
+      ht.reset(dictLen + len);
       final int hashLog = ht.hashLog;
       final PackedInts.Mutable hashTable = ht.hashTable;
 
+      // prime the hash table with the dictionary
+      for (int i = dictOff; i < dictOff + dictLen; ++i) {
+        hashTable.set(hash(readInt(bytes, i), hashLog), i - base);
+      }
+
       main:
       while (off <= limit) {
         // find a match
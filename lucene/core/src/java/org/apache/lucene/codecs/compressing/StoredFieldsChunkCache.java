@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A size-bounded LRU cache of decompressed chunks of stored fields, which may
+ * be shared by any number of segments so that they all fit in a single memory
+ * budget. Fetching several documents that belong to the same chunk, for
+ * instance when rendering a page of hits that were indexed together, only
+ * decompresses this chunk once.
+ * <p>
+ * Segments do not use any cache by default. Call {@link #enable(LeafReader)}
+ * for every segment that should cache its chunks in this cache, typically for
+ * all leaves of every new reader. Merges never go through this cache, and
+ * neither do chunks that have been sliced because they hold very large
+ * documents.
+ *
+ * @lucene.experimental
+ */
+public final class StoredFieldsChunkCache implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(StoredFieldsChunkCache.class);
+
+  // the entry of the linked hash map, the key and the array header
+  static final long RAM_BYTES_PER_CHUNK = 2 * RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+      + 6 * RamUsageEstimator.NUM_BYTES_OBJECT_REF + Integer.BYTES + Long.BYTES
+      + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
+
+  /** Identifies a chunk: the segment it belongs to and its start pointer in the fields stream. */
+  private static final class ChunkKey {
+    final Object segment;
+    final long startPointer;
+
+    ChunkKey(Object segment, long startPointer) {
+      this.segment = segment;
+      this.startPointer = startPointer;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != ChunkKey.class) {
+        return false;
+      }
+      final ChunkKey that = (ChunkKey) obj;
+      return segment == that.segment && startPointer == that.startPointer;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(segment) + Long.hashCode(startPointer);
+    }
+  }
+
+  // values are the decompressed content of the chunks
+  private final Map<ChunkKey, byte[]> chunks = new LinkedHashMap<>(16, 0.75f, true);
+  private volatile long maxRamBytesUsed;
+  private long ramBytesUsed;
+
+  private volatile long hitCount;
+  private volatile long missCount;
+  private volatile long evictionCount;
+
+  /**
+   * Create a new cache that may use up to {@code maxRamBytesUsed} bytes of
+   * memory for decompressed chunks of all the segments that use it.
+   */
+  public StoredFieldsChunkCache(long maxRamBytesUsed) {
+    setMaxRamBytesUsed(maxRamBytesUsed);
+  }
+
+  /**
+   * Make the segment of the given reader cache its decompressed chunks in
+   * this cache, instead of the cache it used so far if any. This applies to
+   * all readers that share this segment. Return {@code false} if the reader
+   * does not store fields with a {@link CompressingStoredFieldsReader}, in
+   * which case this method has no effect.
+   */
+  public boolean enable(LeafReader reader) {
+    final CompressingStoredFieldsReader fieldsReader = getFieldsReader(reader);
+    if (fieldsReader == null) {
+      return false;
+    }
+    fieldsReader.setChunkCache(this);
+    return true;
+  }
+
+  /**
+   * Return the {@link StoredFieldsChunkCache} that the segment of the given
+   * reader uses, or {@code null} if it does not use any cache or does not
+   * store fields with a {@link CompressingStoredFieldsReader}.
+   */
+  public static StoredFieldsChunkCache get(LeafReader reader) {
+    final CompressingStoredFieldsReader fieldsReader = getFieldsReader(reader);
+    return fieldsReader == null ? null : fieldsReader.getChunkCache();
+  }
+
+  private static CompressingStoredFieldsReader getFieldsReader(LeafReader reader) {
+    reader = FilterLeafReader.unwrap(reader);
+    if (reader instanceof CodecReader) {
+      final StoredFieldsReader fieldsReader = ((CodecReader) reader).getFieldsReader();
+      if (fieldsReader instanceof CompressingStoredFieldsReader) {
+        return (CompressingStoredFieldsReader) fieldsReader;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Set the maximum amount of memory that decompressed chunks may use.
+   * {@code 0} disables the cache and releases all cached chunks.
+   */
+  public synchronized void setMaxRamBytesUsed(long maxRamBytesUsed) {
+    if (maxRamBytesUsed < 0) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be >= 0, got " + maxRamBytesUsed);
+    }
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    evictIfNecessary();
+  }
+
+  /** Return the maximum amount of memory that decompressed chunks may use. */
+  public long getMaxRamBytesUsed() {
+    return maxRamBytesUsed;
+  }
+
+  /** Return whether this cache is enabled. */
+  public boolean isEnabled() {
+    return maxRamBytesUsed > 0;
+  }
+
+  /** Return the decompressed chunk of the given segment that starts at the given pointer, or {@code null} if it is not cached. */
+  synchronized byte[] get(Object segment, long startPointer) {
+    final byte[] chunk = chunks.get(new ChunkKey(segment, startPointer));
+    if (chunk == null) {
+      missCount += 1;
+    } else {
+      hitCount += 1;
+    }
+    return chunk;
+  }
+
+  /** Cache the decompressed chunk of the given segment that starts at the given pointer. */
+  synchronized void put(Object segment, long startPointer, byte[] chunk) {
+    final long chunkRamBytesUsed = ramBytesUsed(chunk);
+    if (chunkRamBytesUsed > maxRamBytesUsed) {
+      // would evict everything else and then be evicted itself
+      return;
+    }
+    final byte[] previous = chunks.put(new ChunkKey(segment, startPointer), chunk);
+    if (previous != null) {
+      // another clone decompressed the same chunk concurrently
+      ramBytesUsed -= ramBytesUsed(previous);
+    }
+    ramBytesUsed += chunkRamBytesUsed;
+    evictIfNecessary();
+  }
+
+  private void evictIfNecessary() {
+    assert Thread.holdsLock(this);
+    for (Iterator<byte[]> it = chunks.values().iterator(); ramBytesUsed > maxRamBytesUsed && it.hasNext(); ) {
+      ramBytesUsed -= ramBytesUsed(it.next());
+      it.remove();
+      evictionCount += 1;
+    }
+    assert ramBytesUsed >= 0;
+  }
+
+  private static long ramBytesUsed(byte[] chunk) {
+    return RAM_BYTES_PER_CHUNK + chunk.length;
+  }
+
+  /** Remove all cached chunks of the given segment, which is called when it gets closed. */
+  synchronized void clear(Object segment) {
+    for (Iterator<Map.Entry<ChunkKey, byte[]>> it = chunks.entrySet().iterator(); it.hasNext(); ) {
+      final Map.Entry<ChunkKey, byte[]> entry = it.next();
+      if (entry.getKey().segment == segment) {
+        ramBytesUsed -= ramBytesUsed(entry.getValue());
+        it.remove();
+      }
+    }
+  }
+
+  /** Remove all cached chunks. */
+  public synchronized void clear() {
+    chunks.clear();
+    ramBytesUsed = 0;
+  }
+
+  /** Return the number of chunks that are currently cached. */
+  public synchronized int getChunkCount() {
+    return chunks.size();
+  }
+
+  /** Return the number of lookups that found the chunk in the cache. */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /** Return the number of lookups that had to decompress the chunk. */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /** Return the number of chunks that were evicted in order to stay under the memory limit. */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public synchronized long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + ramBytesUsed;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxRamBytesUsed=" + maxRamBytesUsed + ",hits=" + hitCount + ",misses=" + missCount + ")";
+  }
+}
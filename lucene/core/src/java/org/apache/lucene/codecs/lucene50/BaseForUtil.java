@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+import java.io.IOException;
+
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+/**
+ * Encodes and decodes blocks of {@link Lucene50PostingsFormat#BLOCK_SIZE}
+ * integers.
+ * @see ForUtil
+ * @see LongForUtil
+ */
+abstract class BaseForUtil {
+
+  /**
+   * Write a block of data.
+   *
+   * @param data     the data to write
+   * @param encoded  a buffer to use to encode data
+   * @param out      the destination output
+   * @throws IOException If there is a low-level I/O error
+   */
+  abstract void writeBlock(int[] data, byte[] encoded, IndexOutput out) throws IOException;
+
+  /**
+   * Read the next block of data.
+   *
+   * @param in        the input to use to read data
+   * @param encoded   a buffer that can be used to store encoded data
+   * @param decoded   where to write decoded data
+   * @throws IOException If there is a low-level I/O error
+   */
+  abstract void readBlock(IndexInput in, byte[] encoded, int[] decoded) throws IOException;
+
+  /**
+   * Skip the next block of data.
+   *
+   * @param in      the input where to read data
+   * @throws IOException If there is a low-level I/O error
+   */
+  abstract void skipBlock(IndexInput in) throws IOException;
+
+  /**
+   * Return an instance that can be used concurrently with this one. Instances
+   * that hold scratch buffers must return a new instance, others may return
+   * {@code this}.
+   */
+  @Override
+  public abstract BaseForUtil clone();
+
+}
@@ -33,7 +33,7 @@ import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZ
  * Encode all values in normal area with fixed bit width, 
  * which is determined by the max value in this block.
  */
-final class ForUtil {
+final class ForUtil extends BaseForUtil {
 
   /**
    * Special number of bits per value used whenever all values to encode are equal.
@@ -154,6 +154,7 @@ final class ForUtil {
    * @param out      the destination output
    * @throws IOException If there is a low-level I/O error
    */
+  @Override
   void writeBlock(int[] data, byte[] encoded, IndexOutput out) throws IOException {
     if (isAllEqual(data)) {
       out.writeByte((byte) ALL_VALUES_EQUAL);
@@ -183,6 +184,7 @@ final class ForUtil {
    * @param decoded   where to write decoded data
    * @throws IOException If there is a low-level I/O error
    */
+  @Override
   void readBlock(IndexInput in, byte[] encoded, int[] decoded) throws IOException {
     final int numBits = in.readByte();
     assert numBits <= 32 : numBits;
@@ -209,6 +211,7 @@ final class ForUtil {
    * @param in      the input where to read data
    * @throws IOException If there is a low-level I/O error
    */
+  @Override
   void skipBlock(IndexInput in) throws IOException {
     final int numBits = in.readByte();
     if (numBits == ALL_VALUES_EQUAL) {
@@ -220,7 +223,13 @@ final class ForUtil {
     in.seek(in.getFilePointer() + encodedSize);
   }
 
-  private static boolean isAllEqual(final int[] data) {
+  @Override
+  public ForUtil clone() {
+    // stateless
+    return this;
+  }
+
+  static boolean isAllEqual(final int[] data) {
     final int v = data[0];
     for (int i = 1; i < BLOCK_SIZE; ++i) {
       if (data[i] != v) {
@@ -234,7 +243,7 @@ final class ForUtil {
    * Compute the number of bits required to serialize any of the longs in
    * <code>data</code>.
    */
-  private static int bitsRequired(final int[] data) {
+  static int bitsRequired(final int[] data) {
     long or = 0;
     for (int i = 0; i < BLOCK_SIZE; ++i) {
       assert data[i] >= 0;
@@ -0,0 +1,1194 @@
+// This file has been automatically generated, DO NOT EDIT
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
+
+/**
+ * Encode all values of a block with fixed bit width like {@link ForUtil}, but
+ * pack them into the lanes of {@code long}s so that decoding boils down to a
+ * few loops of shifts and masks over arrays of longs, which the JIT can
+ * auto-vectorize, instead of one {@link org.apache.lucene.util.packed.PackedInts.Decoder}
+ * per number of bits per value.
+ * <p>
+ * Values that need {@code bpv} bits are first collapsed into lanes of 8, 16
+ * or 32 bits, the smallest lane width that is {@code >= bpv}, so that every
+ * long holds 8, 4 or 2 values. Then {@code 2*bpv} longs are written: as many
+ * values as possible are stacked into each lane, and the bits that are left
+ * over at the bottom of the lanes store the remaining values.
+ */
+final class LongForUtil extends BaseForUtil {
+
+  /**
+   * Special number of bits per value used whenever all values to encode are equal.
+   */
+  private static final int ALL_VALUES_EQUAL = 0;
+
+  private static long expandMask(long mask, int laneWidth) {
+    for (int width = laneWidth; width < Long.SIZE; width *= 2) {
+      mask |= mask << width;
+    }
+    return mask;
+  }
+
+  private static long mask(int bitsPerValue, int laneWidth) {
+    return expandMask((1L << bitsPerValue) - 1, laneWidth);
+  }
+
+  private static final long[] MASKS8 = new long[8 + 1];
+  private static final long[] MASKS16 = new long[16 + 1];
+  private static final long[] MASKS32 = new long[32 + 1];
+  static {
+    for (int i = 0; i <= 8; ++i) {
+      MASKS8[i] = mask(i, 8);
+    }
+    for (int i = 0; i <= 16; ++i) {
+      MASKS16[i] = mask(i, 16);
+    }
+    for (int i = 0; i <= 32; ++i) {
+      MASKS32[i] = mask(i, 32);
+    }
+  }
+
+  private static final long MASK8_0 = MASKS8[0];
+  private static final long MASK8_1 = MASKS8[1];
+  private static final long MASK8_2 = MASKS8[2];
+  private static final long MASK8_3 = MASKS8[3];
+  private static final long MASK8_4 = MASKS8[4];
+  private static final long MASK8_5 = MASKS8[5];
+  private static final long MASK8_6 = MASKS8[6];
+  private static final long MASK8_7 = MASKS8[7];
+  private static final long MASK8_8 = MASKS8[8];
+  private static final long MASK16_0 = MASKS16[0];
+  private static final long MASK16_1 = MASKS16[1];
+  private static final long MASK16_2 = MASKS16[2];
+  private static final long MASK16_3 = MASKS16[3];
+  private static final long MASK16_4 = MASKS16[4];
+  private static final long MASK16_5 = MASKS16[5];
+  private static final long MASK16_6 = MASKS16[6];
+  private static final long MASK16_7 = MASKS16[7];
+  private static final long MASK16_8 = MASKS16[8];
+  private static final long MASK16_9 = MASKS16[9];
+  private static final long MASK16_10 = MASKS16[10];
+  private static final long MASK16_11 = MASKS16[11];
+  private static final long MASK16_12 = MASKS16[12];
+  private static final long MASK16_13 = MASKS16[13];
+  private static final long MASK16_14 = MASKS16[14];
+  private static final long MASK16_15 = MASKS16[15];
+  private static final long MASK16_16 = MASKS16[16];
+  private static final long MASK32_0 = MASKS32[0];
+  private static final long MASK32_1 = MASKS32[1];
+  private static final long MASK32_2 = MASKS32[2];
+  private static final long MASK32_3 = MASKS32[3];
+  private static final long MASK32_4 = MASKS32[4];
+  private static final long MASK32_5 = MASKS32[5];
+  private static final long MASK32_6 = MASKS32[6];
+  private static final long MASK32_7 = MASKS32[7];
+  private static final long MASK32_8 = MASKS32[8];
+  private static final long MASK32_9 = MASKS32[9];
+  private static final long MASK32_10 = MASKS32[10];
+  private static final long MASK32_11 = MASKS32[11];
+  private static final long MASK32_12 = MASKS32[12];
+  private static final long MASK32_13 = MASKS32[13];
+  private static final long MASK32_14 = MASKS32[14];
+  private static final long MASK32_15 = MASKS32[15];
+  private static final long MASK32_16 = MASKS32[16];
+  private static final long MASK32_17 = MASKS32[17];
+  private static final long MASK32_18 = MASKS32[18];
+  private static final long MASK32_19 = MASKS32[19];
+  private static final long MASK32_20 = MASKS32[20];
+  private static final long MASK32_21 = MASKS32[21];
+  private static final long MASK32_22 = MASKS32[22];
+  private static final long MASK32_23 = MASKS32[23];
+  private static final long MASK32_24 = MASKS32[24];
+  private static final long MASK32_25 = MASKS32[25];
+  private static final long MASK32_26 = MASKS32[26];
+  private static final long MASK32_27 = MASKS32[27];
+  private static final long MASK32_28 = MASKS32[28];
+  private static final long MASK32_29 = MASKS32[29];
+  private static final long MASK32_30 = MASKS32[30];
+  private static final long MASK32_31 = MASKS32[31];
+  private static final long MASK32_32 = MASKS32[32];
+
+  /** Return the width of the lanes that values with the given number of bits are collapsed into. */
+  private static int laneWidth(int bitsPerValue) {
+    if (bitsPerValue <= 8) {
+      return 8;
+    } else if (bitsPerValue <= 16) {
+      return 16;
+    } else {
+      return 32;
+    }
+  }
+
+  private static long[] masks(int laneWidth) {
+    switch (laneWidth) {
+      case 8:
+        return MASKS8;
+      case 16:
+        return MASKS16;
+      default:
+        return MASKS32;
+    }
+  }
+
+  private final long[] longs = new long[BLOCK_SIZE];
+  private final long[] tmp = new long[BLOCK_SIZE / 2];
+
+  @Override
+  void writeBlock(int[] data, byte[] encoded, IndexOutput out) throws IOException {
+    if (ForUtil.isAllEqual(data)) {
+      out.writeByte((byte) ALL_VALUES_EQUAL);
+      out.writeVInt(data[0]);
+      return;
+    }
+
+    final int bitsPerValue = ForUtil.bitsRequired(data);
+    assert bitsPerValue > 0 && bitsPerValue <= 32 : bitsPerValue;
+    out.writeByte((byte) bitsPerValue);
+
+    final int laneWidth = laneWidth(bitsPerValue);
+    final long[] masks = masks(laneWidth);
+    final int numLongs = BLOCK_SIZE * laneWidth / Long.SIZE;
+    collapse(data, laneWidth);
+
+    // stack as many values as possible into every lane
+    final int numLongsPerShift = 2 * bitsPerValue;
+    int idx = 0;
+    int shift = laneWidth - bitsPerValue;
+    for (int i = 0; i < numLongsPerShift; ++i) {
+      tmp[i] = longs[idx++] << shift;
+    }
+    for (shift = shift - bitsPerValue; shift >= 0; shift -= bitsPerValue) {
+      for (int i = 0; i < numLongsPerShift; ++i) {
+        tmp[i] |= longs[idx++] << shift;
+      }
+    }
+
+    // the remaining values go to the bits that are left at the bottom of lanes
+    final int remainingBitsPerLane = shift + bitsPerValue;
+    int tmpIdx = 0;
+    int available = remainingBitsPerLane;
+    while (idx < numLongs) {
+      final long l = longs[idx++];
+      for (int needed = bitsPerValue; needed > 0; ) {
+        if (available == 0) {
+          tmpIdx++;
+          available = remainingBitsPerLane;
+        }
+        final int bits = Math.min(needed, available);
+        needed -= bits;
+        available -= bits;
+        tmp[tmpIdx] |= ((l >>> needed) & masks[bits]) << available;
+      }
+    }
+    assert idx == numLongs;
+
+    for (int i = 0; i < numLongsPerShift; ++i) {
+      out.writeLong(tmp[i]);
+    }
+  }
+
+  /** Collapse values into lanes: the i-th long stores values {@code i}, {@code i+numLongs}, {@code i+2*numLongs}, etc. */
+  private void collapse(int[] data, int laneWidth) {
+    final int numLongs = BLOCK_SIZE * laneWidth / Long.SIZE;
+    for (int i = 0; i < numLongs; ++i) {
+      long l = 0;
+      for (int j = i; j < BLOCK_SIZE; j += numLongs) {
+        l = (l << laneWidth) | (data[j] & 0xFFFFFFFFL);
+      }
+      longs[i] = l;
+    }
+  }
+
+  @Override
+  void skipBlock(IndexInput in) throws IOException {
+    final int bitsPerValue = in.readByte();
+    if (bitsPerValue == ALL_VALUES_EQUAL) {
+      in.readVInt();
+      return;
+    }
+    assert bitsPerValue > 0 && bitsPerValue <= 32 : bitsPerValue;
+    in.seek(in.getFilePointer() + 2 * bitsPerValue * Long.BYTES);
+  }
+
+  @Override
+  public LongForUtil clone() {
+    // scratch buffers may not be shared
+    return new LongForUtil();
+  }
+
+  /** Read {@code count} longs at once, using {@code encoded} as a buffer: reading longs one by one is slow on most {@link DataInput}s. */
+  private static void readLongs(DataInput in, byte[] encoded, long[] dst, int count) throws IOException {
+    in.readBytes(encoded, 0, count * Long.BYTES);
+    for (int i = 0, j = 0; i < count; ++i, j += Long.BYTES) {
+      dst[i] = ((encoded[j] & 0xFFL) << 56) | ((encoded[j+1] & 0xFFL) << 48)
+          | ((encoded[j+2] & 0xFFL) << 40) | ((encoded[j+3] & 0xFFL) << 32)
+          | ((encoded[j+4] & 0xFFL) << 24) | ((encoded[j+5] & 0xFFL) << 16)
+          | ((encoded[j+6] & 0xFFL) << 8) | (encoded[j+7] & 0xFFL);
+    }
+  }
+
+  private static void shiftLongs(long[] src, int count, long[] dst, int dstOffset, int shift, long mask) {
+    for (int i = 0; i < count; ++i) {
+      dst[dstOffset + i] = (src[i] >>> shift) & mask;
+    }
+  }
+
+  private static void expand8(long[] longs, int[] decoded) {
+    for (int i = 0; i < 16; ++i) {
+      final long l = longs[i];
+      decoded[i] = (int) ((l >>> 56) & 0xFF);
+      decoded[16 + i] = (int) ((l >>> 48) & 0xFF);
+      decoded[32 + i] = (int) ((l >>> 40) & 0xFF);
+      decoded[48 + i] = (int) ((l >>> 32) & 0xFF);
+      decoded[64 + i] = (int) ((l >>> 24) & 0xFF);
+      decoded[80 + i] = (int) ((l >>> 16) & 0xFF);
+      decoded[96 + i] = (int) ((l >>> 8) & 0xFF);
+      decoded[112 + i] = (int) (l & 0xFF);
+    }
+  }
+
+  private static void expand16(long[] longs, int[] decoded) {
+    for (int i = 0; i < 32; ++i) {
+      final long l = longs[i];
+      decoded[i] = (int) ((l >>> 48) & 0xFFFF);
+      decoded[32 + i] = (int) ((l >>> 32) & 0xFFFF);
+      decoded[64 + i] = (int) ((l >>> 16) & 0xFFFF);
+      decoded[96 + i] = (int) (l & 0xFFFF);
+    }
+  }
+
+  private static void expand32(long[] longs, int[] decoded) {
+    for (int i = 0; i < 64; ++i) {
+      final long l = longs[i];
+      decoded[i] = (int) (l >>> 32);
+      decoded[64 + i] = (int) l;
+    }
+  }
+
+  @Override
+  void readBlock(IndexInput in, byte[] encoded, int[] decoded) throws IOException {
+    final int bitsPerValue = in.readByte();
+    switch (bitsPerValue) {
+      case ALL_VALUES_EQUAL:
+        final int value = in.readVInt();
+        Arrays.fill(decoded, 0, BLOCK_SIZE, value);
+        break;
+      case 1:
+        decode1(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 2:
+        decode2(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 3:
+        decode3(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 4:
+        decode4(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 5:
+        decode5(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 6:
+        decode6(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 7:
+        decode7(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 8:
+        decode8(in, encoded, tmp, longs);
+        expand8(longs, decoded);
+        break;
+      case 9:
+        decode9(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 10:
+        decode10(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 11:
+        decode11(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 12:
+        decode12(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 13:
+        decode13(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 14:
+        decode14(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 15:
+        decode15(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 16:
+        decode16(in, encoded, tmp, longs);
+        expand16(longs, decoded);
+        break;
+      case 17:
+        decode17(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 18:
+        decode18(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 19:
+        decode19(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 20:
+        decode20(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 21:
+        decode21(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 22:
+        decode22(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 23:
+        decode23(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 24:
+        decode24(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 25:
+        decode25(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 26:
+        decode26(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 27:
+        decode27(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 28:
+        decode28(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 29:
+        decode29(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 30:
+        decode30(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 31:
+        decode31(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      case 32:
+        decode32(in, encoded, tmp, longs);
+        expand32(longs, decoded);
+        break;
+      default:
+        throw new AssertionError("Illegal number of bits per value: " + bitsPerValue);
+    }
+  }
+
+  private static void decode1(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 2);
+    shiftLongs(tmp, 2, longs, 0, 7, MASK8_1);
+    shiftLongs(tmp, 2, longs, 2, 6, MASK8_1);
+    shiftLongs(tmp, 2, longs, 4, 5, MASK8_1);
+    shiftLongs(tmp, 2, longs, 6, 4, MASK8_1);
+    shiftLongs(tmp, 2, longs, 8, 3, MASK8_1);
+    shiftLongs(tmp, 2, longs, 10, 2, MASK8_1);
+    shiftLongs(tmp, 2, longs, 12, 1, MASK8_1);
+    shiftLongs(tmp, 2, longs, 14, 0, MASK8_1);
+  }
+
+  private static void decode2(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 4);
+    shiftLongs(tmp, 4, longs, 0, 6, MASK8_2);
+    shiftLongs(tmp, 4, longs, 4, 4, MASK8_2);
+    shiftLongs(tmp, 4, longs, 8, 2, MASK8_2);
+    shiftLongs(tmp, 4, longs, 12, 0, MASK8_2);
+  }
+
+  private static void decode3(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 6);
+    shiftLongs(tmp, 6, longs, 0, 5, MASK8_3);
+    shiftLongs(tmp, 6, longs, 6, 2, MASK8_3);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 12; iter < 2; ++iter, tmpIdx += 3, longsIdx += 2) {
+      long l0 = (tmp[tmpIdx + 0] & MASK8_2) << 1;
+      l0 |= (tmp[tmpIdx + 1] >>> 1) & MASK8_1;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK8_1) << 2;
+      l1 |= tmp[tmpIdx + 2] & MASK8_2;
+      longs[longsIdx + 1] = l1;
+    }
+  }
+
+  private static void decode4(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 8);
+    shiftLongs(tmp, 8, longs, 0, 4, MASK8_4);
+    shiftLongs(tmp, 8, longs, 8, 0, MASK8_4);
+  }
+
+  private static void decode5(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 10);
+    shiftLongs(tmp, 10, longs, 0, 3, MASK8_5);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 10; iter < 2; ++iter, tmpIdx += 5, longsIdx += 3) {
+      long l0 = (tmp[tmpIdx + 0] & MASK8_3) << 2;
+      l0 |= (tmp[tmpIdx + 1] >>> 1) & MASK8_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK8_1) << 4;
+      l1 |= (tmp[tmpIdx + 2] & MASK8_3) << 1;
+      l1 |= (tmp[tmpIdx + 3] >>> 2) & MASK8_1;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 3] & MASK8_2) << 3;
+      l2 |= tmp[tmpIdx + 4] & MASK8_3;
+      longs[longsIdx + 2] = l2;
+    }
+  }
+
+  private static void decode6(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 12);
+    shiftLongs(tmp, 12, longs, 0, 2, MASK8_6);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 12; iter < 4; ++iter, tmpIdx += 3, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK8_2) << 4;
+      l0 |= (tmp[tmpIdx + 1] & MASK8_2) << 2;
+      l0 |= tmp[tmpIdx + 2] & MASK8_2;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode7(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 14);
+    shiftLongs(tmp, 14, longs, 0, 1, MASK8_7);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 14; iter < 2; ++iter, tmpIdx += 7, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK8_1) << 6;
+      l0 |= (tmp[tmpIdx + 1] & MASK8_1) << 5;
+      l0 |= (tmp[tmpIdx + 2] & MASK8_1) << 4;
+      l0 |= (tmp[tmpIdx + 3] & MASK8_1) << 3;
+      l0 |= (tmp[tmpIdx + 4] & MASK8_1) << 2;
+      l0 |= (tmp[tmpIdx + 5] & MASK8_1) << 1;
+      l0 |= tmp[tmpIdx + 6] & MASK8_1;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode8(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 16);
+    shiftLongs(tmp, 16, longs, 0, 0, MASK8_8);
+  }
+
+  private static void decode9(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 18);
+    shiftLongs(tmp, 18, longs, 0, 7, MASK16_9);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 18; iter < 2; ++iter, tmpIdx += 9, longsIdx += 7) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_7) << 2;
+      l0 |= (tmp[tmpIdx + 1] >>> 5) & MASK16_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK16_5) << 4;
+      l1 |= (tmp[tmpIdx + 2] >>> 3) & MASK16_4;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 2] & MASK16_3) << 6;
+      l2 |= (tmp[tmpIdx + 3] >>> 1) & MASK16_6;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 3] & MASK16_1) << 8;
+      l3 |= (tmp[tmpIdx + 4] & MASK16_7) << 1;
+      l3 |= (tmp[tmpIdx + 5] >>> 6) & MASK16_1;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 5] & MASK16_6) << 3;
+      l4 |= (tmp[tmpIdx + 6] >>> 4) & MASK16_3;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 6] & MASK16_4) << 5;
+      l5 |= (tmp[tmpIdx + 7] >>> 2) & MASK16_5;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 7] & MASK16_2) << 7;
+      l6 |= tmp[tmpIdx + 8] & MASK16_7;
+      longs[longsIdx + 6] = l6;
+    }
+  }
+
+  private static void decode10(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 20);
+    shiftLongs(tmp, 20, longs, 0, 6, MASK16_10);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 20; iter < 4; ++iter, tmpIdx += 5, longsIdx += 3) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_6) << 4;
+      l0 |= (tmp[tmpIdx + 1] >>> 2) & MASK16_4;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK16_2) << 8;
+      l1 |= (tmp[tmpIdx + 2] & MASK16_6) << 2;
+      l1 |= (tmp[tmpIdx + 3] >>> 4) & MASK16_2;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 3] & MASK16_4) << 6;
+      l2 |= tmp[tmpIdx + 4] & MASK16_6;
+      longs[longsIdx + 2] = l2;
+    }
+  }
+
+  private static void decode11(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 22);
+    shiftLongs(tmp, 22, longs, 0, 5, MASK16_11);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 22; iter < 2; ++iter, tmpIdx += 11, longsIdx += 5) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_5) << 6;
+      l0 |= (tmp[tmpIdx + 1] & MASK16_5) << 1;
+      l0 |= (tmp[tmpIdx + 2] >>> 4) & MASK16_1;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 2] & MASK16_4) << 7;
+      l1 |= (tmp[tmpIdx + 3] & MASK16_5) << 2;
+      l1 |= (tmp[tmpIdx + 4] >>> 3) & MASK16_2;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 4] & MASK16_3) << 8;
+      l2 |= (tmp[tmpIdx + 5] & MASK16_5) << 3;
+      l2 |= (tmp[tmpIdx + 6] >>> 2) & MASK16_3;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 6] & MASK16_2) << 9;
+      l3 |= (tmp[tmpIdx + 7] & MASK16_5) << 4;
+      l3 |= (tmp[tmpIdx + 8] >>> 1) & MASK16_4;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 8] & MASK16_1) << 10;
+      l4 |= (tmp[tmpIdx + 9] & MASK16_5) << 5;
+      l4 |= tmp[tmpIdx + 10] & MASK16_5;
+      longs[longsIdx + 4] = l4;
+    }
+  }
+
+  private static void decode12(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 24);
+    shiftLongs(tmp, 24, longs, 0, 4, MASK16_12);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 24; iter < 8; ++iter, tmpIdx += 3, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_4) << 8;
+      l0 |= (tmp[tmpIdx + 1] & MASK16_4) << 4;
+      l0 |= tmp[tmpIdx + 2] & MASK16_4;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode13(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 26);
+    shiftLongs(tmp, 26, longs, 0, 3, MASK16_13);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 26; iter < 2; ++iter, tmpIdx += 13, longsIdx += 3) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_3) << 10;
+      l0 |= (tmp[tmpIdx + 1] & MASK16_3) << 7;
+      l0 |= (tmp[tmpIdx + 2] & MASK16_3) << 4;
+      l0 |= (tmp[tmpIdx + 3] & MASK16_3) << 1;
+      l0 |= (tmp[tmpIdx + 4] >>> 2) & MASK16_1;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 4] & MASK16_2) << 11;
+      l1 |= (tmp[tmpIdx + 5] & MASK16_3) << 8;
+      l1 |= (tmp[tmpIdx + 6] & MASK16_3) << 5;
+      l1 |= (tmp[tmpIdx + 7] & MASK16_3) << 2;
+      l1 |= (tmp[tmpIdx + 8] >>> 1) & MASK16_2;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 8] & MASK16_1) << 12;
+      l2 |= (tmp[tmpIdx + 9] & MASK16_3) << 9;
+      l2 |= (tmp[tmpIdx + 10] & MASK16_3) << 6;
+      l2 |= (tmp[tmpIdx + 11] & MASK16_3) << 3;
+      l2 |= tmp[tmpIdx + 12] & MASK16_3;
+      longs[longsIdx + 2] = l2;
+    }
+  }
+
+  private static void decode14(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 28);
+    shiftLongs(tmp, 28, longs, 0, 2, MASK16_14);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 28; iter < 4; ++iter, tmpIdx += 7, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_2) << 12;
+      l0 |= (tmp[tmpIdx + 1] & MASK16_2) << 10;
+      l0 |= (tmp[tmpIdx + 2] & MASK16_2) << 8;
+      l0 |= (tmp[tmpIdx + 3] & MASK16_2) << 6;
+      l0 |= (tmp[tmpIdx + 4] & MASK16_2) << 4;
+      l0 |= (tmp[tmpIdx + 5] & MASK16_2) << 2;
+      l0 |= tmp[tmpIdx + 6] & MASK16_2;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode15(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 30);
+    shiftLongs(tmp, 30, longs, 0, 1, MASK16_15);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 30; iter < 2; ++iter, tmpIdx += 15, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK16_1) << 14;
+      l0 |= (tmp[tmpIdx + 1] & MASK16_1) << 13;
+      l0 |= (tmp[tmpIdx + 2] & MASK16_1) << 12;
+      l0 |= (tmp[tmpIdx + 3] & MASK16_1) << 11;
+      l0 |= (tmp[tmpIdx + 4] & MASK16_1) << 10;
+      l0 |= (tmp[tmpIdx + 5] & MASK16_1) << 9;
+      l0 |= (tmp[tmpIdx + 6] & MASK16_1) << 8;
+      l0 |= (tmp[tmpIdx + 7] & MASK16_1) << 7;
+      l0 |= (tmp[tmpIdx + 8] & MASK16_1) << 6;
+      l0 |= (tmp[tmpIdx + 9] & MASK16_1) << 5;
+      l0 |= (tmp[tmpIdx + 10] & MASK16_1) << 4;
+      l0 |= (tmp[tmpIdx + 11] & MASK16_1) << 3;
+      l0 |= (tmp[tmpIdx + 12] & MASK16_1) << 2;
+      l0 |= (tmp[tmpIdx + 13] & MASK16_1) << 1;
+      l0 |= tmp[tmpIdx + 14] & MASK16_1;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode16(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 32);
+    shiftLongs(tmp, 32, longs, 0, 0, MASK16_16);
+  }
+
+  private static void decode17(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 34);
+    shiftLongs(tmp, 34, longs, 0, 15, MASK32_17);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 34; iter < 2; ++iter, tmpIdx += 17, longsIdx += 15) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_15) << 2;
+      l0 |= (tmp[tmpIdx + 1] >>> 13) & MASK32_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK32_13) << 4;
+      l1 |= (tmp[tmpIdx + 2] >>> 11) & MASK32_4;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 2] & MASK32_11) << 6;
+      l2 |= (tmp[tmpIdx + 3] >>> 9) & MASK32_6;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 3] & MASK32_9) << 8;
+      l3 |= (tmp[tmpIdx + 4] >>> 7) & MASK32_8;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 4] & MASK32_7) << 10;
+      l4 |= (tmp[tmpIdx + 5] >>> 5) & MASK32_10;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 5] & MASK32_5) << 12;
+      l5 |= (tmp[tmpIdx + 6] >>> 3) & MASK32_12;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 6] & MASK32_3) << 14;
+      l6 |= (tmp[tmpIdx + 7] >>> 1) & MASK32_14;
+      longs[longsIdx + 6] = l6;
+      long l7 = (tmp[tmpIdx + 7] & MASK32_1) << 16;
+      l7 |= (tmp[tmpIdx + 8] & MASK32_15) << 1;
+      l7 |= (tmp[tmpIdx + 9] >>> 14) & MASK32_1;
+      longs[longsIdx + 7] = l7;
+      long l8 = (tmp[tmpIdx + 9] & MASK32_14) << 3;
+      l8 |= (tmp[tmpIdx + 10] >>> 12) & MASK32_3;
+      longs[longsIdx + 8] = l8;
+      long l9 = (tmp[tmpIdx + 10] & MASK32_12) << 5;
+      l9 |= (tmp[tmpIdx + 11] >>> 10) & MASK32_5;
+      longs[longsIdx + 9] = l9;
+      long l10 = (tmp[tmpIdx + 11] & MASK32_10) << 7;
+      l10 |= (tmp[tmpIdx + 12] >>> 8) & MASK32_7;
+      longs[longsIdx + 10] = l10;
+      long l11 = (tmp[tmpIdx + 12] & MASK32_8) << 9;
+      l11 |= (tmp[tmpIdx + 13] >>> 6) & MASK32_9;
+      longs[longsIdx + 11] = l11;
+      long l12 = (tmp[tmpIdx + 13] & MASK32_6) << 11;
+      l12 |= (tmp[tmpIdx + 14] >>> 4) & MASK32_11;
+      longs[longsIdx + 12] = l12;
+      long l13 = (tmp[tmpIdx + 14] & MASK32_4) << 13;
+      l13 |= (tmp[tmpIdx + 15] >>> 2) & MASK32_13;
+      longs[longsIdx + 13] = l13;
+      long l14 = (tmp[tmpIdx + 15] & MASK32_2) << 15;
+      l14 |= tmp[tmpIdx + 16] & MASK32_15;
+      longs[longsIdx + 14] = l14;
+    }
+  }
+
+  private static void decode18(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 36);
+    shiftLongs(tmp, 36, longs, 0, 14, MASK32_18);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 36; iter < 4; ++iter, tmpIdx += 9, longsIdx += 7) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_14) << 4;
+      l0 |= (tmp[tmpIdx + 1] >>> 10) & MASK32_4;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK32_10) << 8;
+      l1 |= (tmp[tmpIdx + 2] >>> 6) & MASK32_8;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 2] & MASK32_6) << 12;
+      l2 |= (tmp[tmpIdx + 3] >>> 2) & MASK32_12;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 3] & MASK32_2) << 16;
+      l3 |= (tmp[tmpIdx + 4] & MASK32_14) << 2;
+      l3 |= (tmp[tmpIdx + 5] >>> 12) & MASK32_2;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 5] & MASK32_12) << 6;
+      l4 |= (tmp[tmpIdx + 6] >>> 8) & MASK32_6;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 6] & MASK32_8) << 10;
+      l5 |= (tmp[tmpIdx + 7] >>> 4) & MASK32_10;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 7] & MASK32_4) << 14;
+      l6 |= tmp[tmpIdx + 8] & MASK32_14;
+      longs[longsIdx + 6] = l6;
+    }
+  }
+
+  private static void decode19(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 38);
+    shiftLongs(tmp, 38, longs, 0, 13, MASK32_19);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 38; iter < 2; ++iter, tmpIdx += 19, longsIdx += 13) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_13) << 6;
+      l0 |= (tmp[tmpIdx + 1] >>> 7) & MASK32_6;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK32_7) << 12;
+      l1 |= (tmp[tmpIdx + 2] >>> 1) & MASK32_12;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 2] & MASK32_1) << 18;
+      l2 |= (tmp[tmpIdx + 3] & MASK32_13) << 5;
+      l2 |= (tmp[tmpIdx + 4] >>> 8) & MASK32_5;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 4] & MASK32_8) << 11;
+      l3 |= (tmp[tmpIdx + 5] >>> 2) & MASK32_11;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 5] & MASK32_2) << 17;
+      l4 |= (tmp[tmpIdx + 6] & MASK32_13) << 4;
+      l4 |= (tmp[tmpIdx + 7] >>> 9) & MASK32_4;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 7] & MASK32_9) << 10;
+      l5 |= (tmp[tmpIdx + 8] >>> 3) & MASK32_10;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 8] & MASK32_3) << 16;
+      l6 |= (tmp[tmpIdx + 9] & MASK32_13) << 3;
+      l6 |= (tmp[tmpIdx + 10] >>> 10) & MASK32_3;
+      longs[longsIdx + 6] = l6;
+      long l7 = (tmp[tmpIdx + 10] & MASK32_10) << 9;
+      l7 |= (tmp[tmpIdx + 11] >>> 4) & MASK32_9;
+      longs[longsIdx + 7] = l7;
+      long l8 = (tmp[tmpIdx + 11] & MASK32_4) << 15;
+      l8 |= (tmp[tmpIdx + 12] & MASK32_13) << 2;
+      l8 |= (tmp[tmpIdx + 13] >>> 11) & MASK32_2;
+      longs[longsIdx + 8] = l8;
+      long l9 = (tmp[tmpIdx + 13] & MASK32_11) << 8;
+      l9 |= (tmp[tmpIdx + 14] >>> 5) & MASK32_8;
+      longs[longsIdx + 9] = l9;
+      long l10 = (tmp[tmpIdx + 14] & MASK32_5) << 14;
+      l10 |= (tmp[tmpIdx + 15] & MASK32_13) << 1;
+      l10 |= (tmp[tmpIdx + 16] >>> 12) & MASK32_1;
+      longs[longsIdx + 10] = l10;
+      long l11 = (tmp[tmpIdx + 16] & MASK32_12) << 7;
+      l11 |= (tmp[tmpIdx + 17] >>> 6) & MASK32_7;
+      longs[longsIdx + 11] = l11;
+      long l12 = (tmp[tmpIdx + 17] & MASK32_6) << 13;
+      l12 |= tmp[tmpIdx + 18] & MASK32_13;
+      longs[longsIdx + 12] = l12;
+    }
+  }
+
+  private static void decode20(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 40);
+    shiftLongs(tmp, 40, longs, 0, 12, MASK32_20);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 40; iter < 8; ++iter, tmpIdx += 5, longsIdx += 3) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_12) << 8;
+      l0 |= (tmp[tmpIdx + 1] >>> 4) & MASK32_8;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK32_4) << 16;
+      l1 |= (tmp[tmpIdx + 2] & MASK32_12) << 4;
+      l1 |= (tmp[tmpIdx + 3] >>> 8) & MASK32_4;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 3] & MASK32_8) << 12;
+      l2 |= tmp[tmpIdx + 4] & MASK32_12;
+      longs[longsIdx + 2] = l2;
+    }
+  }
+
+  private static void decode21(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 42);
+    shiftLongs(tmp, 42, longs, 0, 11, MASK32_21);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 42; iter < 2; ++iter, tmpIdx += 21, longsIdx += 11) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_11) << 10;
+      l0 |= (tmp[tmpIdx + 1] >>> 1) & MASK32_10;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 1] & MASK32_1) << 20;
+      l1 |= (tmp[tmpIdx + 2] & MASK32_11) << 9;
+      l1 |= (tmp[tmpIdx + 3] >>> 2) & MASK32_9;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 3] & MASK32_2) << 19;
+      l2 |= (tmp[tmpIdx + 4] & MASK32_11) << 8;
+      l2 |= (tmp[tmpIdx + 5] >>> 3) & MASK32_8;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 5] & MASK32_3) << 18;
+      l3 |= (tmp[tmpIdx + 6] & MASK32_11) << 7;
+      l3 |= (tmp[tmpIdx + 7] >>> 4) & MASK32_7;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 7] & MASK32_4) << 17;
+      l4 |= (tmp[tmpIdx + 8] & MASK32_11) << 6;
+      l4 |= (tmp[tmpIdx + 9] >>> 5) & MASK32_6;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 9] & MASK32_5) << 16;
+      l5 |= (tmp[tmpIdx + 10] & MASK32_11) << 5;
+      l5 |= (tmp[tmpIdx + 11] >>> 6) & MASK32_5;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 11] & MASK32_6) << 15;
+      l6 |= (tmp[tmpIdx + 12] & MASK32_11) << 4;
+      l6 |= (tmp[tmpIdx + 13] >>> 7) & MASK32_4;
+      longs[longsIdx + 6] = l6;
+      long l7 = (tmp[tmpIdx + 13] & MASK32_7) << 14;
+      l7 |= (tmp[tmpIdx + 14] & MASK32_11) << 3;
+      l7 |= (tmp[tmpIdx + 15] >>> 8) & MASK32_3;
+      longs[longsIdx + 7] = l7;
+      long l8 = (tmp[tmpIdx + 15] & MASK32_8) << 13;
+      l8 |= (tmp[tmpIdx + 16] & MASK32_11) << 2;
+      l8 |= (tmp[tmpIdx + 17] >>> 9) & MASK32_2;
+      longs[longsIdx + 8] = l8;
+      long l9 = (tmp[tmpIdx + 17] & MASK32_9) << 12;
+      l9 |= (tmp[tmpIdx + 18] & MASK32_11) << 1;
+      l9 |= (tmp[tmpIdx + 19] >>> 10) & MASK32_1;
+      longs[longsIdx + 9] = l9;
+      long l10 = (tmp[tmpIdx + 19] & MASK32_10) << 11;
+      l10 |= tmp[tmpIdx + 20] & MASK32_11;
+      longs[longsIdx + 10] = l10;
+    }
+  }
+
+  private static void decode22(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 44);
+    shiftLongs(tmp, 44, longs, 0, 10, MASK32_22);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 44; iter < 4; ++iter, tmpIdx += 11, longsIdx += 5) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_10) << 12;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_10) << 2;
+      l0 |= (tmp[tmpIdx + 2] >>> 8) & MASK32_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 2] & MASK32_8) << 14;
+      l1 |= (tmp[tmpIdx + 3] & MASK32_10) << 4;
+      l1 |= (tmp[tmpIdx + 4] >>> 6) & MASK32_4;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 4] & MASK32_6) << 16;
+      l2 |= (tmp[tmpIdx + 5] & MASK32_10) << 6;
+      l2 |= (tmp[tmpIdx + 6] >>> 4) & MASK32_6;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 6] & MASK32_4) << 18;
+      l3 |= (tmp[tmpIdx + 7] & MASK32_10) << 8;
+      l3 |= (tmp[tmpIdx + 8] >>> 2) & MASK32_8;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 8] & MASK32_2) << 20;
+      l4 |= (tmp[tmpIdx + 9] & MASK32_10) << 10;
+      l4 |= tmp[tmpIdx + 10] & MASK32_10;
+      longs[longsIdx + 4] = l4;
+    }
+  }
+
+  private static void decode23(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 46);
+    shiftLongs(tmp, 46, longs, 0, 9, MASK32_23);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 46; iter < 2; ++iter, tmpIdx += 23, longsIdx += 9) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_9) << 14;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_9) << 5;
+      l0 |= (tmp[tmpIdx + 2] >>> 4) & MASK32_5;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 2] & MASK32_4) << 19;
+      l1 |= (tmp[tmpIdx + 3] & MASK32_9) << 10;
+      l1 |= (tmp[tmpIdx + 4] & MASK32_9) << 1;
+      l1 |= (tmp[tmpIdx + 5] >>> 8) & MASK32_1;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 5] & MASK32_8) << 15;
+      l2 |= (tmp[tmpIdx + 6] & MASK32_9) << 6;
+      l2 |= (tmp[tmpIdx + 7] >>> 3) & MASK32_6;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 7] & MASK32_3) << 20;
+      l3 |= (tmp[tmpIdx + 8] & MASK32_9) << 11;
+      l3 |= (tmp[tmpIdx + 9] & MASK32_9) << 2;
+      l3 |= (tmp[tmpIdx + 10] >>> 7) & MASK32_2;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 10] & MASK32_7) << 16;
+      l4 |= (tmp[tmpIdx + 11] & MASK32_9) << 7;
+      l4 |= (tmp[tmpIdx + 12] >>> 2) & MASK32_7;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 12] & MASK32_2) << 21;
+      l5 |= (tmp[tmpIdx + 13] & MASK32_9) << 12;
+      l5 |= (tmp[tmpIdx + 14] & MASK32_9) << 3;
+      l5 |= (tmp[tmpIdx + 15] >>> 6) & MASK32_3;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 15] & MASK32_6) << 17;
+      l6 |= (tmp[tmpIdx + 16] & MASK32_9) << 8;
+      l6 |= (tmp[tmpIdx + 17] >>> 1) & MASK32_8;
+      longs[longsIdx + 6] = l6;
+      long l7 = (tmp[tmpIdx + 17] & MASK32_1) << 22;
+      l7 |= (tmp[tmpIdx + 18] & MASK32_9) << 13;
+      l7 |= (tmp[tmpIdx + 19] & MASK32_9) << 4;
+      l7 |= (tmp[tmpIdx + 20] >>> 5) & MASK32_4;
+      longs[longsIdx + 7] = l7;
+      long l8 = (tmp[tmpIdx + 20] & MASK32_5) << 18;
+      l8 |= (tmp[tmpIdx + 21] & MASK32_9) << 9;
+      l8 |= tmp[tmpIdx + 22] & MASK32_9;
+      longs[longsIdx + 8] = l8;
+    }
+  }
+
+  private static void decode24(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 48);
+    shiftLongs(tmp, 48, longs, 0, 8, MASK32_24);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 48; iter < 16; ++iter, tmpIdx += 3, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_8) << 16;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_8) << 8;
+      l0 |= tmp[tmpIdx + 2] & MASK32_8;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode25(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 50);
+    shiftLongs(tmp, 50, longs, 0, 7, MASK32_25);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 50; iter < 2; ++iter, tmpIdx += 25, longsIdx += 7) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_7) << 18;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_7) << 11;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_7) << 4;
+      l0 |= (tmp[tmpIdx + 3] >>> 3) & MASK32_4;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 3] & MASK32_3) << 22;
+      l1 |= (tmp[tmpIdx + 4] & MASK32_7) << 15;
+      l1 |= (tmp[tmpIdx + 5] & MASK32_7) << 8;
+      l1 |= (tmp[tmpIdx + 6] & MASK32_7) << 1;
+      l1 |= (tmp[tmpIdx + 7] >>> 6) & MASK32_1;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 7] & MASK32_6) << 19;
+      l2 |= (tmp[tmpIdx + 8] & MASK32_7) << 12;
+      l2 |= (tmp[tmpIdx + 9] & MASK32_7) << 5;
+      l2 |= (tmp[tmpIdx + 10] >>> 2) & MASK32_5;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 10] & MASK32_2) << 23;
+      l3 |= (tmp[tmpIdx + 11] & MASK32_7) << 16;
+      l3 |= (tmp[tmpIdx + 12] & MASK32_7) << 9;
+      l3 |= (tmp[tmpIdx + 13] & MASK32_7) << 2;
+      l3 |= (tmp[tmpIdx + 14] >>> 5) & MASK32_2;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 14] & MASK32_5) << 20;
+      l4 |= (tmp[tmpIdx + 15] & MASK32_7) << 13;
+      l4 |= (tmp[tmpIdx + 16] & MASK32_7) << 6;
+      l4 |= (tmp[tmpIdx + 17] >>> 1) & MASK32_6;
+      longs[longsIdx + 4] = l4;
+      long l5 = (tmp[tmpIdx + 17] & MASK32_1) << 24;
+      l5 |= (tmp[tmpIdx + 18] & MASK32_7) << 17;
+      l5 |= (tmp[tmpIdx + 19] & MASK32_7) << 10;
+      l5 |= (tmp[tmpIdx + 20] & MASK32_7) << 3;
+      l5 |= (tmp[tmpIdx + 21] >>> 4) & MASK32_3;
+      longs[longsIdx + 5] = l5;
+      long l6 = (tmp[tmpIdx + 21] & MASK32_4) << 21;
+      l6 |= (tmp[tmpIdx + 22] & MASK32_7) << 14;
+      l6 |= (tmp[tmpIdx + 23] & MASK32_7) << 7;
+      l6 |= tmp[tmpIdx + 24] & MASK32_7;
+      longs[longsIdx + 6] = l6;
+    }
+  }
+
+  private static void decode26(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 52);
+    shiftLongs(tmp, 52, longs, 0, 6, MASK32_26);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 52; iter < 4; ++iter, tmpIdx += 13, longsIdx += 3) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_6) << 20;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_6) << 14;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_6) << 8;
+      l0 |= (tmp[tmpIdx + 3] & MASK32_6) << 2;
+      l0 |= (tmp[tmpIdx + 4] >>> 4) & MASK32_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 4] & MASK32_4) << 22;
+      l1 |= (tmp[tmpIdx + 5] & MASK32_6) << 16;
+      l1 |= (tmp[tmpIdx + 6] & MASK32_6) << 10;
+      l1 |= (tmp[tmpIdx + 7] & MASK32_6) << 4;
+      l1 |= (tmp[tmpIdx + 8] >>> 2) & MASK32_4;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 8] & MASK32_2) << 24;
+      l2 |= (tmp[tmpIdx + 9] & MASK32_6) << 18;
+      l2 |= (tmp[tmpIdx + 10] & MASK32_6) << 12;
+      l2 |= (tmp[tmpIdx + 11] & MASK32_6) << 6;
+      l2 |= tmp[tmpIdx + 12] & MASK32_6;
+      longs[longsIdx + 2] = l2;
+    }
+  }
+
+  private static void decode27(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 54);
+    shiftLongs(tmp, 54, longs, 0, 5, MASK32_27);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 54; iter < 2; ++iter, tmpIdx += 27, longsIdx += 5) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_5) << 22;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_5) << 17;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_5) << 12;
+      l0 |= (tmp[tmpIdx + 3] & MASK32_5) << 7;
+      l0 |= (tmp[tmpIdx + 4] & MASK32_5) << 2;
+      l0 |= (tmp[tmpIdx + 5] >>> 3) & MASK32_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 5] & MASK32_3) << 24;
+      l1 |= (tmp[tmpIdx + 6] & MASK32_5) << 19;
+      l1 |= (tmp[tmpIdx + 7] & MASK32_5) << 14;
+      l1 |= (tmp[tmpIdx + 8] & MASK32_5) << 9;
+      l1 |= (tmp[tmpIdx + 9] & MASK32_5) << 4;
+      l1 |= (tmp[tmpIdx + 10] >>> 1) & MASK32_4;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 10] & MASK32_1) << 26;
+      l2 |= (tmp[tmpIdx + 11] & MASK32_5) << 21;
+      l2 |= (tmp[tmpIdx + 12] & MASK32_5) << 16;
+      l2 |= (tmp[tmpIdx + 13] & MASK32_5) << 11;
+      l2 |= (tmp[tmpIdx + 14] & MASK32_5) << 6;
+      l2 |= (tmp[tmpIdx + 15] & MASK32_5) << 1;
+      l2 |= (tmp[tmpIdx + 16] >>> 4) & MASK32_1;
+      longs[longsIdx + 2] = l2;
+      long l3 = (tmp[tmpIdx + 16] & MASK32_4) << 23;
+      l3 |= (tmp[tmpIdx + 17] & MASK32_5) << 18;
+      l3 |= (tmp[tmpIdx + 18] & MASK32_5) << 13;
+      l3 |= (tmp[tmpIdx + 19] & MASK32_5) << 8;
+      l3 |= (tmp[tmpIdx + 20] & MASK32_5) << 3;
+      l3 |= (tmp[tmpIdx + 21] >>> 2) & MASK32_3;
+      longs[longsIdx + 3] = l3;
+      long l4 = (tmp[tmpIdx + 21] & MASK32_2) << 25;
+      l4 |= (tmp[tmpIdx + 22] & MASK32_5) << 20;
+      l4 |= (tmp[tmpIdx + 23] & MASK32_5) << 15;
+      l4 |= (tmp[tmpIdx + 24] & MASK32_5) << 10;
+      l4 |= (tmp[tmpIdx + 25] & MASK32_5) << 5;
+      l4 |= tmp[tmpIdx + 26] & MASK32_5;
+      longs[longsIdx + 4] = l4;
+    }
+  }
+
+  private static void decode28(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 56);
+    shiftLongs(tmp, 56, longs, 0, 4, MASK32_28);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 56; iter < 8; ++iter, tmpIdx += 7, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_4) << 24;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_4) << 20;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_4) << 16;
+      l0 |= (tmp[tmpIdx + 3] & MASK32_4) << 12;
+      l0 |= (tmp[tmpIdx + 4] & MASK32_4) << 8;
+      l0 |= (tmp[tmpIdx + 5] & MASK32_4) << 4;
+      l0 |= tmp[tmpIdx + 6] & MASK32_4;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode29(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 58);
+    shiftLongs(tmp, 58, longs, 0, 3, MASK32_29);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 58; iter < 2; ++iter, tmpIdx += 29, longsIdx += 3) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_3) << 26;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_3) << 23;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_3) << 20;
+      l0 |= (tmp[tmpIdx + 3] & MASK32_3) << 17;
+      l0 |= (tmp[tmpIdx + 4] & MASK32_3) << 14;
+      l0 |= (tmp[tmpIdx + 5] & MASK32_3) << 11;
+      l0 |= (tmp[tmpIdx + 6] & MASK32_3) << 8;
+      l0 |= (tmp[tmpIdx + 7] & MASK32_3) << 5;
+      l0 |= (tmp[tmpIdx + 8] & MASK32_3) << 2;
+      l0 |= (tmp[tmpIdx + 9] >>> 1) & MASK32_2;
+      longs[longsIdx + 0] = l0;
+      long l1 = (tmp[tmpIdx + 9] & MASK32_1) << 28;
+      l1 |= (tmp[tmpIdx + 10] & MASK32_3) << 25;
+      l1 |= (tmp[tmpIdx + 11] & MASK32_3) << 22;
+      l1 |= (tmp[tmpIdx + 12] & MASK32_3) << 19;
+      l1 |= (tmp[tmpIdx + 13] & MASK32_3) << 16;
+      l1 |= (tmp[tmpIdx + 14] & MASK32_3) << 13;
+      l1 |= (tmp[tmpIdx + 15] & MASK32_3) << 10;
+      l1 |= (tmp[tmpIdx + 16] & MASK32_3) << 7;
+      l1 |= (tmp[tmpIdx + 17] & MASK32_3) << 4;
+      l1 |= (tmp[tmpIdx + 18] & MASK32_3) << 1;
+      l1 |= (tmp[tmpIdx + 19] >>> 2) & MASK32_1;
+      longs[longsIdx + 1] = l1;
+      long l2 = (tmp[tmpIdx + 19] & MASK32_2) << 27;
+      l2 |= (tmp[tmpIdx + 20] & MASK32_3) << 24;
+      l2 |= (tmp[tmpIdx + 21] & MASK32_3) << 21;
+      l2 |= (tmp[tmpIdx + 22] & MASK32_3) << 18;
+      l2 |= (tmp[tmpIdx + 23] & MASK32_3) << 15;
+      l2 |= (tmp[tmpIdx + 24] & MASK32_3) << 12;
+      l2 |= (tmp[tmpIdx + 25] & MASK32_3) << 9;
+      l2 |= (tmp[tmpIdx + 26] & MASK32_3) << 6;
+      l2 |= (tmp[tmpIdx + 27] & MASK32_3) << 3;
+      l2 |= tmp[tmpIdx + 28] & MASK32_3;
+      longs[longsIdx + 2] = l2;
+    }
+  }
+
+  private static void decode30(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 60);
+    shiftLongs(tmp, 60, longs, 0, 2, MASK32_30);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 60; iter < 4; ++iter, tmpIdx += 15, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_2) << 28;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_2) << 26;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_2) << 24;
+      l0 |= (tmp[tmpIdx + 3] & MASK32_2) << 22;
+      l0 |= (tmp[tmpIdx + 4] & MASK32_2) << 20;
+      l0 |= (tmp[tmpIdx + 5] & MASK32_2) << 18;
+      l0 |= (tmp[tmpIdx + 6] & MASK32_2) << 16;
+      l0 |= (tmp[tmpIdx + 7] & MASK32_2) << 14;
+      l0 |= (tmp[tmpIdx + 8] & MASK32_2) << 12;
+      l0 |= (tmp[tmpIdx + 9] & MASK32_2) << 10;
+      l0 |= (tmp[tmpIdx + 10] & MASK32_2) << 8;
+      l0 |= (tmp[tmpIdx + 11] & MASK32_2) << 6;
+      l0 |= (tmp[tmpIdx + 12] & MASK32_2) << 4;
+      l0 |= (tmp[tmpIdx + 13] & MASK32_2) << 2;
+      l0 |= tmp[tmpIdx + 14] & MASK32_2;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode31(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 62);
+    shiftLongs(tmp, 62, longs, 0, 1, MASK32_31);
+    for (int iter = 0, tmpIdx = 0, longsIdx = 62; iter < 2; ++iter, tmpIdx += 31, longsIdx += 1) {
+      long l0 = (tmp[tmpIdx + 0] & MASK32_1) << 30;
+      l0 |= (tmp[tmpIdx + 1] & MASK32_1) << 29;
+      l0 |= (tmp[tmpIdx + 2] & MASK32_1) << 28;
+      l0 |= (tmp[tmpIdx + 3] & MASK32_1) << 27;
+      l0 |= (tmp[tmpIdx + 4] & MASK32_1) << 26;
+      l0 |= (tmp[tmpIdx + 5] & MASK32_1) << 25;
+      l0 |= (tmp[tmpIdx + 6] & MASK32_1) << 24;
+      l0 |= (tmp[tmpIdx + 7] & MASK32_1) << 23;
+      l0 |= (tmp[tmpIdx + 8] & MASK32_1) << 22;
+      l0 |= (tmp[tmpIdx + 9] & MASK32_1) << 21;
+      l0 |= (tmp[tmpIdx + 10] & MASK32_1) << 20;
+      l0 |= (tmp[tmpIdx + 11] & MASK32_1) << 19;
+      l0 |= (tmp[tmpIdx + 12] & MASK32_1) << 18;
+      l0 |= (tmp[tmpIdx + 13] & MASK32_1) << 17;
+      l0 |= (tmp[tmpIdx + 14] & MASK32_1) << 16;
+      l0 |= (tmp[tmpIdx + 15] & MASK32_1) << 15;
+      l0 |= (tmp[tmpIdx + 16] & MASK32_1) << 14;
+      l0 |= (tmp[tmpIdx + 17] & MASK32_1) << 13;
+      l0 |= (tmp[tmpIdx + 18] & MASK32_1) << 12;
+      l0 |= (tmp[tmpIdx + 19] & MASK32_1) << 11;
+      l0 |= (tmp[tmpIdx + 20] & MASK32_1) << 10;
+      l0 |= (tmp[tmpIdx + 21] & MASK32_1) << 9;
+      l0 |= (tmp[tmpIdx + 22] & MASK32_1) << 8;
+      l0 |= (tmp[tmpIdx + 23] & MASK32_1) << 7;
+      l0 |= (tmp[tmpIdx + 24] & MASK32_1) << 6;
+      l0 |= (tmp[tmpIdx + 25] & MASK32_1) << 5;
+      l0 |= (tmp[tmpIdx + 26] & MASK32_1) << 4;
+      l0 |= (tmp[tmpIdx + 27] & MASK32_1) << 3;
+      l0 |= (tmp[tmpIdx + 28] & MASK32_1) << 2;
+      l0 |= (tmp[tmpIdx + 29] & MASK32_1) << 1;
+      l0 |= tmp[tmpIdx + 30] & MASK32_1;
+      longs[longsIdx + 0] = l0;
+    }
+  }
+
+  private static void decode32(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {
+    readLongs(in, encoded, tmp, 64);
+    shiftLongs(tmp, 64, longs, 0, 0, MASK32_32);
+  }
+
+}
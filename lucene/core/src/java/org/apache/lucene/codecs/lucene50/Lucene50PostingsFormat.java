@@ -52,6 +52,9 @@ import org.apache.lucene.util.packed.PackedInts;
  *      that are all the same value are encoded in an optimized way.</p>
  *   <p>In VInt blocks, integers are encoded as {@link DataOutput#writeVInt VInt}:
  *      the block size is variable.</p>
+ *   <p>Optionally, packed blocks can be encoded into lanes of longs rather than with
+ *      {@link PackedInts}, see {@link #Lucene50PostingsFormat(int, int, boolean, int)}. This
+ *      layout is recorded in the PostingsOptions of the .doc file.</p>
  *   </li>
  *
  *   <li> 
@@ -123,9 +126,10 @@ import org.apache.lucene.util.packed.PackedInts;
  * <ul>
  *   <li>PostingsHeader --&gt; Header, PackedBlockSize</li>
  *   <li>TermMetadata --&gt; (DocFPDelta|SingletonDocID), PosFPDelta?, PosVIntBlockFPDelta?, PayFPDelta?, 
- *                            SkipFPDelta?</li>
+ *                            SkipFPDelta?, InlinedPostings?</li>
+ *   <li>InlinedPostings --&gt; InlinedPostingsLength, Byte<sup>InlinedPostingsLength</sup></li>
  *   <li>Header, --&gt; {@link CodecUtil#writeIndexHeader IndexHeader}</li>
- *   <li>PackedBlockSize, SingletonDocID --&gt; {@link DataOutput#writeVInt VInt}</li>
+ *   <li>PackedBlockSize, SingletonDocID, InlinedPostingsLength --&gt; {@link DataOutput#writeVInt VInt}</li>
  *   <li>DocFPDelta, PosFPDelta, PayFPDelta, PosVIntBlockFPDelta, SkipFPDelta --&gt; {@link DataOutput#writeVLong VLong}</li>
  *   <li>Footer --&gt; {@link CodecUtil#writeFooter CodecFooter}</li>
  * </ul>
@@ -161,6 +165,11 @@ import org.apache.lucene.util.packed.PackedInts;
  *    <li>SingletonDocID is an optimization when a term only appears in one document. In this case, instead
  *        of writing a file pointer to the .doc file (DocFPDelta), and then a VIntBlock at that location, the 
  *        single document ID is written to the term dictionary.</li>
+ *    <li>InlinedPostings extends this optimization to terms that appear in more than one but at most
+ *        MaxInlinedDocFreq documents, and less than PackedBlockSize times. The VIntBlock that would be
+ *        written to the .doc file, followed by the one that would be written to the .pos file, are
+ *        written to the term dictionary instead, so that reading the postings of these terms does not
+ *        need to seek into the .doc and .pos files.</li>
  * </ul>
  * </dd>
  * </dl>
@@ -186,8 +195,11 @@ import org.apache.lucene.util.packed.PackedInts;
  * each packed or VInt block, when the length of document list is larger than packed block size.</p>
  *
  * <ul>
- *   <li>docFile(.doc) --&gt; Header, &lt;TermFreqs, SkipData?&gt;<sup>TermCount</sup>, Footer</li>
+ *   <li>docFile(.doc) --&gt; Header, PostingsOptions?, &lt;TermFreqs, SkipData?&gt;<sup>TermCount</sup>, Footer</li>
  *   <li>Header --&gt; {@link CodecUtil#writeIndexHeader IndexHeader}</li>
+ *   <li>PostingsOptions --&gt; Flags, MaxInlinedDocFreq</li>
+ *   <li>Flags --&gt; {@link DataOutput#writeByte Byte}</li>
+ *   <li>MaxInlinedDocFreq --&gt; {@link DataOutput#writeVInt VInt}</li>
  *   <li>TermFreqs --&gt; &lt;PackedBlock&gt; <sup>PackedDocBlockNum</sup>,  
  *                        VIntBlock? </li>
  *   <li>PackedBlock --&gt; PackedDocDeltaBlock, PackedFreqBlock?
@@ -384,10 +396,21 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
 
   // Increment version to change it
   final static int VERSION_START = 0;
-  final static int VERSION_CURRENT = VERSION_START;
+  // the .doc header is followed by postings options: flags and max inlined doc freq
+  final static int VERSION_POSTINGS_OPTIONS = 1;
+  final static int VERSION_CURRENT = VERSION_POSTINGS_OPTIONS;
+
+  // Flags of the postings options, new options should use the reserved bits
+  // rather than a new version
+  final static byte FLAG_LONG_LANES = 0x01;
+  final static byte FLAGS_MASK = FLAG_LONG_LANES;
 
   private final int minTermBlockSize;
   private final int maxTermBlockSize;
+  private final boolean longLanes;
+  private final int maxInlinedDocFreq;
+  private final boolean offHeapTermsIndex;
+  private final boolean termsBloomFilter;
 
   /**
    * Fixed packed block size, number of integers encoded in 
@@ -407,27 +430,118 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
    *  maxBlockSize} passed to block terms dictionary.
    *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int) */
   public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize) {
+    this(minTermBlockSize, maxTermBlockSize, false);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary. If
+   *  {@code longLanes} is true, packed blocks are encoded into
+   *  lanes of longs, which decodes faster than the default
+   *  {@link PackedInts} layout but requires a reader that
+   *  supports this layout. Both layouts are readable with
+   *  the default constructor.
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int)
+   *  @lucene.experimental */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, boolean longLanes) {
+    this(minTermBlockSize, maxTermBlockSize, longLanes, 0);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary, and
+   *  the block layout. Postings of terms that appear in at
+   *  most {@code maxInlinedDocFreq} documents (and less than
+   *  {@link #BLOCK_SIZE} times) are inlined in the terms
+   *  dictionary, which saves seeks into the .doc and .pos
+   *  files when reading rare terms, at the expense of a
+   *  larger terms dictionary. Terms with a single document
+   *  always get their document inlined. Must be less than
+   *  {@link #BLOCK_SIZE}, {@code 0} or {@code 1} disables inlining.
+   *  @see #Lucene50PostingsFormat(int, int, boolean)
+   *  @lucene.experimental */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, boolean longLanes, int maxInlinedDocFreq) {
+    this(minTermBlockSize, maxTermBlockSize, longLanes, maxInlinedDocFreq, false);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary, the
+   *  block layout and the max doc freq of inlined postings.
+   *  If {@code offHeapTermsIndex} is true, the terms index
+   *  of fields written with this format is read directly
+   *  from the index file rather than loaded on heap when
+   *  the segment is opened. This is meant to be used with
+   *  {@link org.apache.lucene.store.MMapDirectory}, so that
+   *  terms indexes live in the page cache.
+   *  @see #Lucene50PostingsFormat(int, int, boolean, int)
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,boolean)
+   *  @lucene.experimental */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, boolean longLanes, int maxInlinedDocFreq,
+      boolean offHeapTermsIndex) {
+    this(minTermBlockSize, maxTermBlockSize, longLanes, maxInlinedDocFreq, offHeapTermsIndex, false);
+  }
+
+  /** Creates {@code Lucene50PostingsFormat} with custom
+   *  values for {@code minBlockSize} and {@code
+   *  maxBlockSize} passed to block terms dictionary, the
+   *  block layout, the max doc freq of inlined postings
+   *  and the location of the terms index.
+   *  If {@code termsBloomFilter} is true, a bloom filter
+   *  of the terms of fields written with this format is
+   *  stored next to their terms index, and is used to
+   *  reject most lookups of absent terms with a single
+   *  random read. This is meant for primary key fields,
+   *  whose lookups from {@code updateDocument} or
+   *  real-time get miss in most segments.
+   *  @see #Lucene50PostingsFormat(int, int, boolean, int, boolean)
+   *  @see BlockTreeTermsWriter#BlockTreeTermsWriter(SegmentWriteState,PostingsWriterBase,int,int,boolean,boolean)
+   *  @lucene.experimental */
+  public Lucene50PostingsFormat(int minTermBlockSize, int maxTermBlockSize, boolean longLanes, int maxInlinedDocFreq,
+      boolean offHeapTermsIndex, boolean termsBloomFilter) {
     super("Lucene50");
     BlockTreeTermsWriter.validateSettings(minTermBlockSize, maxTermBlockSize);
+    validateMaxInlinedDocFreq(maxInlinedDocFreq);
     this.minTermBlockSize = minTermBlockSize;
     this.maxTermBlockSize = maxTermBlockSize;
+    this.longLanes = longLanes;
+    this.maxInlinedDocFreq = maxInlinedDocFreq;
+    this.offHeapTermsIndex = offHeapTermsIndex;
+    this.termsBloomFilter = termsBloomFilter;
+  }
+
+  static void validateMaxInlinedDocFreq(int maxInlinedDocFreq) {
+    if (maxInlinedDocFreq < 0 || maxInlinedDocFreq >= BLOCK_SIZE) {
+      throw new IllegalArgumentException("maxInlinedDocFreq must be >= 0 and < " + BLOCK_SIZE + "; got " + maxInlinedDocFreq);
+    }
+  }
+
+  /** Whether postings of a term with the given statistics are inlined in the terms dictionary:
+   *  this requires that they are only made of vInt blocks. */
+  static boolean isInlined(int docFreq, long totalTermFreq, boolean hasPositions, int maxInlinedDocFreq) {
+    return docFreq > 1 && docFreq <= maxInlinedDocFreq && (hasPositions == false || totalTermFreq < BLOCK_SIZE);
   }
 
   @Override
   public String toString() {
-    return getName() + "(blocksize=" + BLOCK_SIZE + ")";
+    return getName() + "(blocksize=" + BLOCK_SIZE + (longLanes ? ",longLanes" : "")
+        + (maxInlinedDocFreq > 1 ? ",maxInlinedDocFreq=" + maxInlinedDocFreq : "")
+        + (offHeapTermsIndex ? ",offHeapTermsIndex" : "")
+        + (termsBloomFilter ? ",termsBloomFilter" : "") + ")";
   }
 
   @Override
   public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
-    PostingsWriterBase postingsWriter = new Lucene50PostingsWriter(state);
+    PostingsWriterBase postingsWriter = new Lucene50PostingsWriter(state, longLanes, maxInlinedDocFreq);
 
     boolean success = false;
     try {
       FieldsConsumer ret = new BlockTreeTermsWriter(state, 
                                                     postingsWriter,
                                                     minTermBlockSize, 
-                                                    maxTermBlockSize);
+                                                    maxTermBlockSize,
+                                                    offHeapTermsIndex,
+                                                    termsBloomFilter);
       success = true;
       return ret;
     } finally {
@@ -461,6 +575,9 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
     // docid when there is a single pulsed posting, otherwise -1
     // freq is always implicitly totalTermFreq in this case.
     int singletonDocID = -1;
+    // vInt blocks of docs and positions when they are inlined in
+    // the terms dictionary, otherwise null. Never modified in place.
+    byte[] inlinedPostings;
 
     @Override
     public IntBlockTermState clone() {
@@ -479,11 +596,12 @@ public final class Lucene50PostingsFormat extends PostingsFormat {
       lastPosBlockOffset = other.lastPosBlockOffset;
       skipOffset = other.skipOffset;
       singletonDocID = other.singletonDocID;
+      inlinedPostings = other.inlinedPostings;
     }
 
     @Override
     public String toString() {
-      return super.toString() + " docStartFP=" + docStartFP + " posStartFP=" + posStartFP + " payStartFP=" + payStartFP + " lastPosBlockOffset=" + lastPosBlockOffset + " singletonDocID=" + singletonDocID;
+      return super.toString() + " docStartFP=" + docStartFP + " posStartFP=" + posStartFP + " payStartFP=" + payStartFP + " lastPosBlockOffset=" + lastPosBlockOffset + " singletonDocID=" + singletonDocID + " inlinedPostings=" + (inlinedPostings == null ? -1 : inlinedPostings.length);
     }
   }
 }
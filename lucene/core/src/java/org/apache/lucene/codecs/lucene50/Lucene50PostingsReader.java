@@ -24,15 +24,18 @@ import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.PostingsReaderBase;
 import org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.IntBlockTermState;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.RamUsageEstimator;
 
@@ -40,11 +43,14 @@ import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_DATA_SIZE;
 import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_ENCODED_SIZE;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.DOC_CODEC;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.FLAGS_MASK;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.FLAG_LONG_LANES;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.MAX_SKIP_LEVELS;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.PAY_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.POS_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.TERMS_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_CURRENT;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_POSTINGS_OPTIONS;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_START;
 
 /**
@@ -61,8 +67,12 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
   private final IndexInput posIn;
   private final IndexInput payIn;
 
-  final ForUtil forUtil;
+  final BaseForUtil forUtil;
   private int version;
+  private final int maxInlinedDocFreq;
+
+  /** Number of bytes to prefetch when skipping lands on a new block. */
+  private static final int PREFETCH_LENGTH = 4096;
 
   /** Sole constructor. */
   public Lucene50PostingsReader(SegmentReadState state) throws IOException {
@@ -80,7 +90,26 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     try {
       docIn = state.directory.openInput(docName, state.context);
       version = CodecUtil.checkIndexHeader(docIn, DOC_CODEC, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
-      forUtil = new ForUtil(docIn);
+      final boolean longLanes;
+      if (version >= VERSION_POSTINGS_OPTIONS) {
+        final byte flags = docIn.readByte();
+        if ((flags & ~FLAGS_MASK) != 0) {
+          throw new CorruptIndexException("Illegal postings flags: " + flags, docIn);
+        }
+        longLanes = (flags & FLAG_LONG_LANES) != 0;
+        maxInlinedDocFreq = docIn.readVInt();
+        if (maxInlinedDocFreq < 0 || maxInlinedDocFreq >= BLOCK_SIZE) {
+          throw new CorruptIndexException("Illegal max inlined doc freq: " + maxInlinedDocFreq, docIn);
+        }
+      } else {
+        longLanes = false;
+        maxInlinedDocFreq = 0;
+      }
+      if (longLanes) {
+        forUtil = new LongForUtil();
+      } else {
+        forUtil = new ForUtil(docIn);
+      }
       CodecUtil.retrieveChecksum(docIn);
 
       if (state.fieldInfos.hasProx()) {
@@ -108,6 +137,11 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     }
   }
 
+  /** Hint {@code in} that the postings that start at {@code fp} will be read soon. */
+  private static void prefetch(IndexInput in, long fp) throws IOException {
+    in.prefetch(fp, Math.min(PREFETCH_LENGTH, in.length() - fp));
+  }
+
   @Override
   public void init(IndexInput termsIn, SegmentReadState state) throws IOException {
     // Make sure we are talking to the matching postings writer
@@ -121,7 +155,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
   /**
    * Read values that have been written using variable-length encoding instead of bit-packing.
    */
-  static void readVIntBlock(IndexInput docIn, int[] docBuffer,
+  static void readVIntBlock(DataInput docIn, int[] docBuffer,
       int[] freqBuffer, int num, boolean indexHasFreq) throws IOException {
     if (indexHasFreq) {
       for(int i=0;i<num;i++) {
@@ -188,6 +222,13 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     } else {
       termState.skipOffset = -1;
     }
+    if (Lucene50PostingsFormat.isInlined(termState.docFreq, termState.totalTermFreq, fieldHasPositions, maxInlinedDocFreq)) {
+      final byte[] inlinedPostings = new byte[in.readVInt()];
+      in.readBytes(inlinedPostings, 0, inlinedPostings.length);
+      termState.inlinedPostings = inlinedPostings;
+    } else {
+      termState.inlinedPostings = null;
+    }
   }
     
   @Override
@@ -236,6 +277,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
 
   final class BlockDocsEnum extends PostingsEnum {
     private final byte[] encoded;
+    private final BaseForUtil forUtil;
     
     private final int[] docDeltaBuffer = new int[MAX_DATA_SIZE];
     private final int[] freqBuffer = new int[MAX_DATA_SIZE];
@@ -274,6 +316,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     
     private boolean needsFreq; // true if the caller actually needs frequencies
     private int singletonDocID; // docid when there is a single pulsed posting, otherwise -1
+    private boolean inlined; // true when postings are inlined in the terms dictionary
+    private final ByteArrayDataInput inlinedIn = new ByteArrayDataInput();
 
     public BlockDocsEnum(FieldInfo fieldInfo) throws IOException {
       this.startDocIn = Lucene50PostingsReader.this.docIn;
@@ -282,7 +326,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       indexHasPos = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS) >= 0;
       indexHasOffsets = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) >= 0;
       indexHasPayloads = fieldInfo.hasPayloads();
-      encoded = new byte[MAX_ENCODED_SIZE];    
+      encoded = new byte[MAX_ENCODED_SIZE];
+      forUtil = Lucene50PostingsReader.this.forUtil.clone();
     }
 
     public boolean canReuse(IndexInput docIn, FieldInfo fieldInfo) {
@@ -298,7 +343,10 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       docTermStartFP = termState.docStartFP;
       skipOffset = termState.skipOffset;
       singletonDocID = termState.singletonDocID;
-      if (docFreq > 1) {
+      inlined = termState.inlinedPostings != null;
+      if (inlined) {
+        inlinedIn.reset(termState.inlinedPostings);
+      } else if (docFreq > 1) {
         if (docIn == null) {
           // lazy init
           docIn = startDocIn.clone();
@@ -368,7 +416,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
         freqBuffer[0] = (int) totalTermFreq;
       } else {
         // Read vInts:
-        readVIntBlock(docIn, docDeltaBuffer, freqBuffer, left, indexHasFreq);
+        readVIntBlock(inlined ? inlinedIn : docIn, docDeltaBuffer, freqBuffer, left, indexHasFreq);
       }
       docBufferUpto = 0;
     }
@@ -391,6 +439,51 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       return doc;
     }
 
+    @Override
+    public int nextDocs(int upTo, int[] docs) throws IOException {
+      // same as calling nextDoc() in a loop, but decodes doc deltas without a method call per doc
+      int count = 0;
+      while (doc < upTo && count < docs.length) {
+        docs[count++] = doc;
+        if (docUpto == docFreq) {
+          doc = NO_MORE_DOCS;
+          break;
+        }
+        if (docBufferUpto == BLOCK_SIZE) {
+          refillDocs();
+        }
+        accum += docDeltaBuffer[docBufferUpto];
+        docUpto++;
+        doc = accum;
+        freq = freqBuffer[docBufferUpto];
+        docBufferUpto++;
+      }
+      return count;
+    }
+
+    @Override
+    public void orInto(FixedBitSet bitSet) throws IOException {
+      // decode whole blocks of doc deltas and set bits directly, without going through nextDoc()
+      assert doc != NO_MORE_DOCS;
+      final long[] bits = bitSet.getBits();
+      int accum = this.accum;
+      while (docUpto < docFreq) {
+        if (docBufferUpto == BLOCK_SIZE) {
+          refillDocs();
+        }
+        final int end = (int) Math.min(BLOCK_SIZE, (long) docBufferUpto + docFreq - docUpto);
+        for (int i = docBufferUpto; i < end; ++i) {
+          accum += docDeltaBuffer[i];
+          bits[accum >> 6] |= 1L << accum;
+        }
+        assert accum < bitSet.length();
+        docUpto += end - docBufferUpto;
+        docBufferUpto = end;
+      }
+      this.accum = accum;
+      doc = NO_MORE_DOCS;
+    }
+
     @Override
     public int advance(int target) throws IOException {
       // TODO: make frq block load lazy/skippable
@@ -429,6 +522,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
           docBufferUpto = BLOCK_SIZE;
           accum = skipper.getDoc();               // actually, this is just lastSkipEntry
           docIn.seek(skipper.getDocPointer());    // now point to the block we want to search
+          prefetch(docIn, skipper.getDocPointer());
         }
         // next time we call advance, this is used to 
         // foresee whether skipper is necessary.
@@ -471,6 +565,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
   final class BlockPostingsEnum extends PostingsEnum {
     
     private final byte[] encoded;
+    private final BaseForUtil forUtil;
 
     private final int[] docDeltaBuffer = new int[MAX_DATA_SIZE];
     private final int[] freqBuffer = new int[MAX_DATA_SIZE];
@@ -529,12 +624,15 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     private int nextSkipDoc;
 
     private int singletonDocID; // docid when there is a single pulsed posting, otherwise -1
+    private boolean inlined; // true when postings are inlined in the terms dictionary
+    private final ByteArrayDataInput inlinedIn = new ByteArrayDataInput();
     
     public BlockPostingsEnum(FieldInfo fieldInfo) throws IOException {
       this.startDocIn = Lucene50PostingsReader.this.docIn;
       this.docIn = null;
       this.posIn = Lucene50PostingsReader.this.posIn.clone();
       encoded = new byte[MAX_ENCODED_SIZE];
+      forUtil = Lucene50PostingsReader.this.forUtil.clone();
       indexHasOffsets = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) >= 0;
       indexHasPayloads = fieldInfo.hasPayloads();
     }
@@ -553,7 +651,10 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       skipOffset = termState.skipOffset;
       totalTermFreq = termState.totalTermFreq;
       singletonDocID = termState.singletonDocID;
-      if (docFreq > 1) {
+      inlined = termState.inlinedPostings != null;
+      if (inlined) {
+        inlinedIn.reset(termState.inlinedPostings);
+      } else if (docFreq > 1) {
         if (docIn == null) {
           // lazy init
           docIn = startDocIn.clone();
@@ -605,32 +706,37 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
         freqBuffer[0] = (int) totalTermFreq;
       } else {
         // Read vInts:
-        readVIntBlock(docIn, docDeltaBuffer, freqBuffer, left, true);
+        readVIntBlock(inlined ? inlinedIn : docIn, docDeltaBuffer, freqBuffer, left, true);
       }
       docBufferUpto = 0;
     }
     
     private void refillPositions() throws IOException {
-      if (posIn.getFilePointer() == lastPosBlockFP) {
+      if (inlined || posIn.getFilePointer() == lastPosBlockFP) {
+        final DataInput in = inlined ? inlinedIn : posIn;
         final int count = (int) (totalTermFreq % BLOCK_SIZE);
         int payloadLength = 0;
         for(int i=0;i<count;i++) {
-          int code = posIn.readVInt();
+          int code = in.readVInt();
           if (indexHasPayloads) {
             if ((code & 1) != 0) {
-              payloadLength = posIn.readVInt();
+              payloadLength = in.readVInt();
             }
             posDeltaBuffer[i] = code >>> 1;
             if (payloadLength != 0) {
-              posIn.seek(posIn.getFilePointer() + payloadLength);
+              if (inlined) {
+                inlinedIn.skipBytes(payloadLength);
+              } else {
+                posIn.seek(posIn.getFilePointer() + payloadLength);
+              }
             }
           } else {
             posDeltaBuffer[i] = code;
           }
           if (indexHasOffsets) {
-            if ((posIn.readVInt() & 1) != 0) {
+            if ((in.readVInt() & 1) != 0) {
               // offset length changed
-              posIn.readVInt();
+              in.readVInt();
             }
           }
         }
@@ -693,7 +799,9 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
           docBufferUpto = BLOCK_SIZE;
           accum = skipper.getDoc();
           docIn.seek(skipper.getDocPointer());
+          prefetch(docIn, skipper.getDocPointer());
           posPendingFP = skipper.getPosPointer();
+          prefetch(posIn, posPendingFP);
           posPendingCount = skipper.getPosBufferUpto();
         }
         nextSkipDoc = skipper.getNextSkipDoc();
@@ -757,7 +865,9 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       assert posPendingCount > 0;
 
       if (posPendingFP != -1) {
-        posIn.seek(posPendingFP);
+        if (inlined == false) {
+          posIn.seek(posPendingFP);
+        }
         posPendingFP = -1;
 
         // Force buffer refill:
@@ -803,6 +913,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
   final class EverythingEnum extends PostingsEnum {
     
     private final byte[] encoded;
+    private final BaseForUtil forUtil;
 
     private final int[] docDeltaBuffer = new int[MAX_DATA_SIZE];
     private final int[] freqBuffer = new int[MAX_DATA_SIZE];
@@ -881,6 +992,8 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
     private boolean needsOffsets; // true if we actually need offsets
     private boolean needsPayloads; // true if we actually need payloads
     private int singletonDocID; // docid when there is a single pulsed posting, otherwise -1
+    private boolean inlined; // true when postings are inlined in the terms dictionary
+    private final ByteArrayDataInput inlinedIn = new ByteArrayDataInput();
     
     public EverythingEnum(FieldInfo fieldInfo) throws IOException {
       this.startDocIn = Lucene50PostingsReader.this.docIn;
@@ -888,6 +1001,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       this.posIn = Lucene50PostingsReader.this.posIn.clone();
       this.payIn = Lucene50PostingsReader.this.payIn.clone();
       encoded = new byte[MAX_ENCODED_SIZE];
+      forUtil = Lucene50PostingsReader.this.forUtil.clone();
       indexHasOffsets = fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) >= 0;
       if (indexHasOffsets) {
         offsetStartDeltaBuffer = new int[MAX_DATA_SIZE];
@@ -925,7 +1039,10 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       skipOffset = termState.skipOffset;
       totalTermFreq = termState.totalTermFreq;
       singletonDocID = termState.singletonDocID;
-      if (docFreq > 1) {
+      inlined = termState.inlinedPostings != null;
+      if (inlined) {
+        inlinedIn.reset(termState.inlinedPostings);
+      } else if (docFreq > 1) {
         if (docIn == null) {
           // lazy init
           docIn = startDocIn.clone();
@@ -980,22 +1097,23 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
         docDeltaBuffer[0] = singletonDocID;
         freqBuffer[0] = (int) totalTermFreq;
       } else {
-        readVIntBlock(docIn, docDeltaBuffer, freqBuffer, left, true);
+        readVIntBlock(inlined ? inlinedIn : docIn, docDeltaBuffer, freqBuffer, left, true);
       }
       docBufferUpto = 0;
     }
     
     private void refillPositions() throws IOException {
-      if (posIn.getFilePointer() == lastPosBlockFP) {
+      if (inlined || posIn.getFilePointer() == lastPosBlockFP) {
+        final DataInput in = inlined ? inlinedIn : posIn;
         final int count = (int) (totalTermFreq % BLOCK_SIZE);
         int payloadLength = 0;
         int offsetLength = 0;
         payloadByteUpto = 0;
         for(int i=0;i<count;i++) {
-          int code = posIn.readVInt();
+          int code = in.readVInt();
           if (indexHasPayloads) {
             if ((code & 1) != 0) {
-              payloadLength = posIn.readVInt();
+              payloadLength = in.readVInt();
             }
             payloadLengthBuffer[i] = payloadLength;
             posDeltaBuffer[i] = code >>> 1;
@@ -1003,7 +1121,7 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
               if (payloadByteUpto + payloadLength > payloadBytes.length) {
                 payloadBytes = ArrayUtil.grow(payloadBytes, payloadByteUpto + payloadLength);
               }
-              posIn.readBytes(payloadBytes, payloadByteUpto, payloadLength);
+              in.readBytes(payloadBytes, payloadByteUpto, payloadLength);
               payloadByteUpto += payloadLength;
             }
           } else {
@@ -1011,9 +1129,9 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
           }
 
           if (indexHasOffsets) {
-            int deltaCode = posIn.readVInt();
+            int deltaCode = in.readVInt();
             if ((deltaCode & 1) != 0) {
-              offsetLength = posIn.readVInt();
+              offsetLength = in.readVInt();
             }
             offsetStartDeltaBuffer[i] = deltaCode >>> 1;
             offsetLengthBuffer[i] = offsetLength;
@@ -1108,7 +1226,9 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
           docBufferUpto = BLOCK_SIZE;
           accum = skipper.getDoc();
           docIn.seek(skipper.getDocPointer());
+          prefetch(docIn, skipper.getDocPointer());
           posPendingFP = skipper.getPosPointer();
+          prefetch(posIn, posPendingFP);
           payPendingFP = skipper.getPayPointer();
           posPendingCount = skipper.getPosBufferUpto();
           lastStartOffset = 0; // new document
@@ -1205,7 +1325,9 @@ public final class Lucene50PostingsReader extends PostingsReaderBase {
       assert posPendingCount > 0;
       
       if (posPendingFP != -1) {
-        posIn.seek(posPendingFP);
+        if (inlined == false) {
+          posIn.seek(posPendingFP);
+        }
         posPendingFP = -1;
 
         if (payPendingFP != -1) {
@@ -21,13 +21,16 @@ import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_DATA_SIZE;
 import static org.apache.lucene.codecs.lucene50.ForUtil.MAX_ENCODED_SIZE;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.DOC_CODEC;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.FLAG_LONG_LANES;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.MAX_SKIP_LEVELS;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.PAY_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.POS_CODEC;
 import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.TERMS_CODEC;
-import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_CURRENT;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_POSTINGS_OPTIONS;
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.VERSION_START;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.lucene.codecs.BlockTermState;
 import org.apache.lucene.codecs.CodecUtil;
@@ -39,6 +42,7 @@ import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.SegmentWriteState;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.GrowableByteArrayDataOutput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
@@ -94,12 +98,38 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
 
   final byte[] encoded;
 
-  private final ForUtil forUtil;
+  private final BaseForUtil forUtil;
+  private final int version;
+  private final int maxInlinedDocFreq;
+  private final GrowableByteArrayDataOutput inlinedOut;
   private final Lucene50SkipWriter skipWriter;
   
   /** Creates a postings writer */
   public Lucene50PostingsWriter(SegmentWriteState state) throws IOException {
+    this(state, false);
+  }
+
+  /** Creates a postings writer that optionally encodes packed blocks into
+   *  lanes of longs.
+   *  @see Lucene50PostingsFormat#Lucene50PostingsFormat(int, int, boolean)
+   *  @lucene.experimental */
+  public Lucene50PostingsWriter(SegmentWriteState state, boolean longLanes) throws IOException {
+    this(state, longLanes, 0);
+  }
+
+  /** Creates a postings writer that optionally encodes packed blocks into
+   *  lanes of longs and inlines postings of rare terms in the terms dictionary.
+   *  @see Lucene50PostingsFormat#Lucene50PostingsFormat(int, int, boolean, int)
+   *  @lucene.experimental */
+  public Lucene50PostingsWriter(SegmentWriteState state, boolean longLanes, int maxInlinedDocFreq) throws IOException {
+    Lucene50PostingsFormat.validateMaxInlinedDocFreq(maxInlinedDocFreq);
     final float acceptableOverheadRatio = PackedInts.COMPACT;
+    // singletons are always inlined
+    this.maxInlinedDocFreq = maxInlinedDocFreq > 1 ? maxInlinedDocFreq : 0;
+    inlinedOut = this.maxInlinedDocFreq > 0 ? new GrowableByteArrayDataOutput(64) : null;
+    // the default options keep writing the initial version so that they remain
+    // readable by readers that do not know about postings options
+    version = longLanes || this.maxInlinedDocFreq > 0 ? VERSION_POSTINGS_OPTIONS : VERSION_START;
 
     String docFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene50PostingsFormat.DOC_EXTENSION);
     docOut = state.directory.createOutput(docFileName, state.context);
@@ -107,14 +137,22 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     IndexOutput payOut = null;
     boolean success = false;
     try {
-      CodecUtil.writeIndexHeader(docOut, DOC_CODEC, VERSION_CURRENT, 
+      CodecUtil.writeIndexHeader(docOut, DOC_CODEC, version, 
                                    state.segmentInfo.getId(), state.segmentSuffix);
-      forUtil = new ForUtil(acceptableOverheadRatio, docOut);
+      if (version >= VERSION_POSTINGS_OPTIONS) {
+        docOut.writeByte(longLanes ? FLAG_LONG_LANES : 0);
+        docOut.writeVInt(this.maxInlinedDocFreq);
+      }
+      if (longLanes) {
+        forUtil = new LongForUtil();
+      } else {
+        forUtil = new ForUtil(acceptableOverheadRatio, docOut);
+      }
       if (state.fieldInfos.hasProx()) {
         posDeltaBuffer = new int[MAX_DATA_SIZE];
         String posFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene50PostingsFormat.POS_EXTENSION);
         posOut = state.directory.createOutput(posFileName, state.context);
-        CodecUtil.writeIndexHeader(posOut, POS_CODEC, VERSION_CURRENT,
+        CodecUtil.writeIndexHeader(posOut, POS_CODEC, version,
                                      state.segmentInfo.getId(), state.segmentSuffix);
 
         if (state.fieldInfos.hasPayloads()) {
@@ -136,7 +174,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
         if (state.fieldInfos.hasPayloads() || state.fieldInfos.hasOffsets()) {
           String payFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, Lucene50PostingsFormat.PAY_EXTENSION);
           payOut = state.directory.createOutput(payFileName, state.context);
-          CodecUtil.writeIndexHeader(payOut, PAY_CODEC, VERSION_CURRENT,
+          CodecUtil.writeIndexHeader(payOut, PAY_CODEC, version,
                                        state.segmentInfo.getId(), state.segmentSuffix);
         }
       } else {
@@ -176,7 +214,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
 
   @Override
   public void init(IndexOutput termsOut, SegmentWriteState state) throws IOException {
-    CodecUtil.writeIndexHeader(termsOut, TERMS_CODEC, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+    CodecUtil.writeIndexHeader(termsOut, TERMS_CODEC, version, state.segmentInfo.getId(), state.segmentSuffix);
     termsOut.writeVInt(BLOCK_SIZE);
   }
 
@@ -328,6 +366,18 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     // for this term) in two places?
     assert state.docFreq == docCount: state.docFreq + " vs " + docCount;
     
+    // rare terms get their vInt blocks of docs and positions written to the terms dictionary
+    final boolean inlined = Lucene50PostingsFormat.isInlined(state.docFreq, state.totalTermFreq, writePositions, maxInlinedDocFreq);
+    final DataOutput docTailOut;
+    final DataOutput posTailOut;
+    if (inlined) {
+      inlinedOut.reset();
+      docTailOut = posTailOut = inlinedOut;
+    } else {
+      docTailOut = docOut;
+      posTailOut = posOut;
+    }
+
     // docFreq == 1, don't write the single docid/freq to a separate file along with a pointer to it.
     final int singletonDocID;
     if (state.docFreq == 1) {
@@ -340,12 +390,12 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
         final int docDelta = docDeltaBuffer[i];
         final int freq = freqBuffer[i];
         if (!writeFreqs) {
-          docOut.writeVInt(docDelta);
+          docTailOut.writeVInt(docDelta);
         } else if (freqBuffer[i] == 1) {
-          docOut.writeVInt((docDelta<<1)|1);
+          docTailOut.writeVInt((docDelta<<1)|1);
         } else {
-          docOut.writeVInt(docDelta<<1);
-          docOut.writeVInt(freq);
+          docTailOut.writeVInt(docDelta<<1);
+          docTailOut.writeVInt(freq);
         }
       }
     }
@@ -378,28 +428,28 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
             final int payloadLength = payloadLengthBuffer[i];
             if (payloadLength != lastPayloadLength) {
               lastPayloadLength = payloadLength;
-              posOut.writeVInt((posDelta<<1)|1);
-              posOut.writeVInt(payloadLength);
+              posTailOut.writeVInt((posDelta<<1)|1);
+              posTailOut.writeVInt(payloadLength);
             } else {
-              posOut.writeVInt(posDelta<<1);
+              posTailOut.writeVInt(posDelta<<1);
             }
 
             if (payloadLength != 0) {
-              posOut.writeBytes(payloadBytes, payloadBytesReadUpto, payloadLength);
+              posTailOut.writeBytes(payloadBytes, payloadBytesReadUpto, payloadLength);
               payloadBytesReadUpto += payloadLength;
             }
           } else {
-            posOut.writeVInt(posDelta);
+            posTailOut.writeVInt(posDelta);
           }
 
           if (writeOffsets) {
             int delta = offsetStartDeltaBuffer[i];
             int length = offsetLengthBuffer[i];
             if (length == lastOffsetLength) {
-              posOut.writeVInt(delta << 1);
+              posTailOut.writeVInt(delta << 1);
             } else {
-              posOut.writeVInt(delta << 1 | 1);
-              posOut.writeVInt(length);
+              posTailOut.writeVInt(delta << 1 | 1);
+              posTailOut.writeVInt(length);
               lastOffsetLength = length;
             }
           }
@@ -425,6 +475,7 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     state.posStartFP = posStartFP;
     state.payStartFP = payStartFP;
     state.singletonDocID = singletonDocID;
+    state.inlinedPostings = inlined ? Arrays.copyOf(inlinedOut.getBytes(), inlinedOut.getPosition()) : null;
     state.skipOffset = skipOffset;
     state.lastPosBlockOffset = lastPosBlockOffset;
     docBufferUpto = 0;
@@ -457,6 +508,10 @@ public final class Lucene50PostingsWriter extends PushPostingsWriterBase {
     if (state.skipOffset != -1) {
       out.writeVLong(state.skipOffset);
     }
+    if (state.inlinedPostings != null) {
+      out.writeVInt(state.inlinedPostings.length);
+      out.writeBytes(state.inlinedPostings, 0, state.inlinedPostings.length);
+    }
     lastState = state;
   }
 
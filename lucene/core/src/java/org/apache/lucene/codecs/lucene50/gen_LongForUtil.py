@@ -0,0 +1,354 @@
+#! /usr/bin/env python
+
+# Licensed to the Apache Software Foundation (ASF) under one or more
+# contributor license agreements.  See the NOTICE file distributed with
+# this work for additional information regarding copyright ownership.
+# The ASF licenses this file to You under the Apache License, Version 2.0
+# (the "License"); you may not use this file except in compliance with
+# the License.  You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+try:
+  from math import gcd
+except ImportError:
+  from fractions import gcd
+
+"""Code generation for LongForUtil.java"""
+
+BLOCK_SIZE = 128
+MAX_SPECIALIZED_BITS_PER_VALUE = 32
+OUTPUT_FILE = "LongForUtil.java"
+HEADER = """// This file has been automatically generated, DO NOT EDIT
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+import static org.apache.lucene.codecs.lucene50.Lucene50PostingsFormat.BLOCK_SIZE;
+
+/**
+ * Encode all values of a block with fixed bit width like {@link ForUtil}, but
+ * pack them into the lanes of {@code long}s so that decoding boils down to a
+ * few loops of shifts and masks over arrays of longs, which the JIT can
+ * auto-vectorize, instead of one {@link org.apache.lucene.util.packed.PackedInts.Decoder}
+ * per number of bits per value.
+ * <p>
+ * Values that need {@code bpv} bits are first collapsed into lanes of 8, 16
+ * or 32 bits, the smallest lane width that is {@code >= bpv}, so that every
+ * long holds 8, 4 or 2 values. Then {@code 2*bpv} longs are written: as many
+ * values as possible are stacked into each lane, and the bits that are left
+ * over at the bottom of the lanes store the remaining values.
+ */
+final class LongForUtil extends BaseForUtil {
+
+  /**
+   * Special number of bits per value used whenever all values to encode are equal.
+   */
+  private static final int ALL_VALUES_EQUAL = 0;
+
+  private static long expandMask(long mask, int laneWidth) {
+    for (int width = laneWidth; width < Long.SIZE; width *= 2) {
+      mask |= mask << width;
+    }
+    return mask;
+  }
+
+  private static long mask(int bitsPerValue, int laneWidth) {
+    return expandMask((1L << bitsPerValue) - 1, laneWidth);
+  }
+
+  private static final long[] MASKS8 = new long[8 + 1];
+  private static final long[] MASKS16 = new long[16 + 1];
+  private static final long[] MASKS32 = new long[32 + 1];
+  static {
+    for (int i = 0; i <= 8; ++i) {
+      MASKS8[i] = mask(i, 8);
+    }
+    for (int i = 0; i <= 16; ++i) {
+      MASKS16[i] = mask(i, 16);
+    }
+    for (int i = 0; i <= 32; ++i) {
+      MASKS32[i] = mask(i, 32);
+    }
+  }
+"""
+
+ENCODE = """
+  /** Return the width of the lanes that values with the given number of bits are collapsed into. */
+  private static int laneWidth(int bitsPerValue) {
+    if (bitsPerValue <= 8) {
+      return 8;
+    } else if (bitsPerValue <= 16) {
+      return 16;
+    } else {
+      return 32;
+    }
+  }
+
+  private static long[] masks(int laneWidth) {
+    switch (laneWidth) {
+      case 8:
+        return MASKS8;
+      case 16:
+        return MASKS16;
+      default:
+        return MASKS32;
+    }
+  }
+
+  private final long[] longs = new long[BLOCK_SIZE];
+  private final long[] tmp = new long[BLOCK_SIZE / 2];
+
+  @Override
+  void writeBlock(int[] data, byte[] encoded, IndexOutput out) throws IOException {
+    if (ForUtil.isAllEqual(data)) {
+      out.writeByte((byte) ALL_VALUES_EQUAL);
+      out.writeVInt(data[0]);
+      return;
+    }
+
+    final int bitsPerValue = ForUtil.bitsRequired(data);
+    assert bitsPerValue > 0 && bitsPerValue <= 32 : bitsPerValue;
+    out.writeByte((byte) bitsPerValue);
+
+    final int laneWidth = laneWidth(bitsPerValue);
+    final long[] masks = masks(laneWidth);
+    final int numLongs = BLOCK_SIZE * laneWidth / Long.SIZE;
+    collapse(data, laneWidth);
+
+    // stack as many values as possible into every lane
+    final int numLongsPerShift = 2 * bitsPerValue;
+    int idx = 0;
+    int shift = laneWidth - bitsPerValue;
+    for (int i = 0; i < numLongsPerShift; ++i) {
+      tmp[i] = longs[idx++] << shift;
+    }
+    for (shift = shift - bitsPerValue; shift >= 0; shift -= bitsPerValue) {
+      for (int i = 0; i < numLongsPerShift; ++i) {
+        tmp[i] |= longs[idx++] << shift;
+      }
+    }
+
+    // the remaining values go to the bits that are left at the bottom of lanes
+    final int remainingBitsPerLane = shift + bitsPerValue;
+    int tmpIdx = 0;
+    int available = remainingBitsPerLane;
+    while (idx < numLongs) {
+      final long l = longs[idx++];
+      for (int needed = bitsPerValue; needed > 0; ) {
+        if (available == 0) {
+          tmpIdx++;
+          available = remainingBitsPerLane;
+        }
+        final int bits = Math.min(needed, available);
+        needed -= bits;
+        available -= bits;
+        tmp[tmpIdx] |= ((l >>> needed) & masks[bits]) << available;
+      }
+    }
+    assert idx == numLongs;
+
+    for (int i = 0; i < numLongsPerShift; ++i) {
+      out.writeLong(tmp[i]);
+    }
+  }
+
+  /** Collapse values into lanes: the i-th long stores values {@code i}, {@code i+numLongs}, {@code i+2*numLongs}, etc. */
+  private void collapse(int[] data, int laneWidth) {
+    final int numLongs = BLOCK_SIZE * laneWidth / Long.SIZE;
+    for (int i = 0; i < numLongs; ++i) {
+      long l = 0;
+      for (int j = i; j < BLOCK_SIZE; j += numLongs) {
+        l = (l << laneWidth) | (data[j] & 0xFFFFFFFFL);
+      }
+      longs[i] = l;
+    }
+  }
+
+  @Override
+  void skipBlock(IndexInput in) throws IOException {
+    final int bitsPerValue = in.readByte();
+    if (bitsPerValue == ALL_VALUES_EQUAL) {
+      in.readVInt();
+      return;
+    }
+    assert bitsPerValue > 0 && bitsPerValue <= 32 : bitsPerValue;
+    in.seek(in.getFilePointer() + 2 * bitsPerValue * Long.BYTES);
+  }
+
+  @Override
+  public LongForUtil clone() {
+    // scratch buffers may not be shared
+    return new LongForUtil();
+  }
+
+  /** Read {@code count} longs at once, using {@code encoded} as a buffer: reading longs one by one is slow on most {@link DataInput}s. */
+  private static void readLongs(DataInput in, byte[] encoded, long[] dst, int count) throws IOException {
+    in.readBytes(encoded, 0, count * Long.BYTES);
+    for (int i = 0, j = 0; i < count; ++i, j += Long.BYTES) {
+      dst[i] = ((encoded[j] & 0xFFL) << 56) | ((encoded[j+1] & 0xFFL) << 48)
+          | ((encoded[j+2] & 0xFFL) << 40) | ((encoded[j+3] & 0xFFL) << 32)
+          | ((encoded[j+4] & 0xFFL) << 24) | ((encoded[j+5] & 0xFFL) << 16)
+          | ((encoded[j+6] & 0xFFL) << 8) | (encoded[j+7] & 0xFFL);
+    }
+  }
+
+  private static void shiftLongs(long[] src, int count, long[] dst, int dstOffset, int shift, long mask) {
+    for (int i = 0; i < count; ++i) {
+      dst[dstOffset + i] = (src[i] >>> shift) & mask;
+    }
+  }
+
+  private static void expand8(long[] longs, int[] decoded) {
+    for (int i = 0; i < 16; ++i) {
+      final long l = longs[i];
+      decoded[i] = (int) ((l >>> 56) & 0xFF);
+      decoded[16 + i] = (int) ((l >>> 48) & 0xFF);
+      decoded[32 + i] = (int) ((l >>> 40) & 0xFF);
+      decoded[48 + i] = (int) ((l >>> 32) & 0xFF);
+      decoded[64 + i] = (int) ((l >>> 24) & 0xFF);
+      decoded[80 + i] = (int) ((l >>> 16) & 0xFF);
+      decoded[96 + i] = (int) ((l >>> 8) & 0xFF);
+      decoded[112 + i] = (int) (l & 0xFF);
+    }
+  }
+
+  private static void expand16(long[] longs, int[] decoded) {
+    for (int i = 0; i < 32; ++i) {
+      final long l = longs[i];
+      decoded[i] = (int) ((l >>> 48) & 0xFFFF);
+      decoded[32 + i] = (int) ((l >>> 32) & 0xFFFF);
+      decoded[64 + i] = (int) ((l >>> 16) & 0xFFFF);
+      decoded[96 + i] = (int) (l & 0xFFFF);
+    }
+  }
+
+  private static void expand32(long[] longs, int[] decoded) {
+    for (int i = 0; i < 64; ++i) {
+      final long l = longs[i];
+      decoded[i] = (int) (l >>> 32);
+      decoded[64 + i] = (int) l;
+    }
+  }
+"""
+
+def lane_width(bpv):
+  if bpv <= 8:
+    return 8
+  elif bpv <= 16:
+    return 16
+  else:
+    return 32
+
+def write_decode(bpv, f):
+  p = lane_width(bpv)
+  num_longs = BLOCK_SIZE * p // 64
+  per_shift = 2 * bpv
+  f.write("\n  private static void decode%d(DataInput in, byte[] encoded, long[] tmp, long[] longs) throws IOException {\n" % bpv)
+  f.write("    readLongs(in, encoded, tmp, %d);\n" % per_shift)
+  idx = 0
+  shift = p - bpv
+  while shift >= 0:
+    f.write("    shiftLongs(tmp, %d, longs, %d, %d, MASK%d_%d);\n" % (per_shift, idx, shift, p, bpv))
+    idx += per_shift
+    shift -= bpv
+  remaining = shift + bpv
+  if idx < num_longs:
+    g = gcd(bpv, remaining)
+    tmp_per_group = bpv // g
+    values_per_group = remaining // g
+    iterations = per_shift // tmp_per_group
+    assert iterations * values_per_group == num_longs - idx
+    f.write("    for (int iter = 0, tmpIdx = 0, longsIdx = %d; iter < %d; ++iter, tmpIdx += %d, longsIdx += %d) {\n"
+            % (idx, iterations, tmp_per_group, values_per_group))
+    tmp_idx = 0
+    available = remaining
+    for v in range(values_per_group):
+      needed = bpv
+      first = True
+      while needed > 0:
+        if available == 0:
+          tmp_idx += 1
+          available = remaining
+        bits = min(needed, available)
+        needed -= bits
+        available -= bits
+        expr = "tmp[tmpIdx + %d]" % tmp_idx
+        if available > 0:
+          expr = "(%s >>> %d)" % (expr, available)
+        expr = "%s & MASK%d_%d" % (expr, p, bits)
+        if needed > 0:
+          expr = "(%s) << %d" % (expr, needed)
+        if first:
+          f.write("      long l%d = %s;\n" % (v, expr))
+          first = False
+        else:
+          f.write("      l%d |= %s;\n" % (v, expr))
+      f.write("      longs[longsIdx + %d] = l%d;\n" % (v, v))
+    assert tmp_idx == tmp_per_group - 1 and available == 0
+    f.write("    }\n")
+  f.write("  }\n")
+
+if __name__ == '__main__':
+  f = open(OUTPUT_FILE, 'w')
+  f.write(HEADER)
+  f.write("\n")
+  for p in [8, 16, 32]:
+    for bits in range(0, p + 1):
+      f.write("  private static final long MASK%d_%d = MASKS%d[%d];\n" % (p, bits, p, bits))
+  f.write(ENCODE)
+
+  f.write("""
+  @Override
+  void readBlock(IndexInput in, byte[] encoded, int[] decoded) throws IOException {
+    final int bitsPerValue = in.readByte();
+    switch (bitsPerValue) {
+      case ALL_VALUES_EQUAL:
+        final int value = in.readVInt();
+        Arrays.fill(decoded, 0, BLOCK_SIZE, value);
+        break;
+""")
+  for bpv in range(1, MAX_SPECIALIZED_BITS_PER_VALUE + 1):
+    f.write("      case %d:\n" % bpv)
+    f.write("        decode%d(in, encoded, tmp, longs);\n" % bpv)
+    f.write("        expand%d(longs, decoded);\n" % lane_width(bpv))
+    f.write("        break;\n")
+  f.write("""      default:
+        throw new AssertionError("Illegal number of bits per value: " + bitsPerValue);
+    }
+  }
+""")
+
+  for bpv in range(1, MAX_SPECIALIZED_BITS_PER_VALUE + 1):
+    write_decode(bpv, f)
+
+  f.write("\n}\n")
+  f.close()
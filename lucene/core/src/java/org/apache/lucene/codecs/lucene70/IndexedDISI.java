@@ -22,6 +22,8 @@ import java.io.IOException;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RandomAccessInput;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BitSetIterator;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.RoaringDocIdSet;
@@ -45,19 +47,37 @@ import org.apache.lucene.util.RoaringDocIdSet;
  * <p>Only ranges that contain at least one value are encoded.
  * <p>This implementation uses 6 bytes per document in the worst-case, which happens
  * in the case that all ranges contain exactly one document.
+ * <p>Optionally, {@code DENSE} blocks are prefixed with a rank, which records
+ * the number of documents before every group of {@value #RANK_WORDS} longs of
+ * the bit set, and a jump table, which records the index and offset of the
+ * block of every range, is written after the last block. These allow
+ * {@link #advance} and {@link #advanceExact} to go to the block of the target
+ * and then to the target word of a {@code DENSE} block in constant time, at
+ * the cost of 12 bytes per range and 256 bytes per {@code DENSE} block.
  * @lucene.internal
  */
 final class IndexedDISI extends DocIdSetIterator {
 
   static final int MAX_ARRAY_LENGTH = (1 << 12) - 1;
 
-  private static void flush(int block, FixedBitSet buffer, int cardinality, IndexOutput out) throws IOException {
+  /** Number of longs of a {@code DENSE} block per entry of its rank. */
+  static final int RANK_WORDS = 8;
+  private static final int RANK_WORDS_SHIFT = 3;
+  /** Number of bytes of the rank of a {@code DENSE} block. */
+  static final int RANK_BYTES = (1024 / RANK_WORDS) * Short.BYTES;
+  /** Number of bytes of an entry of the jump table: an int index and a long offset. */
+  static final int JUMP_TABLE_ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+
+  private static void flush(int block, FixedBitSet buffer, int cardinality, boolean rank, IndexOutput out) throws IOException {
     assert block >= 0 && block < 65536;
     out.writeShort((short) block);
     assert cardinality > 0 && cardinality <= 65536;
     out.writeShort((short) (cardinality - 1));
     if (cardinality > MAX_ARRAY_LENGTH) {
       if (cardinality != 65536) { // all docs are set
+        if (rank) {
+          writeRank(buffer, out);
+        }
         for (long word : buffer.getBits()) {
           out.writeLong(word);
         }
@@ -70,37 +90,104 @@ final class IndexedDISI extends DocIdSetIterator {
     }
   }
 
+  private static void writeRank(FixedBitSet buffer, IndexOutput out) throws IOException {
+    final long[] words = buffer.getBits();
+    int numberOfOnes = 0;
+    for (int i = 0; i < 1024; i += RANK_WORDS) {
+      assert numberOfOnes < 65536;
+      out.writeShort((short) numberOfOnes);
+      for (int j = i; j < i + RANK_WORDS; ++j) {
+        numberOfOnes += Long.bitCount(words[j]);
+      }
+    }
+  }
+
   static void writeBitSet(DocIdSetIterator it, IndexOutput out) throws IOException {
+    writeBitSet(it, out, false);
+  }
+
+  /** Write the docs of {@code it} to {@code out}, followed by a jump table if
+   *  {@code jumpTables} is true, and return the number of entries of the jump
+   *  table, which must be passed to
+   *  {@link #IndexedDISI(IndexInput, long, long, int, long)}. */
+  static int writeBitSet(DocIdSetIterator it, IndexOutput out, boolean jumpTables) throws IOException {
+    final long origo = out.getFilePointer();
     int i = 0;
+    int totalCardinality = 0;
     final FixedBitSet buffer = new FixedBitSet(1<<16);
     int prevBlock = -1;
+    // index and offset of the first block on or after every range
+    int[] jumpIndexes = new int[0];
+    long[] jumpOffsets = new long[0];
+    int numJumpEntries = 0;
     for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
       final int block = doc >>> 16;
       if (prevBlock != -1 && block != prevBlock) {
-        flush(prevBlock, buffer, i, out);
+        flush(prevBlock, buffer, i, jumpTables, out);
         buffer.clear(0, buffer.length());
         prevBlock = block;
+        totalCardinality += i;
         i = 0;
       }
+      if (jumpTables && block >= numJumpEntries) {
+        jumpIndexes = ArrayUtil.grow(jumpIndexes, block + 1);
+        jumpOffsets = ArrayUtil.grow(jumpOffsets, block + 1);
+        for (; numJumpEntries <= block; ++numJumpEntries) {
+          jumpIndexes[numJumpEntries] = totalCardinality;
+          jumpOffsets[numJumpEntries] = out.getFilePointer() - origo;
+        }
+      }
       buffer.set(doc & 0xFFFF);
       i++;
       prevBlock = block;
     }
     if (i > 0) {
-      flush(prevBlock, buffer, i, out);
+      flush(prevBlock, buffer, i, jumpTables, out);
       buffer.clear(0, buffer.length());
+      totalCardinality += i;
+    }
+    if (jumpTables) {
+      // the last entry points to the NO_MORE_DOCS block
+      jumpIndexes = ArrayUtil.grow(jumpIndexes, numJumpEntries + 1);
+      jumpOffsets = ArrayUtil.grow(jumpOffsets, numJumpEntries + 1);
+      jumpIndexes[numJumpEntries] = totalCardinality;
+      jumpOffsets[numJumpEntries] = out.getFilePointer() - origo;
+      numJumpEntries++;
     }
     // NO_MORE_DOCS is stored explicitly
     buffer.set(DocIdSetIterator.NO_MORE_DOCS & 0xFFFF);
-    flush(DocIdSetIterator.NO_MORE_DOCS >>> 16, buffer, 1, out);
+    flush(DocIdSetIterator.NO_MORE_DOCS >>> 16, buffer, 1, jumpTables, out);
+    for (int j = 0; j < numJumpEntries; ++j) {
+      out.writeInt(jumpIndexes[j]);
+      out.writeLong(jumpOffsets[j]);
+    }
+    return numJumpEntries;
   }
 
   /** The slice that stores the {@link DocIdSetIterator}. */
   private final IndexInput slice;
+  /** The jump table, or null if blocks have no jump table and no rank. */
+  private final RandomAccessInput jumpTable;
+  private final int jumpTableEntryCount;
   private final long cost;
 
   IndexedDISI(IndexInput in, long offset, long length, long cost) throws IOException {
-    this.slice = in.slice("docs", offset, length);
+    this(in, offset, length, 0, cost);
+  }
+
+  /** Create an iterator over the docs written by
+   *  {@link #writeBitSet(DocIdSetIterator, IndexOutput, boolean)} at
+   *  {@code offset}, which returned {@code jumpTableEntryCount}. */
+  IndexedDISI(IndexInput in, long offset, long length, int jumpTableEntryCount, long cost) throws IOException {
+    if (jumpTableEntryCount > 0) {
+      final long jumpTableLength = (long) jumpTableEntryCount * JUMP_TABLE_ENTRY_BYTES;
+      this.slice = in.slice("docs", offset, length - jumpTableLength);
+      this.jumpTable = in.randomAccessSlice(offset + length - jumpTableLength, jumpTableLength);
+    } else {
+      this.slice = in.slice("docs", offset, length);
+      this.jumpTable = null;
+    }
+    this.jumpTableEntryCount = jumpTableEntryCount;
     this.cost = cost;
   }
 
@@ -120,6 +207,9 @@ final class IndexedDISI extends DocIdSetIterator {
   private int wordIndex = -1;
   // number of one bits encountered so far, including those of `word`
   private int numberOfOnes;
+  // file pointer of the rank, and number of one bits before this block
+  private long denseRankFP;
+  private int denseOrigoIndex;
 
   // ALL variables
   private int gap;
@@ -157,6 +247,13 @@ final class IndexedDISI extends DocIdSetIterator {
   }
 
   private void advanceBlock(int targetBlock) throws IOException {
+    final int blockIndex = targetBlock >> 16;
+    // only use the jump table if the target block is not the next one
+    if (jumpTable != null && blockIndex >= (block >> 16) + 2) {
+      final long entry = (long) Math.min(blockIndex, jumpTableEntryCount - 1) * JUMP_TABLE_ENTRY_BYTES;
+      nextBlockIndex = jumpTable.readInt(entry) - 1;
+      blockEnd = jumpTable.readLong(entry + Integer.BYTES);
+    }
     do {
       slice.seek(blockEnd);
       readBlockHeader();
@@ -178,10 +275,28 @@ final class IndexedDISI extends DocIdSetIterator {
       gap = block - index - 1;
     } else {
       method = Method.DENSE;
-      blockEnd = slice.getFilePointer() + (1 << 13);
       wordIndex = -1;
       numberOfOnes = index + 1;
+      if (jumpTable != null) {
+        denseRankFP = slice.getFilePointer();
+        denseOrigoIndex = numberOfOnes;
+        slice.seek(denseRankFP + RANK_BYTES);
+      }
+      blockEnd = slice.getFilePointer() + (1 << 13);
+    }
+  }
+
+  /** Use the rank of the current {@code DENSE} block to skip to the group
+   *  of words that contains {@code targetWordIndex} if it is far enough. */
+  private void rankSkip(int targetWordIndex) throws IOException {
+    if (jumpTable == null || targetWordIndex - wordIndex < RANK_WORDS) {
+      return;
     }
+    final int rankIndex = targetWordIndex >> RANK_WORDS_SHIFT;
+    slice.seek(denseRankFP + rankIndex * Short.BYTES);
+    numberOfOnes = denseOrigoIndex + Short.toUnsignedInt(slice.readShort());
+    wordIndex = (rankIndex << RANK_WORDS_SHIFT) - 1;
+    slice.seek(denseRankFP + RANK_BYTES + ((long) (wordIndex + 1) << 3));
   }
 
   @Override
@@ -244,6 +359,7 @@ final class IndexedDISI extends DocIdSetIterator {
       boolean advanceWithinBlock(IndexedDISI disi, int target) throws IOException {
         final int targetInBlock = target & 0xFFFF;
         final int targetWordIndex = targetInBlock >>> 6;
+        disi.rankSkip(targetWordIndex);
         for (int i = disi.wordIndex + 1; i <= targetWordIndex; ++i) {
           disi.word = disi.slice.readLong();
           disi.numberOfOnes += Long.bitCount(disi.word);
@@ -272,6 +388,7 @@ final class IndexedDISI extends DocIdSetIterator {
       boolean advanceExactWithinBlock(IndexedDISI disi, int target) throws IOException {
         final int targetInBlock = target & 0xFFFF;
         final int targetWordIndex = targetInBlock >>> 6;
+        disi.rankSkip(targetWordIndex);
         for (int i = disi.wordIndex + 1; i <= targetWordIndex; ++i) {
           disi.word = disi.slice.readLong();
           disi.numberOfOnes += Long.bitCount(disi.word);
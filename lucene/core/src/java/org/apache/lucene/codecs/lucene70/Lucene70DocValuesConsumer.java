@@ -47,6 +47,7 @@ import org.apache.lucene.search.SortedSetSelector;
 import org.apache.lucene.store.GrowableByteArrayDataOutput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.RAMOutputStream;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.IOUtils;
@@ -60,17 +61,24 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
 
   IndexOutput data, meta;
   final int maxDoc;
+  final int version;
 
   /** expert: Creates a new writer */
   public Lucene70DocValuesConsumer(SegmentWriteState state, String dataCodec, String dataExtension, String metaCodec, String metaExtension) throws IOException {
+    this(state, dataCodec, dataExtension, metaCodec, metaExtension, Lucene70DocValuesFormat.VERSION_CURRENT);
+  }
+
+  /** Creates a new writer that writes the given version of the format, only used to test back-compat */
+  Lucene70DocValuesConsumer(SegmentWriteState state, String dataCodec, String dataExtension, String metaCodec, String metaExtension, int version) throws IOException {
+    this.version = version;
     boolean success = false;
     try {
       String dataName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, dataExtension);
       data = state.directory.createOutput(dataName, state.context);
-      CodecUtil.writeIndexHeader(data, dataCodec, Lucene70DocValuesFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(data, dataCodec, version, state.segmentInfo.getId(), state.segmentSuffix);
       String metaName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, metaExtension);
       meta = state.directory.createOutput(metaName, state.context);
-      CodecUtil.writeIndexHeader(meta, metaCodec, Lucene70DocValuesFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(meta, metaCodec, version, state.segmentInfo.getId(), state.segmentSuffix);
       maxDoc = state.segmentInfo.maxDoc();
       success = true;
     } finally {
@@ -102,6 +110,12 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     }
   }
 
+  private void writeJumpTableEntryCount(int jumpTableEntryCount) throws IOException {
+    if (version >= Lucene70DocValuesFormat.VERSION_JUMP_TABLES) {
+      meta.writeInt(jumpTableEntryCount);
+    }
+  }
+
   @Override
   public void addNumericField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
     meta.writeInt(field.number);
@@ -116,11 +130,14 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
   }
 
   private static class MinMaxTracker {
-    long min, max, numValues, spaceInBits;
+    long min, max, numValues;
+    // max - min and number of values of every finished block
+    private long[] ranges = new long[1];
+    private long[] counts = new long[1];
+    private int numBlocks;
 
     MinMaxTracker() {
       reset();
-      spaceInBits = 0;
     }
 
     private void reset() {
@@ -136,14 +153,30 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
       ++numValues;
     }
 
-    /** Update the required space. */
+    /** Record the range of the current block. */
     void finish() {
-      if (max > min) {
-        spaceInBits += DirectWriter.unsignedBitsRequired(max - min) * numValues;
+      if (numValues > 0) {
+        ranges = ArrayUtil.grow(ranges, numBlocks + 1);
+        counts = ArrayUtil.grow(counts, numBlocks + 1);
+        ranges[numBlocks] = max - min;
+        counts[numBlocks] = numValues;
+        numBlocks++;
+      }
+    }
+
+    /** Return the space required to encode the values of finished blocks as
+     *  deltas from the minimum value of their block divided by {@code gcd}. */
+    long spaceInBits(long gcd) {
+      long spaceInBits = 0;
+      for (int i = 0; i < numBlocks; ++i) {
+        if (ranges[i] != 0) {
+          spaceInBits += DirectWriter.unsignedBitsRequired(ranges[i] / gcd) * counts[i];
+        }
       }
+      return spaceInBits;
     }
 
-    /** Update space usage and get ready for accumulating values for the next block. */
+    /** Record the range of the current block and get ready for accumulating values for the next block. */
     void nextBlock() {
       finish();
       reset();
@@ -194,20 +227,22 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     final long numValues = minMax.numValues;
     long min = minMax.min;
     final long max = minMax.max;
-    assert blockMinMax.spaceInBits <= minMax.spaceInBits;
 
     if (numDocsWithValue == 0) {
       meta.writeLong(-2);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else if (numDocsWithValue == maxDoc) {
       meta.writeLong(-1);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else {
       long offset = data.getFilePointer();
       meta.writeLong(offset);
       values = valuesProducer.getSortedNumeric(field);
-      IndexedDISI.writeBitSet(values, data);
+      final int jumpTableEntryCount = IndexedDISI.writeBitSet(values, data, version >= Lucene70DocValuesFormat.VERSION_JUMP_TABLES);
       meta.writeLong(data.getFilePointer() - offset);
+      writeJumpTableEntryCount(jumpTableEntryCount);
     }
 
     meta.writeLong(numValues);
@@ -218,9 +253,20 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
       numBitsPerValue = 0;
       meta.writeInt(-1);
     } else {
-      if (uniqueValues != null
-          && uniqueValues.size() > 1
-          && DirectWriter.unsignedBitsRequired(uniqueValues.size() - 1) < DirectWriter.unsignedBitsRequired((max - min) / gcd)) {
+      // pick the encoding that requires the least space
+      final long deltaSpaceInBits = minMax.spaceInBits(gcd);
+      final long blocksSpaceInBits = blockMinMax.spaceInBits(gcd);
+      assert blocksSpaceInBits <= deltaSpaceInBits;
+      long tableSpaceInBits = Long.MAX_VALUE;
+      if (uniqueValues != null && uniqueValues.size() > 1) {
+        tableSpaceInBits = DirectWriter.unsignedBitsRequired(uniqueValues.size() - 1) * numValues;
+      }
+      // blocks are slower to read, so we only do blocks if that appears to save 10+% storage
+      doBlocks = blocksSpaceInBits <= 0.9 * Math.min(deltaSpaceInBits, tableSpaceInBits);
+      if (doBlocks) {
+        numBitsPerValue = 0xFF;
+        meta.writeInt(-2 - NUMERIC_BLOCK_SHIFT);
+      } else if (tableSpaceInBits < deltaSpaceInBits) {
         numBitsPerValue = DirectWriter.unsignedBitsRequired(uniqueValues.size() - 1);
         final Long[] sortedUniqueValues = uniqueValues.toArray(new Long[0]);
         Arrays.sort(sortedUniqueValues);
@@ -236,19 +282,12 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
         gcd = 1;
       } else {
         uniqueValues = null;
-        // we do blocks if that appears to save 10+% storage
-        doBlocks = minMax.spaceInBits > 0 && (double) blockMinMax.spaceInBits / minMax.spaceInBits <= 0.9;
-        if (doBlocks) {
-          numBitsPerValue = 0xFF;
-          meta.writeInt(-2 - NUMERIC_BLOCK_SHIFT);
-        } else {
-          numBitsPerValue = DirectWriter.unsignedBitsRequired((max - min) / gcd);
-          if (gcd == 1 && min > 0
-              && DirectWriter.unsignedBitsRequired(max) == DirectWriter.unsignedBitsRequired(max - min)) {
-            min = 0;
-          }
-          meta.writeInt(-1);
+        numBitsPerValue = DirectWriter.unsignedBitsRequired((max - min) / gcd);
+        if (gcd == 1 && min > 0
+            && DirectWriter.unsignedBitsRequired(max) == DirectWriter.unsignedBitsRequired(max - min)) {
+          min = 0;
         }
+        meta.writeInt(-1);
       }
     }
 
@@ -315,7 +354,7 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
       data.writeByte((byte) 0);
       data.writeLong(min);
     } else {
-      final int bitsPerValue = DirectWriter.unsignedBitsRequired(max - min);
+      final int bitsPerValue = DirectWriter.unsignedBitsRequired((max - min) / gcd);
       buffer.reset();
       assert buffer.getPosition() == 0;
       final DirectWriter w = DirectWriter.getInstance(buffer, length, bitsPerValue);
@@ -355,15 +394,18 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     if (numDocsWithField == 0) {
       meta.writeLong(-2);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else if (numDocsWithField == maxDoc) {
       meta.writeLong(-1);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else {
       long offset = data.getFilePointer();
       meta.writeLong(offset);
       values = valuesProducer.getBinary(field);
-      IndexedDISI.writeBitSet(values, data);
+      final int jumpTableEntryCount = IndexedDISI.writeBitSet(values, data, version >= Lucene70DocValuesFormat.VERSION_JUMP_TABLES);
       meta.writeLong(data.getFilePointer() - offset);
+      writeJumpTableEntryCount(jumpTableEntryCount);
     }
 
     meta.writeInt(numDocsWithField);
@@ -404,15 +446,18 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     if (numDocsWithField == 0) {
       meta.writeLong(-2);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else if (numDocsWithField == maxDoc) {
       meta.writeLong(-1);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else {
       long offset = data.getFilePointer();
       meta.writeLong(offset);
       values = valuesProducer.getSorted(field);
-      IndexedDISI.writeBitSet(values, data);
+      final int jumpTableEntryCount = IndexedDISI.writeBitSet(values, data, version >= Lucene70DocValuesFormat.VERSION_JUMP_TABLES);
       meta.writeLong(data.getFilePointer() - offset);
+      writeJumpTableEntryCount(jumpTableEntryCount);
     }
 
     meta.writeInt(numDocsWithField);
@@ -582,12 +627,14 @@ final class Lucene70DocValuesConsumer extends DocValuesConsumer implements Close
     if (numDocsWithField == maxDoc) {
       meta.writeLong(-1);
       meta.writeLong(0L);
+      writeJumpTableEntryCount(0);
     } else {
       long offset = data.getFilePointer();
       meta.writeLong(offset);
       values = valuesProducer.getSortedSet(field);
-      IndexedDISI.writeBitSet(values, data);
+      final int jumpTableEntryCount = IndexedDISI.writeBitSet(values, data, version >= Lucene70DocValuesFormat.VERSION_JUMP_TABLES);
       meta.writeLong(data.getFilePointer() - offset);
+      writeJumpTableEntryCount(jumpTableEntryCount);
     }
 
     int numberOfBitsPerOrd = DirectWriter.unsignedBitsRequired(values.getValueCount() - 1);
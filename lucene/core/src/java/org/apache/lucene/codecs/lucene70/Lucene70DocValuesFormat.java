@@ -57,6 +57,14 @@ import org.apache.lucene.util.packed.DirectWriter;
  *         using {@link IndexWriterConfig#setIndexSort(org.apache.lucene.search.Sort) index sorting}.
  * </ul>
  * <p>
+ * The bit set of DENSE blocks is prefixed with a rank, which stores the number of documents
+ * before every 8 longs of the bit set as a {@link DataOutput#writeShort(short) short}, so that
+ * the index of a document can be computed by visiting at most 8 longs. The last block is followed
+ * by a jump table, which stores for every range of 65536 doc IDs the index of its first document
+ * as an {@link DataOutput#writeInt(int) int} and the offset of the first block on or after it as
+ * a {@link DataOutput#writeLong(long) long}, so that advancing to a far document does not need to
+ * visit the blocks in-between.
+ * <p>
  * Then the five per-document value types (Numeric,Binary,Sorted,SortedSet,SortedNumeric) are
  * encoded using the following strategies:
  * <p>
@@ -74,6 +82,10 @@ import org.apache.lucene.util.packed.DirectWriter;
  *        as blocks of bitpacked integers, encoding the deviation from the expected delta.
  *    <li>Const-compressed: when there is only one possible value, no per-document data is needed and
  *        this value is encoded alone.
+ *    <li>Block-compressed: when values are clustered, such as timestamps in a sorted index, values are
+ *        split into blocks of 16384 values which are GCD-compressed independently from the minimum value
+ *        of the block. Blocks that hold a single value are Const-compressed. This strategy is picked over
+ *        the above ones when it saves at least 10% of the space.
  * </ul>
  * <p>
  * {@link DocValuesType#BINARY BINARY}:
@@ -137,7 +149,8 @@ public final class Lucene70DocValuesFormat extends DocValuesFormat {
   static final String META_CODEC = "Lucene70DocValuesMetadata";
   static final String META_EXTENSION = "dvm";
   static final int VERSION_START = 0;
-  static final int VERSION_CURRENT = VERSION_START;
+  static final int VERSION_JUMP_TABLES = 1;
+  static final int VERSION_CURRENT = VERSION_JUMP_TABLES;
 
   // indicates docvalues type
   static final byte NUMERIC = 0;
@@ -57,6 +57,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
   private long ramBytesUsed;
   private final IndexInput data;
   private final int maxDoc;
+  private int version = -1;
 
   /** expert: instantiates a new reader */
   Lucene70DocValuesProducer(SegmentReadState state, String dataCodec, String dataExtension, String metaCodec, String metaExtension) throws IOException {
@@ -64,8 +65,6 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     this.maxDoc = state.segmentInfo.maxDoc();
     ramBytesUsed = RamUsageEstimator.shallowSizeOfInstance(getClass());
 
-    int version = -1;
-
     // read in the entries from the metadata file.
     try (ChecksumIndexInput in = state.directory.openChecksumInput(metaName, state.context)) {
       Throwable priorE = null;
@@ -133,6 +132,17 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     }
   }
 
+  private int readJumpTableEntryCount(ChecksumIndexInput meta) throws IOException {
+    if (version < Lucene70DocValuesFormat.VERSION_JUMP_TABLES) {
+      return 0;
+    }
+    final int jumpTableEntryCount = meta.readInt();
+    if (jumpTableEntryCount < 0) {
+      throw new CorruptIndexException("invalid jump table entry count: " + jumpTableEntryCount, meta);
+    }
+    return jumpTableEntryCount;
+  }
+
   private NumericEntry readNumeric(ChecksumIndexInput meta) throws IOException {
     NumericEntry entry = new NumericEntry();
     readNumeric(meta, entry);
@@ -142,6 +152,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
   private void readNumeric(ChecksumIndexInput meta, NumericEntry entry) throws IOException {
     entry.docsWithFieldOffset = meta.readLong();
     entry.docsWithFieldLength = meta.readLong();
+    entry.jumpTableEntryCount = readJumpTableEntryCount(meta);
     entry.numValues = meta.readLong();
     int tableSize = meta.readInt();
     if (tableSize > 256) {
@@ -172,6 +183,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     entry.dataLength = meta.readLong();
     entry.docsWithFieldOffset = meta.readLong();
     entry.docsWithFieldLength = meta.readLong();
+    entry.jumpTableEntryCount = readJumpTableEntryCount(meta);
     entry.numDocsWithField = meta.readInt();
     entry.minLength = meta.readInt();
     entry.maxLength = meta.readInt();
@@ -189,6 +201,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     SortedEntry entry = new SortedEntry();
     entry.docsWithFieldOffset = meta.readLong();
     entry.docsWithFieldLength = meta.readLong();
+    entry.jumpTableEntryCount = readJumpTableEntryCount(meta);
     entry.numDocsWithField = meta.readInt();
     entry.bitsPerValue = meta.readByte();
     entry.ordsOffset = meta.readLong();
@@ -211,6 +224,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     }
     entry.docsWithFieldOffset = meta.readLong();
     entry.docsWithFieldLength = meta.readLong();
+    entry.jumpTableEntryCount = readJumpTableEntryCount(meta);
     entry.bitsPerValue = meta.readByte();
     entry.ordsOffset = meta.readLong();
     entry.ordsLength = meta.readLong();
@@ -269,6 +283,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     byte bitsPerValue;
     long docsWithFieldOffset;
     long docsWithFieldLength;
+    int jumpTableEntryCount;
     long numValues;
     long minValue;
     long gcd;
@@ -281,6 +296,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     long dataLength;
     long docsWithFieldOffset;
     long docsWithFieldLength;
+    int jumpTableEntryCount;
     int numDocsWithField;
     int minLength;
     int maxLength;
@@ -309,6 +325,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
   private static class SortedEntry extends TermsDictEntry {
     long docsWithFieldOffset;
     long docsWithFieldLength;
+    int jumpTableEntryCount;
     int numDocsWithField;
     byte bitsPerValue;
     long ordsOffset;
@@ -319,6 +336,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
     SortedEntry singleValueEntry;
     long docsWithFieldOffset;
     long docsWithFieldLength;
+    int jumpTableEntryCount;
     int numDocsWithField;
     byte bitsPerValue;
     long ordsOffset;
@@ -495,7 +513,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       }
     } else {
       // sparse
-      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.numValues);
+      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.jumpTableEntryCount, entry.numValues);
       if (entry.bitsPerValue == 0) {
         return new SparseNumericDocValues(disi) {
           @Override
@@ -766,7 +784,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       }
     } else {
       // sparse
-      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.numDocsWithField);
+      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.jumpTableEntryCount, entry.numDocsWithField);
       if (entry.minLength == entry.maxLength) {
         // fixed length
         final int length = entry.maxLength;
@@ -867,7 +885,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       };
     } else {
       // sparse
-      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.numDocsWithField);
+      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.jumpTableEntryCount, entry.numDocsWithField);
       return new BaseSortedDocValues(entry, data) {
 
         @Override
@@ -1230,7 +1248,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       };
     } else {
       // sparse
-      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.numDocsWithField);
+      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.jumpTableEntryCount, entry.numDocsWithField);
       return new SortedNumericDocValues() {
 
         boolean set;
@@ -1356,7 +1374,7 @@ final class Lucene70DocValuesProducer extends DocValuesProducer implements Close
       };
     } else {
       // sparse
-      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.numDocsWithField);
+      final IndexedDISI disi = new IndexedDISI(data, entry.docsWithFieldOffset, entry.docsWithFieldLength, entry.jumpTableEntryCount, entry.numDocsWithField);
       return new BaseSortedSetDocValues(entry, data) {
 
         boolean set;
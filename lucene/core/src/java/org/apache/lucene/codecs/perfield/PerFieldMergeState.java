@@ -33,65 +33,31 @@ import org.apache.lucene.index.MergeState;
 import org.apache.lucene.index.Terms;
 
 /**
- * Utility class to update the {@link MergeState} instance to be restricted to a set of fields.
- * <p>
- * Warning: the input {@linkplain MergeState} instance will be updated when calling {@link #apply(Collection)}.
- * <p>
- * It should be called within a {@code try &#123;...&#125; finally &#123;...&#125;} block to make sure that the mergeState instance is
- * restored to its original state:
- * <pre>
- * PerFieldMergeState pfMergeState = new PerFieldMergeState(mergeState);
- * try {
- *   doSomething(pfMergeState.apply(fields));
- *   ...
- * } finally {
- *   pfMergeState.reset();
- * }
- * </pre>
+ * Utility class to create a copy of a {@link MergeState} instance that is
+ * restricted to a set of fields. The input {@linkplain MergeState} instance is
+ * not modified, since other parts of the same merge may use it concurrently.
  */
 final class PerFieldMergeState {
-  private final MergeState in;
-  private final FieldInfos orgMergeFieldInfos;
-  private final FieldInfos[] orgFieldInfos;
-  private final FieldsProducer[] orgFieldsProducers;
-
-  PerFieldMergeState(MergeState in) {
-    this.in = in;
-    this.orgMergeFieldInfos = in.mergeFieldInfos;
-    this.orgFieldInfos = new FieldInfos[in.fieldInfos.length];
-    this.orgFieldsProducers = new FieldsProducer[in.fieldsProducers.length];
-
-    System.arraycopy(in.fieldInfos, 0, this.orgFieldInfos, 0, this.orgFieldInfos.length);
-    System.arraycopy(in.fieldsProducers, 0, this.orgFieldsProducers, 0, this.orgFieldsProducers.length);
-  }
+
+  private PerFieldMergeState() {}
 
   /**
-   * Update the input {@link MergeState} instance to restrict the fields to the given ones.
+   * Create a copy of the given {@link MergeState} instance that only exposes the given fields.
    *
-   * @param fields The fields to keep in the updated instance.
-   * @return The updated instance.
+   * @param in The merge state to restrict.
+   * @param fields The fields to keep in the copy.
+   * @return The restricted copy.
    */
-  MergeState apply(Collection<String> fields) {
-    in.mergeFieldInfos = new FilterFieldInfos(orgMergeFieldInfos, fields);
-    for (int i = 0; i < orgFieldInfos.length; i++) {
-      in.fieldInfos[i] = new FilterFieldInfos(orgFieldInfos[i], fields);
+  static MergeState restrictFields(MergeState in, Collection<String> fields) {
+    final FieldInfos[] fieldInfos = new FieldInfos[in.fieldInfos.length];
+    for (int i = 0; i < fieldInfos.length; i++) {
+      fieldInfos[i] = new FilterFieldInfos(in.fieldInfos[i], fields);
     }
-    for (int i = 0; i < orgFieldsProducers.length; i++) {
-      in.fieldsProducers[i] = new FilterFieldsProducer(orgFieldsProducers[i], fields);
+    final FieldsProducer[] fieldsProducers = new FieldsProducer[in.fieldsProducers.length];
+    for (int i = 0; i < fieldsProducers.length; i++) {
+      fieldsProducers[i] = new FilterFieldsProducer(in.fieldsProducers[i], fields);
     }
-    return in;
-  }
-
-  /**
-   * Resets the input {@link MergeState} instance to its original state.
-   *
-   * @return The reset instance.
-   */
-  MergeState reset() {
-    in.mergeFieldInfos = orgMergeFieldInfos;
-    System.arraycopy(orgFieldInfos, 0, in.fieldInfos, 0, in.fieldInfos.length);
-    System.arraycopy(orgFieldsProducers, 0, in.fieldsProducers, 0, in.fieldsProducers.length);
-    return in;
+    return new MergeState(in, new FilterFieldInfos(in.mergeFieldInfos, fields), fieldInfos, fieldsProducers);
   }
 
   private static class FilterFieldInfos extends FieldInfos {
@@ -20,13 +20,14 @@ package org.apache.lucene.index;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -36,9 +37,10 @@ import org.apache.lucene.store.IOContext;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
-import org.apache.lucene.util.PriorityQueue;
+import org.apache.lucene.util.RoaringDocIdSet;
 
 /* Tracks the stream of {@link BufferedDeletes}.
  * When DocumentsWriterPerThread flushes, its buffered
@@ -53,32 +55,45 @@ import org.apache.lucene.util.PriorityQueue;
  * Each packet is assigned a generation, and each flushed or
  * merged segment is also assigned a generation, so we can
  * track which BufferedDeletes packets to apply to any given
- * segment. */
+ * segment.
+ *
+ * When readers are pooled, packets are also resolved ahead of
+ * time by the indexing thread that published them, see
+ * IndexWriter#resolveFrozenUpdates, so that applying them only
+ * has to publish the results. */
 
 class BufferedUpdatesStream implements Accountable {
 
   // TODO: maybe linked list?
   private final List<FrozenBufferedUpdates> updates = new ArrayList<>();
 
+  // packets that must be resolved ahead of time:
+  private final Queue<FrozenBufferedUpdates> unresolved = new ConcurrentLinkedQueue<>();
+
   // Starts at 1 so that SegmentInfos that have never had
   // deletes applied (whose bufferedDelGen defaults to 0)
   // will be correct:
   private long nextGen = 1;
 
-  // used only by assert
-  private BytesRef lastDeleteTerm;
-
   private final InfoStream infoStream;
   private final AtomicLong bytesUsed = new AtomicLong();
+  // RAM used by the results of packets that were resolved ahead of time:
+  private final AtomicLong resolvedBytesUsed = new AtomicLong();
   private final AtomicInteger numTerms = new AtomicInteger();
 
+  // for testing: how many times a packet was resolved against a segment
+  // ahead of time, and while applying deletes
+  final AtomicLong resolvedAheadCount = new AtomicLong();
+  final AtomicLong resolvedOnApplyCount = new AtomicLong();
+
   public BufferedUpdatesStream(InfoStream infoStream) {
     this.infoStream = infoStream;
   }
 
   // Appends a new packet of buffered deletes to the stream,
-  // setting its generation:
-  public synchronized long push(FrozenBufferedUpdates packet) {
+  // setting its generation, and queues it to be resolved ahead
+  // of time if resolveAhead is set:
+  public synchronized long push(FrozenBufferedUpdates packet, boolean resolveAhead) {
     /*
      * The insert operation must be atomic. If we let threads increment the gen
      * and push the packet afterwards we risk that packets are out of order.
@@ -92,6 +107,9 @@ class BufferedUpdatesStream implements Accountable {
     assert packet.delGen() < nextGen;
     assert updates.isEmpty() || updates.get(updates.size()-1).delGen() < packet.delGen() : "Delete packets must be in order";
     updates.add(packet);
+    if (resolveAhead) {
+      unresolved.add(packet);
+    }
     numTerms.addAndGet(packet.numTermDeletes);
     bytesUsed.addAndGet(packet.bytesUsed);
     if (infoStream.isEnabled("BD")) {
@@ -102,7 +120,11 @@ class BufferedUpdatesStream implements Accountable {
   }
 
   public synchronized void clear() {
+    for (FrozenBufferedUpdates packet : updates) {
+      resolvedBytesUsed.addAndGet(-packet.prune());
+    }
     updates.clear();
+    unresolved.clear();
     nextGen = 1;
     numTerms.set(0);
     bytesUsed.set(0);
@@ -118,7 +140,7 @@ class BufferedUpdatesStream implements Accountable {
 
   @Override
   public long ramBytesUsed() {
-    return bytesUsed.get();
+    return bytesUsed.get() + resolvedBytesUsed.get();
   }
 
   public static class ApplyDeletesResult {
@@ -139,17 +161,14 @@ class BufferedUpdatesStream implements Accountable {
     }
   }
 
-  // Sorts SegmentInfos from smallest to biggest bufferedDelGen:
-  private static final Comparator<SegmentCommitInfo> sortSegInfoByDelGen = new Comparator<SegmentCommitInfo>() {
-    @Override
-    public int compare(SegmentCommitInfo si1, SegmentCommitInfo si2) {
-      return Long.compare(si1.getBufferedDeletesGen(), si2.getBufferedDeletesGen());
-    }
-  };
-  
   /** Resolves the buffered deleted Term/Query/docIDs, into
    *  actual deleted docIDs in the liveDocs MutableBits for
-   *  each SegmentReader. */
+   *  each SegmentReader.
+   *
+   *  Packets are applied to each segment in the order they were pushed.
+   *  If a packet was already resolved against a segment by {@link #resolve},
+   *  its resolved deletes and updates are published as-is, otherwise it is
+   *  resolved here, while {@link IndexWriter}'s lock is held. */
   public synchronized ApplyDeletesResult applyDeletesAndUpdates(IndexWriter.ReaderPool pool, List<SegmentCommitInfo> infos) throws IOException {
     final long t0 = System.currentTimeMillis();
 
@@ -160,20 +179,17 @@ class BufferedUpdatesStream implements Accountable {
     }
 
     // We only init these on demand, when we find our first deletes that need to be applied:
-    SegmentState[] segStates = null;
+    List<SegmentState> segStates = null;
 
-    long totDelCount = 0;
     long totTermVisitedCount = 0;
+    int resolvedCount = 0;
+    int preResolvedCount = 0;
 
     boolean success = false;
 
     ApplyDeletesResult result = null;
 
     try {
-      if (infoStream.isEnabled("BD")) {
-        infoStream.message("BD", String.format(Locale.ROOT, "applyDeletes: open segment readers took %d msec", System.currentTimeMillis()-t0));
-      }
-
       assert checkDeleteStats();
 
       if (!any()) {
@@ -187,106 +203,39 @@ class BufferedUpdatesStream implements Accountable {
         infoStream.message("BD", "applyDeletes: infos=" + infos + " packetCount=" + updates.size());
       }
 
-      infos = sortByDelGen(infos);
-
-      CoalescedUpdates coalescedUpdates = null;
-      int infosIDX = infos.size()-1;
-      int delIDX = updates.size()-1;
-
-      // Backwards merge sort the segment delGens with the packet delGens in the buffered stream:
-      while (infosIDX >= 0) {
-        final FrozenBufferedUpdates packet = delIDX >= 0 ? updates.get(delIDX) : null;
-        final SegmentCommitInfo info = infos.get(infosIDX);
-        final long segGen = info.getBufferedDeletesGen();
-
-        if (packet != null && segGen < packet.delGen()) {
-          if (!packet.isSegmentPrivate && packet.any()) {
-            /*
-             * Only coalesce if we are NOT on a segment private del packet: the segment private del packet
-             * must only apply to segments with the same delGen.  Yet, if a segment is already deleted
-             * from the SI since it had no more documents remaining after some del packets younger than
-             * its segPrivate packet (higher delGen) have been applied, the segPrivate packet has not been
-             * removed.
-             */
-            if (coalescedUpdates == null) {
-              coalescedUpdates = new CoalescedUpdates();
-            }
-            coalescedUpdates.update(packet);
-          }
-
-          delIDX--;
-        } else if (packet != null && segGen == packet.delGen()) {
-          assert packet.isSegmentPrivate : "Packet and Segments deletegen can only match on a segment private del packet gen=" + segGen;
-
-          if (segStates == null) {
-            segStates = openSegmentStates(pool, infos);
-          }
-
-          SegmentState segState = segStates[infosIDX];
-
-          // Lock order: IW -> BD -> RP
-          assert pool.infoIsLive(info);
-          int delCount = 0;
-          final DocValuesFieldUpdates.Container dvUpdates = new DocValuesFieldUpdates.Container();
-
-          // first apply segment-private deletes/updates
-          delCount += applyQueryDeletes(packet.queriesIterable(), segState);
-          applyDocValuesUpdates(Arrays.asList(packet.numericDVUpdates), segState, dvUpdates);
-          applyDocValuesUpdates(Arrays.asList(packet.binaryDVUpdates), segState, dvUpdates);
-
-          // ... then coalesced deletes/updates, so that if there is an update that appears in both, the coalesced updates (carried from
-          // updates ahead of the segment-privates ones) win:
-          if (coalescedUpdates != null) {
-            delCount += applyQueryDeletes(coalescedUpdates.queriesIterable(), segState);
-            applyDocValuesUpdatesList(coalescedUpdates.numericDVUpdates, segState, dvUpdates);
-            applyDocValuesUpdatesList(coalescedUpdates.binaryDVUpdates, segState, dvUpdates);
-          }
-          if (dvUpdates.any()) {
-            segState.rld.writeFieldUpdates(info.info.dir, dvUpdates);
+      for (SegmentCommitInfo info : infos) {
+        SegmentState segState = null;
+        // oldest packets first, so that newer updates win:
+        for (FrozenBufferedUpdates packet : updates) {
+          if (appliesTo(packet, info) == false) {
+            continue;
           }
-
-          totDelCount += delCount;
-
-          /*
-           * Since we are on a segment private del packet we must not
-           * update the coalescedUpdates here! We can simply advance to the 
-           * next packet and seginfo.
-           */
-          delIDX--;
-          infosIDX--;
-
-        } else {
-          if (coalescedUpdates != null) {
+          if (segState == null) {
             if (segStates == null) {
-              segStates = openSegmentStates(pool, infos);
+              segStates = new ArrayList<>();
             }
-            SegmentState segState = segStates[infosIDX];
             // Lock order: IW -> BD -> RP
             assert pool.infoIsLive(info);
-            int delCount = 0;
-            delCount += applyQueryDeletes(coalescedUpdates.queriesIterable(), segState);
-            DocValuesFieldUpdates.Container dvUpdates = new DocValuesFieldUpdates.Container();
-            applyDocValuesUpdatesList(coalescedUpdates.numericDVUpdates, segState, dvUpdates);
-            applyDocValuesUpdatesList(coalescedUpdates.binaryDVUpdates, segState, dvUpdates);
-            if (dvUpdates.any()) {
-              segState.rld.writeFieldUpdates(info.info.dir, dvUpdates);
-            }
-
-            totDelCount += delCount;
+            segState = new SegmentState(pool, info);
+            segStates.add(segState);
+          }
+          final ResolvedUpdates resolved = packet.getResolvedUpdates(info);
+          if (resolved != null && resolved.canApply(info)) {
+            segState.add(resolved);
+            preResolvedCount++;
+          } else {
+            totTermVisitedCount += segState.resolve(packet);
+            resolvedCount++;
           }
-
-          infosIDX--;
         }
       }
 
-      // Now apply all term deletes:
-      if (coalescedUpdates != null && coalescedUpdates.totalTermCount != 0) {
-        if (segStates == null) {
-          segStates = openSegmentStates(pool, infos);
-        }
-        totTermVisitedCount += applyTermDeletes(coalescedUpdates, segStates);
+      if (segStates != null) {
+        publish(segStates);
       }
 
+      resolvedOnApplyCount.addAndGet(resolvedCount);
+
       assert checkDeleteStats();
 
       success = true;
@@ -304,18 +253,149 @@ class BufferedUpdatesStream implements Accountable {
     if (infoStream.isEnabled("BD")) {
       infoStream.message("BD",
                          String.format(Locale.ROOT,
-                                       "applyDeletes took %d msec for %d segments, %d newly deleted docs (query deletes), %d visited terms, allDeleted=%s",
-                                       System.currentTimeMillis()-t0, infos.size(), totDelCount, totTermVisitedCount, result.allDeleted));
+                                       "applyDeletes took %d msec for %d segments, %d packets resolved ahead of time, %d packets resolved now, %d visited terms, allDeleted=%s",
+                                       System.currentTimeMillis()-t0, infos.size(), preResolvedCount, resolvedCount, totTermVisitedCount, result.allDeleted));
     }
 
     return result;
   }
 
-  private List<SegmentCommitInfo> sortByDelGen(List<SegmentCommitInfo> infos) {
-    infos = new ArrayList<>(infos);
-    // Smaller delGens come first:
-    Collections.sort(infos, sortSegInfoByDelGen);
-    return infos;
+  /** Returns true if the packet must be applied to the segment: segment
+   *  private packets apply to the segment they were flushed with, other
+   *  packets to all segments that were flushed before them. */
+  private static boolean appliesTo(FrozenBufferedUpdates packet, SegmentCommitInfo info) {
+    final long segGen = info.getBufferedDeletesGen();
+    if (packet.isSegmentPrivate) {
+      return packet.delGen() == segGen;
+    } else {
+      return packet.delGen() > segGen;
+    }
+  }
+
+  /** Returns a packet that was pushed with {@code resolveAhead} set and that
+   *  nobody started to resolve yet, or null. */
+  FrozenBufferedUpdates pollUnresolved() {
+    return unresolved.poll();
+  }
+
+  /** Opens the segments that the packet must be applied to, in order to
+   *  {@link #resolve} it ahead of time. This must be called while holding
+   *  {@link IndexWriter}'s lock, but the returned states do not keep the
+   *  segments checked out of the pool. */
+  static List<SegmentState> openSegmentStates(IndexWriter.ReaderPool pool, FrozenBufferedUpdates packet, List<SegmentCommitInfo> infos) throws IOException {
+    List<SegmentState> segStates = new ArrayList<>();
+    boolean success = false;
+    try {
+      for (SegmentCommitInfo info : infos) {
+        if (appliesTo(packet, info)) {
+          segStates.add(new SegmentState(pool, info, packet));
+        }
+      }
+      success = true;
+    } finally {
+      if (success == false) {
+        for (SegmentState segState : segStates) {
+          try {
+            segState.finish(pool);
+          } catch (Throwable th) {
+            // suppress so we keep throwing original exc
+          }
+        }
+      }
+    }
+    return segStates;
+  }
+
+  /** Resolves the packet against segments that were opened with {@link
+   *  #openSegmentStates(IndexWriter.ReaderPool, FrozenBufferedUpdates, List)},
+   *  and keeps the results on the packet until {@link #applyDeletesAndUpdates}
+   *  publishes them. This only reads the segments and must be called without
+   *  holding any lock, so that indexing threads do this work right after they
+   *  flush instead of the thread that needs deletes to be applied, for
+   *  instance to reopen an NRT reader.
+   *
+   *  <p>Note that results of packets that delete by query are only used if
+   *  no doc values updates were written to the segment in-between, since the
+   *  query may match different documents afterwards. */
+  void resolve(FrozenBufferedUpdates packet, List<SegmentState> segStates) throws IOException {
+    assert Thread.holdsLock(this) == false;
+    final long startNS = System.nanoTime();
+    long termVisitedCount = 0;
+    for (SegmentState segState : segStates) {
+      termVisitedCount += segState.resolve(packet);
+      final ResolvedUpdates resolved = segState.toResolvedUpdates(packet);
+      if (packet.setResolvedUpdates(segState.info, resolved)) {
+        resolvedBytesUsed.addAndGet(resolved.ramBytesUsed);
+      }
+      resolvedAheadCount.incrementAndGet();
+    }
+    if (infoStream.isEnabled("BD")) {
+      infoStream.message("BD",
+                         String.format(Locale.ROOT, "resolve packet delGen=%d took %.1f msec for %d segments; %d del terms visited",
+                                       packet.delGen(), (System.nanoTime()-startNS)/1000000., segStates.size(), termVisitedCount));
+    }
+  }
+
+  /** Close segment states previously opened with {@link
+   *  #openSegmentStates(IndexWriter.ReaderPool, FrozenBufferedUpdates, List)}. */
+  static void closeSegmentStates(IndexWriter.ReaderPool pool, List<SegmentState> segStates) throws IOException {
+    Throwable firstExc = null;
+    for (SegmentState segState : segStates) {
+      try {
+        segState.finish(pool);
+      } catch (Throwable th) {
+        if (firstExc == null) {
+          firstExc = th;
+        }
+      }
+    }
+    // Does nothing if firstExc is null:
+    IOUtils.reThrow(firstExc);
+  }
+
+  /** Deletes and doc values updates of a packet that were resolved against a
+   *  segment ahead of time. */
+  static final class ResolvedUpdates {
+    // doc values generation of the segment when resolved
+    final long docValuesGen;
+    final boolean hasQueries;
+    // resolved deletes (null if none) and updates (null if none):
+    final DocIdSet deletes;
+    final DocValuesFieldUpdates.Container dvUpdates;
+    final long ramBytesUsed;
+
+    ResolvedUpdates(long docValuesGen, boolean hasQueries, DocIdSet deletes, DocValuesFieldUpdates.Container dvUpdates, long ramBytesUsed) {
+      this.docValuesGen = docValuesGen;
+      this.hasQueries = hasQueries;
+      this.deletes = deletes;
+      this.dvUpdates = dvUpdates;
+      this.ramBytesUsed = ramBytesUsed;
+    }
+
+    /** Returns true if these are still the deletes and updates that
+     *  resolving the packet against the segment would produce: terms always
+     *  match the same documents, but queries may not once doc values
+     *  updates were written to the segment. */
+    boolean canApply(SegmentCommitInfo info) {
+      return hasQueries == false || docValuesGen == info.getDocValuesGen();
+    }
+  }
+
+  /** Publishes the resolved deletes and updates of every segment. */
+  private static void publish(List<SegmentState> segStates) throws IOException {
+    for (SegmentState segState : segStates) {
+      if (segState.deletes != null) {
+        segState.rld.initWritableLiveDocs();
+        final FixedBitSet deletes = segState.deletes;
+        for (int doc = deletes.nextSetBit(0); doc != DocIdSetIterator.NO_MORE_DOCS;
+            doc = doc + 1 >= deletes.length() ? DocIdSetIterator.NO_MORE_DOCS : deletes.nextSetBit(doc + 1)) {
+          segState.rld.delete(doc);
+        }
+      }
+      if (segState.dvUpdates.any()) {
+        segState.rld.writeFieldUpdates(segState.rld.info.info.dir, segState.dvUpdates);
+      }
+    }
   }
 
   synchronized long getNextGen() {
@@ -362,85 +442,154 @@ class BufferedUpdatesStream implements Accountable {
         assert numTerms.get() >= 0;
         bytesUsed.addAndGet(-packet.bytesUsed);
         assert bytesUsed.get() >= 0;
+        resolvedBytesUsed.addAndGet(-packet.prune());
+        assert resolvedBytesUsed.get() >= 0;
       }
       updates.subList(0, count).clear();
     }
   }
 
   static class SegmentState {
-    final long delGen;
+    final SegmentCommitInfo info;
+    // null if the packet is resolved ahead of time
     final ReadersAndUpdates rld;
     final SegmentReader reader;
     final int startDelCount;
+    final long docValuesGen;
+    // live docs when deletes started to be resolved, nothing can delete
+    // documents before the resolved deletes are published
+    final Bits liveDocs;
 
-    TermsEnum termsEnum;
-    PostingsEnum postingsEnum;
-    BytesRef term;
-    boolean any;
+    // resolved deletes (null if none) and updates:
+    FixedBitSet deletes;
+    final DocValuesFieldUpdates.Container dvUpdates = new DocValuesFieldUpdates.Container();
+    long numDVUpdates;
 
+    /** Opens the segment to apply deletes and updates. */
     public SegmentState(IndexWriter.ReaderPool pool, SegmentCommitInfo info) throws IOException {
+      this.info = info;
       rld = pool.get(info, true);
       startDelCount = rld.getPendingDeleteCount();
       reader = rld.getReader(IOContext.READ);
-      delGen = info.getBufferedDeletesGen();
+      liveDocs = rld.getLiveDocs();
+      docValuesGen = info.getDocValuesGen();
     }
 
-    public void finish(IndexWriter.ReaderPool pool) throws IOException {
+    /** Opens the segment to resolve the packet ahead of time: only a
+     *  reference to the reader is kept, so that the segment may be merged
+     *  or dropped meanwhile. */
+    SegmentState(IndexWriter.ReaderPool pool, SegmentCommitInfo info, FrozenBufferedUpdates packet) throws IOException {
+      this.info = info;
+      final ReadersAndUpdates rld = pool.get(info, true);
       try {
-        rld.release(reader);
+        startDelCount = rld.getPendingDeleteCount();
+        reader = rld.getReader(IOContext.READ);
+        liveDocs = rld.getReadOnlyLiveDocs();
+        docValuesGen = info.getDocValuesGen();
       } finally {
         pool.release(rld);
       }
+      this.rld = null;
     }
-  }
 
-  /** Does a merge sort by current term across all segments. */
-  static class SegmentQueue extends PriorityQueue<SegmentState> {
-    public SegmentQueue(int size) {
-      super(size);
+    /** Returns true if the document is deleted, or will be. */
+    boolean isDeleted(int doc) {
+      return (liveDocs != null && liveDocs.get(doc) == false) || (deletes != null && deletes.get(doc));
     }
 
-    @Override
-    protected boolean lessThan(SegmentState a, SegmentState b) {
-      return a.term.compareTo(b.term) < 0;
+    /** Marks the document as deleted. */
+    void delete(int doc) {
+      if (deletes == null) {
+        deletes = new FixedBitSet(reader.maxDoc());
+      }
+      deletes.set(doc);
     }
-  }
 
-  /** Opens SegmentReader and inits SegmentState for each segment. */
-  private SegmentState[] openSegmentStates(IndexWriter.ReaderPool pool, List<SegmentCommitInfo> infos) throws IOException {
-    int numReaders = infos.size();
-    SegmentState[] segStates = new SegmentState[numReaders];
-    boolean success = false;
-    try {
-      for(int i=0;i<numReaders;i++) {
-        segStates[i] = new SegmentState(pool, infos.get(i));
+    /** Resolves the packet's deletes and updates against this segment,
+     *  without modifying the segment, and returns the number of visited
+     *  delete terms. */
+    long resolve(FrozenBufferedUpdates packet) throws IOException {
+      // doc IDs limits only apply to the segment that the packet was flushed with:
+      final boolean applyLimits = packet.isSegmentPrivate;
+      applyQueryDeletes(packet.queriesIterable(), applyLimits, this);
+      applyDocValuesUpdates(Arrays.asList(packet.numericDVUpdates), applyLimits, this);
+      applyDocValuesUpdates(Arrays.asList(packet.binaryDVUpdates), applyLimits, this);
+      if (packet.terms.size() > 0) {
+        return applyTermDeletes(packet.termIterator(), this);
       }
-      success = true;
-    } finally {
-      if (success == false) {
-        for(int j=0;j<numReaders;j++) {
-          if (segStates[j] != null) {
-            try {
-              segStates[j].finish(pool);
-            } catch (Throwable th) {
-              // suppress so we keep throwing original exc
-            }
+      return 0;
+    }
+
+    /** Returns the deletes and updates that were resolved so far. */
+    ResolvedUpdates toResolvedUpdates(FrozenBufferedUpdates packet) throws IOException {
+      long ramBytesUsed = 0;
+      DocIdSet deletes = null;
+      if (this.deletes != null) {
+        RoaringDocIdSet.Builder builder = new RoaringDocIdSet.Builder(reader.maxDoc());
+        final FixedBitSet bits = this.deletes;
+        for (int doc = bits.nextSetBit(0); doc != DocIdSetIterator.NO_MORE_DOCS;
+            doc = doc + 1 >= bits.length() ? DocIdSetIterator.NO_MORE_DOCS : bits.nextSetBit(doc + 1)) {
+          builder.add(doc);
+        }
+        deletes = builder.build();
+        ramBytesUsed += deletes.ramBytesUsed();
+      }
+      DocValuesFieldUpdates.Container dvUpdates = null;
+      if (this.dvUpdates.any()) {
+        dvUpdates = this.dvUpdates;
+        ramBytesUsed += numDVUpdates * dvUpdates.ramBytesPerDoc();
+      }
+      return new ResolvedUpdates(docValuesGen, packet.queries.length > 0, deletes, dvUpdates, ramBytesUsed);
+    }
+
+    /** Adds deletes and updates that were resolved ahead of time. */
+    void add(ResolvedUpdates resolved) throws IOException {
+      if (resolved.deletes != null) {
+        final DocIdSetIterator it = resolved.deletes.iterator();
+        for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+          if (isDeleted(doc) == false) {
+            delete(doc);
           }
         }
       }
+      if (resolved.dvUpdates != null) {
+        for (DocValuesFieldUpdates updates : resolved.dvUpdates.numericDVUpdates.values()) {
+          add(updates);
+        }
+        for (DocValuesFieldUpdates updates : resolved.dvUpdates.binaryDVUpdates.values()) {
+          add(updates);
+        }
+      }
     }
 
-    return segStates;
+    private void add(DocValuesFieldUpdates updates) {
+      DocValuesFieldUpdates target = dvUpdates.getUpdates(updates.field, updates.type);
+      if (target == null) {
+        target = dvUpdates.newUpdates(updates.field, updates.type, reader.maxDoc());
+      }
+      // appended, so that these updates win over the ones of older packets:
+      target.merge(updates);
+    }
+
+    public void finish(IndexWriter.ReaderPool pool) throws IOException {
+      if (rld == null) {
+        reader.decRef();
+        return;
+      }
+      try {
+        rld.release(reader);
+      } finally {
+        pool.release(rld);
+      }
+    }
   }
 
-  /** Close segment states previously opened with openSegmentStates. */
-  private ApplyDeletesResult closeSegmentStates(IndexWriter.ReaderPool pool, SegmentState[] segStates, boolean success, long gen) throws IOException {
-    int numReaders = segStates.length;
+  /** Close segment states previously opened to apply deletes and updates. */
+  private ApplyDeletesResult closeSegmentStates(IndexWriter.ReaderPool pool, List<SegmentState> segStates, boolean success, long gen) throws IOException {
     Throwable firstExc = null;
     List<SegmentCommitInfo> allDeleted = null;
     long totDelCount = 0;
-    for (int j=0;j<numReaders;j++) {
-      SegmentState segState = segStates[j];
+    for (SegmentState segState : segStates) {
       if (success) {
         totDelCount += segState.rld.getPendingDeleteCount() - segState.startDelCount;
         segState.reader.getSegmentInfo().setBufferedDeletesGen(gen);
@@ -454,9 +603,9 @@ class BufferedUpdatesStream implements Accountable {
         }
       }
       try {
-        segStates[j].finish(pool);
+        segState.finish(pool);
       } catch (Throwable th) {
-        if (firstExc != null) {
+        if (firstExc == null) {
           firstExc = th;
         }
       }
@@ -474,20 +623,16 @@ class BufferedUpdatesStream implements Accountable {
     return new ApplyDeletesResult(totDelCount > 0, gen, allDeleted);      
   }
 
-  /** Merge sorts the deleted terms and all segments to resolve terms to docIDs for deletion. */
-  private synchronized long applyTermDeletes(CoalescedUpdates updates, SegmentState[] segStates) throws IOException {
-
-    long startNS = System.nanoTime();
-
-    int numReaders = segStates.length;
+  /** Resolves the deleted terms of a packet to docIDs of the segment. */
+  private static long applyTermDeletes(FieldTermIterator iter, SegmentState segState) throws IOException {
 
     long delTermVisitedCount = 0;
-    long segTermVisitedCount = 0;
 
-    FieldTermIterator iter = updates.termIterator();
+    final Fields fields = segState.reader.fields();
 
     String field = null;
-    SegmentQueue queue = null;
+    TermsEnum termsEnum = null;
+    PostingsEnum postingsEnum = null;
 
     BytesRef term;
 
@@ -496,127 +641,45 @@ class BufferedUpdatesStream implements Accountable {
       if (iter.field() != field) {
         // field changed
         field = iter.field();
-
-        queue = new SegmentQueue(numReaders);
-
-        long segTermCount = 0;
-        for(int i=0;i<numReaders;i++) {
-          SegmentState state = segStates[i];
-          Terms terms = state.reader.fields().terms(field);
-          if (terms != null) {
-            segTermCount += terms.size();
-            state.termsEnum = terms.iterator();
-            state.term = state.termsEnum.next();
-            if (state.term != null) {
-              queue.add(state);
-            }
-          }
-        }
-
-        assert checkDeleteTerm(null);
+        Terms terms = fields.terms(field);
+        termsEnum = terms == null ? null : terms.iterator();
       }
 
-      assert checkDeleteTerm(term);
+      if (termsEnum == null) {
+        // no terms in this field
+        continue;
+      }
 
       delTermVisitedCount++;
 
-      long delGen = iter.delGen();
-
-      while (queue.size() != 0) {
-
-        // Get next term merged across all segments
-        SegmentState state = queue.top();
-        segTermVisitedCount++;
-
-        int cmp = term.compareTo(state.term);
+      if (termsEnum.seekExact(term)) {
 
-        if (cmp < 0) {
-          break;
-        } else if (cmp == 0) {
-          // fall through
-        } else {
-          TermsEnum.SeekStatus status = state.termsEnum.seekCeil(term);
-          if (status == TermsEnum.SeekStatus.FOUND) {
-            // fallthrough
-          } else {
-            if (status == TermsEnum.SeekStatus.NOT_FOUND) {
-              state.term = state.termsEnum.term();
-              queue.updateTop();
-            } else {
-              // No more terms in this segment
-              queue.pop();
-            }
-
-            continue;
-          }
-        }
-
-        assert state.delGen != delGen;
-
-        if (state.delGen < delGen) {
-
-          // we don't need term frequencies for this
-          final Bits acceptDocs = state.rld.getLiveDocs();
-          state.postingsEnum = state.termsEnum.postings(state.postingsEnum, PostingsEnum.NONE);
-
-          assert state.postingsEnum != null;
-
-          while (true) {
-            final int docID = state.postingsEnum.nextDoc();
-            if (docID == DocIdSetIterator.NO_MORE_DOCS) {
-              break;
-            }
-            if (acceptDocs != null && acceptDocs.get(docID) == false) {
-              continue;
-            }
-            if (!state.any) {
-              state.rld.initWritableLiveDocs();
-              state.any = true;
-            }
+        // we don't need term frequencies for this
+        postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
 
-            // NOTE: there is no limit check on the docID
-            // when deleting by Term (unlike by Query)
-            // because on flush we apply all Term deletes to
-            // each segment.  So all Term deleting here is
-            // against prior segments:
-            state.rld.delete(docID);
+        assert postingsEnum != null;
+
+        int docID;
+        while ((docID = postingsEnum.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          // NOTE: there is no limit check on the docID
+          // when deleting by Term (unlike by Query)
+          // because on flush we apply all Term deletes to
+          // each segment.  So all Term deleting here is
+          // against prior segments:
+          if (segState.isDeleted(docID) == false) {
+            segState.delete(docID);
           }
         }
-
-        state.term = state.termsEnum.next();
-        if (state.term == null) {
-          queue.pop();
-        } else {
-          queue.updateTop();
-        }
       }
     }
 
-    if (infoStream.isEnabled("BD")) {
-      infoStream.message("BD",
-                         String.format(Locale.ROOT, "applyTermDeletes took %.1f msec for %d segments and %d packets; %d del terms visited; %d seg terms visited",
-                                       (System.nanoTime()-startNS)/1000000.,
-                                       numReaders,
-                                       updates.terms.size(),
-                                       delTermVisitedCount, segTermVisitedCount));
-    }
-
     return delTermVisitedCount;
   }
 
-  private synchronized void applyDocValuesUpdatesList(List<List<DocValuesUpdate>> updates, 
-      SegmentState segState, DocValuesFieldUpdates.Container dvUpdatesContainer) throws IOException {
-    // we walk backwards through the segments, appending deletion packets to the coalesced updates, so we must apply the packets in reverse
-    // so that newer packets override older ones:
-    for(int idx=updates.size()-1;idx>=0;idx--) {
-      applyDocValuesUpdates(updates.get(idx), segState, dvUpdatesContainer);
-    }
-  }
-
   // DocValues updates
-  private synchronized void applyDocValuesUpdates(List<DocValuesUpdate> updates, 
-      SegmentState segState, DocValuesFieldUpdates.Container dvUpdatesContainer) throws IOException {
+  private static void applyDocValuesUpdates(List<DocValuesUpdate> updates, boolean applyLimits, SegmentState segState) throws IOException {
     Fields fields = segState.reader.fields();
+    DocValuesFieldUpdates.Container dvUpdatesContainer = segState.dvUpdates;
 
     // TODO: we can process the updates per DV field, from last to first so that
     // if multiple terms affect same document for the same field, we add an update
@@ -634,7 +697,7 @@ class BufferedUpdatesStream implements Accountable {
     
     for (DocValuesUpdate update : updates) {
       Term term = update.term;
-      int limit = update.docIDUpto;
+      int limit = applyLimits ? update.docIDUpto : Integer.MAX_VALUE;
       
       // TODO: we traverse the terms in update order (not term order) so that we
       // apply the updates in the correct order, i.e. if two terms udpate the
@@ -665,7 +728,6 @@ class BufferedUpdatesStream implements Accountable {
 
       if (termsEnum.seekExact(term.bytes())) {
         // we don't need term frequencies for this
-        final Bits acceptDocs = segState.rld.getLiveDocs();
         postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
 
         DocValuesFieldUpdates dvUpdates = dvUpdatesContainer.getUpdates(update.field, update.type);
@@ -677,10 +739,11 @@ class BufferedUpdatesStream implements Accountable {
           if (doc >= limit) {
             break; // no more docs that can be updated for this term
           }
-          if (acceptDocs != null && acceptDocs.get(doc) == false) {
+          if (segState.isDeleted(doc)) {
             continue;
           }
           dvUpdates.add(doc, update.value);
+          segState.numDVUpdates++;
         }
       }
     }
@@ -696,50 +759,29 @@ class BufferedUpdatesStream implements Accountable {
   }
 
   // Delete by query
-  private static long applyQueryDeletes(Iterable<QueryAndLimit> queriesIter, SegmentState segState) throws IOException {
-    long delCount = 0;
+  private static void applyQueryDeletes(Iterable<QueryAndLimit> queriesIter, boolean applyLimits, SegmentState segState) throws IOException {
     final LeafReaderContext readerContext = segState.reader.getContext();
     for (QueryAndLimit ent : queriesIter) {
       Query query = ent.query;
-      int limit = ent.limit;
+      int limit = applyLimits ? ent.limit : Integer.MAX_VALUE;
       final IndexSearcher searcher = new IndexSearcher(readerContext.reader());
       searcher.setQueryCache(null);
       final Weight weight = searcher.createNormalizedWeight(query, false);
       final Scorer scorer = weight.scorer(readerContext);
       if (scorer != null) {
         final DocIdSetIterator it = scorer.iterator();
-        final Bits liveDocs = readerContext.reader().getLiveDocs();
         while (true)  {
           int doc = it.nextDoc();
           if (doc >= limit) {
             break;
           }
-          if (liveDocs != null && liveDocs.get(doc) == false) {
+          if (segState.isDeleted(doc)) {
             continue;
           }
-
-          if (!segState.any) {
-            segState.rld.initWritableLiveDocs();
-            segState.any = true;
-          }
-          if (segState.rld.delete(doc)) {
-            delCount++;
-          }
+          segState.delete(doc);
         }
       }
     }
-
-    return delCount;
-  }
-
-  // used only by assert
-  private boolean checkDeleteTerm(BytesRef term) {
-    if (term != null) {
-      assert lastDeleteTerm == null || term.compareTo(lastDeleteTerm) >= 0: "lastTerm=" + lastDeleteTerm + " vs term=" + term;
-    }
-    // TODO: we re-use term now in our merged iterable, but we shouldn't clone, instead copy for this assert
-    lastDeleteTerm = term == null ? null : BytesRef.deepCopyOf(term);
-    return true;
   }
 
   // only for assert
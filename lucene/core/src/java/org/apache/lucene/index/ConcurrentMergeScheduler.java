@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -116,6 +118,12 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   private double forceMergeMBPerSec = Double.POSITIVE_INFINITY;
 
+  private long stallCount;
+  private long stalledNanos;
+
+  /** Threads that run a task of a merge on behalf of a merge thread, see {@link #getIntraMergeExecutor} */
+  private final List<Thread> intraMergeThreads = new ArrayList<>();
+
   /** Sole constructor, with all settings set to default
    *  values. */
   public ConcurrentMergeScheduler() {
@@ -411,7 +419,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     boolean interrupted = false;
     try {
       while (true) {
-        MergeThread toSync = null;
+        Thread toSync = null;
         synchronized (this) {
           for (MergeThread t : mergeThreads) {
             // In case a merge thread is calling us, don't try to sync on
@@ -421,6 +429,17 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
               break;
             }
           }
+          if (toSync == null) {
+            // merge threads wait for the tasks they submitted, but these
+            // threads may also run tasks of merges that other threads run
+            // with IndexWriter#merge
+            for (Thread t : intraMergeThreads) {
+              if (t.isAlive() && t != Thread.currentThread()) {
+                toSync = t;
+                break;
+              }
+            }
+          }
         }
         if (toSync != null) {
           try {
@@ -540,6 +559,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   protected synchronized boolean maybeStall(IndexWriter writer) {
     long startStallTime = 0;
+    long stallStartNS = 0;
     while (writer.hasPendingMerges() && mergeThreadCount() >= maxMergeCount) {
 
       // This means merging has fallen too far behind: we
@@ -559,20 +579,105 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         return false;
       }
 
-      if (verbose() && startStallTime == 0) {
-        message("    too many merges; stalling...");
+      if (startStallTime == 0) {
+        if (verbose()) {
+          message("    too many merges; stalling...");
+        }
+        stallCount++;
+        stallStartNS = System.nanoTime();
       }
       startStallTime = System.currentTimeMillis();
       doStall();
     }
 
-    if (verbose() && startStallTime != 0) {
-      message("  stalled for " + (System.currentTimeMillis()-startStallTime) + " msec");
+    if (startStallTime != 0) {
+      stalledNanos += System.nanoTime() - stallStartNS;
+      if (verbose()) {
+        message("  stalled for " + (System.currentTimeMillis()-startStallTime) + " msec");
+      }
     }
 
     return true;
   }
 
+  /**
+   * Returns how many times a thread producing new segments was stalled
+   * because merges fell too far behind.
+   *
+   * @see #maybeStall
+   * @see IndexWriter#getFlushStallCount()
+   */
+  public synchronized long getStallCount() {
+    return stallCount;
+  }
+
+  /**
+   * Returns the total time in milliseconds threads producing new segments
+   * were stalled because merges fell too far behind.
+   *
+   * @see #getStallCount()
+   */
+  public synchronized long getStalledMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(stalledNanos);
+  }
+
+  /** Returns true: merges run in their own threads. */
+  @Override
+  public boolean runsMergesInBackground() {
+    return true;
+  }
+
+  /**
+   * Runs each task of a merge in a new thread as long as fewer than
+   * {@link #getMaxThreadCount()} merge threads, including the threads of
+   * such tasks, are running, and in the calling thread otherwise. This lets a
+   * merge use otherwise idle threads, for instance when a single large merge
+   * runs, while paused merges count against the limit.
+   */
+  @Override
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    return task -> {
+      if (startIntraMergeThread(task) == false) {
+        task.run();
+      }
+    };
+  }
+
+  private synchronized boolean startIntraMergeThread(Runnable task) {
+    if (maxThreadCount == AUTO_DETECT_MERGES_AND_THREADS) {
+      return false;
+    }
+    // mergeThreadCount() does not count the calling merge thread
+    final int runningThreadCount = mergeThreadCount() + intraMergeThreads.size()
+        + (mergeThreads.contains(Thread.currentThread()) ? 1 : 0);
+    if (runningThreadCount >= maxThreadCount) {
+      return false;
+    }
+    final Thread thread = getIntraMergeThread(() -> {
+      try {
+        task.run();
+      } finally {
+        synchronized (ConcurrentMergeScheduler.this) {
+          intraMergeThreads.remove(Thread.currentThread());
+        }
+      }
+    });
+    intraMergeThreads.add(thread);
+    if (verbose()) {
+      message("    launch intra-merge thread " + thread.getName());
+    }
+    boolean success = false;
+    try {
+      thread.start();
+      success = true;
+    } finally {
+      if (success == false) {
+        intraMergeThreads.remove(thread);
+      }
+    }
+    return true;
+  }
+
   /** Called from {@link #maybeStall} to pause the calling thread for a bit. */
   protected synchronized void doStall() {
     try {
@@ -596,6 +701,16 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     return thread;
   }
 
+  /** Create and return a new thread that runs a task of a merge. It is
+   *  created by the merge thread that submits the task, so it inherits its
+   *  priority. */
+  protected synchronized Thread getIntraMergeThread(Runnable task) {
+    final Thread thread = new Thread(task);
+    thread.setDaemon(true);
+    thread.setName("Lucene Merge Thread #" + mergeThreadCount++ + " (intra-merge)");
+    return thread;
+  }
+
   /** Runs a merge thread to execute a single merge, then exits. */
   protected class MergeThread extends Thread implements Comparable<MergeThread> {
 
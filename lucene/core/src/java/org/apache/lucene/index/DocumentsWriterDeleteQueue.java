@@ -127,12 +127,23 @@ final class DocumentsWriterDeleteQueue implements Accountable {
     return seqNo;
   }
   
+  static Node<Term> newNode(Term term) {
+    return new TermNode(term);
+  }
+
+  static Node<DocValuesUpdate[]> newNode(DocValuesUpdate... updates) {
+    return new DocValuesUpdatesNode(updates);
+  }
+
+  long add(Term term, DeleteSlice slice) {
+    return add(newNode(term), slice);
+  }
+
   /**
    * invariant for document update
    */
-  long add(Term term, DeleteSlice slice) {
-    final TermNode termNode = new TermNode(term);
-    long seqNo = add(termNode);
+  long add(Node<?> deleteNode, DeleteSlice slice) {
+    long seqNo = add(deleteNode);
     /*
      * this is an update request where the term is the updated documents
      * delTerm. in that case we need to guarantee that this insert is atomic
@@ -143,7 +154,7 @@ final class DocumentsWriterDeleteQueue implements Accountable {
      * will apply this delete next time we update our slice and one of the two
      * competing updates wins!
      */
-    slice.sliceTail = termNode;
+    slice.sliceTail = deleteNode;
     assert slice.sliceHead != slice.sliceTail : "slice head and tail must differ after add";
     tryApplyGlobalSlice(); // TODO doing this each time is not necessary maybe
     // we can do it just every n times or so?
@@ -310,7 +321,7 @@ final class DocumentsWriterDeleteQueue implements Accountable {
     }
   }
 
-  private static class Node<T> {
+  static class Node<T> {
     volatile Node<?> next;
     final T item;
 
@@ -321,6 +332,11 @@ final class DocumentsWriterDeleteQueue implements Accountable {
     void apply(BufferedUpdates bufferedDeletes, int docIDUpto) {
       throw new IllegalStateException("sentinel item must never be applied");
     }
+
+    /** Returns true if this node deletes documents. */
+    boolean isDelete() {
+      return true;
+    }
   }
 
   private static final class TermNode extends Node<Term> {
@@ -377,6 +393,11 @@ final class DocumentsWriterDeleteQueue implements Accountable {
       super(updates);
     }
 
+    @Override
+    boolean isDelete() {
+      return false;
+    }
+
     @Override
     void apply(BufferedUpdates bufferedUpdates, int docIDUpto) {
       for (DocValuesUpdate update : item) {
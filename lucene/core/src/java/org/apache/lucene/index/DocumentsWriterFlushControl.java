@@ -96,9 +96,14 @@ final class DocumentsWriterFlushControl implements Accountable {
     return flushBytes + activeBytes;
   }
   
+  /** Returns the RAM consumption at which the flush policy currently flushes. */
+  synchronized long ramBufferBytes() {
+    return flushPolicy.ramBufferBytes(this);
+  }
+
   private long stallLimitBytes() {
-    final double maxRamMB = config.getRAMBufferSizeMB();
-    return maxRamMB != IndexWriterConfig.DISABLE_AUTO_FLUSH ? (long)(2 * (maxRamMB * 1024 * 1024)) : Long.MAX_VALUE;
+    final long ramBufferBytes = flushPolicy.ramBufferBytes(this);
+    return ramBufferBytes < Long.MAX_VALUE / 2 ? 2 * ramBufferBytes : Long.MAX_VALUE;
   }
   
   private boolean assertMemory() {
@@ -210,7 +210,7 @@ class DocumentsWriterPerThread {
     }
   }
 
-  public long updateDocument(Iterable<? extends IndexableField> doc, Analyzer analyzer, Term delTerm) throws IOException, AbortingException {
+  public long updateDocument(Iterable<? extends IndexableField> doc, Analyzer analyzer, DocumentsWriterDeleteQueue.Node<?> deleteNode) throws IOException, AbortingException {
     testPoint("DocumentsWriterPerThread addDocument start");
     assert deleteQueue != null;
     reserveOneDoc();
@@ -218,7 +218,7 @@ class DocumentsWriterPerThread {
     docState.analyzer = analyzer;
     docState.docID = numDocsInRAM;
     if (INFO_VERBOSE && infoStream.isEnabled("DWPT")) {
-      infoStream.message("DWPT", Thread.currentThread().getName() + " update delTerm=" + delTerm + " docID=" + docState.docID + " seg=" + segmentInfo.name);
+      infoStream.message("DWPT", Thread.currentThread().getName() + " update deleteNode=" + deleteNode + " docID=" + docState.docID + " seg=" + segmentInfo.name);
     }
     // Even on exception, the document is still added (but marked
     // deleted), so we don't need to un-reserve at that point.
@@ -242,15 +242,15 @@ class DocumentsWriterPerThread {
       }
     }
 
-    return finishDocument(delTerm);
+    return finishDocument(deleteNode);
   }
 
-  public long updateDocuments(Iterable<? extends Iterable<? extends IndexableField>> docs, Analyzer analyzer, Term delTerm) throws IOException, AbortingException {
+  public long updateDocuments(Iterable<? extends Iterable<? extends IndexableField>> docs, Analyzer analyzer, DocumentsWriterDeleteQueue.Node<?> deleteNode) throws IOException, AbortingException {
     testPoint("DocumentsWriterPerThread addDocuments start");
     assert deleteQueue != null;
     docState.analyzer = analyzer;
     if (INFO_VERBOSE && infoStream.isEnabled("DWPT")) {
-      infoStream.message("DWPT", Thread.currentThread().getName() + " update delTerm=" + delTerm + " docID=" + docState.docID + " seg=" + segmentInfo.name);
+      infoStream.message("DWPT", Thread.currentThread().getName() + " update deleteNode=" + deleteNode + " docID=" + docState.docID + " seg=" + segmentInfo.name);
     }
     int docCount = 0;
     boolean allDocsIndexed = false;
@@ -288,9 +288,9 @@ class DocumentsWriterPerThread {
       // succeeded, but apply it only to docs prior to when
       // this batch started:
       long seqNo;
-      if (delTerm != null) {
-        seqNo = deleteQueue.add(delTerm, deleteSlice);
-        assert deleteSlice.isTailItem(delTerm) : "expected the delete term as the tail item";
+      if (deleteNode != null) {
+        seqNo = deleteQueue.add(deleteNode, deleteSlice);
+        assert deleteSlice.isTailItem(deleteNode.item) : "expected the delete node as the tail item";
         deleteSlice.apply(pendingUpdates, numDocsInRAM-docCount);
         return seqNo;
       } else {
@@ -320,7 +320,7 @@ class DocumentsWriterPerThread {
     }
   }
   
-  private long finishDocument(Term delTerm) {
+  private long finishDocument(DocumentsWriterDeleteQueue.Node<?> deleteNode) {
     /*
      * here we actually finish the document in two steps 1. push the delete into
      * the queue and update our slice. 2. increment the DWPT private document
@@ -331,9 +331,9 @@ class DocumentsWriterPerThread {
      */
     boolean applySlice = numDocsInRAM != 0;
     long seqNo;
-    if (delTerm != null) {
-      seqNo = deleteQueue.add(delTerm, deleteSlice);
-      assert deleteSlice.isTailItem(delTerm) : "expected the delete term as the tail item";
+    if (deleteNode != null) {
+      seqNo = deleteQueue.add(deleteNode, deleteSlice);
+      assert deleteSlice.isTailItem(deleteNode.item) : "expected the delete node as the tail item";
     } else  {
       seqNo = deleteQueue.updateSlice(deleteSlice);
       
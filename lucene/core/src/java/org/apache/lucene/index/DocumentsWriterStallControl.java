@@ -43,6 +43,9 @@ final class DocumentsWriterStallControl {
   private int numWaiting; // only with assert
   private boolean wasStalled; // only with assert
   private final Map<Thread, Boolean> waiting = new IdentityHashMap<>(); // only with assert
+  private long stallCount;
+  private long stallStartNS;
+  private long stalledNanos;
 
   /**
    * Update the stalled flag status. This method will set the stalled flag to
@@ -57,6 +60,10 @@ final class DocumentsWriterStallControl {
       this.stalled = stalled;
       if (stalled) {
         wasStalled = true;
+        stallCount++;
+        stallStartNS = System.nanoTime();
+      } else {
+        stalledNanos += System.nanoTime() - stallStartNS;
       }
       notifyAll();
     }
@@ -88,6 +95,16 @@ final class DocumentsWriterStallControl {
   boolean anyStalledThreads() {
     return stalled;
   }
+
+  /** Returns how many times indexing was stalled because flushing could not keep up. */
+  synchronized long getStallCount() {
+    return stallCount;
+  }
+
+  /** Returns the total time in nanoseconds indexing was stalled, including an ongoing stall. */
+  synchronized long getStalledNanos() {
+    return stalled ? stalledNanos + System.nanoTime() - stallStartNS : stalledNanos;
+  }
   
   private void incWaiters() {
     numWaiting++;
@@ -309,7 +309,7 @@ public final class FieldInfo {
   /**
    * Get a codec attribute value, or null if it does not exist
    */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
   
@@ -322,8 +322,11 @@ public final class FieldInfo {
    * <p>
    * If a value already exists for the field, it will be replaced with 
    * the new value.
+   * <p>
+   * This method is thread-safe since the formats of a segment may be merged
+   * concurrently.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
   
@@ -411,6 +411,12 @@ public abstract class FilterLeafReader extends LeafReader {
     in.document(docID, visitor);
   }
 
+  @Override
+  public void prefetchDocument(int docID) throws IOException {
+    ensureOpen();
+    in.prefetchDocument(docID);
+  }
+
   @Override
   protected void doClose() throws IOException {
     in.close();
@@ -17,6 +17,8 @@
 package org.apache.lucene.index;
 
 
+import java.util.concurrent.TimeUnit;
+
 import org.apache.lucene.index.DocumentsWriterPerThreadPool.ThreadState;
 
 /**
@@ -55,9 +57,71 @@ import org.apache.lucene.index.DocumentsWriterPerThreadPool.ThreadState;
  * largest ram consuming {@link DocumentsWriterPerThread} will be marked as
  * pending iff the global active RAM consumption is {@code >=} the configured max RAM
  * buffer.
+ * <p>
+ * If {@link IndexWriterConfig#setRAMBufferHeapFraction(double)} is enabled, the
+ * RAM buffer adapts to the JVM's heap: the flush trigger is lowered to the given
+ * fraction of the heap that is not used by anything but the buffered documents
+ * and deletes, if that is less than the configured max RAM buffer. The heap
+ * usage is sampled periodically and the smallest sample of the last second is
+ * used, so that garbage that was not collected yet does not count as used.
  */
 class FlushByRamOrCountsPolicy extends FlushPolicy {
 
+  /** The flush trigger is never lowered below this amount due to heap pressure. */
+  static final long MIN_HEAP_RAM_BUFFER_BYTES = 1024 * 1024;
+  private static final long HEAP_SAMPLE_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long HEAP_WINDOW_NS = TimeUnit.SECONDS.toNanos(1);
+
+  // guarded by the DocumentsWriterFlushControl that calls us
+  private boolean heapSampled;
+  private long lastHeapSampleNS;
+  private long heapWindowStartNS;
+  private long minUsedHeapBytes = Long.MAX_VALUE;
+  private long heapLimitBytes = Long.MAX_VALUE;
+
+  @Override
+  protected long ramBufferBytes(DocumentsWriterFlushControl control) {
+    final long ramBufferBytes = super.ramBufferBytes(control);
+    final double heapFraction = indexWriterConfig.getRAMBufferHeapFraction();
+    if (ramBufferBytes == Long.MAX_VALUE || heapFraction == 0) {
+      return ramBufferBytes;
+    }
+    final long now = System.nanoTime();
+    if (heapSampled == false || now - lastHeapSampleNS >= HEAP_SAMPLE_INTERVAL_NS) {
+      lastHeapSampleNS = now;
+      final Runtime runtime = Runtime.getRuntime();
+      minUsedHeapBytes = Math.min(minUsedHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+      if (heapSampled == false || now - heapWindowStartNS >= HEAP_WINDOW_NS) {
+        final long bufferedBytes = control.netBytes() + control.getDeleteBytesUsed();
+        final long previousLimit = heapLimitBytes;
+        heapLimitBytes = heapLimitBytes(runtime.maxMemory(), minUsedHeapBytes, bufferedBytes, heapFraction);
+        heapSampled = true;
+        heapWindowStartNS = now;
+        minUsedHeapBytes = Long.MAX_VALUE;
+        if (infoStream.isEnabled("FP") && (previousLimit < ramBufferBytes) != (heapLimitBytes < ramBufferBytes)) {
+          if (heapLimitBytes < ramBufferBytes) {
+            infoStream.message("FP", "heap pressure: lower flush trigger to " + heapLimitBytes + " bytes vs ramBufferMB=" + indexWriterConfig.getRAMBufferSizeMB());
+          } else {
+            infoStream.message("FP", "heap pressure released: flush trigger back to ramBufferMB=" + indexWriterConfig.getRAMBufferSizeMB());
+          }
+        }
+      }
+    }
+    return Math.min(ramBufferBytes, heapLimitBytes);
+  }
+
+  /**
+   * Returns the given fraction of the heap that is neither used nor occupied by
+   * the buffered documents and deletes, which are released by flushing.
+   */
+  static long heapLimitBytes(long maxHeapBytes, long usedHeapBytes, long bufferedBytes, double heapFraction) {
+    if (maxHeapBytes == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    final long headroom = maxHeapBytes - Math.max(0, usedHeapBytes - bufferedBytes);
+    return Math.max(MIN_HEAP_RAM_BUFFER_BYTES, (long) (heapFraction * Math.max(0, headroom)));
+  }
+
   @Override
   public void onDelete(DocumentsWriterFlushControl control, ThreadState state) {
     if (flushOnDeleteTerms()) {
@@ -69,10 +133,10 @@ class FlushByRamOrCountsPolicy extends FlushPolicy {
       }
     }
     if ((flushOnRAM() &&
-        control.getDeleteBytesUsed() > (1024*1024*indexWriterConfig.getRAMBufferSizeMB()))) {
+        control.getDeleteBytesUsed() > ramBufferBytes(control))) {
       control.setApplyAllDeletes();
      if (infoStream.isEnabled("FP")) {
-       infoStream.message("FP", "force apply deletes bytesUsed=" + control.getDeleteBytesUsed() + " vs ramBufferMB=" + indexWriterConfig.getRAMBufferSizeMB());
+       infoStream.message("FP", "force apply deletes bytesUsed=" + control.getDeleteBytesUsed() + " vs limit=" + ramBufferBytes(control));
      }
    }
   }
@@ -85,7 +149,7 @@ class FlushByRamOrCountsPolicy extends FlushPolicy {
       // Flush this state by num docs
       control.setFlushPending(state);
     } else if (flushOnRAM()) {// flush by RAM
-      final long limit = (long) (indexWriterConfig.getRAMBufferSizeMB() * 1024.d * 1024.d);
+      final long limit = ramBufferBytes(control);
       final long totalRam = control.activeBytes() + control.getDeleteBytesUsed();
       if (totalRam >= limit) {
         if (infoStream.isEnabled("FP")) {
@@ -90,6 +90,23 @@ abstract class FlushPolicy {
   public abstract void onInsert(DocumentsWriterFlushControl control,
       ThreadState state);
 
+  /**
+   * Returns the RAM consumption of buffered documents and deletes in bytes at
+   * which this policy flushes, or {@link Long#MAX_VALUE} if it does not flush
+   * by RAM. {@link DocumentsWriterFlushControl} stalls incoming indexing threads
+   * once twice this amount is buffered or flushing.
+   * <p>
+   * Note: This method is called synchronized on the given
+   * {@link DocumentsWriterFlushControl}
+   */
+  protected long ramBufferBytes(DocumentsWriterFlushControl control) {
+    final double ramBufferSizeMB = indexWriterConfig.getRAMBufferSizeMB();
+    if (ramBufferSizeMB == IndexWriterConfig.DISABLE_AUTO_FLUSH) {
+      return Long.MAX_VALUE;
+    }
+    return (long) (ramBufferSizeMB * 1024.d * 1024.d);
+  }
+
   /**
    * Called by DocumentsWriter to initialize the FlushPolicy
    */
@@ -17,12 +17,14 @@
 package org.apache.lucene.index;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.lucene.index.BufferedUpdatesStream.QueryAndLimit;
+import org.apache.lucene.index.BufferedUpdatesStream.ResolvedUpdates;
 import org.apache.lucene.index.DocValuesUpdate.BinaryDocValuesUpdate;
 import org.apache.lucene.index.DocValuesUpdate.NumericDocValuesUpdate;
 import org.apache.lucene.index.PrefixCodedTerms.TermIterator;
@@ -61,6 +63,10 @@ class FrozenBufferedUpdates {
                                    // a segment private deletes. in that case is should
                                    // only have Queries 
 
+  // deletes and updates that were resolved against segments ahead of time, see BufferedUpdatesStream#resolve:
+  private final Map<SegmentCommitInfo,ResolvedUpdates> resolvedUpdates = new HashMap<>();
+  private long resolvedBytesUsed;
+  private boolean pruned;
 
   public FrozenBufferedUpdates(BufferedUpdates deletes, boolean isSegmentPrivate) {
     this.isSegmentPrivate = isSegmentPrivate;
@@ -128,6 +134,35 @@ class FrozenBufferedUpdates {
     return gen;
   }
 
+  /** Records the deletes and updates of this packet that were resolved
+   *  against the given segment ahead of time. Returns false, and records
+   *  nothing, if this packet was pruned meanwhile. */
+  synchronized boolean setResolvedUpdates(SegmentCommitInfo info, ResolvedUpdates resolved) {
+    if (pruned) {
+      return false;
+    }
+    assert resolvedUpdates.containsKey(info) == false;
+    resolvedUpdates.put(info, resolved);
+    resolvedBytesUsed += resolved.ramBytesUsed;
+    return true;
+  }
+
+  /** Returns the deletes and updates of this packet that were resolved
+   *  against the given segment ahead of time, or null. */
+  synchronized ResolvedUpdates getResolvedUpdates(SegmentCommitInfo info) {
+    return resolvedUpdates.get(info);
+  }
+
+  /** Drops the resolved deletes and updates once this packet is pruned, and
+   *  returns how much RAM they used. */
+  synchronized long prune() {
+    pruned = true;
+    resolvedUpdates.clear();
+    final long bytes = resolvedBytesUsed;
+    resolvedBytesUsed = 0;
+    return bytes;
+  }
+
   public TermIterator termIterator() {
     return terms.iterator();
   }
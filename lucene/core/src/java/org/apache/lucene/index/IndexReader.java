@@ -340,6 +340,19 @@ public abstract class IndexReader implements Closeable {
    *  #document(int)}.  If you want to load a subset, use
    *  {@link DocumentStoredFieldVisitor}.  */
   public abstract void document(int docID, StoredFieldVisitor visitor) throws IOException;
+
+  /**
+   * Expert: hint that the stored fields of document <code>docID</code> will be
+   * loaded soon, so that the underlying storage may start fetching them in the
+   * background. This is typically useful to call on all hits of a page of
+   * results before loading their stored fields one after the other.
+   * <p>
+   * The default implementation does nothing.
+   * @see org.apache.lucene.store.IndexInput#prefetch
+   * @lucene.experimental
+   */
+  public void prefetchDocument(int docID) throws IOException {
+  }
   
   /**
    * Returns the stored fields of the <code>n</code><sup>th</sup>
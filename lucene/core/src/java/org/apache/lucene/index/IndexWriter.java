@@ -33,6 +33,8 @@ import java.util.Map.Entry;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -433,8 +435,10 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
     // this method is called:
     poolReaders = true;
     DirectoryReader r = null;
+    // give the merge policy a chance to merge the segments that were
+    // flushed since the last reopen before they are exposed to searches:
+    boolean anyChanges = flushAndMergeOnFullFlush(MergeTrigger.GET_READER, applyAllDeletes);
     doBeforeFlush();
-    boolean anyChanges = false;
     /*
      * for releasing a NRT reader we must ensure that 
      * DW doesn't add any segments or deletes until we are
@@ -453,13 +457,14 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
             anyChanges = true;
             seqNo = -seqNo;
           } else {
-            anyChanges = false;
-          }
-          if (!anyChanges) {
             // prevent double increment since docWriter#doFlush increments the flushcount
             // if we flushed anything.
             flushCount.incrementAndGet();
           }
+          if (applyAllDeletes) {
+            // resolve the packets of the full flush before taking the lock:
+            resolveFrozenUpdates();
+          }
           // Prevent segmentInfos from changing while opening the
           // reader; in theory we could instead do similar retry logic,
           // just like we do when loading segments_N
@@ -514,6 +519,41 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
     return docWriter.ramBytesUsed();
   }
 
+  /**
+   * Returns the RAM consumption in bytes of buffered documents and deletes at
+   * which they are currently flushed, or {@link Long#MAX_VALUE} if the writer
+   * does not flush by RAM usage. This is less than
+   * {@link IndexWriterConfig#getRAMBufferSizeMB()} while the RAM buffer is
+   * lowered due to heap pressure.
+   *
+   * @see IndexWriterConfig#setRAMBufferHeapFraction(double)
+   */
+  public final long getFlushRAMBufferBytes() {
+    ensureOpen();
+    return docWriter.flushControl.ramBufferBytes();
+  }
+
+  /**
+   * Returns how many times indexing threads were stalled because flushing
+   * segments could not keep up with indexing. Stalls due to merges falling
+   * behind are reported by {@link ConcurrentMergeScheduler#getStallCount()}.
+   */
+  public final long getFlushStallCount() {
+    ensureOpen();
+    return docWriter.flushControl.stallControl.getStallCount();
+  }
+
+  /**
+   * Returns the total time in milliseconds indexing threads were stalled
+   * because flushing segments could not keep up with indexing.
+   *
+   * @see #getFlushStallCount()
+   */
+  public final long getFlushStalledMillis() {
+    ensureOpen();
+    return TimeUnit.NANOSECONDS.toMillis(docWriter.flushControl.stallControl.getStalledNanos());
+  }
+
   /** Holds shared SegmentReader instances. IndexWriter uses
    *  SegmentReaders for 1) applying deletes, 2) doing
    *  merges, 3) handing out a real-time reader.  This pool
@@ -1321,7 +1361,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
    * @throws IOException if there is a low-level IO error
    */
   public long addDocument(Iterable<? extends IndexableField> doc) throws IOException {
-    return updateDocument(null, doc);
+    return updateDocument((DocumentsWriterDeleteQueue.Node<?>) null, doc);
   }
 
   /**
@@ -1365,7 +1405,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
    * @lucene.experimental
    */
   public long addDocuments(Iterable<? extends Iterable<? extends IndexableField>> docs) throws IOException {
-    return updateDocuments(null, docs);
+    return updateDocuments((DocumentsWriterDeleteQueue.Node<?>) null, docs);
   }
 
   /**
@@ -1385,11 +1425,15 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
    * @lucene.experimental
    */
   public long updateDocuments(Term delTerm, Iterable<? extends Iterable<? extends IndexableField>> docs) throws IOException {
+    return updateDocuments(delTerm == null ? null : DocumentsWriterDeleteQueue.newNode(delTerm), docs);
+  }
+
+  private long updateDocuments(final DocumentsWriterDeleteQueue.Node<?> delNode, Iterable<? extends Iterable<? extends IndexableField>> docs) throws IOException {
     ensureOpen();
     try {
       boolean success = false;
       try {
-        long seqNo = docWriter.updateDocuments(docs, analyzer, delTerm);
+        long seqNo = docWriter.updateDocuments(docs, analyzer, delNode);
         if (seqNo < 0) {
           seqNo = -seqNo;
           processEvents(true, false);
@@ -1572,11 +1616,15 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
    * @throws IOException if there is a low-level IO error
    */
   public long updateDocument(Term term, Iterable<? extends IndexableField> doc) throws IOException {
+    return updateDocument(term == null ? null : DocumentsWriterDeleteQueue.newNode(term), doc);
+  }
+
+  private long updateDocument(final DocumentsWriterDeleteQueue.Node<?> delNode, Iterable<? extends IndexableField> doc) throws IOException {
     ensureOpen();
     try {
       boolean success = false;
       try {
-        long seqNo = docWriter.updateDocument(doc, analyzer, term);
+        long seqNo = docWriter.updateDocument(doc, analyzer, delNode);
         if (seqNo < 0) {
           seqNo = - seqNo;
           processEvents(true, false);
@@ -1598,6 +1646,73 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
     }
   }
 
+  /**
+   * Expert: Updates a document by first updating the document(s)
+   * containing <code>term</code> with the given doc-values fields
+   * and then adding the new document.  The doc-values update and
+   * then add are atomic as seen by a reader on the same index
+   * (flush may happen only after the add).
+   *
+   * One use of this API is to retain older versions of documents instead of
+   * replacing them. The existing documents can be updated to reflect they are
+   * no longer current while atomically adding new documents at the same time.
+   *
+   * In contrast to {@link #updateDocument(Term, Iterable)} this method will not
+   * delete documents in the index matching the given term but instead update
+   * them with the given doc-values fields which can be used as a soft-delete
+   * mechanism, see {@link IndexWriterConfig#setSoftDeletesField(String)},
+   * {@link SoftDeletesDirectoryReaderWrapper} and
+   * {@link SoftDeletesRetentionMergePolicy}.
+   *
+   * @return The <a href="#sequence_number">sequence number</a>
+   * for this operation
+   *
+   * @param term the term to identify the document(s) to be updated
+   * @param doc the document to be added
+   * @param softDeletes the doc-values fields to update on the
+   * previous versions of the document
+   * @throws CorruptIndexException if the index is corrupt
+   * @throws IOException if there is a low-level IO error
+   *
+   * @lucene.experimental
+   */
+  public long softUpdateDocument(Term term, Iterable<? extends IndexableField> doc, Field... softDeletes) throws IOException {
+    if (term == null) {
+      throw new IllegalArgumentException("term must not be null");
+    }
+    if (softDeletes == null || softDeletes.length == 0) {
+      throw new IllegalArgumentException("at least one soft delete must be present");
+    }
+    return updateDocument(DocumentsWriterDeleteQueue.newNode(buildDocValuesUpdate(term, softDeletes)), doc);
+  }
+
+  /**
+   * Expert: Atomically updates documents matching the provided
+   * term with the given doc-values fields and adds a block of
+   * documents with sequentially assigned document IDs, such that
+   * an external reader will see all or none of the documents.
+   *
+   * See {@link #softUpdateDocument(Term, Iterable, Field...)} and
+   * {@link #updateDocuments(Term, Iterable)}.
+   *
+   * @return The <a href="#sequence_number">sequence number</a>
+   * for this operation
+   *
+   * @throws CorruptIndexException if the index is corrupt
+   * @throws IOException if there is a low-level IO error
+   *
+   * @lucene.experimental
+   */
+  public long softUpdateDocuments(Term term, Iterable<? extends Iterable<? extends IndexableField>> docs, Field... softDeletes) throws IOException {
+    if (term == null) {
+      throw new IllegalArgumentException("term must not be null");
+    }
+    if (softDeletes == null || softDeletes.length == 0) {
+      throw new IllegalArgumentException("at least one soft delete must be present");
+    }
+    return updateDocuments(DocumentsWriterDeleteQueue.newNode(buildDocValuesUpdate(term, softDeletes)), docs);
+  }
+
   /**
    * Updates a document's {@link NumericDocValues} for <code>field</code> to the
    * given <code>value</code>. You can only update fields that already exist in
@@ -1706,6 +1821,23 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
    *           if there is a low-level IO error
    */
   public long updateDocValues(Term term, Field... updates) throws IOException {
+    DocValuesUpdate[] dvUpdates = buildDocValuesUpdate(term, updates);
+    try {
+      long seqNo = docWriter.updateDocValues(dvUpdates);
+      if (seqNo < 0) {
+        seqNo = -seqNo;
+        processEvents(true, false);
+      }
+      return seqNo;
+    } catch (VirtualMachineError tragedy) {
+      tragicEvent(tragedy, "updateDocValues");
+
+      // dead code but javac disagrees:
+      return -1;
+    }
+  }
+
+  private DocValuesUpdate[] buildDocValuesUpdate(Term term, Field[] updates) {
     ensureOpen();
     DocValuesUpdate[] dvUpdates = new DocValuesUpdate[updates.length];
     for (int i = 0; i < updates.length; i++) {
@@ -1717,7 +1849,10 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
       if (dvType == DocValuesType.NONE) {
         throw new IllegalArgumentException("can only update NUMERIC or BINARY fields! field=" + f.name());
       }
-      if (!globalFieldNumberMap.contains(f.name(), dvType)) {
+      if (dvType == DocValuesType.NUMERIC && f.name().equals(config.getSoftDeletesField())) {
+        // the soft-deletes field may be introduced by the update itself
+        globalFieldNumberMap.addOrGet(f.name(), -1, DocValuesType.NUMERIC, 0, 0);
+      } else if (!globalFieldNumberMap.contains(f.name(), dvType)) {
         throw new IllegalArgumentException("can only update existing docvalues fields! field=" + f.name() + ", type=" + dvType);
       }
       if (config.getIndexSortFields().contains(f.name())) {
@@ -1734,19 +1869,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
           throw new IllegalArgumentException("can only update NUMERIC or BINARY fields: field=" + f.name() + ", type=" + dvType);
       }
     }
-    try {
-      long seqNo = docWriter.updateDocValues(dvUpdates);
-      if (seqNo < 0) {
-        seqNo = -seqNo;
-        processEvents(true, false);
-      }
-      return seqNo;
-    } catch (VirtualMachineError tragedy) {
-      tragicEvent(tragedy, "updateDocValues");
-
-      // dead code but javac disagrees:
-      return -1;
-    }
+    return dvUpdates;
   }
   
   // for test purpose
@@ -2091,6 +2214,81 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
     mergeScheduler.merge(this, trigger, newMergesFound);
   }
 
+  /**
+   * Flushes all buffered documents, asks the merge policy for merges of the
+   * flushed segments, and waits up to {@link IndexWriterConfig#getMaxFullFlushMergeWaitMillis()}
+   * for them to complete, so that the NRT reader or commit point that is
+   * about to be created sees the merged segments. Merges that do not complete
+   * in time keep running in the background. This does nothing if the merge
+   * scheduler does not {@link MergeScheduler#runsMergesInBackground() run merges
+   * in the background}, since the deadline could not be enforced.
+   * <p>
+   * This must be called without holding the commit or full flush locks, as
+   * the merge scheduler may run or wait for merges.
+   *
+   * @return true if any segments were flushed or deletes applied
+   */
+  private boolean flushAndMergeOnFullFlush(MergeTrigger trigger, boolean applyAllDeletes) throws IOException {
+    assert trigger == MergeTrigger.GET_READER || trigger == MergeTrigger.COMMIT;
+    assert Thread.holdsLock(commitLock) == false;
+    assert holdsFullFlushLock() == false;
+    final long maxWaitMillis = config.getMaxFullFlushMergeWaitMillis();
+    if (maxWaitMillis <= 0 || mergeScheduler.runsMergesInBackground() == false) {
+      return false;
+    }
+    ensureOpen(false);
+    final long startNS = System.nanoTime();
+    final boolean anyChanges = doFlush(applyAllDeletes);
+    final MergePolicy.MergeSpecification spec;
+    synchronized (this) {
+      if (stopMerges || tragedy != null) {
+        return anyChanges;
+      }
+      spec = config.getMergePolicy().findFullFlushMerges(trigger, segmentInfos, this);
+      if (spec == null) {
+        return anyChanges;
+      }
+      // these merges are small and someone is waiting for them: run them
+      // before the merges that are already pending
+      for (int i = spec.merges.size() - 1; i >= 0; i--) {
+        final MergePolicy.OneMerge merge = spec.merges.get(i);
+        if (registerMerge(merge)) {
+          pendingMerges.remove(merge);
+          pendingMerges.addFirst(merge);
+        }
+      }
+    }
+
+    mergeScheduler.merge(this, trigger, true);
+
+    final long maxWaitNS = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    synchronized (this) {
+      while (true) {
+        boolean running = false;
+        for (MergePolicy.OneMerge merge : spec.merges) {
+          if (pendingMerges.contains(merge) || runningMerges.contains(merge)) {
+            running = true;
+            break;
+          }
+        }
+        final long remainingNS = maxWaitNS - (System.nanoTime() - startNS);
+        if (running == false || remainingNS <= 0 || tragedy != null) {
+          if (infoStream.isEnabled("IW")) {
+            infoStream.message("IW", "merge on full flush (" + trigger + ") took " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNS)
+                + " msec" + (running ? "; continuing in the background" : ""));
+          }
+          return anyChanges;
+        }
+        try {
+          // like doWait(), defensively wait for at most 1 second at a time
+          wait(Math.min(1000, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNS))));
+        } catch (InterruptedException ie) {
+          throw new ThreadInterruptedException(ie);
+        }
+      }
+    }
+  }
+
   private synchronized boolean updatePendingMerges(MergePolicy mergePolicy, MergeTrigger trigger, int maxNumSegments)
     throws IOException {
 
@@ -2510,7 +2708,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
   synchronized void publishFrozenUpdates(FrozenBufferedUpdates packet) {
     assert packet != null && packet.any();
     synchronized (bufferedUpdatesStream) {
-      bufferedUpdatesStream.push(packet);
+      bufferedUpdatesStream.push(packet, poolReaders);
     }
   }
   
@@ -2530,13 +2728,13 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
           }
           
           if (globalPacket != null && globalPacket.any()) {
-            bufferedUpdatesStream.push(globalPacket);
+            bufferedUpdatesStream.push(globalPacket, poolReaders);
           } 
           // Publishing the segment must be synched on IW -> BDS to make the sure
           // that no merge prunes away the seg. private delete packet
           final long nextGen;
           if (packet != null && packet.any()) {
-            nextGen = bufferedUpdatesStream.push(packet);
+            nextGen = bufferedUpdatesStream.push(packet, poolReaders);
           } else {
             // Since we don't have a delete packet to apply we can get a new
             // generation right away
@@ -2973,6 +3171,8 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
   public final long prepareCommit() throws IOException {
     ensureOpen();
     boolean[] doMaybeMerge = new boolean[1];
+    // we must do this outside of the commitLock, like maybeMerge below:
+    doMaybeMerge[0] = flushAndMergeOnFullFlush(MergeTrigger.COMMIT, true);
     pendingSeqNo = prepareCommitInternal(doMaybeMerge);
     // we must do this outside of the commitLock else we can deadlock:
     if (doMaybeMerge[0]) {
@@ -3027,6 +3227,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
             processEvents(false, true);
             flushSuccess = true;
 
+            resolveFrozenUpdates();
             synchronized(this) {
               maybeApplyDeletes(true);
 
@@ -3213,6 +3414,11 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
 
     long seqNo;
 
+    if (pendingCommit == null) {
+      // we must do this outside of the commitLock, like maybeMerge below:
+      doMaybeMerge[0] = flushAndMergeOnFullFlush(MergeTrigger.COMMIT, true);
+    }
+
     synchronized(commitLock) {
       ensureOpen(false);
 
@@ -3398,6 +3604,9 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
           processEvents(false, true);
         }
       }
+      if (applyAllDeletes) {
+        resolveFrozenUpdates();
+      }
       synchronized(this) {
         anyChanges |= maybeApplyDeletes(applyAllDeletes);
         doAfterFlush();
@@ -3514,18 +3723,20 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
   private void maybeApplyMergedDVUpdates(MergePolicy.OneMerge merge, MergeState mergeState,
       MergedDeletesAndUpdates holder, String[] mergingFields, DocValuesFieldUpdates[] dvFieldUpdates,
       DocValuesFieldUpdates.Iterator[] updatesIters, int segment, int curDoc) throws IOException {
-    int newDoc = -1;
+    int newDoc = -2;
     for (int idx = 0; idx < mergingFields.length; idx++) {
       DocValuesFieldUpdates.Iterator updatesIter = updatesIters[idx];
       if (updatesIter.doc() == curDoc) { // document has an update
-        if (holder.mergedDeletesAndUpdates == null) {
-          holder.init(readerPool, merge, false);
-        }
-        if (newDoc == -1) { // map once per all field updates, but only if there are any updates
+        if (newDoc == -2) { // map once per all field updates, but only if there are any updates
           newDoc = mergeState.docMaps[segment].get(curDoc);
         }
-        DocValuesFieldUpdates dvUpdates = dvFieldUpdates[idx];
-        dvUpdates.add(newDoc, updatesIter.value());
+        if (newDoc != -1) { // -1 if the merge wrapper dropped the document
+          if (holder.mergedDeletesAndUpdates == null) {
+            holder.init(readerPool, merge, false);
+          }
+          DocValuesFieldUpdates dvUpdates = dvFieldUpdates[idx];
+          dvUpdates.add(newDoc, updatesIter.value());
+        }
         updatesIter.nextDoc(); // advance to next document
       } else {
         assert updatesIter.doc() > curDoc : "field=" + mergingFields[idx] + " updateDoc=" + updatesIter.doc() + " curDoc=" + curDoc;
@@ -3629,10 +3840,13 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
               assert currentLiveDocs.get(j) == false;
             } else if (currentLiveDocs.get(j) == false) {
               // the document was deleted while we were merging:
-              if (holder.mergedDeletesAndUpdates == null || holder.initializedWritableLiveDocs == false) {
-                holder.init(readerPool, merge, true);
+              final int newDoc = mergeState.docMaps[i].get(mergeState.leafDocMaps[i].get(j));
+              if (newDoc != -1) { // -1 if the merge wrapper dropped the document
+                if (holder.mergedDeletesAndUpdates == null || holder.initializedWritableLiveDocs == false) {
+                  holder.init(readerPool, merge, true);
+                }
+                holder.mergedDeletesAndUpdates.delete(newDoc);
               }
-              holder.mergedDeletesAndUpdates.delete(mergeState.docMaps[i].get(mergeState.leafDocMaps[i].get(j)));
               if (mergingFields != null) { // advance all iters beyond the deleted document
                 skipDeletedDoc(updatesIters, j);
               }
@@ -3658,10 +3872,13 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
         // does:
         for (int j = 0; j < maxDoc; j++) {
           if (currentLiveDocs.get(j) == false) {
-            if (holder.mergedDeletesAndUpdates == null || !holder.initializedWritableLiveDocs) {
-              holder.init(readerPool, merge, true);
+            final int newDoc = mergeState.docMaps[i].get(mergeState.leafDocMaps[i].get(j));
+            if (newDoc != -1) { // -1 if the merge wrapper dropped the document
+              if (holder.mergedDeletesAndUpdates == null || !holder.initializedWritableLiveDocs) {
+                holder.init(readerPool, merge, true);
+              }
+              holder.mergedDeletesAndUpdates.delete(newDoc);
             }
-            holder.mergedDeletesAndUpdates.delete(mergeState.docMaps[i].get(mergeState.leafDocMaps[i].get(j)));
             if (mergingFields != null) { // advance all iters beyond the deleted document
               skipDeletedDoc(updatesIters, j);
             }
@@ -4324,10 +4541,17 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
       for (SegmentReader reader : merge.readers) {
         mergeReaders.add(merge.wrapForMerge(reader));
       }
+      // The parts of the merge may run in other threads, which must write through
+      // this merge's rate limiter too:
+      final Executor intraMergeExecutor = mergeScheduler.getIntraMergeExecutor(merge);
       final SegmentMerger merger = new SegmentMerger(mergeReaders,
                                                      merge.info.info, infoStream, dirWrapper,
                                                      globalFieldNumberMap, 
-                                                     context);
+                                                     context,
+                                                     task -> intraMergeExecutor.execute(() -> {
+                                                       rateLimiters.set(merge.rateLimiter);
+                                                       task.run();
+                                                     }));
 
       merge.rateLimiter.checkAbort();
 
@@ -4939,7 +5163,35 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable {
   }
   
   final int purge(boolean forced) throws IOException {
-    return docWriter.purgeBuffer(this, forced);
+    final int count = docWriter.purgeBuffer(this, forced);
+    // the published packets are resolved by this thread, before anyone needs them to be applied:
+    resolveFrozenUpdates();
+    return count;
+  }
+
+  /** Resolves the deletes and updates of packets that were published since
+   *  the last call against the segments they apply to, and keeps the results
+   *  until they are applied. Only opening the segments is done while holding
+   *  this writer's lock, so that applying deletes, eg. to reopen an NRT
+   *  reader, mostly has to publish results. Packets are only resolved
+   *  ahead of time while readers are pooled. */
+  final void resolveFrozenUpdates() throws IOException {
+    assert Thread.holdsLock(this) == false;
+    FrozenBufferedUpdates packet;
+    while ((packet = bufferedUpdatesStream.pollUnresolved()) != null) {
+      final List<BufferedUpdatesStream.SegmentState> segStates;
+      synchronized (this) {
+        if (closed || closing) {
+          return;
+        }
+        segStates = BufferedUpdatesStream.openSegmentStates(readerPool, packet, segmentInfos.asList());
+      }
+      try {
+        bufferedUpdatesStream.resolve(packet, segStates);
+      } finally {
+        BufferedUpdatesStream.closeSegmentStates(readerPool, segStates);
+      }
+    }
   }
 
   final void applyDeletesAndPurge(boolean forcePurge) throws IOException {
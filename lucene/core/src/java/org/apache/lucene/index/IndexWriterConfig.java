@@ -104,6 +104,12 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
   
   /** Default value for whether calls to {@link IndexWriter#close()} include a commit. */
   public final static boolean DEFAULT_COMMIT_ON_CLOSE = true;
+
+  /** Default value for {@link #setMaxFullFlushMergeWaitMillis}: merges on full flush are disabled. */
+  public final static long DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS = 0;
+
+  /** Default value for {@link #setRAMBufferHeapFraction}: the RAM buffer does not adapt to the heap. */
+  public final static double DEFAULT_RAM_BUFFER_HEAP_FRACTION = 0;
   
   // indicates whether this config instance is already attached to a writer.
   // not final so that it can be cloned properly.
@@ -444,6 +450,11 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     return (IndexWriterConfig) super.setRAMBufferSizeMB(ramBufferSizeMB);
   }
   
+  @Override
+  public IndexWriterConfig setRAMBufferHeapFraction(double ramBufferHeapFraction) {
+    return (IndexWriterConfig) super.setRAMBufferHeapFraction(ramBufferHeapFraction);
+  }
+  
   @Override
   public IndexWriterConfig setUseCompoundFile(boolean useCompoundFile) {
     return (IndexWriterConfig) super.setUseCompoundFile(useCompoundFile);
@@ -480,6 +491,49 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     return this;
   }
 
+  /**
+   * Sets the name of the numeric doc values field that marks documents as
+   * soft deleted. Soft deleted documents are not removed from the live docs:
+   * {@link IndexWriter#softUpdateDocument} sets this field on the previous
+   * versions of a document instead of deleting them, which is cheaper and
+   * allows to retain history. Use {@link SoftDeletesDirectoryReaderWrapper}
+   * to hide soft deleted documents from searches, and
+   * {@link SoftDeletesRetentionMergePolicy} to reclaim them on merge.
+   * <p>
+   * By default soft deletes are disabled.
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setSoftDeletesField(String softDeletesField) {
+    this.softDeletesField = softDeletesField;
+    return this;
+  }
+
+  /**
+   * Expert: sets the amount of time to wait for merges returned by
+   * {@link MergePolicy#findFullFlushMerges} to complete when
+   * {@link IndexWriter} opens a near-real-time reader or commits. This
+   * allows to merge the tiny segments that frequent reopens produce before
+   * they are exposed to searches. Merges that do not complete in time keep
+   * running in the background, and the reader or commit point then includes
+   * the segments that they merge.
+   * <p>
+   * This only applies to merge schedulers that
+   * {@link MergeScheduler#runsMergesInBackground() run merges in the background},
+   * like {@link ConcurrentMergeScheduler}. It is ignored otherwise, for
+   * instance with {@link SerialMergeScheduler}, since merges would then run in
+   * the thread that opens the reader or commits, regardless of this deadline.
+   * <p>
+   * Set to 0 (the default) to disable merges on full flush.
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setMaxFullFlushMergeWaitMillis(long maxFullFlushMergeWaitMillis) {
+    if (maxFullFlushMergeWaitMillis < 0) {
+      throw new IllegalArgumentException("maxFullFlushMergeWaitMillis must be >= 0, got " + maxFullFlushMergeWaitMillis);
+    }
+    this.maxFullFlushMergeWaitMillis = maxFullFlushMergeWaitMillis;
+    return this;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder(super.toString());
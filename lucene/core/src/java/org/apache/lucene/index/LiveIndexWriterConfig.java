@@ -42,6 +42,7 @@ public class LiveIndexWriterConfig {
   
   private volatile int maxBufferedDocs;
   private volatile double ramBufferSizeMB;
+  private volatile double ramBufferHeapFraction;
   private volatile int maxBufferedDeleteTerms;
   private volatile IndexReaderWarmer mergedSegmentWarmer;
 
@@ -104,10 +105,17 @@ public class LiveIndexWriterConfig {
   /** The field names involved in the index sort */
   protected Set<String> indexSortFields = Collections.emptySet();
 
+  /** The name of the soft deletes field, or null if soft deletes are disabled. */
+  protected String softDeletesField = null;
+
+  /** Amount of time to wait for merges on full flush, or 0 to not merge on full flush. */
+  protected long maxFullFlushMergeWaitMillis = IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS;
+
   // used by IndexWriterConfig
   LiveIndexWriterConfig(Analyzer analyzer) {
     this.analyzer = analyzer;
     ramBufferSizeMB = IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB;
+    ramBufferHeapFraction = IndexWriterConfig.DEFAULT_RAM_BUFFER_HEAP_FRACTION;
     maxBufferedDocs = IndexWriterConfig.DEFAULT_MAX_BUFFERED_DOCS;
     maxBufferedDeleteTerms = IndexWriterConfig.DEFAULT_MAX_BUFFERED_DELETE_TERMS;
     mergedSegmentWarmer = null;
@@ -236,6 +244,43 @@ public class LiveIndexWriterConfig {
   public double getRAMBufferSizeMB() {
     return ramBufferSizeMB;
   }
+
+  /**
+   * Lets the RAM buffer adapt to the JVM's heap: the writer flushes once
+   * buffered documents and deletions use the given fraction of the heap that is
+   * not used by anything else, if that is less than
+   * {@link #getRAMBufferSizeMB()}. This allows to configure a large RAM buffer
+   * for throughput while flushing earlier instead of running out of memory when
+   * the heap is under pressure. Pass in {@code 0} to always flush at
+   * {@link #getRAMBufferSizeMB()}.
+   * <p>
+   * Since indexing threads are stalled once twice the RAM buffer is buffered
+   * or flushing, the fraction must not exceed {@code 0.5}. The RAM buffer is
+   * never lowered below 1 MB due to heap pressure. This setting has no effect
+   * if flushing by RAM usage is disabled.
+   * <p>
+   * The default value is {@link IndexWriterConfig#DEFAULT_RAM_BUFFER_HEAP_FRACTION}.
+   * 
+   * <p>
+   * Takes effect immediately, but only the next time a document is added,
+   * updated or deleted.
+   * 
+   * @see IndexWriter#getFlushStallCount()
+   * @throws IllegalArgumentException
+   *           if ramBufferHeapFraction is negative or greater than 0.5
+   */
+  public LiveIndexWriterConfig setRAMBufferHeapFraction(double ramBufferHeapFraction) {
+    if (ramBufferHeapFraction < 0 || ramBufferHeapFraction > 0.5 || Double.isNaN(ramBufferHeapFraction)) {
+      throw new IllegalArgumentException("ramBufferHeapFraction must be >= 0 and <= 0.5, got " + ramBufferHeapFraction);
+    }
+    this.ramBufferHeapFraction = ramBufferHeapFraction;
+    return this;
+  }
+
+  /** Returns the value set by {@link #setRAMBufferHeapFraction(double)}. */
+  public double getRAMBufferHeapFraction() {
+    return ramBufferHeapFraction;
+  }
   
   /**
    * Determines the minimal number of documents required before the buffered
@@ -470,11 +515,30 @@ public class LiveIndexWriterConfig {
     return indexSortFields;
   }
 
+  /**
+   * Returns the name of the numeric doc values field that
+   * {@link IndexWriter#softUpdateDocument} uses to mark documents as soft
+   * deleted, or {@code null} if soft deletes are disabled.
+   */
+  public String getSoftDeletesField() {
+    return softDeletesField;
+  }
+
+  /**
+   * Returns the amount of time to wait for merges returned by
+   * {@link MergePolicy#findFullFlushMerges} to complete when opening a
+   * near-real-time reader or committing.
+   */
+  public long getMaxFullFlushMergeWaitMillis() {
+    return maxFullFlushMergeWaitMillis;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append("analyzer=").append(analyzer == null ? "null" : analyzer.getClass().getName()).append("\n");
     sb.append("ramBufferSizeMB=").append(getRAMBufferSizeMB()).append("\n");
+    sb.append("ramBufferHeapFraction=").append(getRAMBufferHeapFraction()).append("\n");
     sb.append("maxBufferedDocs=").append(getMaxBufferedDocs()).append("\n");
     sb.append("maxBufferedDeleteTerms=").append(getMaxBufferedDeleteTerms()).append("\n");
     sb.append("mergedSegmentWarmer=").append(getMergedSegmentWarmer()).append("\n");
@@ -493,6 +557,8 @@ public class LiveIndexWriterConfig {
     sb.append("useCompoundFile=").append(getUseCompoundFile()).append("\n");
     sb.append("commitOnClose=").append(getCommitOnClose()).append("\n");
     sb.append("indexSort=").append(getIndexSort()).append("\n");
+    sb.append("softDeletesField=").append(getSoftDeletesField()).append("\n");
+    sb.append("maxFullFlushMergeWaitMillis=").append(getMaxFullFlushMergeWaitMillis()).append("\n");
     return sb.toString();
   }
 }
@@ -426,6 +426,34 @@ public abstract class LogMergePolicy extends MergePolicy {
     return spec;
   }
 
+  /**
+   * Merges the trailing segments that are smaller than the minimum merge
+   * size, which are usually the ones that the full flush just produced.
+   */
+  @Override
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, IndexWriter writer) throws IOException {
+    // only merge adjacent segments, like other merges of this policy
+    final List<SegmentCommitInfo> segments = segmentInfos.asList();
+    final Collection<SegmentCommitInfo> merging = writer.getMergingSegments();
+    int start = segments.size();
+    while (start > 0) {
+      final SegmentCommitInfo info = segments.get(start - 1);
+      if (merging.contains(info) || size(info, writer) >= minMergeSize) {
+        break;
+      }
+      start--;
+    }
+    if (segments.size() - start < 2) {
+      return null;
+    }
+    if (verbose(writer)) {
+      message("findFullFlushMerges: add merge " + start + " to " + (segments.size() - 1) + " inclusive", writer);
+    }
+    final MergeSpecification spec = new MergeSpecification();
+    spec.add(new OneMerge(segments.subList(start, segments.size())));
+    return spec;
+  }
+
   private static class SegmentInfoAndLevel implements Comparable<SegmentInfoAndLevel> {
     SegmentCommitInfo info;
     float level;
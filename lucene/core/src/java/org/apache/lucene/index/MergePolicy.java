@@ -363,6 +363,25 @@ public abstract class MergePolicy {
   public abstract MergeSpecification findForcedDeletesMerges(
       SegmentInfos segmentInfos, IndexWriter writer) throws IOException;
 
+  /**
+   * Determine what set of merge operations should run
+   * when {@link IndexWriter} opens a near-real-time reader or commits,
+   * right after flushing all buffered documents, so that the returned reader or commit point
+   * exposes fewer tiny segments. {@link IndexWriter} waits at most
+   * {@link IndexWriterConfig#getMaxFullFlushMergeWaitMillis()} for these
+   * merges to complete. The default implementation returns {@code null}.
+   *
+   * @param mergeTrigger
+   *          either {@link MergeTrigger#GET_READER} or {@link MergeTrigger#COMMIT}
+   * @param segmentInfos
+   *          the total set of segments in the index
+   * @param writer the IndexWriter to find the merges on
+   */
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger,
+      SegmentInfos segmentInfos, IndexWriter writer) throws IOException {
+    return null;
+  }
+
   /**
    * Returns true if a new segment (regardless of its origin) should use the
    * compound file format. The default implementation returns <code>true</code>
@@ -55,6 +55,12 @@ public class MergePolicyWrapper extends MergePolicy {
     return in.findForcedDeletesMerges(segmentInfos, writer);
   }
 
+  @Override
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, IndexWriter writer)
+      throws IOException {
+    return in.findFullFlushMerges(mergeTrigger, segmentInfos, writer);
+  }
+
   @Override
   public boolean useCompoundFile(SegmentInfos infos, SegmentCommitInfo mergedInfo, IndexWriter writer)
       throws IOException {
@@ -81,7 +81,10 @@ public class MergeRateLimiter extends RateLimiter {
   @Override
   public long pause(long bytes) throws MergePolicy.MergeAbortedException {
 
-    totalBytesWritten += bytes;
+    synchronized (this) {
+      // several threads may write files of the same merge concurrently
+      totalBytesWritten += bytes;
+    }
 
     long startNS = System.nanoTime();
     long curNS = startNS;
@@ -93,9 +96,6 @@ public class MergeRateLimiter extends RateLimiter {
     while (true) {
       PauseResult result = maybePause(bytes, curNS);
       if (result == PauseResult.NO) {
-        // Set to curNS, not targetNS, to enforce the instant rate, not
-        // the "averaaged over all history" rate:
-        lastNS = curNS;
         break;
       }
       curNS = System.nanoTime();
@@ -103,11 +103,13 @@ public class MergeRateLimiter extends RateLimiter {
       startNS = curNS;
 
       // Separately track when merge was stopped vs rate limited:
-      if (result == PauseResult.STOPPED) {
-        totalStoppedNS += ns;
-      } else {
-        assert result == PauseResult.PAUSED;
-        totalPausedNS += ns;
+      synchronized (this) {
+        if (result == PauseResult.STOPPED) {
+          totalStoppedNS += ns;
+        } else {
+          assert result == PauseResult.PAUSED;
+          totalPausedNS += ns;
+        }
       }
       pausedNS += ns;
     }
@@ -145,6 +147,11 @@ public class MergeRateLimiter extends RateLimiter {
     // rounds up to 1 msec, so we don't bother unless it's > 2 msec:
 
     if (curPauseNS <= 2000000) {
+      // Set to curNS, not targetNS, to enforce the instant rate, not
+      // the "averaaged over all history" rate. This happens under the
+      // lock so that threads writing concurrently for the same merge
+      // see each others' writes and share the rate:
+      lastNS = curNS;
       return PauseResult.NO;
     }
 
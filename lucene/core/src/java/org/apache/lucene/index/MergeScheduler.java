@@ -19,7 +19,9 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
+import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.util.InfoStream;
 
 /** <p>Expert: {@link IndexWriter} uses an instance
@@ -45,6 +47,29 @@ public abstract class MergeScheduler implements Closeable {
    * */
   public abstract void merge(IndexWriter writer, MergeTrigger trigger, boolean newMergesFound) throws IOException;
 
+  /**
+   * Returns true if {@link #merge} returns without waiting for the merges
+   * that it starts to complete, so that callers can wait for them for a
+   * bounded amount of time. {@link IndexWriter} only merges on full flush, see
+   * {@link IndexWriterConfig#setMaxFullFlushMergeWaitMillis}, if this returns
+   * true. The default implementation returns false.
+   */
+  public boolean runsMergesInBackground() {
+    return false;
+  }
+
+  /**
+   * Returns the executor that runs the tasks of a single merge, like merging
+   * postings and stored fields, which {@link IndexWriter} submits from the
+   * thread that runs the merge. The tasks share the merge's
+   * {@link MergeRateLimiter}. The default implementation runs the tasks
+   * sequentially in the calling thread.
+   * @param merge the merge that submits the tasks
+   */
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    return Runnable::run;
+  }
+
   /** Close this MergeScheduler. */
   @Override
   public abstract void close() throws IOException;
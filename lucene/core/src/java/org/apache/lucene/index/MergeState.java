@@ -84,7 +84,33 @@ public class MergeState {
   /** Indicates if the index needs to be sorted **/
   public boolean needsIndexSort;
 
-  /** Sole constructor. */
+  /**
+   * Creates a copy of the given merge state that merges the given field infos
+   * and postings instead. The parts of a merge may run concurrently on the
+   * same merge state, so formats that restrict a merge to some fields must
+   * use such a copy rather than modify the merge state.
+   *
+   * @lucene.internal
+   */
+  public MergeState(MergeState in, FieldInfos mergeFieldInfos, FieldInfos[] fieldInfos, FieldsProducer[] fieldsProducers) {
+    this.docMaps = in.docMaps;
+    this.leafDocMaps = in.leafDocMaps;
+    this.segmentInfo = in.segmentInfo;
+    this.mergeFieldInfos = mergeFieldInfos;
+    this.storedFieldsReaders = in.storedFieldsReaders;
+    this.termVectorsReaders = in.termVectorsReaders;
+    this.normsProducers = in.normsProducers;
+    this.docValuesProducers = in.docValuesProducers;
+    this.fieldInfos = fieldInfos;
+    this.liveDocs = in.liveDocs;
+    this.fieldsProducers = fieldsProducers;
+    this.pointsReaders = in.pointsReaders;
+    this.maxDocs = in.maxDocs;
+    this.infoStream = in.infoStream;
+    this.needsIndexSort = in.needsIndexSort;
+  }
+
+  /** Creates the state to merge the given readers. */
   MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream) throws IOException {
 
     this.infoStream = infoStream;
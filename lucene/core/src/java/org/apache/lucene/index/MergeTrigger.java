@@ -47,5 +47,15 @@ public enum MergeTrigger {
   /**
    * Merge was triggered by a closing IndexWriter.
    */
-  CLOSING
+  CLOSING,
+
+  /**
+   * Merge was triggered on commit, right after the full flush.
+   */
+  COMMIT,
+
+  /**
+   * Merge was triggered on opening an NRT reader, right after the full flush.
+   */
+  GET_READER
 }
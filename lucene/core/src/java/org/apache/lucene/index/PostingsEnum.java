@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.util.AttributeSource;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
 
 /** Iterates through the postings.
  *  NOTE: you must first call {@link #nextDoc} before using
@@ -108,4 +109,17 @@ public abstract class PostingsEnum extends DocIdSetIterator {
    *  in the byte[]). */
   public abstract BytesRef getPayload() throws IOException;
 
+  /**
+   * Expert: set the bits of all documents that come after the current
+   * document in the given {@link FixedBitSet}. This enum is exhausted after
+   * this method returns. The default implementation calls {@link #nextDoc()}
+   * in a loop, but codecs may decode their postings directly into the bit set.
+   * @lucene.experimental
+   */
+  public void orInto(FixedBitSet bitSet) throws IOException {
+    for (int doc = nextDoc(); doc != NO_MORE_DOCS; doc = nextDoc()) {
+      bitSet.set(doc);
+    }
+  }
+
 }
@@ -18,7 +18,11 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -29,7 +33,9 @@ import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.TermVectorsWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 /**
  * The SegmentMerger class combines two or more Segments, represented by an
@@ -48,9 +54,22 @@ final class SegmentMerger {
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
 
+  private final Executor executor;
+  // set when a part of the merge fails, so that no other part starts
+  private volatile boolean failed;
+
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
                 FieldInfos.FieldNumbers fieldNumbers, IOContext context) throws IOException {
+    this(readers, segmentInfo, infoStream, dir, fieldNumbers, context, Runnable::run);
+  }
+
+  /**
+   * Creates a merger that merges the parts of the index, like postings and
+   * stored fields, as separate tasks on the given executor.
+   */
+  SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
+                FieldInfos.FieldNumbers fieldNumbers, IOContext context, Executor executor) throws IOException {
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException("IOContext.context should be MERGE; got: " + context.context);
     }
@@ -59,6 +78,7 @@ final class SegmentMerger {
     this.codec = segmentInfo.getCodec();
     this.context = context;
     this.fieldInfosBuilder = new FieldInfos.Builder(fieldNumbers);
+    this.executor = executor;
     if (mergeState.infoStream.isEnabled("SM")) {
       if (segmentInfo.getIndexSort() != null) {
         mergeState.infoStream.message("SM", "index sort during merge: " + segmentInfo.getIndexSort());
@@ -82,74 +102,38 @@ final class SegmentMerger {
       throw new IllegalStateException("Merge would result in 0 document segment");
     }
     mergeFieldInfos();
-    long t0 = 0;
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    int numMerged = mergeFields();
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge stored fields [" + numMerged + " docs]");
-    }
-    assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
+    final int numMerged = mergeState.segmentInfo.maxDoc();
 
     final SegmentWriteState segmentWriteState = new SegmentWriteState(mergeState.infoStream, directory, mergeState.segmentInfo,
                                                                       mergeState.mergeFieldInfos, null, context);
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    mergeTerms(segmentWriteState);
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge postings [" + numMerged + " docs]");
-    }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
+    // The index parts are written to distinct files from distinct readers, so they
+    // are merged concurrently if the executor allows it. Postings and stored fields
+    // are usually the most expensive parts, so they are submitted first:
+    final List<FutureTask<Void>> tasks = new ArrayList<>();
+    submit(tasks, "postings", numMerged, () -> mergeTerms(segmentWriteState));
+    submit(tasks, "stored fields", numMerged, () -> {
+      int numMergedFields = mergeFields();
+      assert numMergedFields == numMerged: "numMerged=" + numMergedFields + " vs mergeState.segmentInfo.maxDoc()=" + numMerged;
+    });
     if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeDocValues(segmentWriteState);
-    }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge doc values [" + numMerged + " docs]");
-    }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+      submit(tasks, "doc values", numMerged, () -> mergeDocValues(segmentWriteState));
     }
     if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergePoints(segmentWriteState);
+      submit(tasks, "points", numMerged, () -> mergePoints(segmentWriteState));
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge points [" + numMerged + " docs]");
-    }
-    
     if (mergeState.mergeFieldInfos.hasNorms()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      mergeNorms(segmentWriteState);
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge norms [" + numMerged + " docs]");
-      }
+      submit(tasks, "norms", numMerged, () -> mergeNorms(segmentWriteState));
     }
-
     if (mergeState.mergeFieldInfos.hasVectors()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      numMerged = mergeVectors();
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge vectors [" + numMerged + " docs]");
-      }
-      assert numMerged == mergeState.segmentInfo.maxDoc();
+      submit(tasks, "vectors", numMerged, () -> {
+        int numMergedVectors = mergeVectors();
+        assert numMergedVectors == numMerged;
+      });
     }
+    awaitAll(tasks);
     
     // write the merged infos
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
@@ -162,6 +146,86 @@ final class SegmentMerger {
     return mergeState;
   }
 
+  /** Merges one part of the index, like its postings or stored fields. */
+  @FunctionalInterface
+  private interface MergePart {
+    void merge() throws IOException;
+  }
+
+  /**
+   * Submits a part of the merge to the executor, unless a part failed
+   * already: the merge fails anyway, and the executor may run parts in the
+   * calling thread, which would otherwise merge all remaining parts,
+   * including when the merge was aborted. Parts that start after a failure
+   * do nothing for the same reason.
+   */
+  private void submit(List<FutureTask<Void>> tasks, String name, int numMerged, MergePart part) {
+    if (failed) {
+      return;
+    }
+    final FutureTask<Void> task = new FutureTask<>(() -> {
+      if (failed) {
+        return null;
+      }
+      long t0 = 0;
+      if (mergeState.infoStream.isEnabled("SM")) {
+        t0 = System.nanoTime();
+      }
+      boolean success = false;
+      try {
+        part.merge();
+        success = true;
+      } finally {
+        if (success == false) {
+          failed = true;
+        }
+      }
+      if (mergeState.infoStream.isEnabled("SM")) {
+        long t1 = System.nanoTime();
+        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge " + name + " [" + numMerged + " docs]");
+      }
+      return null;
+    });
+    tasks.add(task);
+    executor.execute(task);
+  }
+
+  /**
+   * Waits for all tasks to complete, even if some of them fail, so that no
+   * file is still being written once this method returns, and rethrows the
+   * first failure.
+   */
+  private static void awaitAll(List<FutureTask<Void>> tasks) throws IOException {
+    Throwable th = null;
+    InterruptedException interrupted = null;
+    for (FutureTask<Void> task : tasks) {
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (InterruptedException e) {
+          if (interrupted == null) {
+            interrupted = e;
+          }
+        } catch (ExecutionException e) {
+          if (th == null) {
+            th = e.getCause();
+          } else {
+            th.addSuppressed(e.getCause());
+          }
+          break;
+        }
+      }
+    }
+    if (interrupted != null) {
+      if (th == null) {
+        throw new ThreadInterruptedException(interrupted);
+      }
+      th.addSuppressed(interrupted);
+    }
+    IOUtils.reThrow(th);
+  }
+
   private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
     try (DocValuesConsumer consumer = codec.docValuesFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
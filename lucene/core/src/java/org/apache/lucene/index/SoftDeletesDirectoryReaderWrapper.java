@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * This reader filters out documents that have a doc values value in the given field and treats these
+ * documents as soft deleted. Hard deleted documents will also be filtered out in the live docs of this reader.
+ * @see IndexWriterConfig#setSoftDeletesField(String)
+ * @see IndexWriter#softUpdateDocument(Term, Iterable, Field...)
+ * @see SoftDeletesRetentionMergePolicy
+ *
+ * @lucene.experimental
+ */
+public final class SoftDeletesDirectoryReaderWrapper extends FilterDirectoryReader {
+  private final String field;
+
+  /**
+   * Creates a new soft deletes wrapper.
+   * @param in the incoming directory reader
+   * @param field the soft deletes field
+   */
+  public SoftDeletesDirectoryReaderWrapper(DirectoryReader in, String field) throws IOException {
+    super(in, new SoftDeletesSubReaderWrapper(field));
+    this.field = field;
+  }
+
+  @Override
+  protected DirectoryReader doWrapDirectoryReader(DirectoryReader in) throws IOException {
+    return new SoftDeletesDirectoryReaderWrapper(in, field);
+  }
+
+  private static class SoftDeletesSubReaderWrapper extends SubReaderWrapper {
+    private final String field;
+
+    SoftDeletesSubReaderWrapper(String field) {
+      this.field = Objects.requireNonNull(field, "Field must not be null");
+    }
+
+    @Override
+    public LeafReader wrap(LeafReader reader) {
+      try {
+        return SoftDeletesDirectoryReaderWrapper.wrap(reader, field);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  static LeafReader wrap(LeafReader reader, String field) throws IOException {
+    final DocIdSetIterator iterator = reader.getNumericDocValues(field);
+    if (iterator == null) {
+      return reader;
+    }
+    final FixedBitSet bits = liveDocsWithoutSoftDeletes(reader.getLiveDocs(), reader.maxDoc(), iterator);
+    final int numDocs = bits.cardinality();
+    if (numDocs == reader.numDocs()) {
+      return reader;
+    }
+    return new SoftDeletesFilterLeafReader(reader, bits, numDocs);
+  }
+
+  /**
+   * Returns a copy of the given live docs, or of all documents if there are no
+   * live docs, that excludes the documents of the given iterator.
+   */
+  static FixedBitSet liveDocsWithoutSoftDeletes(Bits liveDocs, int maxDoc, DocIdSetIterator softDeletes) throws IOException {
+    final FixedBitSet bits = new FixedBitSet(maxDoc);
+    if (liveDocs != null) {
+      for (int i = 0; i < maxDoc; ++i) {
+        if (liveDocs.get(i)) {
+          bits.set(i);
+        }
+      }
+    } else {
+      bits.set(0, maxDoc);
+    }
+    for (int doc = softDeletes.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = softDeletes.nextDoc()) {
+      bits.clear(doc);
+    }
+    return bits;
+  }
+
+  private static final class SoftDeletesFilterLeafReader extends FilterLeafReader {
+    private final FixedBitSet bits;
+    private final int numDocs;
+
+    private SoftDeletesFilterLeafReader(LeafReader reader, FixedBitSet bits, int numDocs) {
+      super(reader);
+      this.bits = bits;
+      this.numDocs = numDocs;
+    }
+
+    @Override
+    public Bits getLiveDocs() {
+      return bits;
+    }
+
+    @Override
+    public int numDocs() {
+      return numDocs;
+    }
+
+    @Override
+    public Object getCoreCacheKey() {
+      // the content is unchanged, only the live docs differ
+      return in.getCoreCacheKey();
+    }
+  }
+}
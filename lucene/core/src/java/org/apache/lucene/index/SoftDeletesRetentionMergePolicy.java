@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * This {@link MergePolicy} allows to carry over soft deleted documents across merges. The policy wraps
+ * the merge reader and marks documents as "live" that have a soft delete set but match the provided
+ * retention query. This allows for instance to keep documents alive based on time or any other constraint in the index.
+ * The main purpose for this merge policy is to implement retention policies for document modification to vanish in the
+ * index. Using this merge policy allows to control when soft deletes are claimed by merges.
+ * Soft deleted documents that do not match the retention query are dropped by merges, as if they
+ * had been hard deleted.
+ * @see IndexWriter#softUpdateDocument(Term, Iterable, Field...)
+ * @see SoftDeletesDirectoryReaderWrapper
+ *
+ * @lucene.experimental
+ */
+public final class SoftDeletesRetentionMergePolicy extends MergePolicyWrapper {
+  private final String field;
+  private final Supplier<Query> retentionQuerySupplier;
+
+  /**
+   * Creates a new {@link SoftDeletesRetentionMergePolicy}
+   * @param field the soft deletes field
+   * @param retentionQuerySupplier a query supplier for the retention query
+   * @param in the wrapped MergePolicy
+   */
+  public SoftDeletesRetentionMergePolicy(String field, Supplier<Query> retentionQuerySupplier, MergePolicy in) {
+    super(in);
+    Objects.requireNonNull(field, "field must not be null");
+    Objects.requireNonNull(retentionQuerySupplier, "retentionQuerySupplier must not be null");
+    this.field = field;
+    this.retentionQuerySupplier = retentionQuerySupplier;
+  }
+
+  @Override
+  public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, IndexWriter writer)
+      throws IOException {
+    return wrapSpecification(in.findMerges(mergeTrigger, segmentInfos, writer));
+  }
+
+  @Override
+  public MergeSpecification findForcedMerges(SegmentInfos segmentInfos, int maxSegmentCount,
+      Map<SegmentCommitInfo,Boolean> segmentsToMerge, IndexWriter writer) throws IOException {
+    return wrapSpecification(in.findForcedMerges(segmentInfos, maxSegmentCount, segmentsToMerge, writer));
+  }
+
+  @Override
+  public MergeSpecification findForcedDeletesMerges(SegmentInfos segmentInfos, IndexWriter writer) throws IOException {
+    return wrapSpecification(in.findForcedDeletesMerges(segmentInfos, writer));
+  }
+
+  @Override
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, IndexWriter writer)
+      throws IOException {
+    return wrapSpecification(in.findFullFlushMerges(mergeTrigger, segmentInfos, writer));
+  }
+
+  private MergeSpecification wrapSpecification(MergeSpecification spec) {
+    if (spec == null) {
+      return null;
+    }
+    MergeSpecification wrapped = new MergeSpecification();
+    for (OneMerge merge : spec.merges) {
+      wrapped.add(new RetentionOneMerge(merge));
+    }
+    return wrapped;
+  }
+
+  /** Applies the retention policy on top of the reader wrapping of the wrapped merge. */
+  private final class RetentionOneMerge extends OneMerge {
+    private final OneMerge in;
+
+    RetentionOneMerge(OneMerge in) {
+      super(in.segments);
+      this.in = in;
+    }
+
+    @Override
+    public CodecReader wrapForMerge(CodecReader reader) throws IOException {
+      return applyRetentionQuery(in.wrapForMerge(reader));
+    }
+
+    @Override
+    public void mergeFinished() throws IOException {
+      in.mergeFinished();
+    }
+
+    @Override
+    public void setMergeInfo(SegmentCommitInfo info) {
+      super.setMergeInfo(info);
+      in.setMergeInfo(info);
+    }
+  }
+
+  private CodecReader applyRetentionQuery(CodecReader reader) throws IOException {
+    final DocIdSetIterator softDeletes = reader.getNumericDocValues(field);
+    if (softDeletes == null) {
+      return reader;
+    }
+    final Bits hardLiveDocs = reader.getLiveDocs();
+    final FixedBitSet liveDocs = SoftDeletesDirectoryReaderWrapper.liveDocsWithoutSoftDeletes(hardLiveDocs, reader.maxDoc(), softDeletes);
+
+    // bring back soft deleted documents that match the retention query
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+    final Weight weight = searcher.createNormalizedWeight(retentionQuerySupplier.get(), false);
+    final Scorer scorer = weight.scorer(reader.getContext());
+    if (scorer != null) {
+      final DocIdSetIterator iterator = scorer.iterator();
+      for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+        if (hardLiveDocs == null || hardLiveDocs.get(doc)) {
+          liveDocs.set(doc);
+        }
+      }
+    }
+
+    final int numDocs = liveDocs.cardinality();
+    if (numDocs == reader.numDocs()) {
+      return reader;
+    }
+    return new FilterCodecReader(reader) {
+      @Override
+      public Bits getLiveDocs() {
+        return liveDocs;
+      }
+
+      @Override
+      public int numDocs() {
+        return numDocs;
+      }
+    };
+  }
+}
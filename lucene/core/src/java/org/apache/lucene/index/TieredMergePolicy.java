@@ -624,6 +624,34 @@ public class TieredMergePolicy extends MergePolicy {
     return spec;
   }
 
+  /**
+   * Merges all segments that are smaller than the floor segment size and
+   * not being merged already, which includes the ones that the full flush
+   * just produced.
+   */
+  @Override
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos infos, IndexWriter writer) throws IOException {
+    final List<SegmentCommitInfo> eligible = new ArrayList<>();
+    final Collection<SegmentCommitInfo> merging = writer.getMergingSegments();
+    for(SegmentCommitInfo info : infos) {
+      if (!merging.contains(info) && size(info, writer) < floorSegmentBytes) {
+        eligible.add(info);
+      }
+    }
+
+    if (eligible.size() < 2) {
+      return null;
+    }
+
+    final OneMerge merge = new OneMerge(eligible);
+    if (verbose(writer)) {
+      message("findFullFlushMerges: add merge=" + writer.segString(merge.segments), writer);
+    }
+    final MergeSpecification spec = new MergeSpecification();
+    spec.add(merge);
+    return spec;
+  }
+
   private long floorSize(long bytes) {
     return Math.max(floorSegmentBytes, bytes);
   }
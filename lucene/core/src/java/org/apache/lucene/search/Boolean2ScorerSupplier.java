@@ -94,6 +94,21 @@ final class Boolean2ScorerSupplier extends ScorerSupplier {
 
     // pure disjunction
     if (subs.get(Occur.FILTER).isEmpty() && subs.get(Occur.MUST).isEmpty()) {
+      if (needsScores && minShouldMatch <= 1 && subs.get(Occur.SHOULD).size() > 1) {
+        // if all clauses know about their max score, we can use a scorer that
+        // skips non-competitive documents
+        final List<Scorer> optionalScorers = new ArrayList<>();
+        for (ScorerSupplier scorer : subs.get(Occur.SHOULD)) {
+          optionalScorers.add(scorer.get(randomAccess));
+        }
+        final Scorer opt;
+        if (MaxScoreSumScorer.canUse(optionalScorers)) {
+          opt = new MaxScoreSumScorer(weight, optionalScorers);
+        } else {
+          opt = new DisjunctionSumScorer(weight, optionalScorers, needsScores);
+        }
+        return excl(opt, subs.get(Occur.MUST_NOT));
+      }
       return excl(opt(subs.get(Occur.SHOULD), minShouldMatch, needsScores, randomAccess), subs.get(Occur.MUST_NOT));
     }
 
@@ -283,6 +283,15 @@ final class BooleanWeight extends Weight {
     final BulkScorer bulkScorer = booleanScorer(context);
     if (bulkScorer != null) {
       // bulk scoring is applicable, use it
+      if (needsScores
+          && query.getMinimumNumberShouldMatch() <= 1
+          && query.getClauses(Occur.SHOULD).size() > 1
+          && query.getClauses(Occur.MUST).isEmpty()
+          && query.getClauses(Occur.FILTER).isEmpty()) {
+        // pure disjunction: switch to a scorer that skips non-competitive
+        // documents if the collector does not need all hits
+        return new MinCompetitiveScoreAwareBulkScorer(this, context, bulkScorer);
+      }
       return bulkScorer;
     } else {
       // use a Scorer-based impl (BS2)
@@ -240,6 +240,72 @@ public final class ConjunctionDISI extends DocIdSetIterator {
     return doNext(lead1.nextDoc());
   }
 
+  @Override
+  public int nextDocs(int upTo, int[] docs) throws IOException {
+    int count = 0;
+    while (count == 0 && lead1.docID() < upTo) {
+      // collect a window of candidates from the lead, then filter them
+      final int numCandidates = lead1.nextDocs(upTo, docs);
+      for (int i = 0; i < numCandidates; ++i) {
+        final int doc = docs[i];
+        if (matchesOthers(doc)) {
+          docs[count++] = doc;
+        }
+      }
+      realign(lead1.docID());
+    }
+    return count;
+  }
+
+  /** Return whether all iterators but the lead match {@code doc}, advancing them if necessary. */
+  private boolean matchesOthers(int doc) throws IOException {
+    int next = lead2.docID();
+    if (next < doc) {
+      next = lead2.advance(doc);
+    }
+    if (next != doc) {
+      return false;
+    }
+    for (DocIdSetIterator other : others) {
+      next = other.docID();
+      if (next < doc) {
+        next = other.advance(doc);
+      }
+      if (next != doc) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Same as {@link #doNext} but sub iterators may be beyond {@code doc}, which
+   *  happens after a window of candidates has been filtered. */
+  private int realign(int doc) throws IOException {
+    advanceHead: while (doc != NO_MORE_DOCS) {
+      assert doc == lead1.docID();
+      int next = lead2.docID();
+      if (next < doc) {
+        next = lead2.advance(doc);
+      }
+      if (next != doc) {
+        doc = lead1.advance(next);
+        continue;
+      }
+      for (DocIdSetIterator other : others) {
+        next = other.docID();
+        if (next < doc) {
+          next = other.advance(doc);
+        }
+        if (next != doc) {
+          doc = lead1.advance(next);
+          continue advanceHead;
+        }
+      }
+      break;
+    }
+    return doc;
+  }
+
   @Override
   public long cost() {
     return lead1.cost(); // overestimate
@@ -271,7 +337,9 @@ public final class ConjunctionDISI extends DocIdSetIterator {
 
     @Override
     public int docID() {
-      return lead.docID();
+      final int doc = lead.docID();
+      // the lead may be positioned beyond the end of the bit sets, which means we are exhausted
+      return doc >= minLength ? NO_MORE_DOCS : doc;
     }
 
     @Override
@@ -279,6 +347,27 @@ public final class ConjunctionDISI extends DocIdSetIterator {
       return doNext(lead.nextDoc());
     }
 
+    @Override
+    public int nextDocs(int upTo, int[] docs) throws IOException {
+      // documents beyond the end of the bit sets cannot match
+      final int bound = Math.min(upTo, minLength);
+      int count = 0;
+      while (count == 0 && docID() < upTo) {
+        final int numCandidates = lead.nextDocs(bound, docs);
+        candidates: for (int i = 0; i < numCandidates; ++i) {
+          final int doc = docs[i];
+          for (BitSet bitSet : bitSets) {
+            if (bitSet.get(doc) == false) {
+              continue candidates;
+            }
+          }
+          docs[count++] = doc;
+        }
+        doNext(lead.docID());
+      }
+      return count;
+    }
+
     @Override
     public int advance(int target) throws IOException {
       return doNext(lead.advance(target));
@@ -59,6 +59,15 @@ class ConjunctionScorer extends Scorer {
     return (float) sum;
   }
 
+  @Override
+  public float maxScore() {
+    double sum = 0.0d;
+    for (Scorer scorer : scorers) {
+      sum += scorer.maxScore();
+    }
+    return (float) sum;
+  }
+
   @Override
   public int freq() {
     return scorers.length;
@@ -73,6 +73,11 @@ public final class ConstantScoreScorer extends Scorer {
     return score;
   }
 
+  @Override
+  public float maxScore() {
+    return score;
+  }
+
   @Override
   public int freq() throws IOException {
     return 1;
@@ -167,6 +167,42 @@ public abstract class DocIdSetIterator {
     return doc;
   }
 
+  /**
+   * Collects doc IDs into {@code docs}, starting with the {@link #docID()
+   * current doc ID} and stopping before the first doc ID that is greater
+   * than or equal to {@code upTo} or when {@code docs} is full, whichever
+   * comes first. When this method returns, the iterator is positioned on the
+   * first doc ID that has not been collected, or {@link #NO_MORE_DOCS}. The
+   * returned number of collected doc IDs may only be {@code 0} if the
+   * current doc ID is greater than or equal to {@code upTo}.
+   * <p>
+   * This method must not be called on an unpositioned iterator. The default
+   * implementation calls {@link #nextDoc()} in a loop, some implementations
+   * can do it more efficiently by avoiding a method call per document. This
+   * allows consumers to process matches in windows:
+   *
+   * <pre class="prettyprint">
+   * int[] docs = new int[128];
+   * iterator.nextDoc();
+   * while (iterator.docID() &lt; upTo) {
+   *   int count = iterator.nextDocs(upTo, docs);
+   *   for (int i = 0; i &lt; count; ++i) {
+   *     // process docs[i]
+   *   }
+   * }
+   * </pre>
+   *
+   * @lucene.experimental
+   */
+  public int nextDocs(int upTo, int[] docs) throws IOException {
+    assert docID() != -1;
+    int count = 0;
+    for (int doc = docID(); doc < upTo && count < docs.length; doc = nextDoc()) {
+      docs[count++] = doc;
+    }
+    return count;
+  }
+
   /**
    * Returns the estimated cost of this {@link DocIdSetIterator}.
    * <p>
@@ -48,6 +48,11 @@ import org.apache.lucene.search.TotalHitCountCollector;
  * will be correct. However the total of {@link TopDocsCollector#getTotalHits()
  * hit count} will be vastly underestimated since not all matching documents will have
  * been collected.
+ * <p>
+ * <b>NOTE</b>: {@link TopFieldCollector} also early terminates collection of
+ * sorted segments when it is created with a
+ * {@link TopFieldCollector#create(Sort, int, FieldDoc, boolean, boolean, boolean, int) total hits threshold},
+ * and reports the hit count as a lower bound.
  *
  * @lucene.experimental
  */
@@ -24,9 +24,15 @@ import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.StringHelper;
 
 /**
  * Expert: a FieldComparator compares hits so as to determine their
@@ -115,6 +121,13 @@ public abstract class FieldComparator<T> {
    */
   public abstract LeafFieldComparator getLeafComparator(LeafReaderContext context) throws IOException;
 
+  /** Informs this comparator that it is the only sort criterion, so that
+   *  documents that compare equal to the bottom of the queue are not
+   *  competitive since they have greater doc IDs.
+   *  @lucene.experimental */
+  public void setSingleSort() {
+  }
+
   /** Returns a negative integer if first is less than second,
    *  0 if they are equal and a positive integer otherwise. Default
    *  impl to assume the type implements Comparable and
@@ -144,21 +157,266 @@ public abstract class FieldComparator<T> {
     protected final T missingValue;
     protected final String field;
     protected NumericDocValues currentReaderValues;
+
+    // The following fields are used to skip non-competitive documents using
+    // the points of the field, see SortField#setCanUsePoints
+    private boolean canUsePoints;
+    private boolean reverse;
+    private boolean singleSort;
+    private boolean hitsThresholdReached;
+    private boolean bottomSet;
+    private PointValues pointValues;
+    private int maxDoc;
+    private long iteratorCost;
+    private int updateCounter;
+    private CompetitiveIterator competitiveIterator; // null if we can't skip on the current segment
     
     public NumericComparator(String field, T missingValue) {
       this.field = field;
       this.missingValue = missingValue;
     }
 
+    /** Enable skipping non-competitive documents using the points of the
+     *  field, if they are indexed with the same values as doc values. */
+    void enableSkipping(boolean reverse) {
+      this.canUsePoints = true;
+      this.reverse = reverse;
+    }
+
+    @Override
+    public void setSingleSort() {
+      singleSort = true;
+    }
+
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       currentReaderValues = getNumericDocValues(context, field);
+      competitiveIterator = null;
+      pointValues = null;
+      // sub classes that don't know how to encode their values as points can't skip
+      if (canUsePoints && pointBytes() > 0) {
+        final PointValues pointValues = context.reader().getPointValues(field);
+        if (pointValues != null
+            && pointValues.getNumDimensions() == 1
+            && pointValues.getBytesPerDimension() == pointBytes()
+            // points must be single-valued to agree with doc values
+            && pointValues.size() == pointValues.getDocCount()) {
+          this.pointValues = pointValues;
+          maxDoc = context.reader().maxDoc();
+          iteratorCost = maxDoc;
+          updateCounter = 0;
+          competitiveIterator = new CompetitiveIterator(DocIdSetIterator.all(maxDoc));
+          // the queue may already be full from previous segments
+          updateCompetitiveIterator();
+        }
+      }
     }
     
     /** Retrieves the NumericDocValues for the field in this segment */
     protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
       return DocValues.getNumeric(context.reader(), field);
     }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() {
+      return competitiveIterator;
+    }
+
+    @Override
+    public void setHitsThresholdReached() throws IOException {
+      hitsThresholdReached = true;
+      updateCompetitiveIterator();
+    }
+
+    /** Must be called by sub classes when the bottom of the queue changes. */
+    void bottomUpdated() throws IOException {
+      bottomSet = true;
+      updateCompetitiveIterator();
+    }
+
+    /** Number of bytes per dimension of the points of the field, or
+     *  {@code -1} if this comparator can't skip documents using points,
+     *  which is the default. Sub classes that return a positive value must
+     *  also override {@link #sortableLong}, {@link #bottomAsLong},
+     *  {@link #minValue}, {@link #maxValue} and {@link #encode}. */
+    protected int pointBytes() {
+      return -1;
+    }
+
+    /** Return the given value as a long that sorts the same way as values
+     *  do, which is the value that {@link #encode} expects. */
+    protected long sortableLong(T value) {
+      throw new UnsupportedOperationException();
+    }
+
+    /** Return the bottom value as a sortable long, see {@link #sortableLong}. */
+    protected long bottomAsLong() {
+      throw new UnsupportedOperationException();
+    }
+
+    /** Minimum sortable long that the type supports. */
+    protected long minValue() {
+      return Long.MIN_VALUE;
+    }
+
+    /** Maximum sortable long that the type supports. */
+    protected long maxValue() {
+      return Long.MAX_VALUE;
+    }
+
+    /** Encode the given sortable long the same way as points. */
+    protected void encode(long value, byte[] packedValue) {
+      throw new UnsupportedOperationException();
+    }
+
+    private void updateCompetitiveIterator() throws IOException {
+      if (competitiveIterator == null || hitsThresholdReached == false || bottomSet == false) {
+        return;
+      }
+      // rebuilding the iterator is costly, so only do it once every 32 updates
+      // once the queue has been updated a lot
+      if (updateCounter > 256 && (updateCounter & 0x1f) != 0x1f) {
+        updateCounter++;
+        return;
+      }
+      updateCounter++;
+
+      // compute the range of competitive values
+      final long bottom = bottomAsLong();
+      long minCompetitive = minValue();
+      long maxCompetitive = maxValue();
+      if (reverse == false) {
+        // docs that have the same value as the bottom have greater doc IDs,
+        // so they are only competitive if there are other sort criteria
+        if (singleSort && bottom == minCompetitive) {
+          minCompetitive = 1;
+          maxCompetitive = 0; // empty range
+        } else {
+          maxCompetitive = singleSort ? bottom - 1 : bottom;
+        }
+      } else {
+        if (singleSort && bottom == maxCompetitive) {
+          minCompetitive = 1;
+          maxCompetitive = 0; // empty range
+        } else {
+          minCompetitive = singleSort ? bottom + 1 : bottom;
+        }
+      }
+
+      if (pointValues.getDocCount() < maxDoc) {
+        // documents without a value are not in the points, so we can't skip
+        // if the missing value is competitive
+        final long missingValue = sortableLong(this.missingValue);
+        if (missingValue >= minCompetitive && missingValue <= maxCompetitive) {
+          return;
+        }
+      }
+
+      final int bytesCount = pointBytes();
+      final byte[] minPackedValue = new byte[bytesCount];
+      final byte[] maxPackedValue = new byte[bytesCount];
+      final boolean emptyRange = minCompetitive > maxCompetitive;
+      if (emptyRange == false) {
+        encode(minCompetitive, minPackedValue);
+        encode(maxCompetitive, maxPackedValue);
+      }
+      // documents up to the current one have been visited already
+      final int minDoc = competitiveIterator.docID() + 1;
+
+      final DocIdSetBuilder result = new DocIdSetBuilder(maxDoc);
+      final IntersectVisitor visitor = new IntersectVisitor() {
+        DocIdSetBuilder.BulkAdder adder;
+
+        @Override
+        public void grow(int count) {
+          adder = result.grow(count);
+        }
+
+        @Override
+        public void visit(int docID) {
+          if (docID >= minDoc) {
+            adder.add(docID);
+          }
+        }
+
+        @Override
+        public void visit(int docID, byte[] packedValue) {
+          if (docID >= minDoc
+              && StringHelper.compare(bytesCount, packedValue, 0, minPackedValue, 0) >= 0
+              && StringHelper.compare(bytesCount, packedValue, 0, maxPackedValue, 0) <= 0) {
+            adder.add(docID);
+          }
+        }
+
+        @Override
+        public Relation compare(byte[] minPackedValue2, byte[] maxPackedValue2) {
+          if (StringHelper.compare(bytesCount, minPackedValue2, 0, maxPackedValue, 0) > 0
+              || StringHelper.compare(bytesCount, maxPackedValue2, 0, minPackedValue, 0) < 0) {
+            return Relation.CELL_OUTSIDE_QUERY;
+          }
+          if (StringHelper.compare(bytesCount, minPackedValue2, 0, minPackedValue, 0) >= 0
+              && StringHelper.compare(bytesCount, maxPackedValue2, 0, maxPackedValue, 0) <= 0) {
+            return Relation.CELL_INSIDE_QUERY;
+          }
+          return Relation.CELL_CROSSES_QUERY;
+        }
+      };
+
+      if (emptyRange) {
+        competitiveIterator.update(DocIdSetIterator.empty());
+        iteratorCost = 0;
+        return;
+      }
+
+      // only rebuild the iterator if it is significantly more selective
+      final long estimatedNumberOfMatches = pointValues.estimatePointCount(visitor);
+      if (estimatedNumberOfMatches >= iteratorCost >>> 3) {
+        return;
+      }
+      pointValues.intersect(visitor);
+      final DocIdSetIterator iterator = result.build().iterator();
+      competitiveIterator.update(iterator);
+      iteratorCost = iterator.cost();
+    }
+  }
+
+  /** A {@link DocIdSetIterator} whose delegate may be replaced with a more
+   *  selective one that only contains documents after the current one. */
+  private static final class CompetitiveIterator extends DocIdSetIterator {
+
+    private DocIdSetIterator in;
+    private int doc = -1;
+
+    CompetitiveIterator(DocIdSetIterator in) {
+      this.in = in;
+    }
+
+    void update(DocIdSetIterator in) {
+      this.in = in;
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      if (in.docID() >= target) {
+        return doc = in.docID();
+      }
+      return doc = in.advance(target);
+    }
+
+    @Override
+    public long cost() {
+      return in.cost();
+    }
   }
 
   /** Parses field's values as double (using {@link
@@ -201,8 +459,39 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
+    }
+
+    @Override
+    protected int pointBytes() {
+      return Double.BYTES;
+    }
+
+    @Override
+    protected long sortableLong(Double value) {
+      return NumericUtils.doubleToSortableLong(value);
+    }
+
+    @Override
+    protected long bottomAsLong() {
+      return NumericUtils.doubleToSortableLong(bottom);
+    }
+
+    @Override
+    protected long minValue() {
+      return Long.MIN_VALUE;
+    }
+
+    @Override
+    protected long maxValue() {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    protected void encode(long value, byte[] packedValue) {
+      NumericUtils.longToSortableBytes(value, packedValue, 0);
     }
 
     @Override
@@ -261,8 +550,39 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
+    }
+
+    @Override
+    protected int pointBytes() {
+      return Float.BYTES;
+    }
+
+    @Override
+    protected long sortableLong(Float value) {
+      return NumericUtils.floatToSortableInt(value);
+    }
+
+    @Override
+    protected long bottomAsLong() {
+      return NumericUtils.floatToSortableInt(bottom);
+    }
+
+    @Override
+    protected long minValue() {
+      return Integer.MIN_VALUE;
+    }
+
+    @Override
+    protected long maxValue() {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected void encode(long value, byte[] packedValue) {
+      NumericUtils.intToSortableBytes((int) value, packedValue, 0);
     }
 
     @Override
@@ -323,8 +643,39 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
+    }
+
+    @Override
+    protected int pointBytes() {
+      return Integer.BYTES;
+    }
+
+    @Override
+    protected long sortableLong(Integer value) {
+      return value;
+    }
+
+    @Override
+    protected long bottomAsLong() {
+      return bottom;
+    }
+
+    @Override
+    protected long minValue() {
+      return Integer.MIN_VALUE;
+    }
+
+    @Override
+    protected long maxValue() {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected void encode(long value, byte[] packedValue) {
+      NumericUtils.intToSortableBytes((int) value, packedValue, 0);
     }
 
     @Override
@@ -383,8 +734,39 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
+    }
+
+    @Override
+    protected int pointBytes() {
+      return Long.BYTES;
+    }
+
+    @Override
+    protected long sortableLong(Long value) {
+      return value;
+    }
+
+    @Override
+    protected long bottomAsLong() {
+      return bottom;
+    }
+
+    @Override
+    protected long minValue() {
+      return Long.MIN_VALUE;
+    }
+
+    @Override
+    protected long maxValue() {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    protected void encode(long value, byte[] packedValue) {
+      NumericUtils.longToSortableBytes(value, packedValue, 0);
     }
 
     @Override
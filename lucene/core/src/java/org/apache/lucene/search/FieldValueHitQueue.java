@@ -64,6 +64,7 @@ public abstract class FieldValueHitQueue<T extends FieldValueHitQueue.Entry> ext
       assert fields.length == 1;
       oneComparator = comparators[0];
       oneReverseMul = reverseMul[0];
+      oneComparator.setSingleSort();
     }
 
     /**
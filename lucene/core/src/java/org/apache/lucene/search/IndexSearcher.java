@@ -35,6 +35,7 @@ import org.apache.lucene.index.DirectoryReader; // javadocs
 import org.apache.lucene.index.FieldInvertState;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.QueryTimeout;
 import org.apache.lucene.index.IndexWriter; // javadocs
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiFields;
@@ -142,6 +143,8 @@ public class IndexSearcher {
   private QueryCache queryCache = DEFAULT_QUERY_CACHE;
   private QueryCachingPolicy queryCachingPolicy = DEFAULT_CACHING_POLICY;
 
+  private QueryTimeout queryTimeout = null;
+
   /**
    * Expert: returns a default Similarity instance.
    * In general, this method is only called to initialize searchers and writers.
@@ -290,6 +293,42 @@ public class IndexSearcher {
     return queryCachingPolicy;
   }
 
+  /**
+   * Set a {@link QueryTimeout} that is checked regularly while documents are
+   * being scored, including between two-phase confirmations of expensive
+   * queries. When it says to exit, an {@link ExitingSearchException} is
+   * thrown and the collector keeps the hits that have been collected so far.
+   * A {@link QueryTimeout} may also be used in order to cancel running
+   * queries, by returning {@code true} from {@link QueryTimeout#shouldExit()}
+   * once a query has been cancelled. Pass {@code null} to disable.
+   * <p><b>NOTE:</b> If this searcher has an {@link ExecutorService}, the
+   * timeout is checked from the executor's threads, so it must not rely on
+   * state of the thread that submitted the search, such as thread locals.
+   * @see QueryTimeout#isTimeoutEnabled()
+   * @lucene.experimental
+   */
+  public void setQueryTimeout(QueryTimeout queryTimeout) {
+    this.queryTimeout = queryTimeout;
+  }
+
+  /**
+   * Return the {@link QueryTimeout} that was last set through
+   * {@link #setQueryTimeout(QueryTimeout)}, or {@code null} if none was set.
+   * @lucene.experimental
+   */
+  public QueryTimeout getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  /** Wrap the given {@link BulkScorer} so that it checks the {@link QueryTimeout}, if enabled. */
+  private BulkScorer wrapForTimeout(BulkScorer scorer) {
+    final QueryTimeout queryTimeout = this.queryTimeout;
+    if (queryTimeout != null && queryTimeout.isTimeoutEnabled()) {
+      return new TimeLimitingBulkScorer(scorer, queryTimeout);
+    }
+    return scorer;
+  }
+
   /**
    * Expert: Creates an array of leaf slices each holding a subset of the given leaves.
    * Each {@link LeafSlice} is executed in a single thread. By default there
@@ -302,6 +341,66 @@ public class IndexSearcher {
     }
     return slices;
   }
+
+  /**
+   * Expert: Creates slices that hold about {@code maxDocsPerSlice} documents
+   * each. Leaves that have fewer documents are grouped together, up to
+   * {@code maxSegmentsPerSlice} leaves per slice. If
+   * {@code allowSegmentPartitions} is true, leaves that have more than
+   * {@code maxDocsPerSlice} documents are split into ranges of doc IDs that
+   * are searched by different slices, which allows to parallelize the
+   * execution of a query on a single large segment, at the cost of setting
+   * up a scorer for each range. Subclasses may return the result of this
+   * method from {@link #slices(List)}.
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice,
+      int maxSegmentsPerSlice, boolean allowSegmentPartitions) {
+    if (maxDocsPerSlice < 1) {
+      throw new IllegalArgumentException("maxDocsPerSlice must be >= 1, got " + maxDocsPerSlice);
+    }
+    if (maxSegmentsPerSlice < 1) {
+      throw new IllegalArgumentException("maxSegmentsPerSlice must be >= 1, got " + maxSegmentsPerSlice);
+    }
+    // slices hold contiguous leaves so that ties are broken the same way as
+    // with a sequential search when merging top hits
+    final List<LeafSlice> slices = new ArrayList<>();
+    List<LeafReaderContextPartition> group = new ArrayList<>();
+    long groupDocs = 0;
+    for (LeafReaderContext ctx : leaves) {
+      final int maxDoc = ctx.reader().maxDoc();
+      if (maxDoc > maxDocsPerSlice) {
+        if (group.isEmpty() == false) {
+          slices.add(new LeafSlice(group.toArray(new LeafReaderContextPartition[0])));
+          group = new ArrayList<>();
+          groupDocs = 0;
+        }
+        if (allowSegmentPartitions) {
+          // split into ranges of roughly equal sizes
+          final int numPartitions = (int) ((maxDoc + (long) maxDocsPerSlice - 1) / maxDocsPerSlice);
+          for (int i = 0; i < numPartitions; ++i) {
+            final int minDocId = (int) ((long) maxDoc * i / numPartitions);
+            final int maxDocId = i == numPartitions - 1 ? DocIdSetIterator.NO_MORE_DOCS : (int) ((long) maxDoc * (i + 1) / numPartitions);
+            slices.add(new LeafSlice(new LeafReaderContextPartition(ctx, minDocId, maxDocId)));
+          }
+        } else {
+          slices.add(new LeafSlice(ctx));
+        }
+        continue;
+      }
+      group.add(new LeafReaderContextPartition(ctx));
+      groupDocs += maxDoc;
+      if (groupDocs >= maxDocsPerSlice || group.size() >= maxSegmentsPerSlice) {
+        slices.add(new LeafSlice(group.toArray(new LeafReaderContextPartition[0])));
+        group = new ArrayList<>();
+        groupDocs = 0;
+      }
+    }
+    if (group.isEmpty() == false) {
+      slices.add(new LeafSlice(group.toArray(new LeafReaderContextPartition[0])));
+    }
+    return slices.toArray(new LeafSlice[0]);
+  }
   
   /** Return the {@link IndexReader} this searches. */
   public IndexReader getIndexReader() {
@@ -593,12 +692,16 @@ public class IndexSearcher {
       final Weight weight = createNormalizedWeight(query, needsScores);
       final List<Future<C>> topDocsFutures = new ArrayList<>(leafSlices.length);
       for (int i = 0; i < leafSlices.length; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+        final LeafSlice slice = leafSlices[i];
         final C collector = collectors.get(i);
         topDocsFutures.add(executor.submit(new Callable<C>() {
           @Override
           public C call() throws Exception {
-            search(Arrays.asList(leaves), weight, collector);
+            if (slice.hasPartialLeaves()) {
+              search(slice.partitions, weight, collector);
+            } else {
+              search(Arrays.asList(slice.leaves), weight, collector);
+            }
             return collector;
           }
         }));
@@ -611,6 +714,10 @@ public class IndexSearcher {
         } catch (InterruptedException e) {
           throw new ThreadInterruptedException(e);
         } catch (ExecutionException e) {
+          if (e.getCause() instanceof ExitingSearchException) {
+            // rethrow as-is so that callers can handle timeouts the same way as with sequential search
+            throw (ExitingSearchException) e.getCause();
+          }
           throw new RuntimeException(e);
         }
       }
@@ -655,6 +762,7 @@ public class IndexSearcher {
       }
       BulkScorer scorer = weight.bulkScorer(ctx);
       if (scorer != null) {
+        scorer = wrapForTimeout(scorer);
         try {
           scorer.score(leafCollector, ctx.reader().getLiveDocs());
         } catch (CollectionTerminatedException e) {
@@ -665,6 +773,39 @@ public class IndexSearcher {
     }
   }
 
+  /**
+   * Lower-level search API.
+   * <p>
+   * Same as {@link #search(List, Weight, Collector)} but only collects
+   * documents whose ID is within the range of each partition. Partitions of
+   * the same leaf are collected with different {@link LeafCollector}s.
+   * @lucene.experimental
+   */
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector)
+      throws IOException {
+    for (LeafReaderContextPartition partition : partitions) {
+      final LeafReaderContext ctx = partition.ctx;
+      final LeafCollector leafCollector;
+      try {
+        leafCollector = collector.getLeafCollector(ctx);
+      } catch (CollectionTerminatedException e) {
+        // there is no doc of interest in this reader context
+        // continue with the following leaf
+        continue;
+      }
+      BulkScorer scorer = weight.bulkScorer(ctx);
+      if (scorer != null) {
+        scorer = wrapForTimeout(scorer);
+        try {
+          scorer.score(leafCollector, ctx.reader().getLiveDocs(), partition.minDocId, partition.maxDocId);
+        } catch (CollectionTerminatedException e) {
+          // collection was terminated prematurely
+          // continue with the following leaf
+        }
+      }
+    }
+  }
+
   /** Expert: called to re-write queries into primitive queries.
    * @throws BooleanQuery.TooManyClauses If a query would exceed 
    *         {@link BooleanQuery#getMaxClauseCount()} clauses.
@@ -748,6 +889,20 @@ public class IndexSearcher {
     return readerContext;
   }
 
+  /**
+   * Thrown when the {@link QueryTimeout} that has been
+   * {@link #setQueryTimeout(QueryTimeout) configured} on an
+   * {@link IndexSearcher} says to stop scoring documents.
+   * @lucene.experimental
+   */
+  public static class ExitingSearchException extends RuntimeException {
+
+    /** Constructor **/
+    ExitingSearchException(String msg) {
+      super(msg);
+    }
+  }
+
   /**
    * A class holding a subset of the {@link IndexSearcher}s leaf contexts to be
    * executed within a single thread.
@@ -756,9 +911,67 @@ public class IndexSearcher {
    */
   public static class LeafSlice {
     final LeafReaderContext[] leaves;
+    final LeafReaderContextPartition[] partitions;
     
     public LeafSlice(LeafReaderContext... leaves) {
       this.leaves = leaves;
+      this.partitions = new LeafReaderContextPartition[leaves.length];
+      for (int i = 0; i < leaves.length; ++i) {
+        partitions[i] = new LeafReaderContextPartition(leaves[i]);
+      }
+    }
+
+    /** Create a slice that holds the given partitions. Partitions must
+     *  target different leaves. */
+    public LeafSlice(LeafReaderContextPartition... partitions) {
+      this.partitions = partitions;
+      this.leaves = new LeafReaderContext[partitions.length];
+      for (int i = 0; i < partitions.length; ++i) {
+        leaves[i] = partitions[i].ctx;
+        for (int j = 0; j < i; ++j) {
+          if (leaves[j] == leaves[i]) {
+            throw new IllegalArgumentException("A slice may not hold several partitions of the same leaf");
+          }
+        }
+      }
+    }
+
+    boolean hasPartialLeaves() {
+      for (LeafReaderContextPartition partition : partitions) {
+        if (partition.minDocId != 0 || partition.maxDocId != DocIdSetIterator.NO_MORE_DOCS) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A range of doc IDs of a leaf, between {@code minDocId} inclusive and
+   * {@code maxDocId} exclusive. Partitions allow to search a single large
+   * segment from several threads.
+   *
+   * @lucene.experimental
+   */
+  public static final class LeafReaderContextPartition {
+    final LeafReaderContext ctx;
+    final int minDocId;
+    final int maxDocId;
+
+    /** Create a partition that covers all documents of the given leaf. */
+    public LeafReaderContextPartition(LeafReaderContext ctx) {
+      this(ctx, 0, DocIdSetIterator.NO_MORE_DOCS);
+    }
+
+    /** Create a partition that covers doc IDs from {@code minDocId} inclusive
+     *  to {@code maxDocId} exclusive of the given leaf. */
+    public LeafReaderContextPartition(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId < 0 || minDocId >= maxDocId) {
+        throw new IllegalArgumentException("Invalid range of doc IDs: [" + minDocId + ", " + maxDocId + ")");
+      }
+      this.ctx = Objects.requireNonNull(ctx);
+      this.minDocId = minDocId;
+      this.maxDocId = maxDocId;
     }
   }
 
@@ -28,7 +28,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 
@@ -79,7 +85,21 @@ import org.apache.lucene.util.RoaringDocIdSet;
  * {@link #onQueryCache}, {@link #onQueryEviction},
  * {@link #onDocIdSetCache}, {@link #onDocIdSetEviction} and {@link #onClear}.
  * It is better to not perform heavy computations in these methods though since
- * they are called synchronously and under a lock.
+ * they are called synchronously and, except for {@link #onHit} and
+ * {@link #onMiss}, under a lock.
+ *
+ * Lookups do not take the lock: per-segment caches are concurrent maps that
+ * can be read while another thread is adding or evicting entries, and hits are
+ * recorded into a bounded buffer that is replayed into the LRU order the next
+ * time the lock is acquired. Under heavy contention some of these recorded
+ * accesses may be dropped, which only makes the eviction order approximate.
+ *
+ * By default, cache entries are built on the thread that runs the query, which
+ * adds the cost of building the {@link DocIdSet} to the query that triggers
+ * caching. If an {@link Executor} is passed to
+ * {@link #LRUQueryCache(int, long, Predicate, Executor) the constructor},
+ * cache entries are built on this executor instead while the query that
+ * triggered caching runs uncached.
  *
  * @see QueryCachingPolicy
  * @lucene.experimental
@@ -97,9 +117,16 @@ public class LRUQueryCache implements QueryCache, Accountable {
       HASHTABLE_RAM_BYTES_PER_ENTRY
       + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF; // previous & next references
 
+  // number of accesses that may be buffered before they need to be applied to the LRU order
+  static final int READ_BUFFER_SIZE = 64;
+
   private final int maxSize;
   private final long maxRamBytesUsed;
   private final Predicate<LeafReaderContext> leavesToCache;
+  // null if cache entries are built synchronously
+  private final Executor executor;
+  // (query, segment) pairs whose cache entries are being built on the executor
+  private final Set<InFlightKey> inFlightAsyncLoads;
   // maps queries that are contained in the cache to a singleton so that this
   // cache does not store several copies of the same query
   private final Map<Query, Query> uniqueQueries;
@@ -109,12 +136,17 @@ public class LRUQueryCache implements QueryCache, Accountable {
   private final Set<Query> mostRecentlyUsedQueries;
   private final Map<Object, LeafCache> cache;
   private final ReentrantLock lock;
+  // accesses that have been recorded by lookups and not yet applied to the LRU order
+  private final AtomicReferenceArray<Query> readBuffer;
+  private final AtomicInteger readBufferIndex;
+
+  // lookups happen without the lock so hits and misses are counted using striped counters
+  private final LongAdder hitCount;
+  private final LongAdder missCount;
 
   // these variables are volatile so that we do not need to sync reads
   // but increments need to be performed under the lock
   private volatile long ramBytesUsed;
-  private volatile long hitCount;
-  private volatile long missCount;
   private volatile long cacheCount;
   private volatile long cacheSize;
 
@@ -125,13 +157,32 @@ public class LRUQueryCache implements QueryCache, Accountable {
    */
   public LRUQueryCache(int maxSize, long maxRamBytesUsed,
       Predicate<LeafReaderContext> leavesToCache) {
+    this(maxSize, maxRamBytesUsed, leavesToCache, null);
+  }
+
+  /**
+   * Expert: Create a new instance that will cache at most <code>maxSize</code>
+   * queries with at most <code>maxRamBytesUsed</code> bytes of memory, only on
+   * leaves that satisfy {@code leavesToCache}. If {@code executor} is not
+   * null, cache entries are built on this executor: a query that is not
+   * cached yet runs uncached and schedules the creation of its cache entry,
+   * which will only be used by subsequent queries.
+   */
+  public LRUQueryCache(int maxSize, long maxRamBytesUsed,
+      Predicate<LeafReaderContext> leavesToCache, Executor executor) {
     this.maxSize = maxSize;
     this.maxRamBytesUsed = maxRamBytesUsed;
     this.leavesToCache = leavesToCache;
+    this.executor = executor;
+    inFlightAsyncLoads = Collections.newSetFromMap(new ConcurrentHashMap<>());
     uniqueQueries = new LinkedHashMap<>(16, 0.75f, true);
     mostRecentlyUsedQueries = uniqueQueries.keySet();
-    cache = new IdentityHashMap<>();
+    cache = new ConcurrentHashMap<>();
     lock = new ReentrantLock();
+    readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    readBufferIndex = new AtomicInteger();
+    hitCount = new LongAdder();
+    missCount = new LongAdder();
     ramBytesUsed = 0;
   }
 
@@ -175,24 +226,24 @@ public class LRUQueryCache implements QueryCache, Accountable {
   /**
    * Expert: callback when there is a cache hit on a given query.
    * Implementing this method is typically useful in order to compute more
-   * fine-grained statistics about the query cache.
+   * fine-grained statistics about the query cache. Note that this method is
+   * not called under the lock and may be called concurrently.
    * @see #onMiss
    * @lucene.experimental
    */
   protected void onHit(Object readerCoreKey, Query query) {
-    assert lock.isHeldByCurrentThread();
-    hitCount += 1;
+    hitCount.increment();
   }
 
   /**
-   * Expert: callback when there is a cache miss on a given query.
+   * Expert: callback when there is a cache miss on a given query. Note that
+   * this method is not called under the lock and may be called concurrently.
    * @see #onHit
    * @lucene.experimental
    */
   protected void onMiss(Object readerCoreKey, Query query) {
-    assert lock.isHeldByCurrentThread();
     assert query != null;
-    missCount += 1;
+    missCount.increment();
   }
 
   /**
@@ -264,8 +315,8 @@ public class LRUQueryCache implements QueryCache, Accountable {
     }
   }
 
+  // does not require the lock: the per-leaf caches support concurrent reads
   DocIdSet get(Query key, LeafReaderContext context) {
-    assert lock.isHeldByCurrentThread();
     assert key instanceof BoostQuery == false;
     assert key instanceof ConstantScoreQuery == false;
     final Object readerKey = context.reader().getCoreCacheKey();
@@ -274,27 +325,60 @@ public class LRUQueryCache implements QueryCache, Accountable {
       onMiss(readerKey, key);
       return null;
     }
-    // this get call moves the query to the most-recently-used position
-    final Query singleton = uniqueQueries.get(key);
-    if (singleton == null) {
-      onMiss(readerKey, key);
-      return null;
-    }
-    final DocIdSet cached = leafCache.get(singleton);
+    // moves the query to the most-recently-used position once the read buffer is drained
+    recordAccess(key);
+    final DocIdSet cached = leafCache.get(key);
     if (cached == null) {
-      onMiss(readerKey, singleton);
+      onMiss(readerKey, key);
     } else {
-      onHit(readerKey, singleton);
+      onHit(readerKey, key);
     }
     return cached;
   }
 
+  /**
+   * Record an access to the given query so that it is moved to the
+   * most-recently-used position the next time that the lock is acquired. If
+   * the buffer is full, it is drained by the current thread unless another
+   * thread holds the lock, in which case the access is dropped.
+   */
+  private void recordAccess(Query query) {
+    final int index = readBufferIndex.get();
+    if (index < READ_BUFFER_SIZE) {
+      if (readBufferIndex.compareAndSet(index, index + 1)) {
+        readBuffer.set(index, query);
+      }
+    } else if (lock.tryLock()) {
+      try {
+        drainReadBuffer();
+        uniqueQueries.get(query);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Apply buffered accesses to the LRU order, in the order they were recorded. */
+  private void drainReadBuffer() {
+    assert lock.isHeldByCurrentThread();
+    for (int i = 0; i < READ_BUFFER_SIZE; ++i) {
+      final Query query = readBuffer.getAndSet(i, null);
+      if (query != null) {
+        // this get call moves the query to the most-recently-used position,
+        // it is a no-op if the query has been evicted in the meantime
+        uniqueQueries.get(query);
+      }
+    }
+    readBufferIndex.set(0);
+  }
+
   void putIfAbsent(Query query, LeafReaderContext context, DocIdSet set) {
     assert query instanceof BoostQuery == false;
     assert query instanceof ConstantScoreQuery == false;
     // under a lock to make sure that mostRecentlyUsedQueries and cache remain sync'ed
     lock.lock();
     try {
+      drainReadBuffer();
       Query singleton = uniqueQueries.putIfAbsent(query, query);
       if (singleton == null) {
         onQueryCache(singleton, LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + ramBytesUsed(query));
@@ -392,6 +476,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
   public void clear() {
     lock.lock();
     try {
+      drainReadBuffer();
       cache.clear();
       // Note that this also clears the uniqueQueries map since mostRecentlyUsedQueries is the uniqueQueries.keySet view:
       mostRecentlyUsedQueries.clear();
@@ -405,6 +490,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
   void assertConsistent() {
     lock.lock();
     try {
+      drainReadBuffer();
       if (requiresEviction()) {
         throw new AssertionError("requires evictions: size=" + mostRecentlyUsedQueries.size()
             + ", maxSize=" + maxSize + ", ramBytesUsed=" + ramBytesUsed() + ", maxRamBytesUsed=" + maxRamBytesUsed);
@@ -450,6 +536,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
   List<Query> cachedQueries() {
     lock.lock();
     try {
+      drainReadBuffer();
       return new ArrayList<>(mostRecentlyUsedQueries);
     } finally {
       lock.unlock();
@@ -563,7 +650,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
    * @see #getMissCount()
    */
   public final long getHitCount() {
-    return hitCount;
+    return hitCount.sum();
   }
 
   /**
@@ -574,7 +661,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
    * @see #getHitCount()
    */
   public final long getMissCount() {
-    return missCount;
+    return missCount.sum();
   }
 
   /**
@@ -614,16 +701,18 @@ public class LRUQueryCache implements QueryCache, Accountable {
     return getCacheCount() - getCacheSize();
   }
 
-  // this class is not thread-safe, everything but ramBytesUsed needs to be called under a lock
+  // get and ramBytesUsed may be called concurrently, everything else needs to be called under a lock
   private class LeafCache implements Accountable {
 
     private final Object key;
+    // keys are the singletons from uniqueQueries, but lookups are performed
+    // by equality so that they do not need to resolve the singleton first
     private final Map<Query, DocIdSet> cache;
     private volatile long ramBytesUsed;
 
     LeafCache(Object key) {
       this.key = key;
-      cache = new IdentityHashMap<>();
+      cache = new ConcurrentHashMap<>();
       ramBytesUsed = 0;
     }
 
@@ -668,6 +757,32 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
   }
 
+  private static final class InFlightKey {
+
+    private final Query query;
+    private final Object readerCoreKey;
+
+    InFlightKey(Query query, Object readerCoreKey) {
+      this.query = query;
+      this.readerCoreKey = readerCoreKey;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != getClass()) {
+        return false;
+      }
+      final InFlightKey that = (InFlightKey) obj;
+      return readerCoreKey == that.readerCoreKey && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(readerCoreKey) + query.hashCode();
+    }
+
+  }
+
   private class CachingWrapperWeight extends ConstantScoreWeight {
 
     private final Weight in;
@@ -709,6 +824,36 @@ public class LRUQueryCache implements QueryCache, Accountable {
       }
     }
 
+    private void cacheAsynchronously(LeafReaderContext context) {
+      final Query query = in.getQuery();
+      final InFlightKey key = new InFlightKey(query, context.reader().getCoreCacheKey());
+      if (inFlightAsyncLoads.add(key) == false) {
+        // another query is already building this entry
+        return;
+      }
+      try {
+        executor.execute(() -> {
+          try {
+            // make sure the segment does not get closed while we are caching it,
+            // otherwise the entry would never be cleared from the cache
+            if (context.reader().tryIncRef()) {
+              try {
+                putIfAbsent(query, context, cache(context));
+              } finally {
+                context.reader().decRef();
+              }
+            }
+          } catch (IOException e) {
+            // the query that triggered caching already ran uncached, just don't cache
+          } finally {
+            inFlightAsyncLoads.remove(key);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        inFlightAsyncLoads.remove(key);
+      }
+    }
+
     /** Check whether this segment is eligible for caching, regardless of the query. */
     private boolean shouldCache(LeafReaderContext context) throws IOException {
       return cacheEntryHasReasonableWorstCaseSize(ReaderUtil.getTopLevelContext(context).reader().maxDoc())
@@ -721,29 +866,24 @@ public class LRUQueryCache implements QueryCache, Accountable {
         policy.onUse(getQuery());
       }
       // Short-circuit: Check whether this segment is eligible for caching
-      // before we take a lock because of #get
+      // before we look up the cache
       if (shouldCache(context) == false) {
         return in.scorer(context);
       }
 
-      // If the lock is already busy, prefer using the uncached version than waiting
-      if (lock.tryLock() == false) {
-        return in.scorer(context);
-      }
-
-      DocIdSet docIdSet;
-      try {
-        docIdSet = get(in.getQuery(), context);
-      } finally {
-        lock.unlock();
-      }
+      // Lookups do not take the lock, so this never blocks on concurrent cache updates
+      DocIdSet docIdSet = get(in.getQuery(), context);
 
       if (docIdSet == null) {
-        if (policy.shouldCache(in.getQuery())) {
+        if (policy.shouldCache(in.getQuery()) == false) {
+          return in.scorer(context);
+        } else if (executor != null) {
+          // build the cache entry in the background and run this query uncached
+          cacheAsynchronously(context);
+          return in.scorer(context);
+        } else {
           docIdSet = cache(context);
           putIfAbsent(in.getQuery(), context, docIdSet);
-        } else {
-          return in.scorer(context);
         }
       }
 
@@ -765,29 +905,24 @@ public class LRUQueryCache implements QueryCache, Accountable {
         policy.onUse(getQuery());
       }
       // Short-circuit: Check whether this segment is eligible for caching
-      // before we take a lock because of #get
+      // before we look up the cache
       if (shouldCache(context) == false) {
         return in.bulkScorer(context);
       }
 
-      // If the lock is already busy, prefer using the uncached version than waiting
-      if (lock.tryLock() == false) {
-        return in.bulkScorer(context);
-      }
-
-      DocIdSet docIdSet;
-      try {
-        docIdSet = get(in.getQuery(), context);
-      } finally {
-        lock.unlock();
-      }
+      // Lookups do not take the lock, so this never blocks on concurrent cache updates
+      DocIdSet docIdSet = get(in.getQuery(), context);
 
       if (docIdSet == null) {
-        if (policy.shouldCache(in.getQuery())) {
+        if (policy.shouldCache(in.getQuery()) == false) {
+          return in.bulkScorer(context);
+        } else if (executor != null) {
+          // build the cache entry in the background and run this query uncached
+          cacheAsynchronously(context);
+          return in.bulkScorer(context);
+        } else {
           docIdSet = cache(context);
           putIfAbsent(in.getQuery(), context, docIdSet);
-        } else {
-          return in.bulkScorer(context);
         }
       }
 
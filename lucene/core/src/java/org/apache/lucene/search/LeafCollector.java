@@ -93,4 +93,18 @@ public interface LeafCollector {
    */
   void collect(int doc) throws IOException;
 
+  /**
+   * Optionally returns an iterator over the documents that this collector may
+   * still consider competitive. Bulk scorers may use it to skip the
+   * documents of the query that it does not match. The iterator may become
+   * more selective over time, so it must be consumed in doc ID order
+   * together with the query's iterator. The default implementation returns
+   * {@code null}, meaning that all matches must be collected.
+   *
+   * @lucene.experimental
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
 }
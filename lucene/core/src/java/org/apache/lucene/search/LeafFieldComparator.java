@@ -116,4 +116,26 @@ public interface LeafFieldComparator {
    * obtain the current hit's score, if necessary. */
   void setScorer(Scorer scorer) throws IOException;
 
+  /**
+   * Returns an iterator over the documents of the current segment that may
+   * still be competitive, or {@code null} if this comparator cannot skip
+   * documents. The iterator may become more selective as the bottom of the
+   * queue gets updated and should be consumed in doc ID order together with
+   * the query's iterator.
+   *
+   * @lucene.experimental
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
+  /**
+   * Informs this comparator that the collector counted enough hits, so that
+   * the {@link #competitiveIterator() competitive iterator} may start
+   * skipping documents. Until then, all matches need to be visited.
+   *
+   * @lucene.experimental
+   */
+  default void setHitsThresholdReached() throws IOException {}
+
 }
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link Scorer} for pure disjunctions that can skip documents that cannot
+ * be competitive once a {@link #setMinCompetitiveScore(float) minimum
+ * competitive score} is known. This is an implementation of the MaxScore
+ * algorithm: sub scorers are sorted by increasing {@link Scorer#maxScore()}
+ * and the longest prefix whose maximum scores sum up to less than the minimum
+ * competitive score is called <i>non-essential</i>. A document that only
+ * matches non-essential clauses cannot be competitive, so only the
+ * <i>essential</i> clauses are used to lead iteration, and non-essential
+ * clauses are only advanced when a candidate may still reach the minimum
+ * competitive score.
+ *
+ * Sub scorers must have a finite and non-negative {@link Scorer#maxScore()}.
+ */
+final class MaxScoreSumScorer extends Scorer {
+
+  /** Return whether the given scorers can be used with a {@link MaxScoreSumScorer}. */
+  static boolean canUse(Collection<Scorer> scorers) {
+    for (Scorer scorer : scorers) {
+      final float maxScore = scorer.maxScore();
+      if (Float.isFinite(maxScore) == false || maxScore < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // all clauses, sorted by increasing max score
+  private final DisiWrapper[] allScorers;
+  // sumOfMaxScores[i] is the sum of the max scores of allScorers[0..i]
+  private final double[] sumOfMaxScores;
+  private final long cost;
+
+  // allScorers[0..numNonEssential-1] cannot produce a competitive hit on their own
+  private int numNonEssential;
+  private DisiPriorityQueue essentialQueue;
+  private float minCompetitiveScore;
+
+  private int doc = -1;
+  // whether score and freq have been computed for the current doc
+  private boolean scored;
+  private float score;
+  private int freq;
+
+  MaxScoreSumScorer(Weight weight, Collection<Scorer> scorers) {
+    super(weight);
+    if (scorers.size() <= 1) {
+      throw new IllegalArgumentException("There must be at least 2 scorers");
+    }
+    allScorers = new DisiWrapper[scorers.size()];
+    int i = 0;
+    long cost = 0;
+    for (Scorer scorer : scorers) {
+      allScorers[i++] = new DisiWrapper(scorer);
+      cost += scorer.iterator().cost();
+    }
+    this.cost = cost;
+    Arrays.sort(allScorers, Comparator.comparingDouble(w -> w.scorer.maxScore()));
+    sumOfMaxScores = new double[allScorers.length];
+    double sum = 0;
+    for (i = 0; i < allScorers.length; ++i) {
+      final float maxScore = allScorers[i].scorer.maxScore();
+      if (Float.isFinite(maxScore) == false || maxScore < 0) {
+        throw new IllegalArgumentException("Scorers must have a finite and non-negative max score, got " + maxScore);
+      }
+      sum += maxScore;
+      sumOfMaxScores[i] = sum;
+    }
+    essentialQueue = new DisiPriorityQueue(allScorers.length);
+    for (DisiWrapper w : allScorers) {
+      essentialQueue.add(w);
+    }
+  }
+
+  @Override
+  public int docID() {
+    return doc;
+  }
+
+  @Override
+  public float score() throws IOException {
+    if (scored == false) {
+      scoreEssentialClauses();
+    }
+    return score;
+  }
+
+  @Override
+  public int freq() throws IOException {
+    if (scored == false) {
+      scoreEssentialClauses();
+    }
+    return freq;
+  }
+
+  private void scoreEssentialClauses() throws IOException {
+    assert numNonEssential == 0;
+    double score = 0;
+    int freq = 0;
+    for (DisiWrapper w = essentialQueue.topList(); w != null; w = w.next) {
+      score += w.scorer.score();
+      freq++;
+    }
+    this.score = (float) score;
+    this.freq = freq;
+    this.scored = true;
+  }
+
+  @Override
+  public float maxScore() {
+    return (float) sumOfMaxScores[sumOfMaxScores.length - 1];
+  }
+
+  @Override
+  public boolean setMinCompetitiveScore(float minScore) throws IOException {
+    minCompetitiveScore = minScore;
+    int numNonEssential = this.numNonEssential;
+    while (numNonEssential < allScorers.length && (float) sumOfMaxScores[numNonEssential] < minScore) {
+      numNonEssential++;
+    }
+    if (numNonEssential != this.numNonEssential) {
+      if (scored == false && doc != -1 && doc != DocIdSetIterator.NO_MORE_DOCS) {
+        // compute the score of the current doc while all clauses are still in the queue
+        scoreEssentialClauses();
+      }
+      this.numNonEssential = numNonEssential;
+      // rebuild the queue of essential clauses, this only happens at most
+      // once per clause so it does not need to be fast
+      essentialQueue = new DisiPriorityQueue(allScorers.length);
+      for (int i = numNonEssential; i < allScorers.length; ++i) {
+        essentialQueue.add(allScorers[i]);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Collection<ChildScorer> getChildren() {
+    List<ChildScorer> children = new ArrayList<>();
+    for (DisiWrapper w : allScorers) {
+      children.add(new ChildScorer(w.scorer, "SHOULD"));
+    }
+    return children;
+  }
+
+  @Override
+  public DocIdSetIterator iterator() {
+    return new DocIdSetIterator() {
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return advance(doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return doc = doAdvance(target);
+      }
+
+      @Override
+      public long cost() {
+        return cost;
+      }
+    };
+  }
+
+  private int doAdvance(int target) throws IOException {
+    while (true) {
+      if (numNonEssential == allScorers.length) {
+        // the sum of the max scores of all clauses is less than the min competitive score
+        return DocIdSetIterator.NO_MORE_DOCS;
+      }
+
+      DisiWrapper top = essentialQueue.top();
+      while (top.doc < target) {
+        top.doc = top.iterator.advance(target);
+        top = essentialQueue.updateTop();
+      }
+      final int candidate = top.doc;
+      if (candidate == DocIdSetIterator.NO_MORE_DOCS) {
+        return DocIdSetIterator.NO_MORE_DOCS;
+      }
+
+      if (numNonEssential == 0) {
+        // all clauses are essential: behave like a regular disjunction and
+        // only compute scores if they are needed
+        scored = false;
+        return candidate;
+      }
+
+      double score = 0;
+      int freq = 0;
+      for (DisiWrapper w = essentialQueue.topList(); w != null; w = w.next) {
+        score += w.scorer.score();
+        freq++;
+      }
+
+      boolean competitive = true;
+      for (int i = numNonEssential - 1; i >= 0; --i) {
+        if ((float) (score + sumOfMaxScores[i]) < minCompetitiveScore) {
+          // even if all remaining clauses matched, the score would be too low
+          competitive = false;
+          break;
+        }
+        final DisiWrapper w = allScorers[i];
+        if (w.doc < candidate) {
+          w.doc = w.iterator.advance(candidate);
+        }
+        if (w.doc == candidate) {
+          score += w.scorer.score();
+          freq++;
+        }
+      }
+
+      if (competitive) {
+        this.score = (float) score;
+        this.freq = freq;
+        this.scored = true;
+        return candidate;
+      }
+      target = candidate + 1;
+    }
+  }
+}
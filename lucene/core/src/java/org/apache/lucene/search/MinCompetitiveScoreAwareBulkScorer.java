@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.Bits;
+
+/**
+ * A {@link BulkScorer} that scores disjunctions with {@link BooleanScorer}
+ * until the collector reports a {@link Scorer#setMinCompetitiveScore(float)
+ * minimum competitive score}, and then switches to a {@link Scorer} that can
+ * skip non-competitive documents, if the weight produces one. Collectors that
+ * need all hits keep the fast exhaustive {@link BooleanScorer} path.
+ */
+final class MinCompetitiveScoreAwareBulkScorer extends BulkScorer {
+
+  /** Number of documents to score with the exhaustive scorer before checking
+   *  whether a minimum competitive score was set. */
+  static final int INTERVAL = BooleanScorer.SIZE << 2;
+
+  private final Weight weight;
+  private final LeafReaderContext context;
+  private final BulkScorer exhaustive;
+  private BulkScorer pruning;
+  // whether the collector set a min competitive score
+  private boolean minCompetitiveScoreSet;
+  // the scorer to switch to, or null if the weight has no scorer that can skip
+  private Scorer pruningScorer;
+  // whether we already tried to build a pruning scorer
+  private boolean switched;
+
+  MinCompetitiveScoreAwareBulkScorer(Weight weight, LeafReaderContext context, BulkScorer exhaustive) {
+    this.weight = weight;
+    this.context = context;
+    this.exhaustive = exhaustive;
+  }
+
+  @Override
+  public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+    if (pruning != null) {
+      return pruning.score(collector, acceptDocs, min, max);
+    }
+    if (switched) {
+      return exhaustive.score(collector, acceptDocs, min, max);
+    }
+
+    final LeafCollector recordingCollector = new FilterLeafCollector(collector) {
+      @Override
+      public void setScorer(Scorer scorer) throws IOException {
+        super.setScorer(new FilterScorer(scorer) {
+          @Override
+          public boolean setMinCompetitiveScore(float minScore) throws IOException {
+            if (minCompetitiveScoreSet == false) {
+              minCompetitiveScoreSet = true;
+              final Scorer candidate = MinCompetitiveScoreAwareBulkScorer.this.weight.scorer(context);
+              // switching only helps if the scorer can actually skip
+              if (candidate != null && Float.isFinite(candidate.maxScore())
+                  && candidate.setMinCompetitiveScore(minScore)) {
+                pruningScorer = candidate;
+              }
+            }
+            // only report that hits may be skipped if we are going to switch
+            return pruningScorer != null;
+          }
+        });
+      }
+    };
+    // collectors typically set the min competitive score as soon as they get
+    // a scorer if they already collected enough hits on previous segments
+    recordingCollector.setScorer(new FakeScorer());
+
+    int next = min;
+    while (next < max) {
+      if (minCompetitiveScoreSet) {
+        switched = true;
+        if (pruningScorer != null) {
+          pruning = new Weight.DefaultBulkScorer(pruningScorer);
+          return pruning.score(collector, acceptDocs, next, max);
+        } else {
+          return exhaustive.score(collector, acceptDocs, next, max);
+        }
+      }
+      final int windowMax = (int) Math.min(max, (long) next + INTERVAL);
+      next = exhaustive.score(recordingCollector, acceptDocs, next, windowMax);
+    }
+    return next;
+  }
+
+  @Override
+  public long cost() {
+    return exhaustive.cost();
+  }
+}
@@ -20,6 +20,8 @@ package org.apache.lucene.search;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.lucene.index.LeafReaderContext;
@@ -152,6 +154,20 @@ public class MultiCollector implements Collector {
       if (cacheScores) {
         scorer = new ScoreCachingWrappingScorer(scorer);
       }
+      // other collectors might need all hits, so do not let one collector
+      // tell the scorer to skip non-competitive documents
+      scorer = new FilterScorer(scorer) {
+        @Override
+        public boolean setMinCompetitiveScore(float minScore) {
+          // ignore
+          return false;
+        }
+
+        @Override
+        public Collection<ChildScorer> getChildren() {
+          return Collections.singleton(new ChildScorer(in, "MULTI"));
+        }
+      };
       for (int i = 0; i < numCollectors; ++i) {
         final LeafCollector c = collectors[i];
         c.setScorer(scorer);
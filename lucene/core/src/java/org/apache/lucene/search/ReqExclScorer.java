@@ -81,6 +81,17 @@ class ReqExclScorer extends Scorer {
     return reqScorer.score(); // reqScorer may be null when next() or skipTo() already return false
   }
 
+  @Override
+  public float maxScore() {
+    return reqScorer.maxScore();
+  }
+
+  @Override
+  public boolean setMinCompetitiveScore(float minScore) throws IOException {
+    // excluded documents are never returned so only the required scorer contributes to scores
+    return reqScorer.setMinCompetitiveScore(minScore);
+  }
+
   @Override
   public Collection<ChildScorer> getChildren() {
     return Collections.singleton(new ChildScorer(reqScorer, "MUST"));
@@ -53,6 +53,16 @@ public class ScoreCachingWrappingScorer extends FilterScorer {
     return curScore;
   }
 
+  @Override
+  public float maxScore() {
+    return in.maxScore();
+  }
+
+  @Override
+  public boolean setMinCompetitiveScore(float minScore) throws IOException {
+    return in.setMinCompetitiveScore(minScore);
+  }
+
   @Override
   public Collection<ChildScorer> getChildren() {
     return Collections.singleton(new ChildScorer(in, "CACHED"));
@@ -70,6 +70,34 @@ public abstract class Scorer {
   /** Returns the freq of this Scorer on the current document */
   public abstract int freq() throws IOException;
 
+  /**
+   * Return an upper bound of the scores that this {@link Scorer} may produce
+   * for any document of the segment. The default implementation returns
+   * {@link Float#POSITIVE_INFINITY}, which means that no useful bound is
+   * known.
+   * @lucene.experimental
+   */
+  public float maxScore() {
+    return Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Optional method: Tell the scorer that its iterator may safely ignore all
+   * documents whose score is less than the given {@code minScore}. This is a
+   * no-op by default.
+   *
+   * This method may only be called from collectors that do not need exact
+   * hit counts, such as {@link TopScoreDocCollector} when total hits are not
+   * tracked. Values passed to successive calls must be non-decreasing.
+   * @return whether documents may be skipped from now on, {@code false} if
+   *         the hint was ignored and all matches will still be visited
+   * @lucene.experimental
+   */
+  public boolean setMinCompetitiveScore(float minScore) throws IOException {
+    // no-op by default
+    return false;
+  }
+
   /** returns parent Weight
    * @lucene.experimental
    */
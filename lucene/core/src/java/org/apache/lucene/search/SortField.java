@@ -98,6 +98,9 @@ public class SortField {
   // Used for 'sortMissingFirst/Last'
   protected Object missingValue = null;
 
+  // Whether the field is also indexed as points that can be used to skip non-competitive docs
+  private boolean canUsePoints = false;
+
   /** Creates a sort by terms in the given field with the type of term
    * values explicitly given.
    * @param field  Name of field to sort by.  Can be <code>null</code> if
@@ -302,6 +305,7 @@ public class SortField {
       && other.reverse == this.reverse
       && Objects.equals(this.comparatorSource, other.comparatorSource)
       && Objects.equals(this.missingValue, other.missingValue)
+      && other.canUsePoints == this.canUsePoints
     );
   }
 
@@ -310,7 +314,31 @@ public class SortField {
    *  implement hashCode (unless a singleton is always used). */
   @Override
   public int hashCode() {
-    return Objects.hash(field, type, reverse, comparatorSource, missingValue);
+    return Objects.hash(field, type, reverse, comparatorSource, missingValue, canUsePoints);
+  }
+
+  /**
+   * For {@link Type#INT}, {@link Type#LONG}, {@link Type#FLOAT} and
+   * {@link Type#DOUBLE} sorts, indicates that the field is also indexed with a
+   * single {@link org.apache.lucene.document.IntPoint},
+   * {@link org.apache.lucene.document.LongPoint},
+   * {@link org.apache.lucene.document.FloatPoint} or
+   * {@link org.apache.lucene.document.DoublePoint} respectively per document
+   * that has the same value as the doc value. This allows the comparator to skip documents
+   * that cannot be competitive once the queue is full and enough hits have
+   * been counted, see {@link TopFieldCollector#create(Sort, int, FieldDoc, boolean, boolean, boolean, int)}.
+   * Results are undefined if points and doc values disagree.
+   * @lucene.experimental
+   */
+  public void setCanUsePoints() {
+    this.canUsePoints = true;
+  }
+
+  /** Return whether points may be used to skip non-competitive documents.
+   *  @see #setCanUsePoints()
+   *  @lucene.experimental */
+  public boolean getCanUsePoints() {
+    return canUsePoints;
   }
 
   private Comparator<BytesRef> bytesComparator = Comparator.naturalOrder();
@@ -345,16 +373,32 @@ public class SortField {
       return new FieldComparator.DocComparator(numHits);
 
     case INT:
-      return new FieldComparator.IntComparator(numHits, field, (Integer) missingValue);
+      FieldComparator.IntComparator intComparator = new FieldComparator.IntComparator(numHits, field, (Integer) missingValue);
+      if (canUsePoints) {
+        intComparator.enableSkipping(reverse);
+      }
+      return intComparator;
 
     case FLOAT:
-      return new FieldComparator.FloatComparator(numHits, field, (Float) missingValue);
+      FieldComparator.FloatComparator floatComparator = new FieldComparator.FloatComparator(numHits, field, (Float) missingValue);
+      if (canUsePoints) {
+        floatComparator.enableSkipping(reverse);
+      }
+      return floatComparator;
 
     case LONG:
-      return new FieldComparator.LongComparator(numHits, field, (Long) missingValue);
+      FieldComparator.LongComparator longComparator = new FieldComparator.LongComparator(numHits, field, (Long) missingValue);
+      if (canUsePoints) {
+        longComparator.enableSkipping(reverse);
+      }
+      return longComparator;
 
     case DOUBLE:
-      return new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue);
+      FieldComparator.DoubleComparator doubleComparator = new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue);
+      if (canUsePoints) {
+        doubleComparator.enableSkipping(reverse);
+      }
+      return doubleComparator;
 
     case CUSTOM:
       assert comparatorSource != null;
@@ -93,7 +93,15 @@ public class TermQuery extends Query {
       }
       PostingsEnum docs = termsEnum.postings(null, needsScores ? PostingsEnum.FREQS : PostingsEnum.NONE);
       assert docs != null;
-      return new TermScorer(this, docs, similarity.simScorer(stats, context));
+      float maxFreq = Float.POSITIVE_INFINITY;
+      if (needsScores) {
+        final long totalTermFreq = termsEnum.totalTermFreq();
+        if (totalTermFreq != -1) {
+          // every other document that contains the term has a freq of at least 1
+          maxFreq = totalTermFreq - termsEnum.docFreq() + 1;
+        }
+      }
+      return new TermScorer(this, docs, similarity.simScorer(stats, context), maxFreq);
     }
 
     /**
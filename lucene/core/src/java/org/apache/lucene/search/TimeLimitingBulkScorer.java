@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.index.QueryTimeout;
+import org.apache.lucene.util.Bits;
+
+/**
+ * A {@link BulkScorer} that scores documents in windows of doc IDs and checks
+ * a {@link QueryTimeout} before each window. Windows start small and grow so
+ * that the cost of checking the timeout is amortized, but remain bounded so
+ * that queries whose documents are expensive to match, such as two-phase
+ * confirmation of regexp or sloppy phrase queries, are still checked
+ * regularly.
+ */
+final class TimeLimitingBulkScorer extends BulkScorer {
+
+  // size of the first window, in doc IDs
+  static final int INITIAL_INTERVAL = 100;
+  // maximum size of a window, in doc IDs
+  static final int MAX_INTERVAL = 1 << 12;
+
+  private final BulkScorer in;
+  private final QueryTimeout queryTimeout;
+
+  TimeLimitingBulkScorer(BulkScorer in, QueryTimeout queryTimeout) {
+    this.in = in;
+    this.queryTimeout = queryTimeout;
+  }
+
+  @Override
+  public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+    int interval = INITIAL_INTERVAL;
+    while (min < max) {
+      if (queryTimeout.shouldExit()) {
+        throw new IndexSearcher.ExitingSearchException("Search stopped by query timeout: " + queryTimeout);
+      }
+      final int newMax = (int) Math.min((long) min + interval, max);
+      interval = Math.min(interval + (interval >>> 1), MAX_INTERVAL);
+      min = in.score(collector, acceptDocs, min, newMax);
+    }
+    return min;
+  }
+
+  @Override
+  public long cost() {
+    return in.cost();
+  }
+
+}
@@ -23,9 +23,20 @@ import org.apache.lucene.util.PriorityQueue;
  * IndexSearcher#search(Query,int)}. */
 public class TopDocs {
 
+  /** How the {@link TopDocs#totalHits} should be interpreted. */
+  public enum TotalHitsRelation {
+    /** The total hit count is equal to {@link TopDocs#totalHits}. */
+    EQUAL_TO,
+    /** The total hit count is greater than or equal to {@link TopDocs#totalHits}. */
+    GREATER_THAN_OR_EQUAL_TO
+  }
+
   /** The total number of hits for the query. */
   public int totalHits;
 
+  /** Whether {@link #totalHits} is exact or a lower bound of the number of hits. */
+  public TotalHitsRelation totalHitsRelation;
+
   /** The top hits for the query. */
   public ScoreDoc[] scoreDocs;
 
@@ -51,7 +62,17 @@ public class TopDocs {
   }
 
   public TopDocs(int totalHits, ScoreDoc[] scoreDocs, float maxScore) {
+    this(totalHits, TotalHitsRelation.EQUAL_TO, scoreDocs, maxScore);
+  }
+
+  /** Sole constructor: {@code totalHitsRelation} tells whether
+   *  {@code totalHits} is exact or a lower bound of the number of hits. */
+  public TopDocs(int totalHits, TotalHitsRelation totalHitsRelation, ScoreDoc[] scoreDocs, float maxScore) {
+    if (totalHitsRelation == null) {
+      throw new NullPointerException("totalHitsRelation must not be null");
+    }
     this.totalHits = totalHits;
+    this.totalHitsRelation = totalHitsRelation;
     this.scoreDocs = scoreDocs;
     this.maxScore = maxScore;
   }
@@ -241,6 +262,7 @@ public class TopDocs {
     }
 
     int totalHitCount = 0;
+    TotalHitsRelation totalHitsRelation = TotalHitsRelation.EQUAL_TO;
     int availHitCount = 0;
     float maxScore = Float.MIN_VALUE;
     for(int shardIDX=0;shardIDX<shardHits.length;shardIDX++) {
@@ -248,6 +270,10 @@ public class TopDocs {
       // totalHits can be non-zero even if no hits were
       // collected, when searchAfter was used:
       totalHitCount += shard.totalHits;
+      if (shard.totalHitsRelation == TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO) {
+        // if any shard only has a lower bound, the merged count is a lower bound too
+        totalHitsRelation = TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+      }
       if (shard.scoreDocs != null && shard.scoreDocs.length > 0) {
         availHitCount += shard.scoreDocs.length;
         queue.add(new ShardRef(shardIDX));
@@ -292,9 +318,9 @@ public class TopDocs {
     }
 
     if (sort == null) {
-      return new TopDocs(totalHitCount, hits, maxScore);
+      return new TopDocs(totalHitCount, totalHitsRelation, hits, maxScore);
     } else {
-      return new TopFieldDocs(totalHitCount, hits, sort.getSort(), maxScore);
+      return new TopFieldDocs(totalHitCount, totalHitsRelation, hits, sort.getSort(), maxScore);
     }
   }
 }
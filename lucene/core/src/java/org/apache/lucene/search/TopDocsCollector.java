@@ -47,6 +47,10 @@ public abstract class TopDocsCollector<T extends ScoreDoc> implements Collector
 
   /** The total number of documents that the collector encountered. */
   protected int totalHits;
+
+  /** Whether {@link #totalHits} is exact or a lower bound of the number of
+   *  matches, for instance because non-competitive documents were skipped. */
+  protected TopDocs.TotalHitsRelation totalHitsRelation = TopDocs.TotalHitsRelation.EQUAL_TO;
   
   protected TopDocsCollector(PriorityQueue<T> pq) {
     this.pq = pq;
@@ -69,13 +73,19 @@ public abstract class TopDocsCollector<T extends ScoreDoc> implements Collector
    * topDocs were invalid.
    */
   protected TopDocs newTopDocs(ScoreDoc[] results, int start) {
-    return results == null ? EMPTY_TOPDOCS : new TopDocs(totalHits, results);
+    return results == null ? EMPTY_TOPDOCS : new TopDocs(totalHits, totalHitsRelation, results, Float.NaN);
   }
   
   /** The total number of documents that matched this query. */
   public int getTotalHits() {
     return totalHits;
   }
+
+  /** Whether {@link #getTotalHits()} is exact or a lower bound of the number
+   *  of matches. */
+  public TopDocs.TotalHitsRelation getTotalHitsRelation() {
+    return totalHitsRelation;
+  }
   
   /** The number of valid PQ entries */
   protected int topDocsSize() {
@@ -137,14 +137,17 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
    */
   private static class SimpleFieldCollector extends TopFieldCollector {
 
+    final Sort sort;
     final FieldValueHitQueue<Entry> queue;
     final boolean trackDocScores;
     final boolean trackMaxScore;
     final boolean mayNeedScoresTwice;
 
     public SimpleFieldCollector(Sort sort, FieldValueHitQueue<Entry> queue, int numHits, boolean fillFields,
-        boolean trackDocScores, boolean trackMaxScore) {
-      super(queue, numHits, fillFields, sort.needsScores() || trackDocScores || trackMaxScore);
+        boolean trackDocScores, boolean trackMaxScore, int totalHitsThreshold) {
+      super(queue, numHits, fillFields, sort.needsScores() || trackDocScores || trackMaxScore,
+          canSetMinCompetitiveScore(sort, trackMaxScore), totalHitsThreshold);
+      this.sort = sort;
       this.queue = queue;
       if (trackMaxScore) {
         maxScore = Float.NEGATIVE_INFINITY; // otherwise we would keep NaN
@@ -163,10 +166,26 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
       final LeafFieldComparator[] comparators = queue.getComparators(context);
       final int[] reverseMul = queue.getReverseMul();
+      final boolean canEarlyTerminate = canEarlyTerminate(sort, context.reader().getIndexSort(), trackMaxScore);
+      competitiveIteratorInUse = false;
+      if (hitsThresholdReached) {
+        setHitsThresholdReached(comparators[0]);
+      }
 
       if (comparators.length == 1) {
         return new OneComparatorLeafCollector(comparators[0], reverseMul[0], mayNeedScoresTwice) {
 
+          @Override
+          public void setScorer(Scorer scorer) throws IOException {
+            super.setScorer(scorer);
+            updateMinCompetitiveScore(scorer);
+          }
+
+          @Override
+          public DocIdSetIterator competitiveIterator() throws IOException {
+            return useCompetitiveIterator(comparator);
+          }
+
           @Override
           public void collect(int doc) throws IOException {
             float score = Float.NaN;
@@ -178,8 +197,20 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
             }
 
             ++totalHits;
+            if (hitsThresholdReached == false && totalHits >= totalHitsThreshold) {
+              setHitsThresholdReached(comparator);
+            }
             if (queueFull) {
               if (reverseMul * comparator.compareBottom(doc) <= 0) {
+                if (canEarlyTerminate) {
+                  // documents are sorted in index order, so next documents
+                  // are not competitive either
+                  maybeTerminateLeaf();
+                }
+                if (totalHitsRelation == TopDocs.TotalHitsRelation.EQUAL_TO) {
+                  // we may have just reached totalHitsThreshold
+                  updateMinCompetitiveScore(scorer);
+                }
                 // since docs are visited in doc Id order, if compare is 0, it means
                 // this document is largest than anything else in the queue, and
                 // therefore not competitive.
@@ -194,6 +225,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
               comparator.copy(bottom.slot, doc);
               updateBottom(doc, score);
               comparator.setBottom(bottom.slot);
+              updateMinCompetitiveScore(scorer);
             } else {
               // Startup transient: queue hasn't gathered numHits yet
               final int slot = totalHits - 1;
@@ -207,6 +239,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
               add(slot, doc, score);
               if (queueFull) {
                 comparator.setBottom(bottom.slot);
+                updateMinCompetitiveScore(scorer);
               }
             }
           }
@@ -215,6 +248,17 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       } else {
         return new MultiComparatorLeafCollector(comparators, reverseMul, mayNeedScoresTwice) {
 
+          @Override
+          public void setScorer(Scorer scorer) throws IOException {
+            super.setScorer(scorer);
+            updateMinCompetitiveScore(scorer);
+          }
+
+          @Override
+          public DocIdSetIterator competitiveIterator() throws IOException {
+            return useCompetitiveIterator(firstComparator);
+          }
+
           @Override
           public void collect(int doc) throws IOException {
             float score = Float.NaN;
@@ -226,8 +270,20 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
             }
 
             ++totalHits;
+            if (hitsThresholdReached == false && totalHits >= totalHitsThreshold) {
+              setHitsThresholdReached(firstComparator);
+            }
             if (queueFull) {
               if (compareBottom(doc) <= 0) {
+                if (canEarlyTerminate) {
+                  // documents are sorted in index order, so next documents
+                  // are not competitive either
+                  maybeTerminateLeaf();
+                }
+                if (totalHitsRelation == TopDocs.TotalHitsRelation.EQUAL_TO) {
+                  // we may have just reached totalHitsThreshold
+                  updateMinCompetitiveScore(scorer);
+                }
                 // since docs are visited in doc Id order, if compare is 0, it means
                 // this document is largest than anything else in the queue, and
                 // therefore not competitive.
@@ -242,6 +298,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
               copy(bottom.slot, doc);
               updateBottom(doc, score);
               setBottom(bottom.slot);
+              updateMinCompetitiveScore(scorer);
             } else {
               // Startup transient: queue hasn't gathered numHits yet
               final int slot = totalHits - 1;
@@ -255,6 +312,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
               add(slot, doc, score);
               if (queueFull) {
                 setBottom(bottom.slot);
+                updateMinCompetitiveScore(scorer);
               }
             }
           }
@@ -271,6 +329,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
   private final static class PagingFieldCollector extends TopFieldCollector {
 
     int collectedHits;
+    final Sort sort;
     final FieldValueHitQueue<Entry> queue;
     final boolean trackDocScores;
     final boolean trackMaxScore;
@@ -278,8 +337,10 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     final boolean mayNeedScoresTwice;
 
     public PagingFieldCollector(Sort sort, FieldValueHitQueue<Entry> queue, FieldDoc after, int numHits, boolean fillFields,
-                                boolean trackDocScores, boolean trackMaxScore) {
-      super(queue, numHits, fillFields, trackDocScores || trackMaxScore || sort.needsScores());
+                                boolean trackDocScores, boolean trackMaxScore, int totalHitsThreshold) {
+      super(queue, numHits, fillFields, trackDocScores || trackMaxScore || sort.needsScores(),
+          canSetMinCompetitiveScore(sort, trackMaxScore), totalHitsThreshold);
+      this.sort = sort;
       this.queue = queue;
       this.trackDocScores = trackDocScores;
       this.trackMaxScore = trackMaxScore;
@@ -302,13 +363,33 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
       docBase = context.docBase;
       final int afterDoc = after.doc - docBase;
-      return new MultiComparatorLeafCollector(queue.getComparators(context), queue.getReverseMul(), mayNeedScoresTwice) {
+      final boolean canEarlyTerminate = canEarlyTerminate(sort, context.reader().getIndexSort(), trackMaxScore);
+      final LeafFieldComparator[] comparators = queue.getComparators(context);
+      competitiveIteratorInUse = false;
+      if (hitsThresholdReached) {
+        setHitsThresholdReached(comparators[0]);
+      }
+      return new MultiComparatorLeafCollector(comparators, queue.getReverseMul(), mayNeedScoresTwice) {
+
+        @Override
+        public void setScorer(Scorer scorer) throws IOException {
+          super.setScorer(scorer);
+          updateMinCompetitiveScore(scorer);
+        }
+
+        @Override
+        public DocIdSetIterator competitiveIterator() throws IOException {
+          return useCompetitiveIterator(firstComparator);
+        }
 
         @Override
         public void collect(int doc) throws IOException {
           //System.out.println("  collect doc=" + doc);
 
           totalHits++;
+          if (hitsThresholdReached == false && totalHits >= totalHitsThreshold) {
+            setHitsThresholdReached(firstComparator);
+          }
 
           float score = Float.NaN;
           if (trackMaxScore) {
@@ -323,6 +404,15 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
             // the worst hit currently in the queue:
             final int cmp = compareBottom(doc);
             if (cmp <= 0) {
+              if (canEarlyTerminate) {
+                // documents are sorted in index order, so next documents
+                // are not competitive either
+                maybeTerminateLeaf();
+              }
+              if (totalHitsRelation == TopDocs.TotalHitsRelation.EQUAL_TO) {
+                // we may have just reached totalHitsThreshold
+                updateMinCompetitiveScore(scorer);
+              }
               // not competitive since documents are visited in doc id order
               return;
             }
@@ -345,6 +435,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
             updateBottom(doc, score);
 
             setBottom(bottom.slot);
+            updateMinCompetitiveScore(scorer);
           } else {
             collectedHits++;
 
@@ -362,6 +453,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
             queueFull = collectedHits == numHits;
             if (queueFull) {
               setBottom(bottom.slot);
+              updateMinCompetitiveScore(scorer);
             }
           }
         }
@@ -385,17 +477,102 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
   boolean queueFull;
   int docBase;
   final boolean needsScores;
+  // whether hits are sorted by descending score first
+  final boolean canSetMinCompetitiveScore;
+  final int totalHitsThreshold;
+  boolean earlyTerminated;
+  boolean hitsThresholdReached;
+  // whether the scorer of the current leaf consumes the competitive iterator
+  boolean competitiveIteratorInUse;
 
   // Declaring the constructor private prevents extending this class by anyone
   // else. Note that the class cannot be final since it's extended by the
   // internal versions. If someone will define a constructor with any other
   // visibility, then anyone will be able to extend the class, which is not what
   // we want.
-  private TopFieldCollector(PriorityQueue<Entry> pq, int numHits, boolean fillFields, boolean needsScores) {
+  private TopFieldCollector(PriorityQueue<Entry> pq, int numHits, boolean fillFields, boolean needsScores,
+      boolean canSetMinCompetitiveScore, int totalHitsThreshold) {
     super(pq);
     this.needsScores = needsScores;
     this.numHits = numHits;
     this.fillFields = fillFields;
+    this.canSetMinCompetitiveScore = canSetMinCompetitiveScore;
+    this.totalHitsThreshold = totalHitsThreshold;
+  }
+
+  /** Scorers may only skip documents whose score is too low if the primary
+   *  sort is by descending score and the max score is not tracked. */
+  static boolean canSetMinCompetitiveScore(Sort sort, boolean trackMaxScore) {
+    final SortField first = sort.getSort()[0];
+    return trackMaxScore == false
+        && first.getType() == SortField.Type.SCORE
+        && first.getReverse() == false;
+  }
+
+  /** Let the scorer skip documents that score less than the bottom of the
+   *  queue once the queue is full and enough hits have been counted. */
+  final void updateMinCompetitiveScore(Scorer scorer) throws IOException {
+    if (canSetMinCompetitiveScore && queueFull && totalHits >= totalHitsThreshold) {
+      final FieldComparator<?> firstComparator = ((FieldValueHitQueue<Entry>) pq).getComparators()[0];
+      final float minScore = (Float) firstComparator.value(bottom.slot);
+      if (scorer.setMinCompetitiveScore(minScore)) {
+        // from now on, hits may be skipped
+        totalHitsRelation = TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+      }
+    }
+  }
+
+  /** Collection of a leaf may stop as soon as the queue is full and a hit is
+   *  not competitive if the leaf is sorted by the search sort, or by a sort
+   *  that the search sort is a prefix of. This does not work when tracking
+   *  the max score since it requires visiting all hits. */
+  static boolean canEarlyTerminate(Sort searchSort, Sort indexSort, boolean trackMaxScore) {
+    return trackMaxScore == false
+        && indexSort != null
+        && EarlyTerminatingSortingCollector.canEarlyTerminate(searchSort, indexSort);
+  }
+
+  /** Stop collecting the current leaf if enough hits have been counted,
+   *  in which case the hit count becomes a lower bound. */
+  final void maybeTerminateLeaf() {
+    if (totalHits >= totalHitsThreshold) {
+      earlyTerminated = true;
+      totalHitsRelation = TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+      throw new CollectionTerminatedException();
+    }
+  }
+
+  /** Let the first comparator skip non-competitive documents now that
+   *  enough hits have been counted. */
+  final void setHitsThresholdReached(LeafFieldComparator firstComparator) throws IOException {
+    hitsThresholdReached = true;
+    if (competitiveIteratorInUse) {
+      // the comparator may skip documents, so counts are lower bounds
+      totalHitsRelation = TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+    }
+    firstComparator.setHitsThresholdReached();
+  }
+
+  /** Return the competitive iterator of the first comparator to the scorer
+   *  of the current leaf. Hits may only be skipped if the scorer asks for it,
+   *  which is not the case eg. when this collector is wrapped. */
+  final DocIdSetIterator useCompetitiveIterator(LeafFieldComparator firstComparator) throws IOException {
+    final DocIdSetIterator iterator = firstComparator.competitiveIterator();
+    if (iterator != null) {
+      competitiveIteratorInUse = true;
+      if (hitsThresholdReached) {
+        totalHitsRelation = TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+      }
+    }
+    return iterator;
+  }
+
+  /** Return whether collection of at least one leaf was terminated early
+   *  because the leaf was sorted in a way that made next hits non
+   *  competitive.
+   *  @see #create(Sort, int, FieldDoc, boolean, boolean, boolean, int) */
+  public boolean isEarlyTerminated() {
+    return earlyTerminated;
   }
 
   @Override
@@ -478,6 +655,29 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
    */
   public static TopFieldCollector create(Sort sort, int numHits, FieldDoc after,
       boolean fillFields, boolean trackDocScores, boolean trackMaxScore) {
+    return create(sort, numHits, after, fillFields, trackDocScores, trackMaxScore, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new {@link TopFieldCollector} from the given
+   * arguments.
+   *
+   * <p>Hits are counted accurately up to {@code totalHitsThreshold}. Past
+   * this threshold, the collector may skip hits that cannot be competitive,
+   * in which case {@link TopDocs#totalHits} is only a lower bound of the
+   * number of hits and {@link TopDocs#totalHitsRelation} is
+   * {@link TopDocs.TotalHitsRelation#GREATER_THAN_OR_EQUAL_TO}. Hits may be
+   * skipped either because the sort is by descending score first, or
+   * because segments are sorted by an {@link
+   * org.apache.lucene.index.IndexWriterConfig#setIndexSort index sort} that
+   * starts with {@code sort}, in which case collection of a segment stops as
+   * soon as a hit is not competitive.
+   *
+   * @see #create(Sort, int, FieldDoc, boolean, boolean, boolean)
+   * @lucene.experimental
+   */
+  public static TopFieldCollector create(Sort sort, int numHits, FieldDoc after,
+      boolean fillFields, boolean trackDocScores, boolean trackMaxScore, int totalHitsThreshold) {
 
     if (sort.fields.length == 0) {
       throw new IllegalArgumentException("Sort must contain at least one field");
@@ -487,10 +687,14 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       throw new IllegalArgumentException("numHits must be > 0; please use TotalHitCountCollector if you just need the total hit count");
     }
 
+    if (totalHitsThreshold < 0) {
+      throw new IllegalArgumentException("totalHitsThreshold must be >= 0, got " + totalHitsThreshold);
+    }
+
     FieldValueHitQueue<Entry> queue = FieldValueHitQueue.create(sort.fields, numHits);
 
     if (after == null) {
-      return new SimpleFieldCollector(sort, queue, numHits, fillFields, trackDocScores, trackMaxScore);
+      return new SimpleFieldCollector(sort, queue, numHits, fillFields, trackDocScores, trackMaxScore, totalHitsThreshold);
     } else {
       if (after.fields == null) {
         throw new IllegalArgumentException("after.fields wasn't set; you must pass fillFields=true for the previous search");
@@ -500,7 +704,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
         throw new IllegalArgumentException("after.fields has " + after.fields.length + " values but sort has " + sort.getSort().length);
       }
 
-      return new PagingFieldCollector(sort, queue, after, numHits, fillFields, trackDocScores, trackMaxScore);
+      return new PagingFieldCollector(sort, queue, after, numHits, fillFields, trackDocScores, trackMaxScore, totalHitsThreshold);
     }
   }
 
@@ -551,7 +755,7 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
     }
 
     // If this is a maxScoring tracking collector and there were no results,
-    return new TopFieldDocs(totalHits, results, ((FieldValueHitQueue<Entry>) pq).getFields(), maxScore);
+    return new TopFieldDocs(totalHits, totalHitsRelation, results, ((FieldValueHitQueue<Entry>) pq).getFields(), maxScore);
   }
 
   @Override
@@ -33,7 +33,18 @@ public class TopFieldDocs extends TopDocs {
    * @param maxScore   The maximum score encountered.
    */
   public TopFieldDocs (int totalHits, ScoreDoc[] scoreDocs, SortField[] fields, float maxScore) {
-    super (totalHits, scoreDocs, maxScore);
+    this(totalHits, TotalHitsRelation.EQUAL_TO, scoreDocs, fields, maxScore);
+  }
+
+  /** Creates one of these objects.
+   * @param totalHits  Total number of hits for the query.
+   * @param totalHitsRelation  Whether totalHits is exact or a lower bound.
+   * @param scoreDocs  The top hits for the query.
+   * @param fields     The sort criteria used to find the top hits.
+   * @param maxScore   The maximum score encountered.
+   */
+  public TopFieldDocs (int totalHits, TotalHitsRelation totalHitsRelation, ScoreDoc[] scoreDocs, SortField[] fields, float maxScore) {
+    super (totalHits, totalHitsRelation, scoreDocs, maxScore);
     this.fields = fields;
   }
 }
\ No newline at end of file
@@ -33,24 +33,32 @@ import org.apache.lucene.index.LeafReaderContext;
  * {@link Float#NEGATIVE_INFINITY} are not valid scores.  This
  * collector will not properly collect hits with such
  * scores.
+ *
+ * <p>Once more hits than a configurable threshold have been counted, this
+ * collector informs scorers about the minimum score that a hit must have in
+ * order to be competitive through {@link Scorer#setMinCompetitiveScore(float)},
+ * which allows some scorers to skip over non-competitive documents. If a
+ * scorer reports that it may skip documents, the hit count is then only a
+ * lower bound, as reported by {@link TopDocs#totalHitsRelation}.
  */
 public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
 
-  abstract static class ScorerLeafCollector implements LeafCollector {
+  abstract class ScorerLeafCollector implements LeafCollector {
 
     Scorer scorer;
 
     @Override
     public void setScorer(Scorer scorer) throws IOException {
       this.scorer = scorer;
+      updateMinCompetitiveScore(scorer);
     }
 
   }
 
   private static class SimpleTopScoreDocCollector extends TopScoreDocCollector {
 
-    SimpleTopScoreDocCollector(int numHits) {
-      super(numHits);
+    SimpleTopScoreDocCollector(int numHits, int totalHitsThreshold) {
+      super(numHits, totalHitsThreshold);
     }
 
     @Override
@@ -69,6 +77,10 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
 
           totalHits++;
           if (score <= pqTop.score) {
+            if (totalHitsRelation == TopDocs.TotalHitsRelation.EQUAL_TO) {
+              // we just reached totalHitsThreshold, we can start setting the min competitive score
+              updateMinCompetitiveScore(scorer);
+            }
             // Since docs are returned in-order (i.e., increasing doc Id), a document
             // with equal score to pqTop.score cannot compete since HitQueue favors
             // documents with lower doc Ids. Therefore reject those docs too.
@@ -77,6 +89,7 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           pqTop.doc = doc + docBase;
           pqTop.score = score;
           pqTop = pq.updateTop();
+          updateMinCompetitiveScore(scorer);
         }
 
       };
@@ -89,8 +102,8 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
     private final ScoreDoc after;
     private int collectedHits;
 
-    PagingTopScoreDocCollector(int numHits, ScoreDoc after) {
-      super(numHits);
+    PagingTopScoreDocCollector(int numHits, ScoreDoc after, int totalHitsThreshold) {
+      super(numHits, totalHitsThreshold);
       this.after = after;
       this.collectedHits = 0;
     }
@@ -102,7 +115,9 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
 
     @Override
     protected TopDocs newTopDocs(ScoreDoc[] results, int start) {
-      return results == null ? new TopDocs(totalHits, new ScoreDoc[0], Float.NaN) : new TopDocs(totalHits, results);
+      return results == null
+          ? new TopDocs(totalHits, totalHitsRelation, new ScoreDoc[0], Float.NaN)
+          : new TopDocs(totalHits, totalHitsRelation, results, Float.NaN);
     }
 
     @Override
@@ -126,6 +141,10 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           }
 
           if (score <= pqTop.score) {
+            if (totalHitsRelation == TopDocs.TotalHitsRelation.EQUAL_TO) {
+              // we just reached totalHitsThreshold, we can start setting the min competitive score
+              updateMinCompetitiveScore(scorer);
+            }
             // Since docs are returned in-order (i.e., increasing doc Id), a document
             // with equal score to pqTop.score cannot compete since HitQueue favors
             // documents with lower doc Ids. Therefore reject those docs too.
@@ -135,6 +154,7 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
           pqTop.doc = doc + docBase;
           pqTop.score = score;
           pqTop = pq.updateTop();
+          updateMinCompetitiveScore(scorer);
         }
       };
     }
@@ -165,28 +185,70 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
    * objects.
    */
   public static TopScoreDocCollector create(int numHits, ScoreDoc after) {
+    return create(numHits, after, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new {@link TopScoreDocCollector} given the number of hits to
+   * collect, the bottom of the previous page, and the number of hits to count
+   * accurately.
+   *
+   * <p>Hits are counted accurately up to {@code totalHitsThreshold}. Past
+   * this threshold, the collector lets scorers skip documents that cannot
+   * make it to the top hits, and {@link TopDocs#totalHits} may only be a
+   * lower bound of the number of hits, in which case
+   * {@link TopDocs#totalHitsRelation} is
+   * {@link TopDocs.TotalHitsRelation#GREATER_THAN_OR_EQUAL_TO}. Pass
+   * {@link Integer#MAX_VALUE} to always count hits accurately.
+   *
+   * <p><b>NOTE</b>: The instances returned by this method
+   * pre-allocate a full array of length
+   * <code>numHits</code>, and fill the array with sentinel
+   * objects.
+   *
+   * @lucene.experimental
+   */
+  public static TopScoreDocCollector create(int numHits, ScoreDoc after, int totalHitsThreshold) {
 
     if (numHits <= 0) {
       throw new IllegalArgumentException("numHits must be > 0; please use TotalHitCountCollector if you just need the total hit count");
     }
 
+    if (totalHitsThreshold < 0) {
+      throw new IllegalArgumentException("totalHitsThreshold must be >= 0, got " + totalHitsThreshold);
+    }
+
     if (after == null) {
-      return new SimpleTopScoreDocCollector(numHits);
+      return new SimpleTopScoreDocCollector(numHits, totalHitsThreshold);
     } else {
-      return new PagingTopScoreDocCollector(numHits, after);
+      return new PagingTopScoreDocCollector(numHits, after, totalHitsThreshold);
     }
   }
 
+  final int totalHitsThreshold;
   ScoreDoc pqTop;
 
   // prevents instantiation
-  TopScoreDocCollector(int numHits) {
+  TopScoreDocCollector(int numHits, int totalHitsThreshold) {
     super(new HitQueue(numHits, true));
+    this.totalHitsThreshold = totalHitsThreshold;
     // HitQueue implements getSentinelObject to return a ScoreDoc, so we know
     // that at this point top() is already initialized.
     pqTop = pq.top();
   }
 
+  /** Let the scorer skip over documents that cannot compete with the
+   *  current top hits once enough hits have been counted. */
+  void updateMinCompetitiveScore(Scorer scorer) throws IOException {
+    // sentinel objects have a score of -Infinity, so the queue is full when
+    // the top has a greater score
+    if (totalHits >= totalHitsThreshold && pqTop.score != Float.NEGATIVE_INFINITY
+        && scorer.setMinCompetitiveScore(pqTop.score)) {
+      // from now on, hits may be skipped
+      totalHitsRelation = TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+    }
+  }
+
   @Override
   protected TopDocs newTopDocs(ScoreDoc[] results, int start) {
     if (results == null) {
@@ -205,7 +267,7 @@ public abstract class TopScoreDocCollector extends TopDocsCollector<ScoreDoc> {
       maxScore = pq.pop().score;
     }
 
-    return new TopDocs(totalHits, results, maxScore);
+    return new TopDocs(totalHits, totalHitsRelation, results, maxScore);
   }
 
   @Override
@@ -18,6 +18,7 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Set;
 
 import org.apache.lucene.index.IndexReaderContext;
@@ -158,9 +159,15 @@ public abstract class Weight {
   /** Just wraps a Scorer and performs top scoring using it.
    *  @lucene.internal */
   protected static class DefaultBulkScorer extends BulkScorer {
+    // number of doc IDs that are pulled at once from iterators whose scores do not depend on the current doc
+    private static final int WINDOW_SIZE = 128;
+
     private final Scorer scorer;
     private final DocIdSetIterator iterator;
     private final TwoPhaseIterator twoPhase;
+    // non-null if matches can be consumed in windows
+    private final WindowScorer windowScorer;
+    private int[] docBuffer;
 
     /** Sole constructor. */
     public DefaultBulkScorer(Scorer scorer) {
@@ -170,6 +177,11 @@ public abstract class Weight {
       this.scorer = scorer;
       this.iterator = scorer.iterator();
       this.twoPhase = scorer.twoPhaseIterator();
+      if (twoPhase == null && scorer instanceof ConstantScoreScorer) {
+        windowScorer = new WindowScorer(scorer);
+      } else {
+        windowScorer = null;
+      }
     }
 
     @Override
@@ -179,9 +191,20 @@ public abstract class Weight {
 
     @Override
     public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+      if (windowScorer != null) {
+        collector.setScorer(windowScorer);
+        if (collector.competitiveIterator() == null) {
+          return scoreWindows(collector, acceptDocs, min, max);
+        }
+      }
       collector.setScorer(scorer);
+      final DocIdSetIterator competitiveIterator = collector.competitiveIterator();
       if (scorer.docID() == -1 && min == 0 && max == DocIdSetIterator.NO_MORE_DOCS) {
-        scoreAll(collector, iterator, twoPhase, acceptDocs);
+        if (competitiveIterator == null) {
+          scoreAll(collector, iterator, twoPhase, acceptDocs);
+        } else {
+          scoreAllCompetitive(collector, iterator, twoPhase, competitiveIterator, acceptDocs);
+        }
         return DocIdSetIterator.NO_MORE_DOCS;
       } else {
         int doc = scorer.docID();
@@ -192,8 +215,39 @@ public abstract class Weight {
             doc = twoPhase.approximation().advance(min);
           }
         }
-        return scoreRange(collector, iterator, twoPhase, acceptDocs, doc, max);
+        if (competitiveIterator == null) {
+          return scoreRange(collector, iterator, twoPhase, acceptDocs, doc, max);
+        } else {
+          return scoreRangeCompetitive(collector, iterator, twoPhase, competitiveIterator, acceptDocs, doc, max);
+        }
+      }
+    }
+
+    /** Score a range of hits by pulling windows of doc IDs from the iterator
+     *  with {@link DocIdSetIterator#nextDocs}. This is only used when the score
+     *  does not depend on the current doc, since the iterator is ahead of the
+     *  collected doc. */
+    private int scoreWindows(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+      if (docBuffer == null) {
+        docBuffer = new int[WINDOW_SIZE];
+      }
+      windowScorer.score = scorer.score();
+      int doc = iterator.docID();
+      if (doc < min) {
+        doc = iterator.advance(min);
+      }
+      while (doc < max) {
+        final int count = iterator.nextDocs(max, docBuffer);
+        for (int i = 0; i < count; ++i) {
+          final int d = docBuffer[i];
+          if (acceptDocs == null || acceptDocs.get(d)) {
+            windowScorer.doc = d;
+            collector.collect(d);
+          }
+        }
+        doc = iterator.docID();
       }
+      return doc;
     }
 
     /** Specialized method to bulk-score a range of hits; we
@@ -243,6 +297,108 @@ public abstract class Weight {
         }
       }
     }
+
+    /** Same as {@link #scoreAll} but skips documents that are not matched
+     *  by the collector's {@link LeafCollector#competitiveIterator()
+     *  competitive iterator}. Both iterators lead in turn since the
+     *  competitive iterator may become more selective over time. */
+    static void scoreAllCompetitive(LeafCollector collector, DocIdSetIterator iterator, TwoPhaseIterator twoPhase,
+        DocIdSetIterator competitiveIterator, Bits acceptDocs) throws IOException {
+      final DocIdSetIterator approximation = twoPhase == null ? iterator : twoPhase.approximation();
+      int doc = approximation.nextDoc();
+      while (doc != DocIdSetIterator.NO_MORE_DOCS) {
+        int competitiveDoc = competitiveIterator.docID();
+        if (competitiveDoc < doc) {
+          competitiveDoc = competitiveIterator.advance(doc);
+        }
+        if (competitiveDoc != doc) {
+          if (competitiveDoc == DocIdSetIterator.NO_MORE_DOCS) {
+            break;
+          }
+          doc = approximation.advance(competitiveDoc);
+          continue;
+        }
+        if ((acceptDocs == null || acceptDocs.get(doc)) && (twoPhase == null || twoPhase.matches())) {
+          collector.collect(doc);
+        }
+        doc = approximation.nextDoc();
+      }
+    }
+
+    /** Same as {@link #scoreRange} but skips documents that are not matched
+     *  by the collector's {@link LeafCollector#competitiveIterator()
+     *  competitive iterator}, so that skipping also works when documents are
+     *  scored in windows, for instance to check a query timeout. Documents
+     *  that the competitive iterator skips are never competitive again, so
+     *  the iterator may move past the end of the window. */
+    static int scoreRangeCompetitive(LeafCollector collector, DocIdSetIterator iterator, TwoPhaseIterator twoPhase,
+        DocIdSetIterator competitiveIterator, Bits acceptDocs, int currentDoc, int end) throws IOException {
+      final DocIdSetIterator approximation = twoPhase == null ? iterator : twoPhase.approximation();
+      int doc = currentDoc;
+      while (doc < end) {
+        int competitiveDoc = competitiveIterator.docID();
+        if (competitiveDoc < doc) {
+          competitiveDoc = competitiveIterator.advance(doc);
+        }
+        if (competitiveDoc != doc) {
+          if (competitiveDoc == DocIdSetIterator.NO_MORE_DOCS) {
+            return DocIdSetIterator.NO_MORE_DOCS;
+          }
+          doc = approximation.advance(competitiveDoc);
+          continue;
+        }
+        if ((acceptDocs == null || acceptDocs.get(doc)) && (twoPhase == null || twoPhase.matches())) {
+          collector.collect(doc);
+        }
+        doc = approximation.nextDoc();
+      }
+      return doc;
+    }
+
+    /** A {@link Scorer} that is exposed to collectors when matches are
+     *  consumed in windows: it reports the doc being collected rather than
+     *  the doc the iterator is positioned on. */
+    private static final class WindowScorer extends Scorer {
+
+      private final Scorer in;
+      float score;
+      int doc = -1;
+
+      WindowScorer(Scorer in) {
+        super(in.getWeight());
+        this.in = in;
+      }
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public float score() {
+        return score;
+      }
+
+      @Override
+      public float maxScore() {
+        return score;
+      }
+
+      @Override
+      public int freq() {
+        return 1;
+      }
+
+      @Override
+      public DocIdSetIterator iterator() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Collection<ChildScorer> getChildren() {
+        return in.getChildren();
+      }
+    }
   }
 
 }
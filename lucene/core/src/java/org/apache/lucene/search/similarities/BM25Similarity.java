@@ -252,6 +252,15 @@ public class BM25Similarity extends Similarity {
       }
       return weightValue * freq / (freq + norm);
     }
+
+    @Override
+    public float maxScore(float maxFreq) {
+      // the score increases with the freq and decreases with the norm
+      final float minNorm = norms == null ? k1 : stats.minCache;
+      final double maxScore = (double) weightValue * maxFreq / (maxFreq + minNorm);
+      // leave some room for the rounding errors of score()
+      return (float) (maxScore * (1 + 1e-6));
+    }
     
     @Override
     public Explanation explain(int doc, Explanation freq) throws IOException {
@@ -283,6 +292,8 @@ public class BM25Similarity extends Similarity {
     private final String field;
     /** precomputed norm[256] with k1 * ((1 - b) + b * dl / avgdl) */
     private final float cache[];
+    /** minimum value of {@link #cache} */
+    private final float minCache;
 
     BM25Stats(String field, float boost, Explanation idf, float avgdl, float cache[]) {
       this.field = field;
@@ -290,6 +301,11 @@ public class BM25Similarity extends Similarity {
       this.idf = idf;
       this.avgdl = avgdl;
       this.cache = cache;
+      float minCache = Float.POSITIVE_INFINITY;
+      for (float norm : cache) {
+        minCache = Math.min(minCache, norm);
+      }
+      this.minCache = minCache;
       this.weight = idf.getValue() * boost;
     }
 
@@ -163,6 +163,18 @@ public abstract class Similarity {
      */
     public abstract float score(int doc, float freq) throws IOException;
 
+    /**
+     * Return an upper bound of the scores that {@link #score(int, float)}
+     * may return for any document of the segment, given that the frequency
+     * will never exceed {@code maxFreq}. The default implementation returns
+     * {@link Float#POSITIVE_INFINITY}, which disables optimizations that
+     * skip non-competitive documents.
+     * @lucene.experimental
+     */
+    public float maxScore(float maxFreq) {
+      return Float.POSITIVE_INFINITY;
+    }
+
     /** Computes the amount of a sloppy phrase match, based on an edit distance. */
     public abstract float computeSlopFactor(int distance);
     
@@ -21,6 +21,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
 
 /**
  * Base IndexInput implementation that uses an array
@@ -44,13 +45,20 @@ abstract class ByteBufferIndexInput extends IndexInput implements RandomAccessIn
   protected ByteBuffer curBuf; // redundant for speed: buffers[curBufIndex]
 
   protected boolean isClone = false;
+
+  /** Runs prefetching of pages, or null if prefetch hints are ignored */
+  private Executor prefetchExecutor;
   
-  public static ByteBufferIndexInput newInstance(String resourceDescription, ByteBuffer[] buffers, long length, int chunkSizePower, ByteBufferGuard guard) {
+  public static ByteBufferIndexInput newInstance(String resourceDescription, ByteBuffer[] buffers, long length, int chunkSizePower,
+      ByteBufferGuard guard, Executor prefetchExecutor) {
+    final ByteBufferIndexInput input;
     if (buffers.length == 1) {
-      return new SingleBufferImpl(resourceDescription, buffers[0], length, chunkSizePower, guard);
+      input = new SingleBufferImpl(resourceDescription, buffers[0], length, chunkSizePower, guard);
     } else {
-      return new MultiBufferImpl(resourceDescription, buffers, 0, length, chunkSizePower, guard);
+      input = new MultiBufferImpl(resourceDescription, buffers, 0, length, chunkSizePower, guard);
     }
+    input.prefetchExecutor = prefetchExecutor;
+    return input;
   }
   
   ByteBufferIndexInput(String resourceDescription, ByteBuffer[] buffers, long length, int chunkSizePower, ByteBufferGuard guard) {
@@ -268,6 +276,40 @@ abstract class ByteBufferIndexInput extends IndexInput implements RandomAccessIn
     return buildSlice(sliceDescription, offset, length);
   }
 
+  /**
+   * Touches one byte of every page of the given range from the prefetch
+   * executor, so that the OS loads these pages into the page cache while
+   * the calling thread goes on.
+   */
+  @Override
+  public final void prefetch(long offset, long length) throws IOException {
+    if (offset < 0 || length < 0 || offset+length > this.length) {
+      throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length + ": "  + this);
+    }
+    final Executor executor = prefetchExecutor;
+    if (executor == null || length == 0) {
+      return;
+    }
+    executor.execute(() -> {
+      try {
+        // like MappedByteBuffer.load(), accumulate bytes so that reads are not optimized away
+        byte x = 0;
+        for (long pos = offset, end = offset + length; pos < end; pos += PREFETCH_PAGE_SIZE) {
+          x ^= readByte(pos);
+        }
+        x ^= readByte(offset + length - 1);
+        prefetchSink = x;
+      } catch (IOException | AlreadyClosedException e) {
+        // this is only a hint; note that the check for closed inputs is best
+        // effort, see MMapDirectory#setPrefetchExecutor
+      }
+    });
+  }
+
+  private static final int PREFETCH_PAGE_SIZE = 4096;
+  @SuppressWarnings("unused")
+  private static byte prefetchSink;
+
   /** Builds the actual sliced IndexInput (may apply extra offset in subclasses). **/
   protected ByteBufferIndexInput buildSlice(String sliceDescription, long offset, long length) {
     if (buffers == null) {
@@ -279,6 +321,7 @@ abstract class ByteBufferIndexInput extends IndexInput implements RandomAccessIn
     
     final ByteBufferIndexInput clone = newCloneInstance(getFullSliceDescription(sliceDescription), newBuffers, ofs, length);
     clone.isClone = true;
+    clone.prefetchExecutor = prefetchExecutor;
     
     return clone;
   }
@@ -102,6 +102,20 @@ public abstract class IndexInput extends DataInput implements Cloneable,Closeabl
    */
   public abstract IndexInput slice(String sliceDescription, long offset, long length) throws IOException;
 
+  /**
+   * Optional hint that the given range of bytes of this index input will be
+   * read soon. Implementations may start loading these bytes asynchronously
+   * so that the subsequent reads do not have to wait for the disk. This does
+   * not change the file pointer.
+   * <p>
+   * The default implementation does nothing.
+   * @param offset start of the range, relative to the beginning of this input
+   * @param length length of the range
+   * @lucene.experimental
+   */
+  public void prefetch(long offset, long length) throws IOException {
+  }
+
   /** Subclasses call this to get the String for resourceDescription of a slice of this {@code IndexInput}. */
   protected String getFullSliceDescription(String sliceDescription) {
     if (sliceDescription == null) {
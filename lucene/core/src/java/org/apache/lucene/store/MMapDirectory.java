@@ -32,6 +32,7 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
@@ -93,6 +94,7 @@ import org.apache.lucene.util.SuppressForbidden;
 public class MMapDirectory extends FSDirectory {
   private boolean useUnmapHack = UNMAP_SUPPORTED;
   private boolean preload;
+  private Executor prefetchExecutor;
 
   /** 
    * Default max chunk size.
@@ -220,6 +222,37 @@ public class MMapDirectory extends FSDirectory {
   public boolean getPreload() {
     return preload;
   }
+
+  /**
+   * Set the {@link Executor} that handles {@link IndexInput#prefetch} hints
+   * of inputs opened by this directory, by touching the mapped pages of the
+   * hinted ranges so that the operating system loads them into physical
+   * memory while the caller keeps going. This can reduce latency of queries
+   * that run on a cold page cache, eg. right after startup. The default,
+   * {@code null}, ignores prefetch hints.
+   * <p><b>NOTE:</b> Prefetch tasks read the mapped buffers after
+   * {@link IndexInput#prefetch} has returned, so a task may still be pending
+   * or running when its input gets closed. If {@link #getUseUnmap() unmapping}
+   * is enabled, such a task may then access unmapped memory, which can crash
+   * the JVM: the check for closed inputs is only best effort and does not
+   * protect against this race. Applications that close readers while queries
+   * may be running should either disable unmapping or make sure that all
+   * submitted tasks have completed before closing inputs, eg. by shutting down
+   * and awaiting termination of the executor first.
+   * <p>This only applies to inputs that are opened after this call.
+   * @lucene.experimental
+   */
+  public void setPrefetchExecutor(Executor prefetchExecutor) {
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  /**
+   * Returns the {@link Executor} that handles prefetch hints, or {@code null}.
+   * @see #setPrefetchExecutor
+   */
+  public Executor getPrefetchExecutor() {
+    return prefetchExecutor;
+  }
   
   /**
    * Returns the current mmap chunk size.
@@ -240,7 +273,7 @@ public class MMapDirectory extends FSDirectory {
       final boolean useUnmap = getUseUnmap();
       return ByteBufferIndexInput.newInstance(resourceDescription,
           map(resourceDescription, c, 0, c.size()), 
-          c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null));
+          c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null), prefetchExecutor);
     }
   }
 
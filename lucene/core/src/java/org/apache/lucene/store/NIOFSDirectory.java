@@ -23,6 +23,7 @@ import java.nio.channels.ClosedChannelException; // javadoc @link
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future; // javadoc
 
 /**
@@ -73,13 +74,38 @@ public class NIOFSDirectory extends FSDirectory {
     this(path, FSLockFactory.getDefault());
   }
 
+  private Executor prefetchExecutor;
+
+  /**
+   * Set the {@link Executor} that handles {@link IndexInput#prefetch} hints
+   * of inputs opened by this directory, by reading the hinted ranges so that
+   * the operating system loads them into its cache while the caller keeps
+   * going. This can reduce latency of queries that run on a cold cache, eg.
+   * right after startup. The default, {@code null}, ignores prefetch hints.
+   * <p><b>NOTE:</b> The threads of this executor must never be interrupted,
+   * see the note about {@link Thread#interrupt()} on this class.
+   * <p>This only applies to inputs that are opened after this call.
+   * @lucene.experimental
+   */
+  public void setPrefetchExecutor(Executor prefetchExecutor) {
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  /**
+   * Returns the {@link Executor} that handles prefetch hints, or {@code null}.
+   * @see #setPrefetchExecutor
+   */
+  public Executor getPrefetchExecutor() {
+    return prefetchExecutor;
+  }
+
   @Override
   public IndexInput openInput(String name, IOContext context) throws IOException {
     ensureOpen();
     ensureCanRead(name);
     Path path = getDirectory().resolve(name);
     FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
-    return new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context);
+    return new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context, prefetchExecutor);
   }
   
   /**
@@ -100,21 +126,34 @@ public class NIOFSDirectory extends FSDirectory {
     /** end offset (start+length) */
     protected final long end;
     
+    /** runs prefetching, or null if prefetch hints are ignored */
+    private final Executor prefetchExecutor;
+    
     private ByteBuffer byteBuf; // wraps the buffer for NIO
 
     public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context) throws IOException {
+      this(resourceDesc, fc, context, null);
+    }
+    
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize) {
+      this(resourceDesc, fc, off, length, bufferSize, null);
+    }
+    
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context, Executor prefetchExecutor) throws IOException {
       super(resourceDesc, context);
       this.channel = fc; 
       this.off = 0L;
       this.end = fc.size();
+      this.prefetchExecutor = prefetchExecutor;
     }
     
-    public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize) {
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize, Executor prefetchExecutor) {
       super(resourceDesc, bufferSize);
       this.channel = fc;
       this.off = off;
       this.end = off + length;
       this.isClone = true;
+      this.prefetchExecutor = prefetchExecutor;
     }
     
     @Override
@@ -136,7 +175,7 @@ public class NIOFSDirectory extends FSDirectory {
       if (offset < 0 || length < 0 || offset + length > this.length()) {
         throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length() + ": "  + this);
       }
-      return new NIOFSIndexInput(getFullSliceDescription(sliceDescription), channel, off + offset, length, getBufferSize());
+      return new NIOFSIndexInput(getFullSliceDescription(sliceDescription), channel, off + offset, length, getBufferSize(), prefetchExecutor);
     }
 
     @Override
@@ -144,6 +183,37 @@ public class NIOFSDirectory extends FSDirectory {
       return end - off;
     }
 
+    /**
+     * Reads the given range through the channel from the prefetch executor,
+     * so that the OS loads it into its cache while the calling thread goes on.
+     */
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset + length > this.length()) {
+        throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length() + ": "  + this);
+      }
+      final Executor executor = prefetchExecutor;
+      if (executor == null || length == 0) {
+        return;
+      }
+      final long start = off + offset;
+      executor.execute(() -> {
+        final ByteBuffer bb = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, length));
+        try {
+          for (long pos = start, end = start + length; pos < end; ) {
+            bb.clear().limit((int) Math.min(bb.capacity(), end - pos));
+            final int i = channel.read(bb, pos);
+            if (i < 0) {
+              break;
+            }
+            pos += i;
+          }
+        } catch (IOException e) {
+          // this is only a hint
+        }
+      });
+    }
+
     @Override
     protected void newBuffer(byte[] newBuffer) {
       super.newBuffer(newBuffer);
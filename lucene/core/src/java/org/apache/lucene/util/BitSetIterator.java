@@ -17,6 +17,8 @@
 package org.apache.lucene.util;
 
 
+import java.io.IOException;
+
 import org.apache.lucene.search.DocIdSetIterator;
 
 /**
@@ -90,6 +92,39 @@ public class BitSetIterator extends DocIdSetIterator {
     return doc = bits.nextSetBit(target);
   }
 
+  @Override
+  public int nextDocs(int upTo, int[] docs) throws IOException {
+    if (bits instanceof FixedBitSet == false) {
+      return super.nextDocs(upTo, docs);
+    }
+    assert doc != -1;
+    if (doc >= upTo) {
+      return 0;
+    }
+    // iterate over the set bits of the underlying words directly
+    final long[] words = ((FixedBitSet) bits).getBits();
+    final int numWords = FixedBitSet.bits2words(length);
+    int i = doc >> 6;
+    long word = words[i] & (-1L << doc);
+    int count = 0;
+    for (;;) {
+      while (word == 0) {
+        if (++i >= numWords) {
+          doc = NO_MORE_DOCS;
+          return count;
+        }
+        word = words[i];
+      }
+      final int d = (i << 6) | Long.numberOfTrailingZeros(word);
+      if (d >= upTo || count == docs.length) {
+        doc = d;
+        return count;
+      }
+      docs[count++] = d;
+      word &= word - 1;
+    }
+  }
+
   @Override
   public long cost() {
     return cost;
@@ -154,6 +154,11 @@ public final class DocIdSetBuilder {
     }
     int cost = (int) Math.min(Integer.MAX_VALUE, iter.cost());
     BulkAdder adder = grow(cost);
+    if (bitSet != null) {
+      // we just upgraded to a bit set, which can consume the iterator in bulk
+      bitSet.or(iter);
+      return;
+    }
     for (int i = 0; i < cost; ++i) {
       int doc = iter.nextDoc();
       if (doc == DocIdSetIterator.NO_MORE_DOCS) {
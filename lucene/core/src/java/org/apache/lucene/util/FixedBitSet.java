@@ -20,6 +20,7 @@ package org.apache.lucene.util;
 import java.io.IOException;
 import java.util.Arrays;
 
+import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
 
@@ -267,6 +268,10 @@ public final class FixedBitSet extends BitSet implements MutableBits, Accountabl
       assertUnpositioned(iter);
       final FixedBitSet bits = BitSetIterator.getFixedBitSetOrNull(iter); 
       or(bits);
+    } else if (iter instanceof PostingsEnum) {
+      assertUnpositioned(iter);
+      // postings may be decoded directly into this bit set
+      ((PostingsEnum) iter).orInto(this);
     } else {
       super.or(iter);
     }
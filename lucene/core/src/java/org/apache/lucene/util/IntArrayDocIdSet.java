@@ -79,6 +79,18 @@ final class IntArrayDocIdSet extends DocIdSet {
       return doc = docs[i];
     }
 
+    @Override
+    public int nextDocs(int upTo, int[] buffer) throws IOException {
+      assert doc != -1;
+      // docs is terminated with NO_MORE_DOCS so there is no need to check bounds
+      int count = 0;
+      while (doc < upTo && count < buffer.length) {
+        buffer[count++] = doc;
+        doc = docs[++i];
+      }
+      return count;
+    }
+
     @Override
     public long cost() {
       return length;
@@ -30,6 +30,7 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.InputStreamDataInput;
 import org.apache.lucene.store.OutputStreamDataOutput;
 import org.apache.lucene.store.RAMOutputStream;
@@ -150,6 +151,10 @@ public final class FST<T> implements Accountable {
   /** Used at read time when the FST fits into a single byte[]. */
   final byte[] bytesArray;
 
+  /** Used at read time when the FST is read off-heap: a slice of
+   *  the input it was loaded from. */
+  private final IndexInput offHeapBytes;
+
   private long startNode = -1;
 
   public final Outputs<T> outputs;
@@ -265,6 +270,7 @@ public final class FST<T> implements Accountable {
     this.outputs = outputs;
     version = VERSION_CURRENT;
     bytesArray = null;
+    offHeapBytes = null;
     bytes = new BytesStore(bytesPageBits);
     // pad: ensure no node gets address 0 which is reserved to mean
     // the stop state w/ no arcs
@@ -283,6 +289,22 @@ public final class FST<T> implements Accountable {
   /** Load a previously saved FST; maxBlockBits allows you to
    *  control the size of the byte[] pages used to hold the FST bytes. */
   public FST(DataInput in, Outputs<T> outputs, int maxBlockBits) throws IOException {
+    this(in, outputs, maxBlockBits, null);
+  }
+
+  /** Load a previously saved FST. If {@code offHeap} is true, the
+   *  FST bytes are not loaded on heap: arcs are read directly from
+   *  a slice of {@code in}, which must hence remain open as long as
+   *  this FST is used. This saves heap and makes loading faster, at
+   *  the expense of slower lookups unless {@code in} comes from a
+   *  directory that supports fast random access like
+   *  {@link org.apache.lucene.store.MMapDirectory}.
+   *  @lucene.experimental */
+  public FST(IndexInput in, Outputs<T> outputs, boolean offHeap) throws IOException {
+    this(in, outputs, DEFAULT_MAX_BLOCK_BITS, offHeap ? in : null);
+  }
+
+  private FST(DataInput in, Outputs<T> outputs, int maxBlockBits, IndexInput offHeapIn) throws IOException {
     this.outputs = outputs;
 
     if (maxBlockBits < 1 || maxBlockBits > 30) {
@@ -338,15 +360,24 @@ public final class FST<T> implements Accountable {
     }
 
     long numBytes = in.readVLong();
-    if (numBytes > 1 << maxBlockBits) {
+    if (offHeapIn != null) {
+      // FST is read in place: only keep a slice of the input
+      final long startFP = offHeapIn.getFilePointer();
+      offHeapBytes = offHeapIn.slice("fst", startFP, numBytes);
+      offHeapIn.seek(startFP + numBytes);
+      bytes = null;
+      bytesArray = null;
+    } else if (numBytes > 1 << maxBlockBits) {
       // FST is big: we need multiple pages
       bytes = new BytesStore(in, numBytes, 1<<maxBlockBits);
       bytesArray = null;
+      offHeapBytes = null;
     } else {
       // FST fits into a single block: use ByteArrayBytesStoreReader for less overhead
       bytes = null;
       bytesArray = new byte[(int) numBytes];
       in.readBytes(bytesArray, 0, bytesArray.length);
+      offHeapBytes = null;
     }
     
     cacheRootArcs();
@@ -382,7 +413,7 @@ public final class FST<T> implements Accountable {
     long size = BASE_RAM_BYTES_USED;
     if (bytesArray != null) {
       size += bytesArray.length;
-    } else {
+    } else if (bytes != null) {
       size += bytes.ramBytesUsed();
     }
     size += cachedArcsBytesUsed;
@@ -502,10 +533,15 @@ public final class FST<T> implements Accountable {
       long numBytes = bytes.getPosition();
       out.writeVLong(numBytes);
       bytes.writeTo(out);
-    } else {
-      assert bytesArray != null;
+    } else if (bytesArray != null) {
       out.writeVLong(bytesArray.length);
       out.writeBytes(bytesArray, 0, bytesArray.length);
+    } else {
+      assert offHeapBytes != null;
+      final IndexInput clone = offHeapBytes.clone();
+      clone.seek(0);
+      out.writeVLong(clone.length());
+      out.copyBytes(clone, clone.length());
     }
   }
   
@@ -1206,6 +1242,8 @@ public final class FST<T> implements Accountable {
   public BytesReader getBytesReader() {
     if (bytesArray != null) {
       return new ReverseBytesReader(bytesArray);
+    } else if (offHeapBytes != null) {
+      return new ReverseRandomAccessReader(offHeapBytes);
     } else {
       return bytes.getReverseReader();
     }
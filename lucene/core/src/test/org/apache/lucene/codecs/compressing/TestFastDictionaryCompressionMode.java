@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class TestFastDictionaryCompressionMode extends AbstractTestCompressionMode {
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    mode = CompressionMode.FAST_DICTIONARY;
+  }
+
+  public void testSimilarDocuments() throws IOException {
+    final int numDocs = atLeast(1000);
+    final int[] offsets = new int[numDocs + 1];
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < numDocs; ++i) {
+      sb.append("{\"id\":").append(i)
+        .append(",\"category\":\"").append(random().nextBoolean() ? "books" : "music")
+        .append("\",\"price\":").append(random().nextInt(1000)).append("}");
+      offsets[i + 1] = sb.length();
+    }
+    final byte[] decompressed = sb.toString().getBytes(StandardCharsets.US_ASCII);
+    final byte[] compressed = compress(decompressed, 0, decompressed.length);
+    assertTrue(compressed.length < decompressed.length);
+
+    // every document can be decompressed without decompressing the whole chunk
+    for (int i = 0; i < numDocs; ++i) {
+      final int offset = offsets[i];
+      final int length = offsets[i + 1] - offset;
+      assertArrayEquals(Arrays.copyOfRange(decompressed, offset, offset + length),
+          decompress(compressed, decompressed.length, offset, length));
+    }
+  }
+}
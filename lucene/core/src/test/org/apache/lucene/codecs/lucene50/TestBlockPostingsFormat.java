@@ -19,6 +19,8 @@ package org.apache.lucene.codecs.lucene50;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.document.Document;
@@ -27,7 +29,16 @@ import org.apache.lucene.index.BasePostingsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.TestUtil;
 
 /**
@@ -65,6 +76,91 @@ public class TestBlockPostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  /** Make sure decoding postings directly into a bit set gives the same result as iterating them. */
+  public void testOrInto() throws Exception {
+    Directory d = newDirectory();
+    IndexWriter w = new IndexWriter(d, new IndexWriterConfig(new MockAnalyzer(random())).setCodec(codec));
+    final int numDocs = atLeast(2000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      // a mix of terms that have full blocks, vint-encoded tail blocks and singletons
+      doc.add(newStringField("field", Integer.toString(random().nextInt(1 + random().nextInt(1000))), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    DirectoryReader r = DirectoryReader.open(w);
+    for (LeafReaderContext context : r.leaves()) {
+      final int maxDoc = context.reader().maxDoc();
+      TermsEnum termsEnum = context.reader().terms("field").iterator();
+      for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+        final int flags = random().nextBoolean() ? PostingsEnum.NONE : PostingsEnum.FREQS;
+        PostingsEnum expected = termsEnum.postings(null, flags);
+        PostingsEnum actual = termsEnum.postings(null, flags);
+        if (random().nextBoolean()) {
+          // start from a positioned enum
+          final int target = random().nextInt(maxDoc);
+          expected.advance(target);
+          actual.advance(target);
+        }
+        final FixedBitSet expectedBits = new FixedBitSet(maxDoc);
+        if (expected.docID() != DocIdSetIterator.NO_MORE_DOCS) {
+          for (int doc = expected.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = expected.nextDoc()) {
+            expectedBits.set(doc);
+          }
+          final FixedBitSet actualBits = new FixedBitSet(maxDoc);
+          actual.orInto(actualBits);
+          assertEquals(expectedBits, actualBits);
+          assertEquals(DocIdSetIterator.NO_MORE_DOCS, actual.docID());
+        }
+      }
+    }
+    r.close();
+    w.close();
+    d.close();
+  }
+
+  /** Make sure the default options keep writing the initial version, and that
+   *  other options are recorded after the header of the .doc file. */
+  public void testPostingsOptions() throws Exception {
+    final boolean longLanes = random().nextBoolean();
+    final int maxInlinedDocFreq = random().nextBoolean() ? 0 : TestUtil.nextInt(random(), 2, Lucene50PostingsFormat.BLOCK_SIZE - 1);
+    final Lucene50PostingsFormat format = new Lucene50PostingsFormat(
+        BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE, BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE, longLanes, maxInlinedDocFreq);
+    Directory d = newDirectory();
+    IndexWriter w = new IndexWriter(d, new IndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.alwaysPostingsFormat(format))
+        .setUseCompoundFile(false));
+    Document doc = new Document();
+    doc.add(newStringField("field", "value", Field.Store.NO));
+    w.addDocument(doc);
+    w.commit();
+    w.close();
+
+    int numDocFiles = 0;
+    for (String file : d.listAll()) {
+      if (file.endsWith("." + Lucene50PostingsFormat.DOC_EXTENSION) == false) {
+        continue;
+      }
+      numDocFiles++;
+      try (IndexInput in = d.openInput(file, IOContext.READONCE)) {
+        final int version = CodecUtil.checkHeader(in, Lucene50PostingsFormat.DOC_CODEC,
+            Lucene50PostingsFormat.VERSION_START, Lucene50PostingsFormat.VERSION_CURRENT);
+        if (longLanes == false && maxInlinedDocFreq == 0) {
+          assertEquals(Lucene50PostingsFormat.VERSION_START, version);
+        } else {
+          assertEquals(Lucene50PostingsFormat.VERSION_POSTINGS_OPTIONS, version);
+          // skip the segment id and the suffix of the index header
+          in.seek(in.getFilePointer() + StringHelper.ID_LENGTH);
+          final int suffixLength = in.readByte() & 0xFF;
+          in.seek(in.getFilePointer() + suffixLength);
+          assertEquals(longLanes ? Lucene50PostingsFormat.FLAG_LONG_LANES : 0, in.readByte());
+          assertEquals(maxInlinedDocFreq, in.readVInt());
+        }
+      }
+    }
+    assertEquals(1, numDocFiles);
+    d.close();
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     expectThrows(IllegalArgumentException.class, () -> {
       new Lucene50PostingsFormat(minItemsInBlock, maxItemsInBlock);
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsWriter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.BasePostingsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests BlockPostingsFormat with bloom filters of the terms
+ */
+public class TestBlockPostingsFormatTermsBloomFilter extends BasePostingsFormatTestCase {
+  private final Codec codec = TestUtil.alwaysPostingsFormat(new Lucene50PostingsFormat(
+      BlockTreeTermsWriter.DEFAULT_MIN_BLOCK_SIZE, BlockTreeTermsWriter.DEFAULT_MAX_BLOCK_SIZE,
+      false, 0, random().nextBoolean(), true));
+
+  @Override
+  protected Codec getCodec() {
+    return codec;
+  }
+
+  public void testPrimaryKeyLookups() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(null);
+    iwc.setCodec(codec);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(1000);
+    Set<String> ids = new HashSet<>();
+    for (int i = 0; i < numDocs; ++i) {
+      String id = Integer.toString(random().nextInt(numDocs * 2), Character.MAX_RADIX);
+      ids.add(id);
+      Document doc = new Document();
+      doc.add(new StringField("id", id, Field.Store.NO));
+      w.updateDocument(new Term("id", id), doc);
+      if (random().nextInt(100) == 0) {
+        w.commit();
+      }
+    }
+    if (random().nextBoolean()) {
+      w.forceMerge(1);
+    }
+    DirectoryReader reader = DirectoryReader.open(w);
+    w.close();
+    assertEquals(ids.size(), reader.numDocs());
+
+    for (LeafReaderContext ctx : reader.leaves()) {
+      Terms terms = ctx.reader().terms("id");
+      Set<String> segmentIds = new HashSet<>();
+      TermsEnum te = terms.iterator();
+      for (BytesRef term = te.next(); term != null; term = te.next()) {
+        segmentIds.add(term.utf8ToString());
+      }
+      te = terms.iterator();
+      for (int i = 0; i < numDocs * 2; ++i) {
+        String id = Integer.toString(random().nextInt(numDocs * 4), Character.MAX_RADIX);
+        BytesRef target = new BytesRef(id);
+        boolean found = te.seekExact(target);
+        assertEquals(id, segmentIds.contains(id), found);
+        if (found) {
+          assertEquals(target, te.term());
+        }
+      }
+    }
+    reader.close();
+    dir.close();
+  }
+}
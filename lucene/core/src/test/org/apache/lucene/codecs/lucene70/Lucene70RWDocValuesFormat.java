@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene70;
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.DocValuesConsumer;
+import org.apache.lucene.codecs.DocValuesFormat;
+import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+
+/** Writes doc values the way {@link Lucene70DocValuesFormat} did before jump tables were added. */
+public class Lucene70RWDocValuesFormat extends DocValuesFormat {
+
+  /** Sole constructor */
+  public Lucene70RWDocValuesFormat() {
+    super("Lucene70");
+  }
+
+  @Override
+  public DocValuesConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+    return new Lucene70DocValuesConsumer(state,
+        Lucene70DocValuesFormat.DATA_CODEC, Lucene70DocValuesFormat.DATA_EXTENSION,
+        Lucene70DocValuesFormat.META_CODEC, Lucene70DocValuesFormat.META_EXTENSION,
+        Lucene70DocValuesFormat.VERSION_START);
+  }
+
+  @Override
+  public DocValuesProducer fieldsProducer(SegmentReadState state) throws IOException {
+    return new Lucene70DocValuesProducer(state,
+        Lucene70DocValuesFormat.DATA_CODEC, Lucene70DocValuesFormat.DATA_EXTENSION,
+        Lucene70DocValuesFormat.META_CODEC, Lucene70DocValuesFormat.META_EXTENSION);
+  }
+
+}
@@ -179,14 +179,17 @@ public class TestIndexedDISI extends LuceneTestCase {
 
   private void doTest(FixedBitSet set, Directory dir) throws IOException {
     final int cardinality = set.cardinality();
+    final boolean jumpTables = random().nextBoolean();
     long length;
+    int jumpTableEntryCount;
     try (IndexOutput out = dir.createOutput("foo", IOContext.DEFAULT)) {
-      IndexedDISI.writeBitSet(new BitSetIterator(set, cardinality), out);
+      jumpTableEntryCount = IndexedDISI.writeBitSet(new BitSetIterator(set, cardinality), out, jumpTables);
       length = out.getFilePointer();
     }
+    assertEquals(jumpTables, jumpTableEntryCount > 0);
 
     try (IndexInput in = dir.openInput("foo", IOContext.DEFAULT)) {
-      IndexedDISI disi = new IndexedDISI(in, 0L, length, cardinality);
+      IndexedDISI disi = new IndexedDISI(in, 0L, length, jumpTableEntryCount, cardinality);
       BitSetIterator disi2 = new BitSetIterator(set, cardinality);
       int i = 0;
       for (int doc = disi2.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = disi2.nextDoc()) {
@@ -198,7 +201,7 @@ public class TestIndexedDISI extends LuceneTestCase {
 
     for (int step : new int[] {1, 10, 100, 1000, 10000, 100000}) {
       try (IndexInput in = dir.openInput("foo", IOContext.DEFAULT)) {
-        IndexedDISI disi = new IndexedDISI(in, 0L, length, cardinality);
+        IndexedDISI disi = new IndexedDISI(in, 0L, length, jumpTableEntryCount, cardinality);
         BitSetIterator disi2 = new BitSetIterator(set, cardinality);
         int index = -1;
         while (true) {
@@ -219,7 +222,7 @@ public class TestIndexedDISI extends LuceneTestCase {
 
     for (int step : new int[] {10, 100, 1000, 10000, 100000}) {
       try (IndexInput in = dir.openInput("foo", IOContext.DEFAULT)) {
-        IndexedDISI disi = new IndexedDISI(in, 0L, length, cardinality);
+        IndexedDISI disi = new IndexedDISI(in, 0L, length, jumpTableEntryCount, cardinality);
         BitSetIterator disi2 = new BitSetIterator(set, cardinality);
         int index = -1;
         for (int target = 0; target < set.length(); ) {
@@ -30,6 +30,7 @@ import java.util.function.Supplier;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.asserting.AssertingCodec;
@@ -54,7 +55,10 @@ import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.SerialMergeScheduler;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
@@ -63,14 +67,19 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum.SeekStatus;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RAMFile;
 import org.apache.lucene.store.RAMInputStream;
 import org.apache.lucene.store.RAMOutputStream;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.packed.DirectWriter;
 
 /**
  * Tests Lucene70DocValuesFormat
@@ -686,4 +695,310 @@ public class TestLucene70DocValuesFormat extends BaseCompressingDocValuesFormatT
     ir.close();
     dir.close();
   }
+
+  /** Encoding of the numeric field of a single-segment index, as written to the doc values files. */
+  private static class NumericEncoding {
+    int tableSize;
+    int bitsPerValue;
+    long gcd;
+    long numValues;
+    long valuesLength;
+    // bits per value of every block, if the field uses the block encoding
+    final List<Integer> blockBitsPerValue = new ArrayList<>();
+
+    boolean isBlocks() {
+      return tableSize == -2 - Lucene70DocValuesFormat.NUMERIC_BLOCK_SHIFT;
+    }
+  }
+
+  /** Reads the encoding of the only doc values field of the only segment, which must be numeric. */
+  private static NumericEncoding readNumericEncoding(Directory dir) throws IOException {
+    SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+    assertEquals(1, infos.size());
+    SegmentInfo si = infos.info(0).info;
+    String metaName = null;
+    for (String file : si.files()) {
+      if (file.endsWith("." + Lucene70DocValuesFormat.META_EXTENSION)) {
+        assertNull(metaName);
+        metaName = file;
+      }
+    }
+    assertNotNull(metaName);
+    final String suffix = IndexFileNames.stripExtension(metaName).substring(si.name.length() + 1);
+
+    NumericEncoding encoding = new NumericEncoding();
+    long valuesOffset;
+    try (IndexInput meta = dir.openInput(metaName, IOContext.READONCE)) {
+      CodecUtil.checkIndexHeader(meta, Lucene70DocValuesFormat.META_CODEC,
+          Lucene70DocValuesFormat.VERSION_CURRENT, Lucene70DocValuesFormat.VERSION_CURRENT, si.getId(), suffix);
+      meta.readInt(); // field number
+      assertEquals(Lucene70DocValuesFormat.NUMERIC, meta.readByte());
+      meta.readLong(); // docsWithFieldOffset
+      meta.readLong(); // docsWithFieldLength
+      meta.readInt(); // jumpTableEntryCount
+      encoding.numValues = meta.readLong();
+      encoding.tableSize = meta.readInt();
+      for (int i = 0; i < encoding.tableSize; ++i) {
+        meta.readLong();
+      }
+      encoding.bitsPerValue = meta.readByte() & 0xFF;
+      meta.readLong(); // min
+      encoding.gcd = meta.readLong();
+      valuesOffset = meta.readLong();
+      encoding.valuesLength = meta.readLong();
+    }
+
+    if (encoding.isBlocks()) {
+      final String dataName = IndexFileNames.segmentFileName(si.name, suffix, Lucene70DocValuesFormat.DATA_EXTENSION);
+      try (IndexInput data = dir.openInput(dataName, IOContext.READONCE)) {
+        data.seek(valuesOffset);
+        while (data.getFilePointer() < valuesOffset + encoding.valuesLength) {
+          final int bitsPerValue = data.readByte() & 0xFF;
+          data.readLong(); // min
+          if (bitsPerValue != 0) {
+            final int length = data.readInt();
+            data.seek(data.getFilePointer() + length);
+          }
+          encoding.blockBitsPerValue.add(bitsPerValue);
+        }
+        assertEquals(valuesOffset + encoding.valuesLength, data.getFilePointer());
+      }
+    }
+    return encoding;
+  }
+
+  /** Writes the values to a single segment with one numeric doc values field, optionally sorted by that field. */
+  private Directory indexNumericValues(long[] values, boolean indexSort) throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = new IndexWriterConfig(null)
+        .setCodec(codec)
+        .setUseCompoundFile(false)
+        .setMaxBufferedDocs(values.length + 1)
+        .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    if (indexSort) {
+      conf.setIndexSort(new Sort(new SortField("dv", SortField.Type.LONG)));
+    }
+    IndexWriter writer = new IndexWriter(dir, conf);
+    for (long value : values) {
+      Document doc = new Document();
+      doc.add(new NumericDocValuesField("dv", value));
+      writer.addDocument(doc);
+    }
+    writer.close();
+    return dir;
+  }
+
+  @Slow
+  public void testIndexSortedFewDistinctValuesUseBlocks() throws IOException {
+    // ~200 distinct prices: the table encoding needs 8 bits per value, while
+    // each sorted block only covers about 8 distinct values
+    final int numBlocks = 24;
+    final int numDocs = numBlocks * Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE;
+    final long[] values = new long[numDocs];
+    for (int i = 0; i < numDocs; ++i) {
+      values[i] = 1000 + random().nextInt(200);
+    }
+    Directory dir = indexNumericValues(values, true);
+
+    NumericEncoding encoding = readNumericEncoding(dir);
+    assertTrue(encoding.isBlocks());
+    assertEquals(numDocs, encoding.numValues);
+    assertEquals(numBlocks, encoding.blockBitsPerValue.size());
+    for (int bitsPerValue : encoding.blockBitsPerValue) {
+      assertTrue(bitsPerValue < 8);
+    }
+    // the table encoding would take at least one byte per value
+    assertTrue(encoding.valuesLength < numDocs);
+
+    Arrays.sort(values);
+    try (DirectoryReader reader = DirectoryReader.open(dir)) {
+      NumericDocValues docValues = DocValues.getNumeric(getOnlyLeafReader(reader), "dv");
+      for (int i = 0; i < numDocs; ++i) {
+        assertEquals(i, docValues.nextDoc());
+        assertEquals(values[i], docValues.longValue());
+      }
+    }
+    dir.close();
+  }
+
+  public void testGcdClusteredTimestampsUseBlocks() throws IOException {
+    // one hour of timestamps rounded to seconds per block, on different days
+    final long gcd = 1000;
+    final long day = 86400 * gcd;
+    final long start = 1500000000L * gcd;
+    final int numBlocks = 4;
+    final long[] values = new long[numBlocks * Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE];
+    for (int i = 0; i < values.length; ++i) {
+      final int block = i >> Lucene70DocValuesFormat.NUMERIC_BLOCK_SHIFT;
+      values[i] = start + block * day + random().nextInt(3600) * gcd;
+    }
+    Directory dir = indexNumericValues(values, false);
+
+    NumericEncoding encoding = readNumericEncoding(dir);
+    assertTrue(encoding.isBlocks());
+    assertEquals(gcd, encoding.gcd);
+    assertEquals(numBlocks, encoding.blockBitsPerValue.size());
+    for (int block = 0; block < numBlocks; ++block) {
+      long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+      for (int i = block * Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE; i < (block + 1) * Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE; ++i) {
+        min = Math.min(min, values[i]);
+        max = Math.max(max, values[i]);
+      }
+      final int bitsPerValue = encoding.blockBitsPerValue.get(block);
+      assertEquals(DirectWriter.unsignedBitsRequired((max - min) / gcd), bitsPerValue);
+      assertTrue(bitsPerValue < DirectWriter.unsignedBitsRequired(max - min));
+    }
+
+    try (DirectoryReader reader = DirectoryReader.open(dir)) {
+      NumericDocValues docValues = DocValues.getNumeric(getOnlyLeafReader(reader), "dv");
+      for (int i = 0; i < values.length; ++i) {
+        assertEquals(i, docValues.nextDoc());
+        assertEquals(values[i], docValues.longValue());
+      }
+    }
+    dir.close();
+  }
+
+  public void testBlocksWithGcdRoundTrip() throws IOException {
+    final long mul = TestUtil.nextInt(random(), 2, 1000);
+    final long min = random().nextInt();
+    final int numBlocks = TestUtil.nextInt(random(), 3, 5);
+    // blocks with few and many distinct values, the last block is partial
+    final long[] values = new long[(numBlocks - 1) * Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE + TestUtil.nextInt(random(), 1, Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE)];
+    long blockMin = min;
+    int maxDelta = 1;
+    for (int i = 0; i < values.length; ++i) {
+      if ((i & (Lucene70DocValuesFormat.NUMERIC_BLOCK_SIZE - 1)) == 0) {
+        // spread the blocks so that per-block deltas are much smaller than the field's range
+        blockMin = min + (i >> Lucene70DocValuesFormat.NUMERIC_BLOCK_SHIFT) * mul * (1 << 20);
+        maxDelta = i == 0 ? 1 : 1 << random().nextInt(10);
+      }
+      values[i] = blockMin + mul * random().nextInt(maxDelta);
+    }
+    // make sure the GCD is mul
+    values[values.length - 1] = blockMin + mul;
+    Directory dir = indexNumericValues(values, false);
+
+    NumericEncoding encoding = readNumericEncoding(dir);
+    assertTrue(encoding.isBlocks());
+    assertEquals(mul, encoding.gcd);
+    assertEquals(numBlocks, encoding.blockBitsPerValue.size());
+    assertEquals(0, (int) encoding.blockBitsPerValue.get(0));
+
+    try (DirectoryReader reader = DirectoryReader.open(dir)) {
+      LeafReader leafReader = getOnlyLeafReader(reader);
+      NumericDocValues docValues = DocValues.getNumeric(leafReader, "dv");
+      for (int i = 0; i < values.length; ++i) {
+        assertEquals(i, docValues.nextDoc());
+        assertEquals(values[i], docValues.longValue());
+      }
+      assertEquals(DocIdSetIterator.NO_MORE_DOCS, docValues.nextDoc());
+      // random access across blocks
+      docValues = DocValues.getNumeric(leafReader, "dv");
+      for (int i = random().nextInt(100); i < values.length; i += 1 + random().nextInt(5000)) {
+        assertTrue(docValues.advanceExact(i));
+        assertEquals(values[i], docValues.longValue());
+      }
+    }
+    dir.close();
+  }
+
+  /** Indexes written before jump tables were added must still be readable, including when merged into the current format. */
+  @Slow
+  public void testReadWithoutJumpTables() throws IOException {
+    // one sparse, one dense and one all-set block of 65536 docs
+    final int maxDoc = 3 * 65536 + random().nextInt(1000);
+    final boolean[] hasValue = new boolean[maxDoc];
+    final long[] values = new long[maxDoc];
+    final Directory dir = newDirectory();
+    IndexWriterConfig conf = new IndexWriterConfig(null)
+        .setCodec(TestUtil.alwaysDocValuesFormat(new Lucene70RWDocValuesFormat()))
+        .setMaxBufferedDocs(maxDoc)
+        .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+        .setMergePolicy(newLogMergePolicy());
+    IndexWriter w = new IndexWriter(dir, conf);
+    for (int i = 0; i < maxDoc; ++i) {
+      final int block = i >>> 16;
+      hasValue[i] = block == 0 ? random().nextInt(200) == 0 : block == 1 ? random().nextBoolean() : true;
+      Document doc = new Document();
+      if (hasValue[i]) {
+        values[i] = random().nextInt(1000);
+        BytesRef bytes = new BytesRef(Long.toString(values[i]));
+        doc.add(new NumericDocValuesField("numeric", values[i]));
+        doc.add(new BinaryDocValuesField("binary", bytes));
+        doc.add(new SortedDocValuesField("sorted", bytes));
+        doc.add(new SortedSetDocValuesField("sorted_set", bytes));
+        doc.add(new SortedNumericDocValuesField("sorted_numeric", values[i]));
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    // read back with the current format
+    DirectoryReader reader = DirectoryReader.open(dir);
+    assertDocValues(getOnlyLeafReader(reader), hasValue, values);
+    reader.close();
+
+    // merging rewrites the segment with jump tables
+    w = new IndexWriter(dir, new IndexWriterConfig(null).setCodec(codec));
+    w.addDocument(new Document());
+    w.forceMerge(1);
+    w.close();
+    reader = DirectoryReader.open(dir);
+    assertDocValues(getOnlyLeafReader(reader), hasValue, values);
+    reader.close();
+
+    dir.close();
+  }
+
+  private void assertDocValues(LeafReader reader, boolean[] hasValue, long[] values) throws IOException {
+    final int maxDoc = hasValue.length;
+    for (int iter = 0; iter < 2; ++iter) {
+      final NumericDocValues numeric = DocValues.getNumeric(reader, "numeric");
+      final BinaryDocValues binary = DocValues.getBinary(reader, "binary");
+      final SortedDocValues sorted = DocValues.getSorted(reader, "sorted");
+      final SortedSetDocValues sortedSet = DocValues.getSortedSet(reader, "sorted_set");
+      final SortedNumericDocValues sortedNumeric = DocValues.getSortedNumeric(reader, "sorted_numeric");
+      for (int doc = random().nextInt(100); doc < maxDoc; doc += 1 + random().nextInt(iter == 0 ? 100 : 10000)) {
+        if (iter == 0) {
+          // advanceExact
+          assertEquals(hasValue[doc], numeric.advanceExact(doc));
+          assertEquals(hasValue[doc], binary.advanceExact(doc));
+          assertEquals(hasValue[doc], sorted.advanceExact(doc));
+          assertEquals(hasValue[doc], sortedSet.advanceExact(doc));
+          assertEquals(hasValue[doc], sortedNumeric.advanceExact(doc));
+          if (hasValue[doc] == false) {
+            continue;
+          }
+        } else {
+          // advance, potentially over many blocks
+          int expected = doc;
+          while (expected < maxDoc && hasValue[expected] == false) {
+            expected++;
+          }
+          if (expected == maxDoc) {
+            expected = DocIdSetIterator.NO_MORE_DOCS;
+          }
+          assertEquals(expected, numeric.advance(doc));
+          assertEquals(expected, binary.advance(doc));
+          assertEquals(expected, sorted.advance(doc));
+          assertEquals(expected, sortedSet.advance(doc));
+          assertEquals(expected, sortedNumeric.advance(doc));
+          if (expected == DocIdSetIterator.NO_MORE_DOCS) {
+            break;
+          }
+          doc = expected;
+        }
+        final BytesRef bytes = new BytesRef(Long.toString(values[doc]));
+        assertEquals(values[doc], numeric.longValue());
+        assertEquals(bytes, binary.binaryValue());
+        assertEquals(bytes, sorted.lookupOrd(sorted.ordValue()));
+        assertEquals(bytes, sortedSet.lookupOrd(sortedSet.nextOrd()));
+        assertEquals(SortedSetDocValues.NO_MORE_ORDS, sortedSet.nextOrd());
+        assertEquals(1, sortedNumeric.docValueCount());
+        assertEquals(values[doc], sortedNumeric.nextValue());
+      }
+    }
+  }
 }
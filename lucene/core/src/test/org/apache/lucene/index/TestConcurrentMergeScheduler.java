@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -26,6 +27,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
@@ -34,6 +38,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MockDirectoryWrapper;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 public class TestConcurrentMergeScheduler extends LuceneTestCase {
   
@@ -670,4 +675,92 @@ public class TestConcurrentMergeScheduler extends LuceneTestCase {
 
     assertFalse(failed.get());
   }
+
+  public void testStallStats() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    final CountDownLatch stalled = new CountDownLatch(1);
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+        @Override
+        protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+          try {
+            // hold the merge until the indexing thread stalled
+            stalled.await();
+          } catch (InterruptedException ie) {
+            throw new ThreadInterruptedException(ie);
+          }
+          super.doMerge(writer, merge);
+        }
+
+        @Override
+        protected synchronized void doStall() {
+          stalled.countDown();
+          super.doStall();
+        }
+      };
+    cms.setMaxMergesAndThreads(1, 1);
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(2);
+    LogDocMergePolicy mp = new LogDocMergePolicy();
+    mp.setMergeFactor(2);
+    iwc.setMergePolicy(mp);
+    assertEquals(0, cms.getStallCount());
+    assertEquals(0, cms.getStalledMillis());
+
+    IndexWriter w = new IndexWriter(dir, iwc);
+    while (stalled.getCount() != 0) {
+      Document doc = new Document();
+      doc.add(newStringField("field", "value", Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.close();
+    assertTrue(cms.getStallCount() > 0);
+    assertTrue(cms.getStalledMillis() >= 0);
+    dir.close();
+  }
+
+  public void testIntraMergeThreads() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    final AtomicInteger intraMergeTasks = new AtomicInteger();
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+        @Override
+        public Executor getIntraMergeExecutor(MergePolicy.OneMerge merge) {
+          final Thread mergeThread = Thread.currentThread();
+          final Executor executor = super.getIntraMergeExecutor(merge);
+          return task -> executor.execute(() -> {
+            if (Thread.currentThread() != mergeThread) {
+              intraMergeTasks.incrementAndGet();
+            }
+            task.run();
+          });
+        }
+      };
+    cms.setMaxMergesAndThreads(4, 4);
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(10);
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    FieldType vectorsType = new FieldType(TextField.TYPE_STORED);
+    vectorsType.setStoreTermVectors(true);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.YES));
+      doc.add(newField("body", TestUtil.randomSimpleString(random()) + " " + i, vectorsType));
+      doc.add(new NumericDocValuesField("dv", i));
+      doc.add(new IntPoint("point", i));
+      w.addDocument(doc);
+    }
+    w.commit();
+    w.getConfig().setMergePolicy(newLogMergePolicy());
+    w.forceMerge(1);
+    assertTrue(intraMergeTasks.get() > 0);
+    try (DirectoryReader reader = DirectoryReader.open(w)) {
+      assertEquals(1, reader.leaves().size());
+      assertEquals(numDocs, reader.numDocs());
+    }
+    w.close();
+    dir.close();
+  }
 }
@@ -53,6 +53,26 @@ public class TestDocumentsWriterStallControl extends LuceneTestCase {
     join(waitThreads);
   }
   
+  public void testStallStats() throws InterruptedException {
+    DocumentsWriterStallControl ctrl = new DocumentsWriterStallControl();
+    ctrl.updateStalled(false);
+    assertEquals(0, ctrl.getStallCount());
+    assertEquals(0, ctrl.getStalledNanos());
+
+    ctrl.updateStalled(true);
+    ctrl.updateStalled(true);
+    assertEquals(1, ctrl.getStallCount());
+    Thread.sleep(1);
+    final long stalledNanos = ctrl.getStalledNanos();
+    assertTrue(stalledNanos > 0);
+    ctrl.updateStalled(false);
+    assertTrue(ctrl.getStalledNanos() >= stalledNanos);
+
+    ctrl.updateStalled(true);
+    ctrl.updateStalled(false);
+    assertEquals(2, ctrl.getStallCount());
+  }
+  
   public void testRandom() throws InterruptedException {
     final DocumentsWriterStallControl ctrl = new DocumentsWriterStallControl();
     ctrl.updateStalled(false);
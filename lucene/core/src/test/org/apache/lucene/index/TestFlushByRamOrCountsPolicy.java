@@ -272,12 +272,54 @@ public class TestFlushByRamOrCountsPolicy extends LuceneTestCase {
       if (docsWriter.flushControl.peakNetBytes > (2.d * iwc.getRAMBufferSizeMB() * 1024.d * 1024.d)) {
         assertTrue(docsWriter.flushControl.stallControl.wasStalled());
       }
+      assertEquals(docsWriter.flushControl.stallControl.wasStalled(), writer.getFlushStallCount() > 0);
       assertActiveBytesAfter(flushControl);
       writer.close();
       dir.close();
     }
   }
 
+  public void testHeapLimitBytes() {
+    final long mb = 1024 * 1024;
+    assertEquals(Long.MAX_VALUE, FlushByRamOrCountsPolicy.heapLimitBytes(Long.MAX_VALUE, 100 * mb, 0, 0.25));
+    assertEquals(200 * mb, FlushByRamOrCountsPolicy.heapLimitBytes(1000 * mb, 200 * mb, 0, 0.25));
+    // buffered bytes are released by flushing
+    assertEquals(225 * mb, FlushByRamOrCountsPolicy.heapLimitBytes(1000 * mb, 200 * mb, 100 * mb, 0.25));
+    assertEquals(FlushByRamOrCountsPolicy.MIN_HEAP_RAM_BUFFER_BYTES, FlushByRamOrCountsPolicy.heapLimitBytes(1000 * mb, 1000 * mb, 0, 0.25));
+    assertEquals(FlushByRamOrCountsPolicy.MIN_HEAP_RAM_BUFFER_BYTES, FlushByRamOrCountsPolicy.heapLimitBytes(1000 * mb, 2000 * mb, 0, 0.25));
+  }
+
+  public void testRAMBufferHeapFraction() throws IOException {
+    final long maxHeapBytes = Runtime.getRuntime().maxMemory();
+    assumeTrue("heap must be bounded", maxHeapBytes != Long.MAX_VALUE);
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    iwc.setFlushPolicy(new FlushByRamOrCountsPolicy());
+    // a RAM buffer larger than the heap
+    iwc.setRAMBufferSizeMB(2.d * maxHeapBytes / 1024 / 1024);
+    IndexWriter writer = new IndexWriter(dir, iwc);
+    final long ramBufferBytes = writer.getFlushRAMBufferBytes();
+    assertEquals((long) (iwc.getRAMBufferSizeMB() * 1024 * 1024), ramBufferBytes);
+
+    writer.getConfig().setRAMBufferHeapFraction(0.25);
+    final long heapLimitBytes = writer.getFlushRAMBufferBytes();
+    assertTrue(heapLimitBytes < ramBufferBytes);
+    assertTrue(heapLimitBytes <= maxHeapBytes / 4);
+    assertTrue(heapLimitBytes >= FlushByRamOrCountsPolicy.MIN_HEAP_RAM_BUFFER_BYTES);
+
+    final int numDocs = atLeast(20);
+    for (int i = 0; i < numDocs; i++) {
+      writer.addDocument(lineDocFile.nextDoc());
+    }
+    assertEquals(numDocs, writer.numDocs());
+
+    writer.getConfig().setRAMBufferHeapFraction(0);
+    assertEquals(ramBufferBytes, writer.getFlushRAMBufferBytes());
+    writer.close();
+    dir.close();
+  }
+
   protected void assertActiveBytesAfter(DocumentsWriterFlushControl flushControl) {
     Iterator<ThreadState> allActiveThreads = flushControl.allActiveThreadStates();
     long bytesUsed = 0;
@@ -75,6 +75,9 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     assertEquals(Codec.getDefault(), conf.getCodec());
     assertEquals(InfoStream.getDefault(), conf.getInfoStream());
     assertEquals(IndexWriterConfig.DEFAULT_USE_COMPOUND_FILE_SYSTEM, conf.getUseCompoundFile());
+    assertNull(conf.getSoftDeletesField());
+    assertEquals(IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS, conf.getMaxFullFlushMergeWaitMillis());
+    assertEquals(IndexWriterConfig.DEFAULT_RAM_BUFFER_HEAP_FRACTION, conf.getRAMBufferHeapFraction(), 0.0);
     // Sanity check - validate that all getters are covered.
     Set<String> getters = new HashSet<>();
     getters.add("getAnalyzer");
@@ -99,6 +102,9 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     getters.add("getCodec");
     getters.add("getInfoStream");
     getters.add("getUseCompoundFile");
+    getters.add("getSoftDeletesField");
+    getters.add("getMaxFullFlushMergeWaitMillis");
+    getters.add("getRAMBufferHeapFraction");
     
     for (Method m : IndexWriterConfig.class.getDeclaredMethods()) {
       if (m.getDeclaringClass() == IndexWriterConfig.class && m.getName().startsWith("get")) {
@@ -261,6 +267,17 @@ public class TestIndexWriterConfig extends LuceneTestCase {
       conf.setRAMPerThreadHardLimitMB(0);
     });
     
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setMaxFullFlushMergeWaitMillis(-1);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setRAMBufferHeapFraction(-0.1);
+    });
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setRAMBufferHeapFraction(0.6);
+    });
+
     // Test MergePolicy
     assertEquals(TieredMergePolicy.class, conf.getMergePolicy().getClass());
     conf.setMergePolicy(new LogDocMergePolicy());
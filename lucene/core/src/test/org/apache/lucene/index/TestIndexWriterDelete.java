@@ -1400,4 +1400,60 @@ public class TestIndexWriterDelete extends LuceneTestCase {
     w.close();
     dir.close();
   }
+
+  public void testReopenDoesNotResolveDeletesAgain() throws Exception {
+    // with pooled readers, the indexing thread resolves deletes and updates
+    // right after it flushes them, so that reopening only publishes them
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMaxBufferedDocs(10);
+    iwc.setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    iwc.setMaxBufferedDeleteTerms(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    DirectoryReader r = DirectoryReader.open(w);
+
+    for (int i = 0; i < 30; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", "" + i, Field.Store.NO));
+      doc.add(new NumericDocValuesField("val", i));
+      w.addDocument(doc);
+    }
+    for (int i = 0; i < 25; i++) {
+      Term id = new Term("id", "" + i);
+      if (i % 2 == 0) {
+        Document doc = new Document();
+        doc.add(newStringField("id", "" + i, Field.Store.NO));
+        doc.add(new NumericDocValuesField("val", 100 + i));
+        w.updateDocument(id, doc);
+      } else {
+        w.updateNumericDocValue(id, "val", 100 + i);
+      }
+    }
+    final BufferedUpdatesStream stream = w.bufferedUpdatesStream;
+    assertTrue(stream.resolvedAheadCount.get() > 0);
+    final long resolvedOnApply = stream.resolvedOnApplyCount.get();
+
+    DirectoryReader r2 = DirectoryReader.openIfChanged(r, w);
+    assertNotNull(r2);
+    r.close();
+    r = r2;
+    assertEquals(resolvedOnApply, stream.resolvedOnApplyCount.get());
+
+    assertEquals(30, r.numDocs());
+    IndexSearcher searcher = new IndexSearcher(r);
+    for (int i = 0; i < 30; i++) {
+      TermQuery query = new TermQuery(new Term("id", "" + i));
+      assertEquals(1, searcher.count(query));
+      int doc = searcher.search(query, 1).scoreDocs[0].doc;
+      LeafReaderContext context = r.leaves().get(ReaderUtil.subIndex(doc, r.leaves()));
+      NumericDocValues values = context.reader().getNumericDocValues("val");
+      assertEquals(doc - context.docBase, values.advance(doc - context.docBase));
+      assertEquals(i < 25 ? 100 + i : i, values.longValue());
+    }
+    r.close();
+
+    w.close();
+    dir.close();
+  }
 }
@@ -18,6 +18,8 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.analysis.MockAnalyzer;
@@ -29,6 +31,7 @@ import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 public class TestIndexWriterMerging extends LuceneTestCase {
 
@@ -457,4 +460,145 @@ public class TestIndexWriterMerging extends LuceneTestCase {
 
     directory.close();
   }
+
+  private IndexWriterConfig newMergeOnFullFlushConfig(MergeScheduler mergeScheduler, long maxFullFlushMergeWaitMillis) {
+    LogDocMergePolicy mp = new LogDocMergePolicy();
+    mp.setMergeFactor(1000); // only merge on full flush
+    return newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(mp)
+        .setMergeScheduler(mergeScheduler)
+        .setMaxFullFlushMergeWaitMillis(maxFullFlushMergeWaitMillis);
+  }
+
+  private IndexWriterConfig newMergeOnFullFlushConfig(long maxFullFlushMergeWaitMillis) {
+    return newMergeOnFullFlushConfig(new ConcurrentMergeScheduler(), maxFullFlushMergeWaitMillis);
+  }
+
+  private static void addDocument(IndexWriter writer, int id) throws IOException {
+    Document doc = new Document();
+    doc.add(newStringField("id", Integer.toString(id), Field.Store.YES));
+    writer.addDocument(doc);
+  }
+
+  public void testMergeOnGetReader() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newMergeOnFullFlushConfig(Long.MAX_VALUE));
+    final int numSegments = 2 + random().nextInt(5);
+    for (int i = 0; i < numSegments; i++) {
+      addDocument(writer, i);
+      if (i < numSegments - 1) {
+        writer.flush();
+      }
+    }
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(1, reader.leaves().size());
+    assertEquals(numSegments, reader.numDocs());
+
+    addDocument(writer, numSegments);
+    DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+    assertNotNull(newReader);
+    reader.close();
+    assertEquals(1, newReader.leaves().size());
+    assertEquals(numSegments + 1, newReader.numDocs());
+    newReader.close();
+    writer.close();
+    dir.close();
+  }
+
+  public void testMergeOnCommit() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newMergeOnFullFlushConfig(Long.MAX_VALUE));
+    final int numSegments = 2 + random().nextInt(5);
+    for (int i = 0; i < numSegments; i++) {
+      addDocument(writer, i);
+      if (i < numSegments - 1) {
+        writer.flush();
+      }
+    }
+    writer.commit();
+    assertEquals(1, SegmentInfos.readLatestCommit(dir).size());
+    writer.close();
+    dir.close();
+  }
+
+  public void testNoMergeOnFullFlushByDefault() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newMergeOnFullFlushConfig(IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS));
+    addDocument(writer, 0);
+    writer.flush();
+    addDocument(writer, 1);
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(2, reader.leaves().size());
+    reader.close();
+    writer.commit();
+    assertEquals(2, SegmentInfos.readLatestCommit(dir).size());
+    writer.close();
+    dir.close();
+  }
+
+  public void testNoMergeOnFullFlushWithSerialMergeScheduler() throws IOException {
+    Directory dir = newDirectory();
+    // merges would run in the calling thread, regardless of the deadline
+    IndexWriter writer = new IndexWriter(dir, newMergeOnFullFlushConfig(new SerialMergeScheduler(), Long.MAX_VALUE));
+    addDocument(writer, 0);
+    writer.flush();
+    addDocument(writer, 1);
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(2, reader.leaves().size());
+    reader.close();
+    writer.commit();
+    assertEquals(2, SegmentInfos.readLatestCommit(dir).size());
+    writer.close();
+    dir.close();
+  }
+
+  public void testMergeOnFullFlushDeadline() throws Exception {
+    Directory dir = newDirectory();
+    final CountDownLatch releaseMerges = new CountDownLatch(1);
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+      @Override
+      protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+        try {
+          // make merges miss the deadline
+          releaseMerges.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        }
+        super.doMerge(writer, merge);
+      }
+    };
+    cms.setMaxMergesAndThreads(10, 2);
+    final long maxWaitMillis = 100;
+    IndexWriter writer = new IndexWriter(dir, newMergeOnFullFlushConfig(cms, maxWaitMillis));
+
+    for (int i = 0; i < 3; i++) {
+      addDocument(writer, i);
+      writer.flush();
+    }
+    addDocument(writer, 3);
+    long startNS = System.nanoTime();
+    writer.commit();
+    long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNS);
+    assertTrue("commit took " + tookMillis + " msec", tookMillis < TimeUnit.SECONDS.toMillis(30));
+    // the merge is still running
+    assertEquals(4, SegmentInfos.readLatestCommit(dir).size());
+
+    for (int i = 4; i < 7; i++) {
+      addDocument(writer, i);
+      writer.flush();
+    }
+    addDocument(writer, 7);
+    startNS = System.nanoTime();
+    DirectoryReader reader = DirectoryReader.open(writer);
+    tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNS);
+    assertTrue("getReader took " + tookMillis + " msec", tookMillis < TimeUnit.SECONDS.toMillis(30));
+    // both merges are still running
+    assertEquals(8, reader.leaves().size());
+    assertEquals(8, reader.numDocs());
+    reader.close();
+
+    releaseMerges.countDown();
+    writer.close();
+    dir.close();
+  }
 }
@@ -1144,6 +1144,116 @@ public class TestNumericDocValuesUpdates extends LuceneTestCase {
     dir.close();
   }
 
+  private static Document newIdDocument(int id, long value) {
+    Document doc = new Document();
+    doc.add(new StringField("id", Integer.toString(id), Store.YES));
+    doc.add(new NumericDocValuesField("val", value));
+    return doc;
+  }
+
+  @Test
+  public void testConcurrentUpdatesAndReopens() throws Exception {
+    // documents are replaced and their doc values updated while NRT readers
+    // are reopened, so that deletes and updates are resolved against many
+    // segments, ahead of time and while applying; the final index must match a
+    // serial model ordered by sequence numbers
+    final Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    conf.setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 50));
+    final IndexWriter writer = new IndexWriter(dir, conf);
+
+    final int numIds = atLeast(100);
+    for (int id = 0; id < numIds; id++) {
+      writer.addDocument(newIdDocument(id, -1));
+    }
+
+    final int numThreads = TestUtil.nextInt(random(), 2, 5);
+    final CountDownLatch done = new CountDownLatch(numThreads);
+    final AtomicInteger numUpdates = new AtomicInteger(atLeast(2000));
+    // per thread, the sequence number and value of the last operation on each id
+    final long[][] seqNos = new long[numThreads][numIds];
+    final long[][] values = new long[numThreads][numIds];
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < threads.length; i++) {
+      final long[] threadSeqNos = seqNos[i];
+      final long[] threadValues = values[i];
+      threads[i] = new Thread("UpdateThread-" + i) {
+        @Override
+        public void run() {
+          try {
+            Random random = random();
+            while (numUpdates.getAndDecrement() > 0) {
+              final int id = random.nextInt(numIds);
+              final long value = random.nextInt(Integer.MAX_VALUE);
+              final Term idTerm = new Term("id", Integer.toString(id));
+              final long seqNo;
+              if (random.nextBoolean()) {
+                seqNo = writer.updateDocument(idTerm, newIdDocument(id, value));
+              } else {
+                seqNo = writer.updateNumericDocValue(idTerm, "val", value);
+              }
+              assertTrue(seqNo > threadSeqNos[id]);
+              threadSeqNos[id] = seqNo;
+              threadValues[id] = value;
+            }
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          } finally {
+            done.countDown();
+          }
+        }
+      };
+    }
+    for (Thread t : threads) t.start();
+
+    // reopen while updates are buffered: every id must be visible exactly once
+    DirectoryReader reader = DirectoryReader.open(writer);
+    while (done.getCount() > 0) {
+      DirectoryReader r2 = DirectoryReader.openIfChanged(reader, writer);
+      if (r2 != null) {
+        reader.close();
+        reader = r2;
+      }
+      assertEquals(numIds, reader.numDocs());
+      final int id = random().nextInt(numIds);
+      assertEquals(1, new IndexSearcher(reader).count(new TermQuery(new Term("id", Integer.toString(id)))));
+    }
+    reader.close();
+    for (Thread t : threads) t.join();
+
+    final Map<String,Long> expected = new HashMap<>();
+    for (int id = 0; id < numIds; id++) {
+      long maxSeqNo = 0;
+      long value = -1;
+      for (int i = 0; i < numThreads; i++) {
+        if (seqNos[i][id] > maxSeqNo) {
+          maxSeqNo = seqNos[i][id];
+          value = values[i][id];
+        }
+      }
+      expected.put(Integer.toString(id), value);
+    }
+
+    reader = DirectoryReader.open(writer);
+    final Map<String,Long> actual = new HashMap<>();
+    for (LeafReaderContext context : reader.leaves()) {
+      LeafReader r = context.reader();
+      NumericDocValues ndv = r.getNumericDocValues("val");
+      Bits liveDocs = r.getLiveDocs();
+      for (int doc = 0; doc < r.maxDoc(); doc++) {
+        if (liveDocs == null || liveDocs.get(doc)) {
+          assertEquals(doc, ndv.advance(doc));
+          assertNull(actual.put(r.document(doc).get("id"), ndv.longValue()));
+        }
+      }
+    }
+    assertEquals(expected, actual);
+    reader.close();
+
+    writer.close();
+    dir.close();
+  }
+
   @Test
   public void testUpdateDifferentDocsInDifferentGens() throws Exception {
     // update same document multiple times across generations
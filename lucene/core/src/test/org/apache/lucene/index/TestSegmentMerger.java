@@ -21,12 +21,16 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.MergeInfo;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
@@ -86,10 +90,13 @@ public class TestSegmentMerger extends LuceneTestCase {
     final Codec codec = Codec.getDefault();
     final SegmentInfo si = new SegmentInfo(mergedDir, Version.LATEST, mergedSegment, -1, false, codec, Collections.emptyMap(), StringHelper.randomId(), new HashMap<>(), null);
 
+    // merge the parts of the index sequentially or each in its own thread
+    final Executor executor = random().nextBoolean() ? Runnable::run : task -> new Thread(task).start();
     SegmentMerger merger = new SegmentMerger(Arrays.<CodecReader>asList(reader1, reader2),
                                              si, InfoStream.getDefault(), mergedDir,
                                              new FieldInfos.FieldNumbers(),
-                                             newIOContext(random(), new IOContext(new MergeInfo(-1, -1, false, -1))));
+                                             newIOContext(random(), new IOContext(new MergeInfo(-1, -1, false, -1))),
+                                             executor);
     MergeState mergeState = merger.merge();
     int docsMerged = mergeState.segmentInfo.maxDoc();
     assertTrue(docsMerged == 2);
@@ -145,6 +152,32 @@ public class TestSegmentMerger extends LuceneTestCase {
     mergedReader.close();
   }
 
+  public void testStopsAfterFailedPart() throws IOException {
+    final Codec codec = Codec.getDefault();
+    final SegmentInfo si = new SegmentInfo(mergedDir, Version.LATEST, mergedSegment, -1, false, codec, Collections.emptyMap(), StringHelper.randomId(), new HashMap<>(), null);
+    final Directory failingDir = new FilterDirectory(mergedDir) {
+      @Override
+      public IndexOutput createOutput(String name, IOContext context) throws IOException {
+        throw new IOException("fake disk full");
+      }
+    };
+
+    // the parts run in the calling thread, so the first one fails before the others are submitted
+    final AtomicInteger numTasks = new AtomicInteger();
+    final Executor executor = task -> {
+      numTasks.incrementAndGet();
+      task.run();
+    };
+    SegmentMerger merger = new SegmentMerger(Arrays.<CodecReader>asList(reader1, reader2),
+                                             si, InfoStream.getDefault(), failingDir,
+                                             new FieldInfos.FieldNumbers(),
+                                             newIOContext(random(), new IOContext(new MergeInfo(-1, -1, false, -1))),
+                                             executor);
+    IOException e = expectThrows(IOException.class, () -> merger.merge());
+    assertEquals("fake disk full", e.getMessage());
+    assertEquals(1, numTasks.get());
+  }
+
   public void testBuildDocMap() {
     final int maxDoc = TestUtil.nextInt(random(), 1, 128);
     final int numDocs = TestUtil.nextInt(random(), 0, maxDoc);
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestSoftDeletesDirectoryReaderWrapper extends LuceneTestCase {
+
+  public void testReaderWrapper() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig().setSoftDeletesField("soft_delete");
+    IndexWriter writer = new IndexWriter(dir, config);
+    Document doc = new Document();
+    doc.add(new StringField("id", "1", Field.Store.YES));
+    doc.add(new StringField("version", "1", Field.Store.YES));
+    writer.addDocument(doc);
+    doc = new Document();
+    doc.add(new StringField("id", "2", Field.Store.YES));
+    doc.add(new StringField("version", "1", Field.Store.YES));
+    writer.addDocument(doc);
+    if (random().nextBoolean()) {
+      writer.commit();
+    }
+    DirectoryReader reader = new SoftDeletesDirectoryReaderWrapper(DirectoryReader.open(writer), "soft_delete");
+    assertEquals(2, reader.numDocs());
+    assertEquals(2, reader.maxDoc());
+
+    doc = new Document();
+    doc.add(new StringField("id", "1", Field.Store.YES));
+    doc.add(new StringField("version", "2", Field.Store.YES));
+    writer.softUpdateDocument(new Term("id", "1"), doc, new NumericDocValuesField("soft_delete", 1));
+
+    DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+    assertNotNull(newReader);
+    assertTrue(newReader instanceof SoftDeletesDirectoryReaderWrapper);
+    reader.close();
+    reader = newReader;
+    assertEquals(2, reader.numDocs());
+    assertEquals(3, reader.maxDoc());
+    IndexSearcher searcher = new IndexSearcher(reader);
+    assertEquals(1, searcher.count(new TermQuery(new Term("version", "1"))));
+    assertEquals(1, searcher.count(new TermQuery(new Term("id", "1"))));
+    assertEquals("2", reader.document(searcher.search(new TermQuery(new Term("id", "1")), 1).scoreDocs[0].doc).get("version"));
+
+    // the writer does not hide soft deleted documents
+    try (DirectoryReader unwrapped = DirectoryReader.open(writer)) {
+      assertEquals(3, unwrapped.numDocs());
+    }
+
+    IOUtils.close(reader, writer, dir);
+  }
+
+  public void testManyUpdates() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig().setSoftDeletesField("soft_delete");
+    IndexWriter writer = new IndexWriter(dir, config);
+    Set<String> ids = new HashSet<>();
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      String id = Integer.toString(random().nextInt(20));
+      ids.add(id);
+      Document doc = new Document();
+      doc.add(new StringField("id", id, Field.Store.YES));
+      writer.softUpdateDocument(new Term("id", id), doc, new NumericDocValuesField("soft_delete", 1));
+      if (rarely()) {
+        writer.flush();
+      }
+    }
+    if (random().nextBoolean()) {
+      writer.forceMerge(1);
+    }
+    try (DirectoryReader reader = new SoftDeletesDirectoryReaderWrapper(DirectoryReader.open(writer), "soft_delete")) {
+      assertEquals(ids.size(), reader.numDocs());
+      IndexSearcher searcher = new IndexSearcher(reader);
+      for (String id : ids) {
+        assertEquals(1, searcher.count(new TermQuery(new Term("id", id))));
+      }
+    }
+    IOUtils.close(writer, dir);
+  }
+
+  public void testSoftDeletesFieldMustBeConfigured() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+    Document doc = new Document();
+    doc.add(new StringField("id", "1", Field.Store.YES));
+    writer.addDocument(doc);
+    // the soft deletes field was not configured
+    IllegalArgumentException expected = expectThrows(IllegalArgumentException.class,
+        () -> writer.softUpdateDocument(new Term("id", "1"), new Document(), new NumericDocValuesField("soft_delete", 1)));
+    assertTrue(expected.getMessage(), expected.getMessage().contains("can only update existing docvalues fields"));
+    expectThrows(IllegalArgumentException.class, () -> writer.softUpdateDocument(new Term("id", "1"), new Document()));
+    IOUtils.close(writer, dir);
+  }
+}
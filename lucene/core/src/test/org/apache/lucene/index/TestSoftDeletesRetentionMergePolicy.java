@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestSoftDeletesRetentionMergePolicy extends LuceneTestCase {
+
+  public void testKeepByQuery() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig().setSoftDeletesField("soft_delete");
+    AtomicBoolean retain = new AtomicBoolean(true);
+    config.setMergePolicy(new SoftDeletesRetentionMergePolicy("soft_delete",
+        () -> retain.get() ? new MatchAllDocsQuery() : new MatchNoDocsQuery(), newLogMergePolicy()));
+    IndexWriter writer = new IndexWriter(dir, config);
+    final int numVersions = atLeast(3);
+    for (int version = 0; version < numVersions; version++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "1", Field.Store.YES));
+      doc.add(new LongPoint("version", version));
+      writer.softUpdateDocument(new Term("id", "1"), doc, new NumericDocValuesField("soft_delete", 1));
+      writer.flush();
+    }
+
+    // all versions are retained by merges
+    writer.forceMerge(1);
+    try (DirectoryReader reader = DirectoryReader.open(writer)) {
+      assertEquals(1, reader.leaves().size());
+      assertEquals(numVersions, reader.maxDoc());
+      assertEquals(numVersions, reader.numDocs());
+      try (DirectoryReader softReader = new SoftDeletesDirectoryReaderWrapper(DirectoryReader.open(writer), "soft_delete")) {
+        assertEquals(1, softReader.numDocs());
+        IndexSearcher searcher = new IndexSearcher(softReader);
+        assertEquals(1, searcher.count(LongPoint.newExactQuery("version", numVersions - 1)));
+      }
+    }
+
+    // only keep the latest version
+    retain.set(false);
+    Document doc = new Document();
+    doc.add(new StringField("id", "2", Field.Store.YES));
+    writer.addDocument(doc);
+    writer.forceMerge(1);
+    try (DirectoryReader reader = DirectoryReader.open(writer)) {
+      assertEquals(1, reader.leaves().size());
+      assertEquals(2, reader.maxDoc());
+      IndexSearcher searcher = new IndexSearcher(reader);
+      assertEquals(1, searcher.count(new TermQuery(new Term("id", "1"))));
+      assertEquals(1, searcher.count(LongPoint.newExactQuery("version", numVersions - 1)));
+    }
+    IOUtils.close(writer, dir);
+  }
+
+  public void testRetainByRange() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig config = newIndexWriterConfig().setSoftDeletesField("soft_delete");
+    final int numVersions = atLeast(10);
+    final long minRetainedVersion = numVersions / 2;
+    config.setMergePolicy(new SoftDeletesRetentionMergePolicy("soft_delete",
+        () -> LongPoint.newRangeQuery("version", minRetainedVersion, Long.MAX_VALUE), newMergePolicy()));
+    IndexWriter writer = new IndexWriter(dir, config);
+    for (int version = 0; version < numVersions; version++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "1", Field.Store.YES));
+      doc.add(new LongPoint("version", version));
+      writer.softUpdateDocument(new Term("id", "1"), doc, new NumericDocValuesField("soft_delete", 1));
+      if (version == 0 || random().nextBoolean()) {
+        writer.flush();
+      }
+    }
+    // make sure that the final merge is not a no-op
+    Document doc = new Document();
+    doc.add(new StringField("id", "2", Field.Store.YES));
+    writer.addDocument(doc);
+    writer.flush();
+    writer.forceMerge(1);
+    try (DirectoryReader reader = DirectoryReader.open(writer)) {
+      assertEquals(1, reader.leaves().size());
+      assertEquals(numVersions - minRetainedVersion + 1, reader.numDocs());
+      IndexSearcher searcher = new IndexSearcher(reader);
+      assertEquals(0, searcher.count(LongPoint.newRangeQuery("version", 0, minRetainedVersion - 1)));
+    }
+    IOUtils.close(writer, dir);
+  }
+}
@@ -227,6 +227,51 @@ public class TestConjunctionDISI extends LuceneTestCase {
     }
   }
 
+  private static FixedBitSet toBitSetInWindows(int maxDoc, DocIdSetIterator iterator) throws IOException {
+    final FixedBitSet set = new FixedBitSet(maxDoc);
+    final int[] docs = new int[TestUtil.nextInt(random(), 1, 200)];
+    iterator.nextDoc();
+    while (iterator.docID() != DocIdSetIterator.NO_MORE_DOCS) {
+      final int upTo = random().nextBoolean()
+          ? DocIdSetIterator.NO_MORE_DOCS
+          : iterator.docID() + TestUtil.nextInt(random(), 1, 500);
+      while (iterator.docID() < upTo) {
+        final int count = iterator.nextDocs(upTo, docs);
+        assertTrue(count > 0);
+        for (int i = 0; i < count; ++i) {
+          assertTrue(docs[i] < upTo);
+          set.set(docs[i]);
+        }
+      }
+    }
+    return set;
+  }
+
+  // Test that consuming the conjunction iterator in windows is correct
+  public void testConjunctionInWindows() throws IOException {
+    final int iters = atLeast(100);
+    for (int iter = 0; iter < iters; ++iter) {
+      final int maxDoc = TestUtil.nextInt(random(), 100, 10000);
+      final int numIterators = TestUtil.nextInt(random(), 2, 5);
+      final FixedBitSet[] sets = new FixedBitSet[numIterators];
+      final Scorer[] iterators = new Scorer[numIterators];
+      for (int i = 0; i < iterators.length; ++i) {
+        final FixedBitSet set = randomSet(maxDoc);
+        sets[i] = set;
+        if (random().nextBoolean()) {
+          // simple iterator
+          iterators[i] = new ConstantScoreScorer(null, 0f, anonymizeIterator(new BitDocIdSet(set).iterator()));
+        } else {
+          // bitSet iterator
+          iterators[i] = new ConstantScoreScorer(null, 0f, new BitDocIdSet(set).iterator());
+        }
+      }
+
+      final DocIdSetIterator conjunction = ConjunctionDISI.intersectScorers(Arrays.asList(iterators));
+      assertEquals(intersect(sets), toBitSetInWindows(maxDoc, conjunction));
+    }
+  }
+
   // Test that the conjunction approximation is correct
   public void testConjunctionApproximation() throws IOException {
     final int iters = atLeast(100);
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FloatDocValuesField;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.QueryTimeout;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestFieldSortOptimizationSkipping extends LuceneTestCase {
+
+  private Directory dir;
+  private IndexReader reader;
+  private IndexSearcher searcher;
+  private int numDocs;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    dir = newDirectory();
+    // make sure segments are large enough for skipping to kick in
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig()
+        .setMaxBufferedDocs(TestUtil.nextInt(random(), 1000, 5000))
+        .setRAMBufferSizeMB(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB));
+    numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      if (random().nextInt(20) != 0) {
+        final int value = random().nextInt(100000) - 50000;
+        doc.add(new LongPoint("long", value));
+        doc.add(new NumericDocValuesField("long", value));
+        doc.add(new IntPoint("int", value));
+        doc.add(new NumericDocValuesField("int", value));
+        // values with a fractional part so that the next lower value is not value - 1
+        final double doubleValue = value / 7.;
+        doc.add(new DoublePoint("double", doubleValue));
+        doc.add(new DoubleDocValuesField("double", doubleValue));
+        doc.add(new FloatPoint("float", (float) doubleValue));
+        doc.add(new FloatDocValuesField("float", (float) doubleValue));
+      }
+      doc.add(new StringField("f", random().nextBoolean() ? "a" : "b", Store.NO));
+      w.addDocument(doc);
+    }
+    reader = DirectoryReader.open(w);
+    w.close();
+    // no wrapping, so that the default bulk scorers get the competitive iterator
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    dir.close();
+    super.tearDown();
+  }
+
+  private void assertSameHits(Query query, Sort sort, Sort pointsSort, int numHits, int totalHitsThreshold) throws IOException {
+    TopFieldCollector expectedCollector = TopFieldCollector.create(sort, numHits, null, true, false, false);
+    searcher.search(query, expectedCollector);
+    TopFieldDocs expected = expectedCollector.topDocs();
+    TopFieldCollector actualCollector = TopFieldCollector.create(pointsSort, numHits, null, true, false, false, totalHitsThreshold);
+    searcher.search(query, actualCollector);
+    TopFieldDocs actual = actualCollector.topDocs();
+
+    assertTrue(actual.totalHits <= expected.totalHits);
+    assertTrue(actual.totalHits >= Math.min(expected.totalHits, totalHitsThreshold));
+    if (actual.totalHits < expected.totalHits) {
+      assertEquals(TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO, actual.totalHitsRelation);
+    }
+    assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+    for (int i = 0; i < expected.scoreDocs.length; ++i) {
+      assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+    }
+  }
+
+  public void testSameHits() throws IOException {
+    final int iters = atLeast(20);
+    for (int iter = 0; iter < iters; ++iter) {
+      final String field;
+      final SortField.Type type;
+      final Object minValue, maxValue;
+      switch (random().nextInt(4)) {
+        case 0:
+          field = "int";
+          type = SortField.Type.INT;
+          minValue = Integer.MIN_VALUE;
+          maxValue = Integer.MAX_VALUE;
+          break;
+        case 1:
+          field = "long";
+          type = SortField.Type.LONG;
+          minValue = Long.MIN_VALUE;
+          maxValue = Long.MAX_VALUE;
+          break;
+        case 2:
+          field = "float";
+          type = SortField.Type.FLOAT;
+          minValue = Float.NEGATIVE_INFINITY;
+          maxValue = Float.POSITIVE_INFINITY;
+          break;
+        default:
+          field = "double";
+          type = SortField.Type.DOUBLE;
+          minValue = Double.NEGATIVE_INFINITY;
+          maxValue = Double.POSITIVE_INFINITY;
+          break;
+      }
+      final boolean reverse = random().nextBoolean();
+      SortField sortField = new SortField(field, type, reverse);
+      SortField pointsSortField = new SortField(field, type, reverse);
+      pointsSortField.setCanUsePoints();
+      switch (random().nextInt(3)) {
+        case 0:
+          break;
+        case 1:
+          sortField.setMissingValue(minValue);
+          pointsSortField.setMissingValue(sortField.getMissingValue());
+          break;
+        default:
+          sortField.setMissingValue(maxValue);
+          pointsSortField.setMissingValue(sortField.getMissingValue());
+          break;
+      }
+      Sort sort, pointsSort;
+      if (random().nextBoolean()) {
+        sort = new Sort(sortField);
+        pointsSort = new Sort(pointsSortField);
+      } else {
+        sort = new Sort(sortField, SortField.FIELD_DOC);
+        pointsSort = new Sort(pointsSortField, SortField.FIELD_DOC);
+      }
+      final Query query = random().nextBoolean() ? new MatchAllDocsQuery() : new TermQuery(new Term("f", "a"));
+      assertSameHits(query, sort, pointsSort, 1 + random().nextInt(100), random().nextInt(2000));
+    }
+  }
+
+  public void testSkipsNonCompetitiveDocuments() throws IOException {
+    SortField sortField = new SortField("long", SortField.Type.LONG);
+    // missing values are not competitive
+    sortField.setMissingValue(Long.MAX_VALUE);
+    sortField.setCanUsePoints();
+    final Sort sort = new Sort(sortField);
+    TopFieldCollector collector = TopFieldCollector.create(sort, 10, null, true, false, false, 100);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    TopFieldDocs topDocs = collector.topDocs();
+    assertEquals(10, topDocs.scoreDocs.length);
+    assertEquals(TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHitsRelation);
+    assertTrue(topDocs.totalHits >= 100);
+    assertTrue(topDocs.totalHits < numDocs);
+
+    // hits are counted accurately if the threshold is not reached
+    collector = TopFieldCollector.create(sort, 10, null, true, false, false, numDocs);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    topDocs = collector.topDocs();
+    assertEquals(numDocs, topDocs.totalHits);
+  }
+
+  public void testWrappedCollectorCountsAllHits() throws IOException {
+    SortField sortField = new SortField("long", SortField.Type.LONG);
+    sortField.setMissingValue(Long.MAX_VALUE);
+    sortField.setCanUsePoints();
+    TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), 10, null, true, false, false, 100);
+    // the wrapped collector does not expose the competitive iterator, so no hits are skipped
+    searcher.search(new MatchAllDocsQuery(), MultiCollector.wrap(collector, new TotalHitCountCollector()));
+    TopFieldDocs topDocs = collector.topDocs();
+    assertEquals(numDocs, topDocs.totalHits);
+    assertEquals(TopDocs.TotalHitsRelation.EQUAL_TO, topDocs.totalHitsRelation);
+  }
+
+  public void testSkipsNonCompetitiveDocumentsWithTimeout() throws IOException {
+    // a single segment, so that the query matches enough documents per segment
+    // for points to be selective
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    w.forceMerge(1);
+    w.close();
+    reader.close();
+    reader = DirectoryReader.open(dir);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+    // a query timeout makes documents be scored in windows of doc IDs
+    searcher.setQueryTimeout(new QueryTimeout() {
+      @Override
+      public boolean shouldExit() {
+        return false;
+      }
+
+      @Override
+      public boolean isTimeoutEnabled() {
+        return true;
+      }
+    });
+    SortField sortField = new SortField("long", SortField.Type.LONG);
+    sortField.setMissingValue(Long.MAX_VALUE);
+    sortField.setCanUsePoints();
+    final Sort sort = new Sort(sortField);
+    final Query query = new TermQuery(new Term("f", "a"));
+    final int numHits = searcher.count(query);
+    TopFieldCollector collector = TopFieldCollector.create(sort, 10, null, true, false, false, 100);
+    searcher.search(query, collector);
+    TopFieldDocs topDocs = collector.topDocs();
+    assertEquals(TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHitsRelation);
+    assertTrue(topDocs.totalHits < numHits);
+
+    SortField noPointsSortField = new SortField("long", SortField.Type.LONG);
+    noPointsSortField.setMissingValue(Long.MAX_VALUE);
+    assertSameHits(query, new Sort(noPointsSortField), sort, 10, 100);
+  }
+
+  public void testMissingValuesAreCompetitive() throws IOException {
+    SortField sortField = new SortField("long", SortField.Type.LONG);
+    sortField.setMissingValue(Long.MIN_VALUE);
+    sortField.setCanUsePoints();
+    TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), 10, null, true, false, false, 0);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    // we may not skip documents without a value
+    for (ScoreDoc scoreDoc : collector.topDocs().scoreDocs) {
+      assertEquals(Long.MIN_VALUE, ((FieldDoc) scoreDoc).fields[0]);
+    }
+  }
+
+  public void testComparatorWithoutPointsEncoding() throws IOException {
+    // sub classes that don't override the points encoding methods can't skip
+    FieldComparator.NumericComparator<Long> comparator = new FieldComparator.NumericComparator<Long>("long", 0L) {
+      @Override
+      public int compare(int slot1, int slot2) {
+        return 0;
+      }
+
+      @Override
+      public void setBottom(int slot) {}
+
+      @Override
+      public int compareBottom(int doc) {
+        return 0;
+      }
+
+      @Override
+      public void setTopValue(Long value) {}
+
+      @Override
+      public int compareTop(int doc) {
+        return 0;
+      }
+
+      @Override
+      public void copy(int slot, int doc) {}
+
+      @Override
+      public Long value(int slot) {
+        return 0L;
+      }
+    };
+    comparator.enableSkipping(random().nextBoolean());
+    for (LeafReaderContext context : reader.leaves()) {
+      LeafFieldComparator leafComparator = comparator.getLeafComparator(context);
+      leafComparator.setHitsThresholdReached();
+      assertNull(leafComparator.competitiveIterator());
+    }
+  }
+}
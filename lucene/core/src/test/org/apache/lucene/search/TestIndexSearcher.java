@@ -19,6 +19,7 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -27,10 +28,16 @@ import java.util.concurrent.TimeUnit;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
@@ -219,4 +226,109 @@ public class TestIndexSearcher extends LuceneTestCase {
     searcher = new IndexSearcher(new MultiReader());
     assertEquals(dummyPolicy, searcher.getQueryCachingPolicy());
   }
+
+  public void testSlices() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(null).setMergePolicy(NoMergePolicy.INSTANCE));
+    final int[] segmentSizes = new int[] { 1, 2, 3, 10, 25 };
+    for (int size : segmentSizes) {
+      for (int i = 0; i < size; ++i) {
+        w.addDocument(new Document());
+      }
+      w.commit();
+    }
+    IndexReader r = DirectoryReader.open(w);
+    w.close();
+    List<LeafReaderContext> leaves = r.leaves();
+    assertEquals(segmentSizes.length, leaves.size());
+
+    // no partitions: large segments get their own slice
+    IndexSearcher.LeafSlice[] slices = IndexSearcher.slices(leaves, 5, 2, false);
+    assertEquals(4, slices.length);
+    assertEquals(2, slices[0].leaves.length); // 1 + 2
+    assertEquals(1, slices[1].leaves.length); // 3
+    assertEquals(1, slices[2].leaves.length);
+    assertEquals(10, slices[2].leaves[0].reader().maxDoc());
+    assertEquals(1, slices[3].leaves.length);
+    assertEquals(25, slices[3].leaves[0].reader().maxDoc());
+    for (IndexSearcher.LeafSlice slice : slices) {
+      assertFalse(slice.hasPartialLeaves());
+    }
+
+    // partitions: large segments are split into ranges of doc IDs
+    slices = IndexSearcher.slices(leaves, 5, 2, true);
+    assertEquals(9, slices.length);
+    int nextDoc = 0;
+    for (int i = 4; i < 9; ++i) {
+      assertTrue(slices[i].hasPartialLeaves());
+      assertEquals(1, slices[i].partitions.length);
+      IndexSearcher.LeafReaderContextPartition partition = slices[i].partitions[0];
+      assertEquals(25, partition.ctx.reader().maxDoc());
+      assertEquals(nextDoc, partition.minDocId);
+      nextDoc = partition.maxDocId;
+    }
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, nextDoc);
+
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.slices(leaves, 0, 1, true));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.slices(leaves, 1, 0, true));
+    expectThrows(IllegalArgumentException.class, () -> new IndexSearcher.LeafSlice(
+        new IndexSearcher.LeafReaderContextPartition(leaves.get(0), 0, 1),
+        new IndexSearcher.LeafReaderContextPartition(leaves.get(0), 1, 2)));
+
+    IOUtils.close(r, dir);
+  }
+
+  public void testSegmentPartitions() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("foo", random().nextBoolean() ? "bar" : "baz", Store.NO));
+      doc.add(new NumericDocValuesField("sort", random().nextInt(100)));
+      w.addDocument(doc);
+    }
+    if (random().nextBoolean()) {
+      w.forceMerge(1);
+    }
+    IndexReader r = w.getReader();
+    w.close();
+
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = 1 + random().nextInt(100);
+    IndexSearcher partitioned = new IndexSearcher(r, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, 3, true);
+      }
+    };
+    IndexSearcher searcher = new IndexSearcher(r);
+
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("foo", "bar")),
+        new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("foo", "bar")), Occur.SHOULD)
+            .add(new TermQuery(new Term("foo", "baz")), Occur.SHOULD)
+            .build()
+    };
+    Sort sort = new Sort(new SortField("sort", SortField.Type.LONG));
+    for (Query query : queries) {
+      assertEquals(searcher.count(query), partitioned.count(query));
+      final int numHits = 1 + random().nextInt(50);
+      CheckHits.checkEqual(query, searcher.search(query, numHits).scoreDocs, partitioned.search(query, numHits).scoreDocs);
+      TopFieldDocs expected = searcher.search(query, numHits, sort);
+      TopFieldDocs actual = partitioned.search(query, numHits, sort);
+      assertEquals(expected.totalHits, actual.totalHits);
+      assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+      for (int i = 0; i < expected.scoreDocs.length; ++i) {
+        assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+      }
+    }
+
+    TestUtil.shutdownExecutorService(service);
+    IOUtils.close(r, dir);
+  }
 }
@@ -226,6 +226,131 @@ public class TestLRUQueryCache extends LuceneTestCase {
     dir.close();
   }
 
+  public void testConcurrentLookups() throws Exception {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), new String[] {"blue", "red", "green"}));
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final LRUQueryCache queryCache = new LRUQueryCache(3, 10000000, context -> true);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+
+    final Query[] queries = new Query[] {
+        new TermQuery(new Term("color", "blue")),
+        new TermQuery(new Term("color", "red")),
+        new TermQuery(new Term("color", "green"))
+    };
+    for (Query query : queries) {
+      searcher.search(new ConstantScoreQuery(query), new TotalHitCountCollector());
+    }
+    assertEquals(0, queryCache.getHitCount());
+    assertEquals(3 * segmentCount, queryCache.getMissCount());
+
+    // all queries are cached, so concurrent lookups should all be hits
+    final int numIters = atLeast(100);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread[] threads = new Thread[TestUtil.nextInt(random(), 2, 5)];
+    for (int i = 0; i < threads.length; ++i) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int j = 0; j < numIters; ++j) {
+              final Query query = RandomPicks.randomFrom(random(), queries);
+              searcher.search(new ConstantScoreQuery(query), new TotalHitCountCollector());
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+          }
+        }
+      };
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (error.get() != null) {
+      throw new AssertionError(error.get());
+    }
+
+    assertEquals(threads.length * numIters * segmentCount, queryCache.getHitCount());
+    assertEquals(3 * segmentCount, queryCache.getMissCount());
+    assertEquals(3, queryCache.cachedQueries().size());
+    queryCache.assertConsistent();
+
+    // buffered accesses are applied before the LRU order is read
+    searcher.search(new ConstantScoreQuery(queries[0]), new TotalHitCountCollector());
+    assertEquals(queries[0], queryCache.cachedQueries().get(2));
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testAsyncCaching() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), new String[] {"blue", "red"}));
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final int expectedCount = searcher.count(new TermQuery(new Term("color", "blue")));
+    final List<Runnable> tasks = new ArrayList<>();
+    final LRUQueryCache queryCache = new LRUQueryCache(10, 10000000, context -> true, tasks::add);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(QueryCachingPolicy.ALWAYS_CACHE);
+
+    final Query query = new ConstantScoreQuery(new TermQuery(new Term("color", "blue")));
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(query, collector);
+    assertEquals(expectedCount, collector.getTotalHits());
+    // the query ran uncached and entries are only scheduled for creation, once per segment
+    assertEquals(segmentCount, tasks.size());
+    assertEquals(0, queryCache.getCacheCount());
+    assertEquals(Collections.emptyList(), queryCache.cachedQueries());
+
+    // entries that are already being built are not scheduled again
+    searcher.search(query, new TotalHitCountCollector());
+    assertEquals(segmentCount, tasks.size());
+
+    for (Runnable task : tasks) {
+      task.run();
+    }
+    tasks.clear();
+    assertEquals(segmentCount, queryCache.getCacheCount());
+    assertEquals(Collections.singletonList(new TermQuery(new Term("color", "blue"))), queryCache.cachedQueries());
+    queryCache.assertConsistent();
+
+    final long hitCount = queryCache.getHitCount();
+    collector = new TotalHitCountCollector();
+    searcher.search(query, collector);
+    assertEquals(expectedCount, collector.getTotalHits());
+    assertEquals(hitCount + segmentCount, queryCache.getHitCount());
+    assertTrue(tasks.isEmpty());
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
   public void testClearFilter() throws IOException {
     Directory dir = newDirectory();
     final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
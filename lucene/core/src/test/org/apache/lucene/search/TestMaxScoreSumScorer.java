@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestMaxScoreSumScorer extends LuceneTestCase {
+
+  private static final String[] TERMS = new String[] { "a", "b", "c", "d", "e", "f" };
+
+  private Directory dir;
+  private IndexReader reader;
+  private IndexSearcher searcher;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      StringBuilder text = new StringBuilder();
+      for (String term : TERMS) {
+        // make terms have very different frequencies
+        final int freq = random().nextInt(1 + term.charAt(0) - 'a');
+        for (int j = 0; j < freq; ++j) {
+          text.append(term).append(' ');
+        }
+      }
+      doc.add(new TextField("f", text.toString(), Store.NO));
+      w.addDocument(doc);
+    }
+    reader = w.getReader();
+    w.close();
+    searcher = newSearcher(reader);
+    searcher.setSimilarity(new BM25Similarity());
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    dir.close();
+    super.tearDown();
+  }
+
+  private static Query randomDisjunction() {
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    final int numClauses = 2 + random().nextInt(TERMS.length - 1);
+    for (int i = 0; i < numClauses; ++i) {
+      Query q = new TermQuery(new Term("f", TERMS[random().nextInt(TERMS.length)]));
+      if (random().nextBoolean()) {
+        q = new BoostQuery(q, 1 + random().nextInt(5));
+      }
+      builder.add(q, Occur.SHOULD);
+    }
+    if (random().nextInt(5) == 0) {
+      builder.add(new TermQuery(new Term("f", TERMS[random().nextInt(TERMS.length)])), Occur.MUST_NOT);
+    }
+    return builder.build();
+  }
+
+  public void testMaxScore() throws IOException {
+    for (String term : TERMS) {
+      Query query = new TermQuery(new Term("f", term));
+      Weight weight = searcher.createNormalizedWeight(query, true);
+      for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+        Scorer scorer = weight.scorer(context);
+        if (scorer == null) {
+          continue;
+        }
+        final float maxScore = scorer.maxScore();
+        assertTrue(Float.isFinite(maxScore));
+        for (int doc = scorer.iterator().nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = scorer.iterator().nextDoc()) {
+          assertTrue(scorer.score() <= maxScore);
+        }
+      }
+    }
+  }
+
+  public void testSkipsNonCompetitiveDocuments() throws IOException {
+    final int iters = atLeast(10);
+    for (int iter = 0; iter < iters; ++iter) {
+      Query query = searcher.rewrite(randomDisjunction());
+      Weight weight = searcher.createNormalizedWeight(query, true);
+      for (LeafReaderContext context : searcher.getIndexReader().leaves()) {
+        // collect all scores first
+        Map<Integer, Float> scores = new HashMap<>();
+        Scorer scorer = weight.scorer(context);
+        if (scorer == null) {
+          continue;
+        }
+        float maxScore = 0;
+        for (int doc = scorer.iterator().nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = scorer.iterator().nextDoc()) {
+          scores.put(doc, scorer.score());
+          maxScore = Math.max(maxScore, scorer.score());
+        }
+
+        // now verify that all competitive docs are returned
+        final float minCompetitiveScore = random().nextFloat() * maxScore;
+        scorer = weight.scorer(context);
+        scorer.setMinCompetitiveScore(minCompetitiveScore);
+        Set<Integer> actual = new HashSet<>();
+        for (int doc = scorer.iterator().nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = scorer.iterator().nextDoc()) {
+          // scores may be summed in a different order
+          assertEquals(scores.get(doc), scorer.score(), 1e-5f * scorer.score());
+          actual.add(doc);
+        }
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+          if (entry.getValue() > minCompetitiveScore * (1 + 1e-5f)) {
+            assertTrue(actual.contains(entry.getKey()));
+          }
+        }
+      }
+    }
+  }
+
+  public void testSameTopHits() throws IOException {
+    final int iters = atLeast(10);
+    for (int iter = 0; iter < iters; ++iter) {
+      Query query = randomDisjunction();
+      final int numHits = 1 + random().nextInt(20);
+      TopScoreDocCollector exhaustive = TopScoreDocCollector.create(numHits, null, Integer.MAX_VALUE);
+      searcher.search(query, exhaustive);
+      TopScoreDocCollector pruning = TopScoreDocCollector.create(numHits, null, 0);
+      searcher.search(query, pruning);
+      TopDocs expected = exhaustive.topDocs();
+      TopDocs actual = pruning.topDocs();
+      assertTrue(actual.totalHits <= expected.totalHits);
+      assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+      for (int i = 0; i < expected.scoreDocs.length; ++i) {
+        // scores may be summed in a different order
+        assertEquals(expected.scoreDocs[i].score, actual.scoreDocs[i].score, 1e-5f * expected.scoreDocs[i].score);
+      }
+    }
+  }
+}
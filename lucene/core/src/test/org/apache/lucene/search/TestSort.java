@@ -81,6 +81,11 @@ public class TestSort extends LuceneTestCase {
 
     sortField2 = new SortField("foo", SortField.Type.STRING, true);
     assertDifferent(new Sort(sortField1), new Sort(sortField2));
+
+    sortField1 = new SortField("foo", SortField.Type.LONG);
+    sortField2 = new SortField("foo", SortField.Type.LONG);
+    sortField2.setCanUsePoints();
+    assertDifferent(new Sort(sortField1), new Sort(sortField2));
   }
 
   /** Tests sorting on type string */
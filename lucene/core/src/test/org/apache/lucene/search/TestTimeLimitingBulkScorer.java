@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.QueryTimeout;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestTimeLimitingBulkScorer extends LuceneTestCase {
+
+  private Directory dir;
+  private IndexReader reader;
+  private int numDocs;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    numDocs = atLeast(5000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("f", "a", Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    reader = DirectoryReader.open(w);
+    w.close();
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    dir.close();
+    super.tearDown();
+  }
+
+  /** A {@link QueryTimeout} that says to exit after having been checked a given number of times. */
+  private static class CountingQueryTimeout implements QueryTimeout {
+
+    private final int maxChecks;
+    final AtomicInteger numChecks = new AtomicInteger();
+
+    CountingQueryTimeout(int maxChecks) {
+      this.maxChecks = maxChecks;
+    }
+
+    @Override
+    public boolean shouldExit() {
+      return numChecks.incrementAndGet() > maxChecks;
+    }
+  }
+
+  public void testExitDuringScoring() throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryTimeout(new CountingQueryTimeout(2));
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    expectThrows(IndexSearcher.ExitingSearchException.class, () -> {
+      searcher.search(new TermQuery(new Term("f", "a")), collector);
+    });
+    // the hits that were collected before the timeout are still available
+    assertTrue(collector.getTotalHits() > 0);
+    assertTrue(collector.getTotalHits() < numDocs);
+  }
+
+  public void testNoExit() throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    CountingQueryTimeout queryTimeout = new CountingQueryTimeout(Integer.MAX_VALUE);
+    searcher.setQueryTimeout(queryTimeout);
+    assertEquals(numDocs, searcher.count(new MatchAllDocsQuery()));
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(new TermQuery(new Term("f", "a")), collector);
+    assertEquals(numDocs, collector.getTotalHits());
+    // the timeout is checked several times per segment
+    assertTrue(queryTimeout.numChecks.get() > 1);
+  }
+
+  public void testDisabledTimeout() throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    AtomicBoolean checked = new AtomicBoolean();
+    searcher.setQueryTimeout(new QueryTimeout() {
+      @Override
+      public boolean shouldExit() {
+        checked.set(true);
+        return true;
+      }
+
+      @Override
+      public boolean isTimeoutEnabled() {
+        return false;
+      }
+    });
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(new TermQuery(new Term("f", "a")), collector);
+    assertEquals(numDocs, collector.getTotalHits());
+    assertFalse(checked.get());
+  }
+
+  public void testCancellation() throws IOException {
+    IndexSearcher searcher = new IndexSearcher(reader);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    searcher.setQueryTimeout(cancelled::get);
+    AtomicInteger collected = new AtomicInteger();
+    expectThrows(IndexSearcher.ExitingSearchException.class, () -> {
+      searcher.search(new MatchAllDocsQuery(), new SimpleCollector() {
+
+        @Override
+        public void collect(int doc) throws IOException {
+          collected.incrementAndGet();
+          // cancel the query as soon as the first document is collected
+          cancelled.set(true);
+        }
+
+        @Override
+        public boolean needsScores() {
+          return false;
+        }
+      });
+    });
+    // scoring stopped after the first window
+    assertTrue(collected.get() <= TimeLimitingBulkScorer.INITIAL_INTERVAL);
+  }
+}
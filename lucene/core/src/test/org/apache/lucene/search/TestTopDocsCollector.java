@@ -207,5 +207,164 @@ public class TestTopDocsCollector extends LuceneTestCase {
       assertTrue(sd[i - 1].score >= sd[i].score);
     }
   }
-  
+
+  private static class ScoreAndDoc extends Scorer {
+    int doc = -1;
+    float score;
+    Float minCompetitiveScore = null;
+    boolean canSkip = true;
+
+    ScoreAndDoc() {
+      super(null);
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public float score() {
+      return score;
+    }
+
+    @Override
+    public int freq() {
+      return 1;
+    }
+
+    @Override
+    public DocIdSetIterator iterator() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean setMinCompetitiveScore(float minCompetitiveScore) {
+      this.minCompetitiveScore = minCompetitiveScore;
+      return canSkip;
+    }
+  }
+
+  public void testTotalHitsThreshold() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    for (int i = 0; i < 4; ++i) {
+      w.addDocument(new Document());
+    }
+    w.forceMerge(1);
+    IndexReader reader = w.getReader();
+    w.close();
+    LeafReaderContext ctx = reader.leaves().get(0);
+
+    TopScoreDocCollector collector = TopScoreDocCollector.create(2, null, 3);
+    ScoreAndDoc scorer = new ScoreAndDoc();
+    LeafCollector leafCollector = collector.getLeafCollector(ctx);
+    leafCollector.setScorer(scorer);
+
+    scorer.doc = 0;
+    scorer.score = 3;
+    leafCollector.collect(0);
+    assertNull(scorer.minCompetitiveScore);
+
+    scorer.doc = 1;
+    scorer.score = 2;
+    leafCollector.collect(1);
+    // the queue is full but the threshold is not reached yet
+    assertNull(scorer.minCompetitiveScore);
+
+    scorer.doc = 2;
+    scorer.score = 1;
+    leafCollector.collect(2);
+    assertEquals(2f, scorer.minCompetitiveScore, 0f);
+
+    scorer.doc = 3;
+    scorer.score = 4;
+    leafCollector.collect(3);
+    assertEquals(3f, scorer.minCompetitiveScore, 0f);
+
+    TopDocs topDocs = collector.topDocs();
+    assertEquals(4, topDocs.totalHits);
+    assertEquals(TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHitsRelation);
+
+    // exact counts by default
+    collector = TopScoreDocCollector.create(2);
+    leafCollector = collector.getLeafCollector(ctx);
+    scorer = new ScoreAndDoc();
+    leafCollector.setScorer(scorer);
+    for (int i = 0; i < 4; ++i) {
+      scorer.doc = i;
+      scorer.score = i;
+      leafCollector.collect(i);
+    }
+    assertNull(scorer.minCompetitiveScore);
+    topDocs = collector.topDocs();
+    assertEquals(4, topDocs.totalHits);
+    assertEquals(TopDocs.TotalHitsRelation.EQUAL_TO, topDocs.totalHitsRelation);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testScorerIgnoresMinCompetitiveScore() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    for (int i = 0; i < 4; ++i) {
+      w.addDocument(new Document());
+    }
+    w.forceMerge(1);
+    IndexReader reader = w.getReader();
+    w.close();
+    LeafReaderContext ctx = reader.leaves().get(0);
+
+    TopScoreDocCollector collector = TopScoreDocCollector.create(2, null, 0);
+    ScoreAndDoc scorer = new ScoreAndDoc();
+    scorer.canSkip = false;
+    LeafCollector leafCollector = collector.getLeafCollector(ctx);
+    leafCollector.setScorer(scorer);
+    for (int i = 0; i < 4; ++i) {
+      scorer.doc = i;
+      scorer.score = i;
+      leafCollector.collect(i);
+    }
+    assertEquals(2f, scorer.minCompetitiveScore, 0f);
+
+    // all hits were visited so the count is exact
+    TopDocs topDocs = collector.topDocs();
+    assertEquals(4, topDocs.totalHits);
+    assertEquals(TopDocs.TotalHitsRelation.EQUAL_TO, topDocs.totalHitsRelation);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testMultiCollectorIgnoresMinCompetitiveScore() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    w.addDocument(new Document());
+    w.addDocument(new Document());
+    w.forceMerge(1);
+    IndexReader reader = w.getReader();
+    w.close();
+    LeafReaderContext ctx = reader.leaves().get(0);
+
+    // the total hit count collector needs all hits
+    TopScoreDocCollector topCollector = TopScoreDocCollector.create(1, null, 0);
+    Collector collector = MultiCollector.wrap(topCollector, new TotalHitCountCollector());
+    ScoreAndDoc scorer = new ScoreAndDoc();
+    LeafCollector leafCollector = collector.getLeafCollector(ctx);
+    leafCollector.setScorer(scorer);
+    for (int i = 0; i < 2; ++i) {
+      scorer.doc = i;
+      scorer.score = 1 + i;
+      leafCollector.collect(i);
+    }
+    assertNull(scorer.minCompetitiveScore);
+    TopDocs topDocs = topCollector.topDocs();
+    assertEquals(2, topDocs.totalHits);
+    assertEquals(TopDocs.TotalHitsRelation.EQUAL_TO, topDocs.totalHitsRelation);
+
+    reader.close();
+    dir.close();
+  }
+
 }
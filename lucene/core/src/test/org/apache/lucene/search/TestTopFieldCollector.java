@@ -259,4 +259,70 @@ public class TestTopFieldCollector extends LuceneTestCase {
     dir.close();
   }
 
+  public void testEarlyTerminationWithIndexSort() throws IOException {
+    Directory dir = newDirectory();
+    final Sort indexSort = new Sort(new SortField("ts", SortField.Type.LONG, true), new SortField("id", SortField.Type.INT));
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, newIndexWriterConfig().setIndexSort(indexSort));
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new NumericDocValuesField("ts", random().nextInt(100)));
+      doc.add(new NumericDocValuesField("id", i));
+      w.addDocument(doc);
+    }
+    IndexReader reader = w.getReader();
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    final Sort[] sorts = new Sort[] {
+        new Sort(new SortField("ts", SortField.Type.LONG, true)),
+        indexSort
+    };
+    for (Sort sort : sorts) {
+      final int numHits = 1 + random().nextInt(20);
+      TopFieldCollector exhaustive = TopFieldCollector.create(sort, numHits, null, true, false, false);
+      searcher.search(new MatchAllDocsQuery(), exhaustive);
+      TopFieldDocs expected = exhaustive.topDocs();
+      assertEquals(numDocs, expected.totalHits);
+      assertEquals(TopDocs.TotalHitsRelation.EQUAL_TO, expected.totalHitsRelation);
+      assertFalse(exhaustive.isEarlyTerminated());
+
+      TopFieldCollector terminating = TopFieldCollector.create(sort, numHits, null, true, false, false, 0);
+      searcher.search(new MatchAllDocsQuery(), terminating);
+      TopFieldDocs actual = terminating.topDocs();
+      assertTrue(actual.totalHits <= numDocs);
+      if (terminating.isEarlyTerminated()) {
+        assertEquals(TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO, actual.totalHitsRelation);
+      }
+      assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+      for (int i = 0; i < expected.scoreDocs.length; ++i) {
+        FieldDoc expectedHit = (FieldDoc) expected.scoreDocs[i];
+        FieldDoc actualHit = (FieldDoc) actual.scoreDocs[i];
+        assertEquals(expectedHit.fields[0], actualHit.fields[0]);
+      }
+
+      // searching after the last hit works too
+      FieldDoc after = (FieldDoc) expected.scoreDocs[expected.scoreDocs.length - 1];
+      exhaustive = TopFieldCollector.create(sort, numHits, after, true, false, false);
+      searcher.search(new MatchAllDocsQuery(), exhaustive);
+      terminating = TopFieldCollector.create(sort, numHits, after, true, false, false, 0);
+      searcher.search(new MatchAllDocsQuery(), terminating);
+      expected = exhaustive.topDocs();
+      actual = terminating.topDocs();
+      assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+      for (int i = 0; i < expected.scoreDocs.length; ++i) {
+        assertEquals(((FieldDoc) expected.scoreDocs[i]).fields[0], ((FieldDoc) actual.scoreDocs[i]).fields[0]);
+      }
+    }
+
+    // sorts that are not a prefix of the index sort do not terminate early
+    TopFieldCollector collector = TopFieldCollector.create(new Sort(new SortField("id", SortField.Type.INT)), 1, null, true, false, false, 0);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    assertFalse(collector.isEarlyTerminated());
+    assertEquals(numDocs, collector.getTotalHits());
+
+    reader.close();
+    dir.close();
+  }
+
 }
@@ -33,6 +33,9 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
   protected Directory getDirectory(Path path) throws IOException {
     MMapDirectory m = new MMapDirectory(path);
     m.setPreload(random().nextBoolean());
+    if (random().nextBoolean()) {
+      m.setPrefetchExecutor(Runnable::run);
+    }
     return m;
   }
   
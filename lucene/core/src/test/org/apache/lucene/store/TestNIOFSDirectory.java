@@ -27,6 +27,10 @@ public class TestNIOFSDirectory extends BaseDirectoryTestCase {
 
   @Override
   protected Directory getDirectory(Path path) throws IOException {
-    return new NIOFSDirectory(path);
+    NIOFSDirectory dir = new NIOFSDirectory(path);
+    if (random().nextBoolean()) {
+      dir.setPrefetchExecutor(Runnable::run);
+    }
+    return dir;
   }
 }
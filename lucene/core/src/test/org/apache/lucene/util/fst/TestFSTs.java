@@ -1195,6 +1195,12 @@ public class TestFSTs extends LuceneTestCase {
     final FST<Long> fst2 = new FST<>(in, outputs);
     checkStopNodes(fst2, outputs);
     in.close();
+
+    // ... and when read off-heap:
+    in = dir.openInput("fst", IOContext.DEFAULT);
+    final FST<Long> fst3 = new FST<>(in, outputs, true);
+    checkStopNodes(fst3, outputs);
+    in.close();
     dir.close();
   }
 
@@ -0,0 +1,437 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.lucene.util.IOUtils;
+
+/**
+ * A cache of fixed-size blocks of files, stored either off-heap or in a file
+ * on a fast local disk. This is the storage of {@link BlockCacheDirectory},
+ * and may be shared by several directories.
+ * <p>
+ * Blocks are looked up without locking. When the cache is full, the block to
+ * evict is picked with the GCLOCK algorithm: every block has a small counter
+ * that is incremented on every hit, up to {@value #MAX_FREQUENCY}, and that a
+ * clock hand decrements as it sweeps over the blocks. The first block whose
+ * counter is zero is evicted. This behaves like LRU for blocks that are
+ * accessed once, while blocks that are accessed frequently survive scans.
+ * Apart from the keys of cached blocks, every slot of the cache uses about
+ * 80 bytes of heap for bookkeeping.
+ * <p>
+ * This cache exposes some statistics ({@link #getHitCount() hit count},
+ * {@link #getMissCount() miss count}, {@link #getBlockCount() number of cached
+ * blocks} and {@link #getEvictionCount() number of evicted blocks}) that can
+ * be used to tune its size.
+ *
+ * @lucene.experimental
+ */
+public final class BlockCache implements Closeable {
+
+  /** Maximum value of the access counter of a block. */
+  public static final int MAX_FREQUENCY = 3;
+
+  /** Maximum size of a slab of blocks, in bytes. */
+  private static final int MAX_SLAB_SIZE = 1 << 28;
+
+  /** Create a cache of {@code maxSizeInBytes} bytes in direct (off-heap)
+   *  memory, split into blocks of {@code blockSize} bytes, which must be a
+   *  power of two. */
+  public static BlockCache allocateDirect(int blockSize, long maxSizeInBytes) {
+    final int numBlocks = numBlocks(blockSize, maxSizeInBytes);
+    final int blocksPerSlab = MAX_SLAB_SIZE / blockSize;
+    final ByteBuffer[] slabs = new ByteBuffer[(numBlocks + blocksPerSlab - 1) / blocksPerSlab];
+    for (int i = 0; i < slabs.length; ++i) {
+      final int slabBlocks = Math.min(blocksPerSlab, numBlocks - i * blocksPerSlab);
+      slabs[i] = ByteBuffer.allocateDirect(slabBlocks * blockSize);
+    }
+    return new BlockCache(blockSize, numBlocks, blocksPerSlab, slabs, null, null);
+  }
+
+  /** Create a cache of {@code maxSizeInBytes} bytes that are stored in a new
+   *  file at {@code path}, split into blocks of {@code blockSize} bytes, which
+   *  must be a power of two. {@code path} should point to a fast local disk.
+   *  The file is deleted when the cache is closed. */
+  public static BlockCache mapFile(Path path, int blockSize, long maxSizeInBytes) throws IOException {
+    final int numBlocks = numBlocks(blockSize, maxSizeInBytes);
+    final int blocksPerSlab = MAX_SLAB_SIZE / blockSize;
+    final ByteBuffer[] slabs = new ByteBuffer[(numBlocks + blocksPerSlab - 1) / blocksPerSlab];
+    boolean success = false;
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      for (int i = 0; i < slabs.length; ++i) {
+        final int slabBlocks = Math.min(blocksPerSlab, numBlocks - i * blocksPerSlab);
+        slabs[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * blocksPerSlab * blockSize, (long) slabBlocks * blockSize);
+      }
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(channel);
+        IOUtils.deleteFilesIgnoringExceptions(path);
+      }
+    }
+    return new BlockCache(blockSize, numBlocks, blocksPerSlab, slabs, channel, path);
+  }
+
+  private static int numBlocks(int blockSize, long maxSizeInBytes) {
+    if (blockSize <= 0 || Integer.bitCount(blockSize) != 1 || blockSize > MAX_SLAB_SIZE) {
+      throw new IllegalArgumentException("blockSize must be a power of two that is <= " + MAX_SLAB_SIZE + ", got " + blockSize);
+    }
+    final long numBlocks = maxSizeInBytes / blockSize;
+    if (numBlocks < 1 || numBlocks > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("maxSizeInBytes must be between blockSize and "
+          + ((long) Integer.MAX_VALUE * blockSize) + ", got " + maxSizeInBytes);
+    }
+    return (int) numBlocks;
+  }
+
+  /** Identifies a block of a file. */
+  static final class BlockKey {
+    final Object owner;
+    final String name;
+    final long block;
+
+    BlockKey(Object owner, String name, long block) {
+      this.owner = owner;
+      this.name = name;
+      this.block = block;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != BlockKey.class) {
+        return false;
+      }
+      final BlockKey that = (BlockKey) obj;
+      return owner == that.owner && block == that.block && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * System.identityHashCode(owner) + name.hashCode()) + Long.hashCode(block);
+    }
+
+    @Override
+    public String toString() {
+      return "BlockKey(" + name + ", " + block + ")";
+    }
+  }
+
+  private final int blockSize;
+  private final int numBlocks;
+  private final int slabShift;
+  private final int slabMask;
+  private final ByteBuffer[] slabs;
+  private final FileChannel channel;
+  private final Path path;
+
+  private final Map<BlockKey, Integer> slotsByKey;
+  // the key of every slot, or null if the slot is free
+  private final AtomicReferenceArray<BlockKey> keys;
+  // write-locked while the content of a slot is being replaced, readers copy
+  // bytes under an optimistic read and validate it afterwards
+  private final StampedLock[] slotLocks;
+  private final AtomicIntegerArray frequencies;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  // these fields are protected by the lock
+  private final int[] freeSlots;
+  private int numFreeSlots;
+  // the slots of the blocks of every file form a doubly-linked list, so that
+  // the blocks of a file can be invalidated without visiting all slots
+  private final Map<Object, Map<String, Integer>> firstSlotByFile = new IdentityHashMap<>();
+  private final int[] nextSlotOfFile;
+  private final int[] prevSlotOfFile;
+  private int clockHand;
+  private boolean closed;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  private BlockCache(int blockSize, int numBlocks, int blocksPerSlab, ByteBuffer[] slabs, FileChannel channel, Path path) {
+    this.blockSize = blockSize;
+    this.numBlocks = numBlocks;
+    this.slabShift = Integer.numberOfTrailingZeros(blocksPerSlab);
+    this.slabMask = blocksPerSlab - 1;
+    assert Integer.bitCount(blocksPerSlab) == 1;
+    this.slabs = slabs;
+    this.channel = channel;
+    this.path = path;
+    this.slotsByKey = new ConcurrentHashMap<>();
+    this.keys = new AtomicReferenceArray<>(numBlocks);
+    this.slotLocks = new StampedLock[numBlocks];
+    for (int i = 0; i < numBlocks; ++i) {
+      slotLocks[i] = new StampedLock();
+    }
+    this.frequencies = new AtomicIntegerArray(numBlocks);
+    this.nextSlotOfFile = new int[numBlocks];
+    this.prevSlotOfFile = new int[numBlocks];
+    this.freeSlots = new int[numBlocks];
+    for (int i = 0; i < numBlocks; ++i) {
+      freeSlots[i] = numBlocks - 1 - i;
+    }
+    this.numFreeSlots = numBlocks;
+  }
+
+  /** Return the size of blocks, in bytes. */
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /** Return the maximum number of blocks that this cache can hold. */
+  public int getMaxBlockCount() {
+    return numBlocks;
+  }
+
+  /** Return the number of blocks that are currently cached. */
+  public int getBlockCount() {
+    return slotsByKey.size();
+  }
+
+  /** Return the number of times that a block was found in the cache. */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** Return the number of times that a block was looked up and not found in
+   *  the cache. */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /** Return the number of blocks that have been evicted to make room for
+   *  other blocks. Blocks of deleted files are not counted. */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  private ByteBuffer slice(int slot) {
+    final ByteBuffer slab = slabs[slot >>> slabShift].duplicate();
+    slab.position((slot & slabMask) * blockSize);
+    return slab;
+  }
+
+  /**
+   * Copy {@code length} bytes of the block identified by {@code key},
+   * starting at {@code offset} in the block, to {@code dest}. Return false,
+   * without any guarantee about the content of {@code dest}, if the block is
+   * not cached.
+   */
+  boolean read(BlockKey key, int offset, byte[] dest, int destOffset, int length) {
+    assert offset >= 0 && length >= 0 && offset + length <= blockSize;
+    final Integer slot = slotsByKey.get(key);
+    if (slot != null) {
+      final StampedLock slotLock = slotLocks[slot];
+      final long stamp = slotLock.tryOptimisticRead();
+      if (stamp != 0 && key.equals(keys.get(slot))) {
+        final ByteBuffer block = slice(slot);
+        block.position(block.position() + offset);
+        block.get(dest, destOffset, length);
+        // validate() orders the above reads before the check, so a block that
+        // was replaced while being copied is never returned as a hit
+        if (slotLock.validate(stamp)) {
+          final int frequency = frequencies.get(slot);
+          if (frequency < MAX_FREQUENCY) {
+            frequencies.lazySet(slot, frequency + 1);
+          }
+          hitCount.incrementAndGet();
+          return true;
+        }
+      }
+    }
+    missCount.incrementAndGet();
+    return false;
+  }
+
+  /**
+   * Add the first {@code length} bytes of {@code block} to the cache under
+   * {@code key}, possibly evicting another block.
+   */
+  void put(BlockKey key, byte[] block, int length) {
+    assert length > 0 && length <= blockSize;
+    lock.lock();
+    try {
+      if (closed || slotsByKey.containsKey(key)) {
+        return;
+      }
+      final int slot = numFreeSlots > 0 ? freeSlots[--numFreeSlots] : evict();
+      final StampedLock slotLock = slotLocks[slot];
+      final long stamp = slotLock.writeLock();
+      try {
+        keys.set(slot, key);
+        slice(slot).put(block, 0, length);
+      } finally {
+        slotLock.unlockWrite(stamp);
+      }
+      frequencies.set(slot, 1);
+      slotsByKey.put(key, slot);
+      addToFile(slot, key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Free the slot of the next block that has a null frequency. */
+  private int evict() {
+    assert lock.isHeldByCurrentThread();
+    while (true) {
+      final int slot = clockHand;
+      clockHand = slot + 1 == numBlocks ? 0 : slot + 1;
+      final int frequency = frequencies.get(slot);
+      if (frequency > 0) {
+        frequencies.set(slot, frequency - 1);
+      } else {
+        final BlockKey key = keys.get(slot);
+        slotsByKey.remove(key);
+        removeFromFile(slot, key);
+        evictionCount.incrementAndGet();
+        return slot;
+      }
+    }
+  }
+
+  private void addToFile(int slot, BlockKey key) {
+    assert lock.isHeldByCurrentThread();
+    final Map<String, Integer> firstSlots = firstSlotByFile.computeIfAbsent(key.owner, owner -> new HashMap<>());
+    final Integer first = firstSlots.put(key.name, slot);
+    prevSlotOfFile[slot] = -1;
+    if (first == null) {
+      nextSlotOfFile[slot] = -1;
+    } else {
+      nextSlotOfFile[slot] = first;
+      prevSlotOfFile[first] = slot;
+    }
+  }
+
+  private void removeFromFile(int slot, BlockKey key) {
+    assert lock.isHeldByCurrentThread();
+    final int prev = prevSlotOfFile[slot];
+    final int next = nextSlotOfFile[slot];
+    if (next != -1) {
+      prevSlotOfFile[next] = prev;
+    }
+    if (prev != -1) {
+      nextSlotOfFile[prev] = next;
+    } else {
+      final Map<String, Integer> firstSlots = firstSlotByFile.get(key.owner);
+      if (next != -1) {
+        firstSlots.put(key.name, next);
+      } else {
+        firstSlots.remove(key.name);
+        if (firstSlots.isEmpty()) {
+          firstSlotByFile.remove(key.owner);
+        }
+      }
+    }
+  }
+
+  /** Free the slots of the blocks of a file, starting at {@code first}. */
+  private void freeSlotsOfFile(int first) {
+    assert lock.isHeldByCurrentThread();
+    for (int slot = first; slot != -1; slot = nextSlotOfFile[slot]) {
+      slotsByKey.remove(keys.get(slot));
+      final StampedLock slotLock = slotLocks[slot];
+      final long stamp = slotLock.writeLock();
+      keys.set(slot, null);
+      slotLock.unlockWrite(stamp);
+      frequencies.set(slot, 0);
+      freeSlots[numFreeSlots++] = slot;
+    }
+  }
+
+  /** Remove all blocks of file {@code name} of {@code owner} from the cache. */
+  void invalidate(Object owner, String name) {
+    lock.lock();
+    try {
+      final Map<String, Integer> firstSlots = firstSlotByFile.get(owner);
+      final Integer first = firstSlots == null ? null : firstSlots.remove(name);
+      if (first != null) {
+        freeSlotsOfFile(first);
+        if (firstSlots.isEmpty()) {
+          firstSlotByFile.remove(owner);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Remove all blocks of {@code owner} from the cache. */
+  void invalidate(Object owner) {
+    lock.lock();
+    try {
+      final Map<String, Integer> firstSlots = firstSlotByFile.remove(owner);
+      if (firstSlots != null) {
+        for (int first : firstSlots.values()) {
+          freeSlotsOfFile(first);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Release the cached blocks, and delete the backing file if any. */
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      slotsByKey.clear();
+      firstSlotByFile.clear();
+      for (int slot = 0; slot < numBlocks; ++slot) {
+        keys.set(slot, null);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (channel != null) {
+      try {
+        channel.close();
+      } finally {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BlockCache(blockSize=" + blockSize + ",maxBlockCount=" + numBlocks
+        + (path == null ? "" : ",path=" + path) + ")";
+  }
+}
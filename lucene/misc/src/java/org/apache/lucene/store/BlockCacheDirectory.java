@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.index.IndexFileNames;
+
+/**
+ * Wraps a slow directory, eg. one on network-attached storage, and caches
+ * fixed-size blocks of the files that are read from it in a {@link BlockCache},
+ * which lives either off-heap or on a fast local disk.
+ *
+ * <p>Files are written and deleted directly in the wrapped directory. Reads
+ * go through the cache, unless {@link #doCacheRead} returns false: by default
+ * files that are opened for merging or to be read only once (see {@link
+ * IOContext}) are read directly, since caching them would only evict blocks
+ * that searches need. Reads can further be restricted to a set of file
+ * extensions, eg. to only cache terms dictionaries and doc values:
+ *
+ * <pre class="prettyprint">
+ *   BlockCache cache = BlockCache.mapFile(Paths.get("/local/ssd/cache"), 1 &lt;&lt; 16, 32L &lt;&lt; 30);
+ *   Directory dir = new BlockCacheDirectory(FSDirectory.open(Paths.get("/mnt/nas/index")), cache,
+ *       new HashSet&lt;&gt;(Arrays.asList("tim", "tip", "dvd", "dvm")));
+ * </pre>
+ *
+ * <p>Since Lucene never modifies a file after it has been written, cached
+ * blocks remain valid until their file is deleted, at which point they are
+ * removed from the cache. The cache may be shared by several directories.
+ * It is not closed when this directory is closed.
+ *
+ * @lucene.experimental
+ */
+public class BlockCacheDirectory extends FilterDirectory {
+
+  private final BlockCache cache;
+  private final Set<String> extensions;
+
+  /**
+   * Create a new BlockCacheDirectory.
+   * @param in the directory to read files from
+   * @param cache the cache of blocks
+   * @param extensions the extensions of the files to cache, or {@code null}
+   *        to cache files regardless of their extension
+   */
+  public BlockCacheDirectory(Directory in, BlockCache cache, Set<String> extensions) {
+    super(in);
+    this.cache = cache;
+    this.extensions = extensions == null ? null : Collections.unmodifiableSet(new HashSet<>(extensions));
+  }
+
+  /** Return the cache of blocks. */
+  public BlockCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Subclass can override this to customize which files are read through the
+   * cache. The default implementation skips files that are opened for
+   * merging or to be read only once, and files whose extension is not one of
+   * the configured extensions.
+   */
+  protected boolean doCacheRead(String name, IOContext context) {
+    if (context.context == IOContext.Context.MERGE || context.readOnce) {
+      return false;
+    }
+    return extensions == null || extensions.contains(IndexFileNames.getExtension(name));
+  }
+
+  @Override
+  public IndexInput openInput(String name, IOContext context) throws IOException {
+    final IndexInput in = super.openInput(name, context);
+    if (doCacheRead(name, context) == false) {
+      return in;
+    }
+    return new CachedIndexInput("CachedIndexInput(" + in.toString() + ")", in, context, name);
+  }
+
+  @Override
+  public void deleteFile(String name) throws IOException {
+    cache.invalidate(this, name);
+    super.deleteFile(name);
+  }
+
+  @Override
+  public IndexOutput createOutput(String name, IOContext context) throws IOException {
+    cache.invalidate(this, name);
+    return super.createOutput(name, context);
+  }
+
+  @Override
+  public void rename(String source, String dest) throws IOException {
+    cache.invalidate(this, source);
+    cache.invalidate(this, dest);
+    super.rename(source, dest);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      cache.invalidate(this);
+    } finally {
+      super.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BlockCacheDirectory(" + in + ", " + cache + ")";
+  }
+
+  /** Reads blocks through the cache, and loads missing blocks from the wrapped input. */
+  private final class CachedIndexInput extends BufferedIndexInput {
+
+    private final String name;
+    private final long off; // start offset of this input in the file
+    private final long end; // end offset of this input in the file
+    private IndexInput in; // the whole file
+    private byte[] block; // scratch space to load blocks, lazily allocated
+    private boolean isClone;
+
+    CachedIndexInput(String resourceDesc, IndexInput in, IOContext context, String name) {
+      super(resourceDesc, context);
+      this.name = name;
+      this.off = 0;
+      this.end = in.length();
+      this.in = in;
+    }
+
+    private CachedIndexInput(String resourceDesc, IndexInput in, String name, long off, long length, int bufferSize) {
+      super(resourceDesc, bufferSize);
+      this.name = name;
+      this.off = off;
+      this.end = off + length;
+      this.in = in;
+      this.isClone = true;
+    }
+
+    @Override
+    protected void readInternal(byte[] b, int offset, int len) throws IOException {
+      long pos = off + getFilePointer();
+      if (pos + len > end) {
+        throw new EOFException("read past EOF: " + this);
+      }
+      final int blockSize = cache.getBlockSize();
+      while (len > 0) {
+        final long blockIndex = pos / blockSize;
+        final int offsetInBlock = (int) (pos % blockSize);
+        final int toRead = Math.min(len, blockSize - offsetInBlock);
+        final BlockCache.BlockKey key = new BlockCache.BlockKey(BlockCacheDirectory.this, name, blockIndex);
+        if (cache.read(key, offsetInBlock, b, offset, toRead) == false) {
+          final long blockStart = blockIndex * blockSize;
+          final int blockLength = (int) Math.min(blockSize, in.length() - blockStart);
+          if (block == null) {
+            block = new byte[blockSize];
+          }
+          in.seek(blockStart);
+          in.readBytes(block, 0, blockLength);
+          cache.put(key, block, blockLength);
+          System.arraycopy(block, offsetInBlock, b, offset, toRead);
+        }
+        pos += toRead;
+        offset += toRead;
+        len -= toRead;
+      }
+    }
+
+    @Override
+    protected void seekInternal(long pos) throws IOException {
+      if (pos > length()) {
+        throw new EOFException("read past EOF: pos=" + pos + " vs length=" + length() + ": " + this);
+      }
+    }
+
+    @Override
+    public long length() {
+      return end - off;
+    }
+
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset + length > length()) {
+        throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + length() + ": "  + this);
+      }
+      in.prefetch(off + offset, length);
+    }
+
+    @Override
+    public CachedIndexInput clone() {
+      final CachedIndexInput clone = (CachedIndexInput) super.clone();
+      clone.in = in.clone();
+      clone.block = null;
+      clone.isClone = true;
+      return clone;
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset + length > length()) {
+        throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + length() + ": "  + this);
+      }
+      return new CachedIndexInput(getFullSliceDescription(sliceDescription), in.clone(), name, off + offset, length, getBufferSize());
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (isClone == false) {
+        in.close();
+      }
+    }
+  }
+}
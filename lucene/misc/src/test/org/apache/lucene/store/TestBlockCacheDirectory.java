@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests BlockCacheDirectory
+ */
+public class TestBlockCacheDirectory extends BaseDirectoryTestCase {
+
+  private static BlockCache newBlockCache(int blockSize, long maxSizeInBytes) throws IOException {
+    if (random().nextBoolean()) {
+      return BlockCache.allocateDirect(blockSize, maxSizeInBytes);
+    } else {
+      return BlockCache.mapFile(createTempDir("blockcache").resolve("cache"), blockSize, maxSizeInBytes);
+    }
+  }
+
+  private static Directory newBlockCacheDirectory(Directory in, BlockCache cache) {
+    return new BlockCacheDirectory(in, cache, null) {
+      @Override
+      public void close() throws IOException {
+        IOUtils.close(super::close, cache);
+      }
+    };
+  }
+
+  @Override
+  protected Directory getDirectory(Path path) throws IOException {
+    final int blockSize = 1 << TestUtil.nextInt(random(), 4, 14);
+    final BlockCache cache = newBlockCache(blockSize, (long) blockSize * TestUtil.nextInt(random(), 1, 200));
+    return newBlockCacheDirectory(new RAFDirectory(path), cache);
+  }
+
+  public void testHitsAndEvictions() throws Exception {
+    final int blockSize = 256;
+    final BlockCache cache = newBlockCache(blockSize, 4 * blockSize);
+    try (Directory dir = newBlockCacheDirectory(new RAFDirectory(createTempDir()), cache)) {
+      byte[] bytes = new byte[6 * blockSize + 17];
+      random().nextBytes(bytes);
+      try (IndexOutput out = dir.createOutput("file", IOContext.DEFAULT)) {
+        out.writeBytes(bytes, bytes.length);
+      }
+
+      byte[] read = new byte[bytes.length];
+      try (IndexInput in = dir.openInput("file", IOContext.DEFAULT)) {
+        in.readBytes(read, 0, blockSize, false);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+        in.seek(0);
+        in.readBytes(read, 0, blockSize, false);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getBlockCount());
+
+        // reading the whole file must evict blocks
+        in.seek(0);
+        in.readBytes(read, 0, read.length, false);
+        assertArrayEquals(bytes, read);
+        assertEquals(4, cache.getBlockCount());
+        assertTrue(cache.getEvictionCount() > 0);
+
+        // reads of a slice share blocks with the file
+        final long missCount = cache.getMissCount();
+        final long hitCount = cache.getHitCount();
+        IndexInput slice = in.slice("slice", bytes.length - 10, 10);
+        byte[] sliceBytes = new byte[10];
+        slice.readBytes(sliceBytes, 0, sliceBytes.length);
+        assertEquals(missCount, cache.getMissCount());
+        assertEquals(hitCount + 1, cache.getHitCount());
+      }
+
+      // blocks of deleted files are removed from the cache
+      dir.deleteFile("file");
+      assertEquals(0, cache.getBlockCount());
+    }
+  }
+
+  public void testInvalidateFile() throws Exception {
+    final int blockSize = 64;
+    final BlockCache cache = newBlockCache(blockSize, 16 * blockSize);
+    try (Directory dir = newBlockCacheDirectory(new RAFDirectory(createTempDir()), cache)) {
+      byte[] bytes = new byte[3 * blockSize];
+      random().nextBytes(bytes);
+      for (String name : new String[] { "a", "b", "c" }) {
+        try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+          out.writeBytes(bytes, bytes.length);
+        }
+        try (IndexInput in = dir.openInput(name, IOContext.DEFAULT)) {
+          in.readBytes(new byte[bytes.length], 0, bytes.length);
+        }
+      }
+      assertEquals(9, cache.getBlockCount());
+
+      // only the blocks of the deleted file are removed
+      dir.deleteFile("b");
+      assertEquals(6, cache.getBlockCount());
+      final long missCount = cache.getMissCount();
+      byte[] read = new byte[bytes.length];
+      for (String name : new String[] { "a", "c" }) {
+        try (IndexInput in = dir.openInput(name, IOContext.DEFAULT)) {
+          in.readBytes(read, 0, read.length);
+          assertArrayEquals(bytes, read);
+        }
+      }
+      assertEquals(missCount, cache.getMissCount());
+
+      dir.rename("a", "b");
+      assertEquals(3, cache.getBlockCount());
+      try (IndexInput in = dir.openInput("b", IOContext.DEFAULT)) {
+        in.readBytes(read, 0, read.length);
+        assertArrayEquals(bytes, read);
+      }
+      assertEquals(6, cache.getBlockCount());
+    }
+  }
+
+  public void testAdmission() throws Exception {
+    final BlockCache cache = newBlockCache(64, 1024);
+    try (Directory dir = new BlockCacheDirectory(new RAFDirectory(createTempDir()), cache, Collections.singleton("tim"))) {
+      for (String name : new String[] { "_0.tim", "_0.doc" }) {
+        try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+          out.writeLong(42);
+        }
+      }
+      try (IndexInput in = dir.openInput("_0.doc", IOContext.DEFAULT)) {
+        assertEquals(42, in.readLong());
+      }
+      try (IndexInput in = dir.openInput("_0.tim", IOContext.READONCE)) {
+        assertEquals(42, in.readLong());
+      }
+      assertEquals(0, cache.getBlockCount());
+      try (IndexInput in = dir.openInput("_0.tim", IOContext.DEFAULT)) {
+        assertEquals(42, in.readLong());
+      }
+      assertEquals(1, cache.getBlockCount());
+    } finally {
+      cache.close();
+    }
+  }
+}
@@ -1018,6 +1018,42 @@ public abstract class BaseDirectoryTestCase extends LuceneTestCase {
     dir.close();
   }
   
+  public void testPrefetch() throws Exception {
+    Directory dir = getDirectory(createTempDir("prefetch"));
+    IndexOutput output = dir.createOutput("bytes", newIOContext(random()));
+    final int num = TestUtil.nextInt(random(), 1, TEST_NIGHTLY ? 100000 : 20000);
+    byte bytes[] = new byte[num];
+    random().nextBytes(bytes);
+    output.writeBytes(bytes, bytes.length);
+    output.close();
+
+    IndexInput input = dir.openInput("bytes", newIOContext(random()));
+    final int sliceOffset = random().nextInt(num);
+    IndexInput slice = input.slice("slice", sliceOffset, num - sliceOffset);
+    for (IndexInput in : new IndexInput[] { input, slice, slice.clone() }) {
+      final long fp = TestUtil.nextLong(random(), 0, in.length());
+      in.seek(fp);
+      for (int i = 0; i < 10; ++i) {
+        final long offset = TestUtil.nextLong(random(), 0, in.length());
+        final long length = TestUtil.nextLong(random(), 0, in.length() - offset);
+        in.prefetch(offset, length);
+      }
+      // prefetching must not move the file pointer
+      assertEquals(fp, in.getFilePointer());
+    }
+
+    byte data[] = new byte[num];
+    input.seek(0);
+    input.readBytes(data, 0, num);
+    assertArrayEquals(bytes, data);
+    slice.seek(0);
+    slice.readBytes(data, sliceOffset, num - sliceOffset);
+    assertArrayEquals(bytes, data);
+
+    input.close();
+    dir.close();
+  }
+
   /** 
    * This test that writes larger than the size of the buffer output
    * will correctly increment the file pointer.
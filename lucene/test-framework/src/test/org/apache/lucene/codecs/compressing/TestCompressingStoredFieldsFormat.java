@@ -17,6 +17,8 @@
 package org.apache.lucene.codecs.compressing;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.apache.lucene.analysis.MockAnalyzer;
@@ -36,6 +38,11 @@ import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.TestUtil;
 import com.carrotsearch.randomizedtesting.generators.RandomNumbers;
 
 public class TestCompressingStoredFieldsFormat extends BaseStoredFieldsFormatTestCase {
@@ -311,4 +318,176 @@ public class TestCompressingStoredFieldsFormat extends BaseStoredFieldsFormatTes
     iw.close();
     dir.close();
   }
+
+  public void testChunkCache() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
+    // chunks must be large enough to hold several documents without being sliced
+    iwConf.setCodec(CompressingCodec.randomInstance(random(), 16 * 1024, 64, false, 1024));
+    // several segments share the cache
+    iwConf.setMergePolicy(NoMergePolicy.INSTANCE);
+    IndexWriter iw = new IndexWriter(dir, iwConf);
+    final int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StoredField("id", i));
+      doc.add(new StoredField("text", TestUtil.randomUnicodeString(random(), 200)));
+      iw.addDocument(doc);
+      if (i == numDocs / 2) {
+        iw.commit();
+      }
+    }
+    DirectoryReader ir = DirectoryReader.open(iw);
+    iw.close();
+    assertEquals(2, ir.leaves().size());
+
+    final String[] expected = new String[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      expected[i] = ir.document(i).get("text");
+    }
+
+    final long maxRamBytesUsed = TestUtil.nextInt(random(), 1, 1 << 20);
+    StoredFieldsChunkCache cache = new StoredFieldsChunkCache(maxRamBytesUsed);
+    for (LeafReaderContext context : ir.leaves()) {
+      assertNull(StoredFieldsChunkCache.get(context.reader()));
+      assertTrue(cache.enable(context.reader()));
+      assertSame(cache, StoredFieldsChunkCache.get(context.reader()));
+    }
+    for (int iter = 0; iter < 2; iter++) {
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = ir.document(i);
+        assertEquals(i, doc.getField("id").numericValue().intValue());
+        assertEquals(expected[i], doc.get("text"));
+      }
+    }
+    // the budget applies to all segments together
+    assertTrue(cache.ramBytesUsed() - RamUsageEstimator.shallowSizeOf(cache) <= maxRamBytesUsed);
+
+    // consecutive documents of the same chunk are only decompressed once
+    cache.setMaxRamBytesUsed(1 << 20);
+    cache.clear();
+    final long hitCount = cache.getHitCount();
+    final long missCount = cache.getMissCount();
+    for (int i = 0; i < numDocs; i++) {
+      assertEquals(expected[i], ir.document(i).get("text"));
+    }
+    assertTrue(cache.getHitCount() > hitCount);
+    assertEquals(numDocs, cache.getHitCount() - hitCount + cache.getMissCount() - missCount);
+
+    // closing segments releases their chunks
+    assertTrue(cache.getChunkCount() > 0);
+    ir.close();
+    assertEquals(0, cache.getChunkCount());
+    assertEquals(RamUsageEstimator.shallowSizeOf(cache), cache.ramBytesUsed());
+    dir.close();
+  }
+
+  public void testPrefetchDocument() throws IOException {
+    final List<long[]> prefetched = new ArrayList<>();
+    Directory dir = new FilterDirectory(newDirectory()) {
+      @Override
+      public IndexInput openInput(String name, IOContext context) throws IOException {
+        final IndexInput in = super.openInput(name, context);
+        if (name.endsWith("." + CompressingStoredFieldsWriter.FIELDS_EXTENSION)) {
+          return new PrefetchRecordingIndexInput(in, prefetched);
+        }
+        return in;
+      }
+    };
+    IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwConf.setCodec(CompressingCodec.randomInstance(random(), 1024, 16, false, 8));
+    // hints must reach the stored fields file, not a compound file
+    iwConf.setUseCompoundFile(false);
+    iwConf.setMergePolicy(newLogMergePolicy(false));
+    IndexWriter iw = new IndexWriter(dir, iwConf);
+    final int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StoredField("text", TestUtil.randomSimpleString(random(), 100)));
+      iw.addDocument(doc);
+    }
+    iw.forceMerge(1);
+    iw.close();
+
+    DirectoryReader ir = DirectoryReader.open(dir);
+    CodecReader sr = (CodecReader) getOnlyLeafReader(ir);
+    CompressingStoredFieldsReader reader = (CompressingStoredFieldsReader) sr.getFieldsReader();
+    for (int iter = 0; iter < 10; iter++) {
+      final int docID = random().nextInt(numDocs);
+      // reading the document that follows makes sure that docID's chunk is not loaded
+      ir.document((docID + 16) % numDocs);
+      prefetched.clear();
+      ir.prefetchDocument(docID);
+      assertEquals(1, prefetched.size());
+      final long startPointer = reader.getIndexReader().getStartPointer(docID);
+      assertEquals(startPointer, prefetched.get(0)[0]);
+      assertEquals(Math.min(reader.getChunkSize(), reader.getMaxPointer() - startPointer), prefetched.get(0)[1]);
+
+      // no need to hint the chunk that is already loaded
+      ir.document(docID);
+      prefetched.clear();
+      ir.prefetchDocument(docID);
+      assertEquals(0, prefetched.size());
+    }
+    ir.close();
+    dir.close();
+  }
+
+  // Records the ranges of prefetch hints, shared by all clones and slices
+  private static class PrefetchRecordingIndexInput extends IndexInput {
+    private final IndexInput input;
+    private final List<long[]> prefetched;
+
+    PrefetchRecordingIndexInput(IndexInput input, List<long[]> prefetched) {
+      super("PrefetchRecordingIndexInput(" + input + ")");
+      this.input = input;
+      this.prefetched = prefetched;
+    }
+
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      prefetched.add(new long[] { offset, length });
+      input.prefetch(offset, length);
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      return input.readByte();
+    }
+
+    @Override
+    public void readBytes(byte[] b, int offset, int len) throws IOException {
+      input.readBytes(b, offset, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+
+    @Override
+    public long getFilePointer() {
+      return input.getFilePointer();
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      input.seek(pos);
+    }
+
+    @Override
+    public long length() {
+      return input.length();
+    }
+
+    @Override
+    public PrefetchRecordingIndexInput clone() {
+      return new PrefetchRecordingIndexInput(input.clone(), prefetched);
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
+      return new PrefetchRecordingIndexInput(input.slice(sliceDescription, offset, length), prefetched);
+    }
+  }
 }
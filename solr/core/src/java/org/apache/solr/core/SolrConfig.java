@@ -249,6 +249,7 @@ public class SolrConfig extends Config implements MapSerializable {
     queryResultWindowSize = Math.max(1, getInt("query/queryResultWindowSize", 1));
     queryResultMaxDocsCached = getInt("query/queryResultMaxDocsCached", Integer.MAX_VALUE);
     enableLazyFieldLoading = getBool("query/enableLazyFieldLoading", false);
+    storedFieldsChunkCacheSizeKB = Math.max(0, getInt("query/storedFieldsChunkCacheSizeKB", 0));
     
     useRangeVersionsForPeerSync = getBool("peerSync/useRangeVersions", true);
 
@@ -489,6 +490,7 @@ public class SolrConfig extends Config implements MapSerializable {
   public final int queryResultWindowSize;
   public final int queryResultMaxDocsCached;
   public final boolean enableLazyFieldLoading;
+  public final int storedFieldsChunkCacheSizeKB; // shared by all segments of a core
   
   public final boolean useRangeVersionsForPeerSync;
   
@@ -855,6 +857,7 @@ public class SolrConfig extends Config implements MapSerializable {
     m.put("queryResultWindowSize", queryResultWindowSize);
     m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
     m.put("enableLazyFieldLoading", enableLazyFieldLoading);
+    m.put("storedFieldsChunkCacheSizeKB", storedFieldsChunkCacheSizeKB);
     m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
     if (jmxConfig != null) result.put("jmx", jmxConfig);
     for (SolrPluginInfo plugin : plugins) {
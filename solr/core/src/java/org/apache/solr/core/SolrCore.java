@@ -61,6 +61,7 @@ import com.google.common.collect.MapMaker;
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.analysis.util.ResourceLoader;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.compressing.StoredFieldsChunkCache;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexDeletionPolicy;
 import org.apache.lucene.index.IndexWriter;
@@ -221,6 +222,9 @@ public final class SolrCore implements SolrInfoMBean, Closeable {
 
   private final Map<Object, IndexFingerprint> perSegmentFingerprintCache = new MapMaker().weakKeys().makeMap();
 
+  // decompressed chunks of stored fields, shared by all segments of this core so that they fit in a single budget
+  private final StoredFieldsChunkCache storedFieldsChunkCache;
+
   public long getStartNanoTime() {
     return startNanoTime;
   }
@@ -272,6 +276,15 @@ public final class SolrCore implements SolrInfoMBean, Closeable {
     return solrConfig;
   }
 
+  /**
+   * Gets the cache of decompressed chunks of stored fields that all segments
+   * of this core share, or null if it is disabled.
+   * @see SolrConfig#storedFieldsChunkCacheSizeKB
+   */
+  public StoredFieldsChunkCache getStoredFieldsChunkCache() {
+    return storedFieldsChunkCache;
+  }
+
   /**
    * Gets the schema resource name used by this core instance.
    * @since solr 1.3
@@ -890,6 +903,8 @@ public final class SolrCore implements SolrInfoMBean, Closeable {
 
     this.maxWarmingSearchers = config.maxWarmingSearchers;
     this.slowQueryThresholdMillis = config.slowQueryThresholdMillis;
+    this.storedFieldsChunkCache = config.storedFieldsChunkCacheSizeKB > 0
+        ? new StoredFieldsChunkCache(config.storedFieldsChunkCacheSizeKB * 1024L) : null;
 
     booleanQueryMaxClauseCount();
 
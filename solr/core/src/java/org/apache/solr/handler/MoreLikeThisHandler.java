@@ -36,6 +36,7 @@ import org.apache.lucene.queries.mlt.MoreLikeThis;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.apache.solr.common.SolrException;
@@ -271,7 +272,7 @@ public class MoreLikeThisHandler extends RequestHandlerBase
             rsp.add("exception_during_debug", SolrException.toStr(e));
           }
         }
-      } catch (ExitableDirectoryReader.ExitingReaderException ex) {
+      } catch (ExitableDirectoryReader.ExitingReaderException | IndexSearcher.ExitingSearchException ex) {
         log.warn( "Query: " + req.getParamString() + "; " + ex.getMessage());
       } finally {
         SolrQueryTimeoutImpl.reset();
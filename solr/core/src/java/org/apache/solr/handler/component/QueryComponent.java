@@ -394,12 +394,22 @@ public class QueryComponent extends SearchComponent
       result.setSegmentTerminatedEarly(Boolean.FALSE);
     }
 
+    cmd.setMinExactCount(params.getInt(CommonParams.MIN_EXACT_COUNT, Integer.MAX_VALUE));
+    if (cmd.getMinExactCount() < 0) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, CommonParams.MIN_EXACT_COUNT + " must be >= 0");
+    }
+    if (cmd.getMinExactCount() != Integer.MAX_VALUE) {
+      result.setNumFoundExact(Boolean.TRUE);
+    }
+
     //
     // grouping / field collapsing
     //
     GroupingSpecification groupingSpec = rb.getGroupingSpec();
     if (groupingSpec != null) {
       cmd.setSegmentTerminateEarly(false); // not supported, silently ignore any segmentTerminateEarly flag
+      cmd.setMinExactCount(Integer.MAX_VALUE); // not supported, groups need exact counts
+      result.setNumFoundExact(null);
       try {
         boolean needScores = (cmd.getFlags() & SolrIndexSearcher.GET_SCORES) != 0;
         if (params.getBool(GroupParams.GROUP_DISTRIBUTED_FIRST, false)) {
@@ -456,6 +456,10 @@ public class ResponseBuilder
     if (segmentTerminatedEarly != null) {
       rsp.getResponseHeader().add(SolrQueryResponse.RESPONSE_HEADER_SEGMENT_TERMINATED_EARLY_KEY, segmentTerminatedEarly);
     }
+    final Boolean numFoundExact = result.getNumFoundExact();
+    if (numFoundExact != null) {
+      rsp.getResponseHeader().add(SolrQueryResponse.RESPONSE_HEADER_NUM_FOUND_EXACT_KEY, numFoundExact);
+    }
     if (null != cursorMark) {
       assert null != result.getNextCursorMark() : "using cursor but no next cursor set";
       this.setNextCursorMark(result.getNextCursorMark());
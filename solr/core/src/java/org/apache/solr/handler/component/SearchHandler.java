@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.lucene.index.ExitableDirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.cloud.ZkController;
 import org.apache.solr.common.SolrDocumentList;
@@ -309,7 +310,7 @@ public class SearchHandler extends RequestHandlerBase implements SolrCoreAware ,
             rb.addDebugInfo("timing", timer.asNamedList() );
           }
         }
-      } catch (ExitableDirectoryReader.ExitingReaderException ex) {
+      } catch (ExitableDirectoryReader.ExitingReaderException | IndexSearcher.ExitingSearchException ex) {
         log.warn( "Query: " + req.getParamString() + "; " + ex.getMessage());
         SolrDocumentList r = (SolrDocumentList) rb.rsp.getResponse();
         if(r == null)
@@ -111,6 +111,14 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     }
 
     if (transformer != null) transformer.setContext(rctx);
+
+    if (!onlyPseudoFields) {
+      try {
+        rctx.getSearcher().prefetchDocs(docs);
+      } catch (IOException e) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Error prefetching documents", e);
+      }
+    }
   }
 
 
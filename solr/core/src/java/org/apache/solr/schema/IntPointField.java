@@ -143,6 +143,10 @@ public class IntPointField extends PointField implements IntValueFieldType {
     }
     SortField sf = new SortField(field.getName(), SortField.Type.INT, top);
     sf.setMissingValue(missingValue);
+    if (field.indexed() && field.multiValued() == false) {
+      // points hold the same single value per doc, use them to skip non-competitive docs
+      sf.setCanUsePoints();
+    }
     return sf;
   }
 
@@ -143,6 +143,10 @@ public class LongPointField extends PointField implements LongValueFieldType {
     }
     SortField sf = new SortField(field.getName(), SortField.Type.LONG, top);
     sf.setMissingValue(missingValue);
+    if (field.indexed() && field.multiValued() == false) {
+      // points hold the same single value per doc, use them to skip non-competitive docs
+      sf.setCanUsePoints();
+    }
     return sf;
   }
 
@@ -147,7 +147,7 @@ public class DocSetUtil {
     int maxDoc = searcher.getIndexReader().maxDoc();
     DocSetCollector collector = new DocSetCollector(maxDoc);
 
-    // This may throw an ExitableDirectoryReader.ExitingReaderException
+    // This may throw an ExitableDirectoryReader.ExitingReaderException or an IndexSearcher.ExitingSearchException
     // but we should not catch it here, as we don't know how this DocSet will be used (it could be negated before use) or cached.
     searcher.search(query, collector);
 
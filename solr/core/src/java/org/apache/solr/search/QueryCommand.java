@@ -37,6 +37,7 @@ public class QueryCommand {
   private int supersetMaxDoc;
   private int flags;
   private long timeAllowed = -1;
+  private int minExactCount = Integer.MAX_VALUE;
   private CursorMark cursorMark;
   
   public CursorMark getCursorMark() {
@@ -207,6 +208,19 @@ public class QueryCommand {
     }
   }
 
+  public int getMinExactCount() {
+    return minExactCount;
+  }
+
+  /**
+   * Sets the number of hits up to which the hit count must be exact. Past this
+   * number, the hit count may be a lower bound, see {@link QueryResult#getNumFoundExact()}.
+   */
+  public QueryCommand setMinExactCount(int minExactCount) {
+    this.minExactCount = minExactCount;
+    return this;
+  }
+
   public boolean getSegmentTerminateEarly() {
     return (flags & SolrIndexSearcher.SEGMENT_TERMINATE_EARLY) != 0;
   }
@@ -39,6 +39,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.lucene.codecs.compressing.StoredFieldsChunkCache;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.DocumentStoredFieldVisitor;
 import org.apache.lucene.document.LazyDocument;
@@ -182,6 +183,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private boolean releaseDirectory;
 
   private final NamedList<Object> readerStats;
+  private final StoredFieldsChunkCache storedFieldsChunkCache;
 
   private static DirectoryReader getReader(SolrCore core, SolrIndexConfig config, DirectoryFactory directoryFactory,
       String path) throws IOException {
@@ -242,7 +244,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     try {
       super.search(query, collector);
-    } catch (TimeLimitingCollector.TimeExceededException | ExitableDirectoryReader.ExitingReaderException x) {
+    } catch (TimeLimitingCollector.TimeExceededException | ExitableDirectoryReader.ExitingReaderException
+        | ExitingSearchException x) {
       log.warn("Query: [{}]; {}", query, x.getMessage());
       qr.setPartialResults(true);
     } catch (EarlyTerminatingCollectorException etce) {
@@ -299,6 +302,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     this.closeReader = closeReader;
     setSimilarity(schema.getSimilarity());
+    // timeAllowed is also checked while scoring, not only while enumerating terms.
+    // The deadline is thread-local, which works because this searcher has no
+    // executor and scores all segments on the request thread.
+    setQueryTimeout(SolrQueryTimeoutImpl.getInstance());
 
     final SolrConfig solrConfig = core.getSolrConfig();
     this.queryResultWindowSize = solrConfig.queryResultWindowSize;
@@ -368,6 +375,15 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     // We already have our own filter cache
     setQueryCache(null);
 
+    // Decompressed chunks of stored fields of all segments share a single
+    // cache per core, so that they fit in the configured budget
+    this.storedFieldsChunkCache = core.getStoredFieldsChunkCache();
+    if (storedFieldsChunkCache != null) {
+      for (LeafReaderContext leaf : leafContexts) {
+        storedFieldsChunkCache.enable(leaf.reader());
+      }
+    }
+
     readerStats = snapStatistics(reader);
     // do this at the end since an exception in the constructor means we won't close
     numOpens.incrementAndGet();
@@ -906,6 +922,19 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     }
   }
 
+  /**
+   * Hints the index that the stored fields of the given docs will be loaded soon, so that the chunks that hold them
+   * may be fetched in the background while the documents are loaded one after the other.
+   *
+   * @see IndexReader#prefetchDocument(int)
+   */
+  public void prefetchDocs(DocList ids) throws IOException {
+    final DirectoryReader reader = getIndexReader();
+    for (DocIterator iter = ids.iterator(); iter.hasNext();) {
+      reader.prefetchDocument(iter.nextDoc());
+    }
+  }
+
   /**
    * Takes a list of docs (the doc ids actually), and reads them into an array of Documents.
    */
@@ -917,6 +946,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    * Takes a list of docs (the doc ids actually) and a set of fields to load, and reads them into an array of Documents.
    */
   public void readDocs(Document[] docs, DocList ids, Set<String> fields) throws IOException {
+    prefetchDocs(ids);
     final DocIterator iter = ids.iterator();
     for (int i = 0; i < docs.length; i++) {
       docs[i] = doc(iter.nextDoc(), fields);
@@ -1750,7 +1780,9 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     // lastly, put the superset in the cache if the size is less than or equal
     // to queryResultMaxDocsCached
-    if (key != null && superset.size() <= queryResultMaxDocsCached && !qr.isPartialResults()) {
+    // don't cache lower bounds of the hit count, other requests might need exact counts
+    if (key != null && superset.size() <= queryResultMaxDocsCached && !qr.isPartialResults()
+        && !Boolean.FALSE.equals(qr.getNumFoundExact())) {
       queryResultCache.put(key, superset);
     }
   }
@@ -1817,7 +1849,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     if (null == cmd.getSort()) {
       assert null == cmd.getCursorMark() : "have cursor but no sort";
-      return TopScoreDocCollector.create(len);
+      return TopScoreDocCollector.create(len, null, cmd.getMinExactCount());
     } else {
       // we have a sort
       final boolean needScores = (cmd.getFlags() & GET_SCORES) != 0;
@@ -1828,7 +1860,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       // ... see comments in populateNextCursorMarkFromTopDocs for cache issues (SOLR-5595)
       final boolean fillFields = (null != cursor);
       final FieldDoc searchAfter = (null != cursor ? cursor.getSearchAfterFieldDoc() : null);
-      return TopFieldCollector.create(weightedSort, len, searchAfter, fillFields, needScores, needScores);
+      return TopFieldCollector.create(weightedSort, len, searchAfter, fillFields, needScores, needScores, cmd.getMinExactCount());
     }
   }
 
@@ -1911,6 +1943,14 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       totalHits = topCollector.getTotalHits();
       TopDocs topDocs = topCollector.topDocs(0, len);
       populateNextCursorMarkFromTopDocs(qr, cmd, topDocs);
+      if (topCollector.getTotalHitsRelation() == TopDocs.TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO) {
+        qr.setNumFoundExact(Boolean.FALSE);
+      }
+      if (cmd.getSegmentTerminateEarly() && topCollector instanceof TopFieldCollector
+          && ((TopFieldCollector) topCollector).isEarlyTerminated()) {
+        // the collector stopped collecting sorted segments on its own
+        qr.setSegmentTerminatedEarly(Boolean.TRUE);
+      }
 
       maxScore = totalHits > 0 ? topDocs.getMaxScore() : 0.0f;
       nDocsReturned = topDocs.scoreDocs.length;
@@ -2579,6 +2619,12 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
     lst.addAll(readerStats);
 
+    if (storedFieldsChunkCache != null) {
+      lst.add("storedFieldsChunkCacheHits", storedFieldsChunkCache.getHitCount());
+      lst.add("storedFieldsChunkCacheMisses", storedFieldsChunkCache.getMissCount());
+      lst.add("storedFieldsChunkCacheRamBytesUsed", storedFieldsChunkCache.ramBytesUsed());
+    }
+
     lst.add("openedAt", openTime);
     if (registerTime != null) lst.add("registeredAt", registerTime);
     lst.add("warmupTime", warmupTime);
@@ -26,6 +26,9 @@ import org.apache.lucene.index.QueryTimeout;
  * Implementation of {@link QueryTimeout} that is used by Solr. 
  * It uses a ThreadLocal variable to track the timeoutAt value
  * for each request thread.
+ * <p><b>NOTE:</b> The deadline is only visible to the request thread, so this
+ * timeout only works with searchers that have no executor: threads of an
+ * executor never see a deadline and never time out.
  */
 public class SolrQueryTimeoutImpl implements QueryTimeout {
   /**
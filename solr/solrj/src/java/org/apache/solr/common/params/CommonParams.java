@@ -160,6 +160,13 @@ public interface CommonParams {
   String SEGMENT_TERMINATE_EARLY = "segmentTerminateEarly";
   boolean SEGMENT_TERMINATE_EARLY_DEFAULT = false;
 
+  /**
+   * Number of hits up to which the total hit count must be exact. Past this
+   * number, the hit count may be a lower bound, which allows the search to
+   * skip hits that cannot make it to the top documents.
+   */
+  String MIN_EXACT_COUNT = "minExactCount";
+
   /**
    * Timeout value in milliseconds.  If not set, or the value is &gt;= 0, there is no timeout.
    */